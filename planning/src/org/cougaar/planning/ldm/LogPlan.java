@@ -26,11 +26,16 @@
 
 package org.cougaar.planning.ldm;
 
+import java.util.Collection;
+
 import org.cougaar.core.domain.XPlan;
+import org.cougaar.core.mts.MessageAddress;
 import org.cougaar.core.util.UID;
 import org.cougaar.planning.ldm.asset.Asset;
 import org.cougaar.planning.ldm.plan.PlanElement;
 import org.cougaar.planning.ldm.plan.Task;
+import org.cougaar.planning.ldm.plan.Verb;
+import org.cougaar.util.UnaryPredicate;
 
 /**
  * Planning-specify view of the blackboard.
@@ -67,6 +72,57 @@ extends XPlan
    **/
   Asset findAsset(String id);
 
+  /** Names of the standard secondary indexes **/
+  String TASKS_BY_VERB = "TasksByVerb";
+  String TASKS_BY_PARENT = "TasksByParent";
+  String TASKS_BY_DIRECT_OBJECT = "TasksByDirectObject";
+  String TASKS_BY_SOURCE = "TasksBySource";
+  String PLAN_ELEMENTS_BY_ASSET = "PlanElementsByAsset";
+  String ALLOCATIONS_BY_AGENT = "AllocationsByAgent";
+  String ASSET_TRANSFERS_BY_ASSIGNEE = "AssetTransfersByAssignee";
+  String ASSETS_BY_AGENT = "AssetsByAgent";
+
+  /*
+   * The verb, parent, direct object and plan element asset lookups use
+   * indexes only if org.cougaar.planning.ldm.LogPlan.queryIndexes is
+   * true, and otherwise scan the LogPlan.
+   */
+
+  /** find the Tasks in the LogPlan having the given verb **/
+  Collection findTasks(Verb verb);
+
+  /** find the Tasks in the LogPlan whose parent task has the given UID **/
+  Collection findTasksByParentUID(UID parentUID);
+
+  /** find the Tasks in the LogPlan whose direct object is the given Asset **/
+  Collection findTasksByDirectObject(Asset asset);
+
+  /** find the Tasks in the LogPlan that were sent by the given agent **/
+  Collection findTasksBySource(MessageAddress source);
+
+  /** find the Allocations and AssetTransfers of the given Asset **/
+  Collection findPlanElementsByAsset(Asset asset);
+
+  /** find the Allocations to the organization Asset of an agent **/
+  Collection findAllocationsToAgent(MessageAddress agent);
+
+  /** find the AssetTransfers whose assignee is the Asset of an agent **/
+  Collection findAssetTransfersToAgent(MessageAddress agent);
+
+  /** find the Assets whose ClusterPG names the given agent **/
+  Collection findAssetsOfAgent(MessageAddress agent);
+
+  /**
+   * Add a secondary index of the LogPlan objects matching a
+   * predicate. The index is maintained as matching objects are added,
+   * changed and removed and may be retrieved with getIndex(name). 
+   * @return false if an index of that name already exists.
+   **/
+  boolean addIndex(String name, UnaryPredicate predicate, LogPlanIndex index);
+
+  /** @return the named secondary index or null if there is none **/
+  LogPlanIndex getIndex(String name);
+
   // Necessary for metrics count updates
   void incAssetCount(int inc);
   void incPlanElementCount(int inc);
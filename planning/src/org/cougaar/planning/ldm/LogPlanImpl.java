@@ -26,17 +26,29 @@
 
 package org.cougaar.planning.ldm;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
 import org.cougaar.core.blackboard.Blackboard;
 import org.cougaar.core.blackboard.CollectionSubscription;
 import org.cougaar.core.blackboard.UniqueObjectSet;
 import org.cougaar.core.domain.XPlan;
+import org.cougaar.core.mts.MessageAddress;
 import org.cougaar.core.util.UID;
 import org.cougaar.planning.ldm.asset.Asset;
 import org.cougaar.planning.ldm.asset.AssetSet;
+import org.cougaar.planning.ldm.asset.ClusterPG;
+import org.cougaar.planning.ldm.plan.Allocation;
+import org.cougaar.planning.ldm.plan.AssetTransfer;
 import org.cougaar.planning.ldm.plan.PlanElement;
 import org.cougaar.planning.ldm.plan.PlanElementSet;
 import org.cougaar.planning.ldm.plan.Task;
+import org.cougaar.planning.ldm.plan.Verb;
 import org.cougaar.planning.ldm.plan.Workflow;
+import org.cougaar.util.PropertyParser;
 import org.cougaar.util.UnaryPredicate;
 
 /**
@@ -47,6 +59,16 @@ implements LogPlan, XPlan
 {
   private Blackboard blackboard;
 
+  /**
+   * Maintain the task verb, parent and direct object indexes and the
+   * plan element asset index.  Off by default since they cost memory
+   * and time on every add, change and remove; without them the
+   * corresponding find methods scan the LogPlan.  The agent-keyed
+   * restart indexes are always maintained.
+   **/
+  private static final boolean QUERY_INDEXES =
+    PropertyParser.getBoolean("org.cougaar.planning.ldm.LogPlan.queryIndexes", false);
+
   private static final UnaryPredicate planElementP = new PlanElementPredicate();
   private static class PlanElementPredicate implements UnaryPredicate {
     public boolean execute(Object o) {
@@ -83,6 +105,109 @@ implements LogPlan, XPlan
   AssetSet assetSet = new AssetSet();
   private CollectionSubscription assetCollection;
 
+  /** is this an Allocation or AssetTransfer? **/
+  private static final UnaryPredicate assetPlanElementP = new AssetPlanElementPredicate();
+  private static class AssetPlanElementPredicate implements UnaryPredicate {
+    public boolean execute(Object o) {
+      return (o instanceof Allocation || o instanceof AssetTransfer);
+    }
+  }
+
+  private static class TaskVerbIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      return ((Task) o).getVerb();
+    }
+  }
+
+  private static class TaskParentIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      return ((Task) o).getParentTaskUID();
+    }
+  }
+
+  private static class TaskDirectObjectIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      return getAssetKey(((Task) o).getDirectObject());
+    }
+  }
+
+  private static class TaskSourceIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      return getAddressKey(((Task) o).getSource());
+    }
+  }
+
+  private static class PlanElementAssetIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      if (o instanceof Allocation) {
+        return getAssetKey(((Allocation) o).getAsset());
+      }
+      if (o instanceof AssetTransfer) {
+        return getAssetKey(((AssetTransfer) o).getAsset());
+      }
+      return null;
+    }
+  }
+
+  /*
+   * The following are keyed by the agent of an organization asset.
+   * These are used in restart reconciliation to find the objects
+   * shared with a restarted agent.
+   */
+
+  private static class AllocationAgentIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      return getAgentKey(((Allocation) o).getAsset());
+    }
+  }
+
+  private static class AssetTransferAssigneeIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      return getAgentKey(((AssetTransfer) o).getAssignee());
+    }
+  }
+
+  private static class AssetAgentIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      return getAgentKey((Asset) o);
+    }
+  }
+
+  private static final UnaryPredicate allocationP = new AllocationPredicate();
+  private static class AllocationPredicate implements UnaryPredicate {
+    public boolean execute(Object o) {
+      return (o instanceof Allocation);
+    }
+  }
+
+  private static final UnaryPredicate assetTransferP = new AssetTransferPredicate();
+  private static class AssetTransferPredicate implements UnaryPredicate {
+    public boolean execute(Object o) {
+      return (o instanceof AssetTransfer);
+    }
+  }
+
+  private static Object getAgentKey(Asset asset) {
+    if (asset == null) return null;
+    ClusterPG cpg = asset.getClusterPG();
+    if (cpg == null) return null;
+    return getAddressKey(cpg.getMessageAddress());
+  }
+
+  private static Object getAssetKey(Asset asset) {
+    return (asset == null ? null : asset.getUID());
+  }
+
+  private static Object getAddressKey(MessageAddress addr) {
+    return (addr == null ? null : addr.getPrimary());
+  }
+
+  /** Secondary indexes by name **/
+  private Map indexes = new HashMap();
+
+  /** Subscriptions for indexes added before setupSubscriptions **/
+  private Map pendingIndexes = new HashMap();
+
   public void setupSubscriptions(Blackboard blackboard) {
     this.blackboard = blackboard;
     planElementCollection = new CollectionSubscription(planElementP, planElementSet);
@@ -93,6 +218,106 @@ implements LogPlan, XPlan
 
     assetCollection = new CollectionSubscription(assetP, assetSet);
     blackboard.subscribe(assetCollection);
+
+    if (QUERY_INDEXES) {
+      addIndex(TASKS_BY_VERB, taskP, new TaskVerbIndex());
+      addIndex(TASKS_BY_PARENT, taskP, new TaskParentIndex());
+      addIndex(TASKS_BY_DIRECT_OBJECT, taskP, new TaskDirectObjectIndex());
+      addIndex(PLAN_ELEMENTS_BY_ASSET, assetPlanElementP, new PlanElementAssetIndex());
+    }
+    addIndex(TASKS_BY_SOURCE, taskP, new TaskSourceIndex());
+    addIndex(ALLOCATIONS_BY_AGENT, allocationP, new AllocationAgentIndex());
+    addIndex(ASSET_TRANSFERS_BY_ASSIGNEE, assetTransferP, new AssetTransferAssigneeIndex());
+    addIndex(ASSETS_BY_AGENT, assetP, new AssetAgentIndex());
+
+    for (Iterator i = pendingIndexes.values().iterator(); i.hasNext(); ) {
+      blackboard.subscribe((CollectionSubscription) i.next());
+    }
+    pendingIndexes.clear();
+  }
+
+  public synchronized boolean addIndex(String name, UnaryPredicate predicate, LogPlanIndex index) {
+    if (indexes.containsKey(name)) return false;
+    indexes.put(name, index);
+    CollectionSubscription cs = index.newSubscription(predicate);
+    if (blackboard == null) {
+      pendingIndexes.put(name, cs);
+    } else {
+      blackboard.subscribe(cs);
+    }
+    return true;
+  }
+
+  public synchronized LogPlanIndex getIndex(String name) {
+    return (LogPlanIndex) indexes.get(name);
+  }
+
+  private Collection findIndexed(String name, Object key) {
+    LogPlanIndex index = getIndex(name);
+    if (index == null) {
+      throw new IllegalStateException("LogPlan index " + name + " is not available");
+    }
+    return index.find(key);
+  }
+
+  /**
+   * Find through the named index if it is maintained, otherwise by
+   * scanning the given objects with the index's key function.
+   **/
+  private Collection findIndexedOrScan(String name, LogPlanIndex keyer,
+                                       Collection all, Object key) {
+    LogPlanIndex index = getIndex(name);
+    if (index != null) {
+      return index.find(key);
+    }
+    Collection result = new ArrayList();
+    if (key == null) return result;
+    for (Iterator i = all.iterator(); i.hasNext(); ) {
+      Object o = i.next();
+      if (key.equals(keyer.getKey(o))) {
+        result.add(o);
+      }
+    }
+    return result;
+  }
+
+  private static final LogPlanIndex taskVerbKeyer = new TaskVerbIndex();
+  private static final LogPlanIndex taskParentKeyer = new TaskParentIndex();
+  private static final LogPlanIndex taskDirectObjectKeyer = new TaskDirectObjectIndex();
+  private static final LogPlanIndex planElementAssetKeyer = new PlanElementAssetIndex();
+
+  public Collection findTasks(Verb verb) {
+    return findIndexedOrScan(TASKS_BY_VERB, taskVerbKeyer, taskSet, verb);
+  }
+
+  public Collection findTasksByParentUID(UID parentUID) {
+    return findIndexedOrScan(TASKS_BY_PARENT, taskParentKeyer, taskSet, parentUID);
+  }
+
+  public Collection findTasksByDirectObject(Asset asset) {
+    return findIndexedOrScan(TASKS_BY_DIRECT_OBJECT, taskDirectObjectKeyer,
+                             taskSet, getAssetKey(asset));
+  }
+
+  public Collection findTasksBySource(MessageAddress source) {
+    return findIndexed(TASKS_BY_SOURCE, getAddressKey(source));
+  }
+
+  public Collection findPlanElementsByAsset(Asset asset) {
+    return findIndexedOrScan(PLAN_ELEMENTS_BY_ASSET, planElementAssetKeyer,
+                             planElementSet, getAssetKey(asset));
+  }
+
+  public Collection findAllocationsToAgent(MessageAddress agent) {
+    return findIndexed(ALLOCATIONS_BY_AGENT, getAddressKey(agent));
+  }
+
+  public Collection findAssetTransfersToAgent(MessageAddress agent) {
+    return findIndexed(ASSET_TRANSFERS_BY_ASSIGNEE, getAddressKey(agent));
+  }
+
+  public Collection findAssetsOfAgent(MessageAddress agent) {
+    return findIndexed(ASSETS_BY_AGENT, getAddressKey(agent));
   }
 
   public PlanElement findPlanElement(Task task) {
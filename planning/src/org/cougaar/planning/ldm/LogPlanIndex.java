@@ -0,0 +1,271 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cougaar.core.blackboard.CollectionSubscription;
+import org.cougaar.util.UnaryPredicate;
+
+/**
+ * A secondary index over LogPlan objects. Like KeyedSet it is a
+ * Collection suitable for use as the backing store of a
+ * CollectionSubscription, but it associates each key with all the
+ * objects having that key rather than just one.
+ * <p>
+ * Subclasses define getKey(). As in KeyedSet, an object is found by
+ * its current key, so nothing but the key -> objects map is kept.
+ * update() files a changed object under its new key; the entry
+ * under its old key is then stale, and is dropped the next time that
+ * key is looked up. Stale entries are never returned. Back the index
+ * with the subscription from newSubscription() to have changes
+ * applied automatically. Objects with a null key are not indexed.
+ * <p>
+ * All access is synchronized so that the index may be read outside
+ * of the blackboard transaction which maintains it. Use lookup() or
+ * toList() from such threads; find() returns a live view.
+ **/
+public abstract class LogPlanIndex extends AbstractCollection {
+  /** Map from key to either a single object or a Set of objects **/
+  private Map inner = new HashMap();
+
+  /** @return the key of an object or null if it should not be indexed **/
+  protected abstract Object getKey(Object o);
+
+  public synchronized boolean add(Object o) {
+    Object key = getKey(o);
+    if (key == null || isFiled(key, o)) return false;
+    file(key, o);
+    return true;
+  }
+
+  public synchronized boolean remove(Object o) {
+    Object key = getKey(o);
+    if (key == null || !isFiled(key, o)) return false;
+    unfile(key, o);
+    return true;
+  }
+
+  /**
+   * File a changed object under its current key, if it isn't
+   * already. An indexed object whose key became null is dropped when
+   * its old key is next looked up.
+   * @return true if the index changed
+   **/
+  public synchronized boolean update(Object o) {
+    return add(o);
+  }
+
+  private boolean isFiled(Object key, Object o) {
+    Object v = inner.get(key);
+    if (v instanceof Bucket) return ((Bucket) v).contains(o);
+    return (v != null && v.equals(o));
+  }
+
+  private void file(Object key, Object o) {
+    Object v = inner.get(key);
+    if (v == null) {
+      inner.put(key, o);
+    } else if (v instanceof Bucket) {
+      ((Bucket) v).add(o);
+    } else {
+      Bucket bucket = new Bucket();
+      bucket.add(v);
+      bucket.add(o);
+      inner.put(key, bucket);
+    }
+  }
+
+  private void unfile(Object key, Object o) {
+    Object v = inner.get(key);
+    if (v instanceof Bucket) {
+      Bucket bucket = (Bucket) v;
+      bucket.remove(o);
+      if (bucket.size() == 1) {
+        inner.put(key, bucket.iterator().next());
+      }
+    } else if (v != null) {
+      inner.remove(key);
+    }
+  }
+
+  /** @return the entry for key, after dropping its stale objects **/
+  private Object purge(Object key) {
+    Object v = inner.get(key);
+    if (v instanceof Bucket) {
+      Bucket bucket = (Bucket) v;
+      for (Iterator i = bucket.iterator(); i.hasNext(); ) {
+        if (!key.equals(getKey(i.next()))) i.remove();
+      }
+      if (bucket.size() > 1) return bucket;
+      if (bucket.isEmpty()) {
+        inner.remove(key);
+        return null;
+      }
+      v = bucket.iterator().next();
+      inner.put(key, v);
+      return v;
+    } else if (v != null && !key.equals(getKey(v))) {
+      inner.remove(key);
+      return null;
+    }
+    return v;
+  }
+
+  public synchronized boolean contains(Object o) {
+    Object key = getKey(o);
+    return (key != null && isFiled(key, o));
+  }
+
+  public synchronized void clear() {
+    inner.clear();
+  }
+
+  /** Counts the objects, so takes time linear in their number **/
+  public synchronized int size() {
+    int n = 0;
+    for (Iterator i = inner.entrySet().iterator(); i.hasNext(); ) {
+      Map.Entry e = (Map.Entry) i.next();
+      Object key = e.getKey();
+      Object v = e.getValue();
+      if (v instanceof Bucket) {
+        for (Iterator j = ((Bucket) v).iterator(); j.hasNext(); ) {
+          if (key.equals(getKey(j.next()))) n++;
+        }
+      } else if (key.equals(getKey(v))) {
+        n++;
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Find all the objects having a given key.
+   * @return an unmodifiable live view, empty if there are none.
+   **/
+  public synchronized Collection find(Object key) {
+    if (key == null) return Collections.EMPTY_SET;
+    Object v = purge(key);
+    if (v == null) return Collections.EMPTY_SET;
+    if (v instanceof Bucket) return Collections.unmodifiableSet((Bucket) v);
+    return Collections.singleton(v);
+  }
+
+  /** @return a new List of the objects having a given key **/
+  public synchronized List lookup(Object key) {
+    return new ArrayList(find(key));
+  }
+
+  /** @return a new List of all the indexed objects **/
+  public synchronized List toList() {
+    List result = new ArrayList();
+    for (Iterator i = inner.entrySet().iterator(); i.hasNext(); ) {
+      Map.Entry e = (Map.Entry) i.next();
+      Object key = e.getKey();
+      Object v = e.getValue();
+      if (v instanceof Bucket) {
+        for (Iterator j = ((Bucket) v).iterator(); j.hasNext(); ) {
+          Object o = j.next();
+          if (key.equals(getKey(o))) result.add(o);
+        }
+      } else if (key.equals(getKey(v))) {
+        result.add(v);
+      }
+    }
+    return result;
+  }
+
+  /** @return the number of objects having a given key **/
+  public synchronized int count(Object key) {
+    if (key == null) return 0;
+    Object v = purge(key);
+    if (v == null) return 0;
+    if (v instanceof Bucket) return ((Bucket) v).size();
+    return 1;
+  }
+
+  /**
+   * @return a new Set of the keys in use, which may include keys
+   * whose objects have all changed key since. A copy, so that find()
+   * may be called while iterating over it.
+   **/
+  public synchronized Set keySet() {
+    return new HashSet(inner.keySet());
+  }
+
+  /** @return an iterator over a snapshot, see toList **/
+  public Iterator iterator() {
+    return Collections.unmodifiableList(toList()).iterator();
+  }
+
+  /**
+   * Copy the objects having any of the given keys into a new List.
+   **/
+  public synchronized Collection findAll(Collection keys) {
+    Collection result = new ArrayList();
+    for (Iterator i = keys.iterator(); i.hasNext(); ) {
+      result.addAll(find(i.next()));
+    }
+    return result;
+  }
+
+  /**
+   * Create a subscription which fills this index and re-files
+   * objects as they are changed.
+   **/
+  public CollectionSubscription newSubscription(UnaryPredicate predicate) {
+    return new IndexSubscription(predicate, this);
+  }
+
+  private static class IndexSubscription extends CollectionSubscription {
+    private final LogPlanIndex index;
+    IndexSubscription(UnaryPredicate predicate, LogPlanIndex index) {
+      super(predicate, index);
+      this.index = index;
+    }
+    protected void privateChange(Object o, List changes, boolean isVisible) {
+      super.privateChange(o, changes, isVisible);
+      index.update(o);
+    }
+  }
+
+  /** Distinguishes multi-valued entries from indexed objects **/
+  private static class Bucket extends HashSet {
+    Bucket() {
+      super(5);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cougaar.core.mts.MessageAddress;
+
+/**
+ * Registry of (agent -to- LogPlan) mapping, so that components
+ * without access to the blackboard's XPlans, such as servlets, can
+ * read the LogPlan's thread-safe secondary indexes.
+ * <p>
+ * Like LDMContextTable this is a stopgap until the LogPlan is
+ * offered as a service.
+ *
+ * @see org.cougaar.planning.ldm.PlanningDomain
+ * @see org.cougaar.planning.ldm.LogPlanIndex
+ */
+public final class LogPlanTable {
+
+  private static final Map table = new HashMap();
+
+  /** @see org.cougaar.planning.ldm.PlanningDomain */
+  static void setLogPlan(MessageAddress agentAddr, LogPlan logplan) {
+    synchronized (table) {
+      if (logplan == null) {
+        table.remove(agentAddr);
+      } else {
+        table.put(agentAddr, logplan);
+      }
+    }
+  }
+
+  /** @return the agent's LogPlan, or null if it has none */
+  public static LogPlan getLogPlan(MessageAddress agentAddr) {
+    synchronized (table) {
+      return (LogPlan) table.get(agentAddr);
+    }
+  }
+}
@@ -90,9 +90,11 @@ public class PlanningDomain extends DomainAdapter {
       LDMServesPlugin ldm = ldmService.getLDM();
       LDMContextTable.setLDM(self, ldm);
     }
+    LogPlanTable.setLogPlan(self, (LogPlan) getXPlan());
   }
 
   public void unload() {
+    LogPlanTable.setLogPlan(self, null);
     ServiceBroker sb = getServiceBroker();
     if (agentIdService != null) {
       sb.releaseService(this, AgentIdentificationService.class, agentIdService);
@@ -35,6 +35,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.lang.reflect.Modifier;
 
@@ -53,6 +54,91 @@ public abstract class AssetSkeletonBase
   
   protected boolean hasOtherTimePhasedProperties = false;
 
+  /** Lookup index over otherProperties, built by the first lookup
+   * after a change and dropped by any change to otherProperties.  An
+   * index is never modified once published, so readers need not take
+   * the asset's lock.
+   **/
+  private transient volatile LocalPGs localPGs = null;
+
+  /** PG class -> Integer slot number, shared by all assets.  Copied on
+   * write so that lookups can read it without locking.  Only classes
+   * of local PGs are given slots.
+   **/
+  private static volatile HashMap slotNumbers = new HashMap(89);
+  private static int slotCount = 0;
+
+  /** @return the slot number assigned to the specified PG class **/
+  private static int slotFor(Class pgc) {
+    Integer n = (Integer) slotNumbers.get(pgc);
+    if (n != null) {
+      return n.intValue();
+    }
+    synchronized (AssetSkeletonBase.class) {
+      n = (Integer) slotNumbers.get(pgc);
+      if (n == null) {
+        HashMap m = new HashMap(slotNumbers);
+        n = new Integer(slotCount++);
+        m.put(pgc, n);
+        slotNumbers = m;
+      }
+      return n.intValue();
+    }
+  }
+
+  /** An immutable snapshot of otherProperties for lookups **/
+  private static final class LocalPGs {
+    static final LocalPGs EMPTY =
+      new LocalPGs(new Object[0], new Class[0], new Object[0]);
+
+    /** each PG or PropertyGroupSchedule, in otherProperties order **/
+    final Object[] values;
+    /** the PrimaryClass of each PG, the PGClass of each schedule **/
+    final Class[] classes;
+    /** by the slot number of each of the classes, what a lookup of
+     * that class finds, so that the usual lookup, by the PG's own 
+     * class, needn't scan.  Only as long as the highest such slot.
+     **/
+    final Object[] bySlot;
+
+    LocalPGs(Object[] values, Class[] classes, Object[] bySlot) {
+      this.values = values;
+      this.classes = classes;
+      this.bySlot = bySlot;
+    }
+
+    /** @return what findLocalPGIndex or, for a time-phased class,
+     * findLocalPGScheduleIndex would find, or null.
+     **/
+    Object find(Class pgc) {
+      Integer n = (Integer) slotNumbers.get(pgc);
+      if (n != null) {
+        int slot = n.intValue();
+        if (slot < bySlot.length && bySlot[slot] != null) {
+          return bySlot[slot];
+        }
+      }
+      return scan(pgc);
+    }
+
+    /** find, the way findLocalPGIndex and findLocalPGScheduleIndex do **/
+    Object scan(Class pgc) {
+      boolean schedule = TimePhasedPropertyGroup.class.isAssignableFrom(pgc);
+      for (int i = 0; i < values.length; i++) {
+        if (schedule) {
+          if (values[i] instanceof PropertyGroupSchedule && pgc.equals(classes[i])) {
+            return values[i];
+          }
+        } else {
+          if (values[i] instanceof PropertyGroup && pgc.isAssignableFrom(classes[i])) {
+            return values[i];
+          }
+        }
+      }
+      return null;
+    }
+  }
+
   public boolean hasOtherTimePhasedProperties() {
     return hasOtherTimePhasedProperties;
   }
@@ -116,6 +202,7 @@ public abstract class AssetSkeletonBase
    *  PropertyGroupSchedules)
    **/
   protected synchronized void setOtherProperties(Collection newProps) {
+    localPGs = null;
     hasOtherTimePhasedProperties = false;
     if (newProps.isEmpty()) {
       otherProperties = null;
@@ -217,23 +304,13 @@ public abstract class AssetSkeletonBase
   /** return the PropertyGroupSchedule associated with the specified class.
    * @param c Class of the PropertyGroup to look for
    **/
-  public synchronized PropertyGroupSchedule searchForPropertyGroupSchedule(Class c) {
-    if (!hasOtherTimePhasedProperties) {
-      return null;    
-    }
-
+  public PropertyGroupSchedule searchForPropertyGroupSchedule(Class c) {
     // Use time phased method
     if (!TimePhasedPropertyGroup.class.isAssignableFrom(c)) {
       return null;
     }
 
-    int index = findLocalPGScheduleIndex(c);
-
-    if (index >= 0){ 
-      return (PropertyGroupSchedule) otherProperties.get(index);
-    } else {
-      return null;
-    }
+    return (PropertyGroupSchedule) findLocal(c);
   }
 
 
@@ -333,32 +410,81 @@ public abstract class AssetSkeletonBase
   /** return the value of the specified PG if it is 
    * already present in a slot.
    **/
-  protected synchronized PropertyGroup getLocalPG(Class pgc, long t) {
-    if (otherProperties == null) { 
-      return null;    
-    }
-
+  protected PropertyGroup getLocalPG(Class pgc, long t) {
     if (TimePhasedPropertyGroup.class.isAssignableFrom(pgc)) {
-      int index = findLocalPGScheduleIndex(pgc);
-      if (index >=0) {
-        PropertyGroupSchedule pgs = (PropertyGroupSchedule) otherProperties.get(index);
+      PropertyGroupSchedule pgs = (PropertyGroupSchedule) findLocal(pgc);
+      if (pgs == null) {
+        return null;
+      }
+      // schedules are modified in place under the asset's lock
+      synchronized (this) {
         if (t == UNSPECIFIED_TIME) {
           return pgs.getDefault();
         } else {
           return (PropertyGroup) pgs.intersects(t);
         }
-      } else {
-        return null;
       }
     } else {
-      int index = findLocalPGIndex(pgc);
+      return (PropertyGroup) findLocal(pgc);
+    }
+  }
 
-      if (index >= 0) {
-        return (PropertyGroup) otherProperties.get(index);
-      } else {
-        return null;
+  /** find the local PG (or PropertyGroupSchedule, for time-phased 
+   * classes) for the specified class, via the lookup index.
+   **/
+  private Object findLocal(Class pgc) {
+    LocalPGs l = localPGs;
+    if (l == null) {
+      l = buildLocalPGs();
+    }
+    return l.find(pgc);
+  }
+
+  /** build and publish the lookup index over otherProperties, in time
+   * linear in their number.
+   **/
+  private synchronized LocalPGs buildLocalPGs() {
+    LocalPGs l = localPGs;
+    if (l != null) {
+      return l;
+    }
+    int n = (otherProperties == null) ? 0 : otherProperties.size();
+    if (n == 0) {
+      l = LocalPGs.EMPTY;
+    } else {
+      Object[] values = otherProperties.toArray();
+      Class[] classes = new Class[n];
+      for (int i = 0; i < n; i++) {
+        Object o = values[i];
+        if (o instanceof PropertyGroupSchedule) {
+          classes[i] = ((PropertyGroupSchedule) o).getPGClass();
+        } else if (o instanceof PropertyGroup) {
+          if (Modifier.isAbstract(o.getClass().getModifiers())) {
+            throw new RuntimeException("properties["+i+"/"+n+"] is abstract: "+o.getClass() +
+              " asset was " + this);
+          }
+          classes[i] = ((PropertyGroup) o).getPrimaryClass();
+        } else {
+          throw new RuntimeException("Unable to handle object of Class: " + o.getClass() +
+            " in otherProperties list.");
+        }
+      }
+      LocalPGs unindexed = new LocalPGs(values, classes, new Object[0]);
+      int[] slots = new int[n];
+      int max = -1;
+      for (int i = 0; i < n; i++) {
+        slots[i] = slotFor(classes[i]);
+        max = Math.max(max, slots[i]);
       }
+      Object[] bySlot = new Object[max + 1];
+      for (int i = 0; i < n; i++) {
+        // an earlier PG of a subclass may be the one that's found
+        bySlot[slots[i]] = unindexed.scan(classes[i]);
+      }
+      l = new LocalPGs(values, classes, bySlot);
     }
+    localPGs = l;
+    return l;
   }
 
 
@@ -367,6 +493,7 @@ public abstract class AssetSkeletonBase
    * should not be specified in the arglist.
    **/
   protected synchronized void setLocalPG(Class pgc, PropertyGroup prop) {
+    localPGs = null;
     if (prop instanceof TimePhasedPropertyGroup) {
       int index = findLocalPGScheduleIndex(pgc);
       TimePhasedPropertyGroup timePhasedProp = (TimePhasedPropertyGroup) prop;
@@ -393,23 +520,18 @@ public abstract class AssetSkeletonBase
   /** return the value of the specified PropertyGroupSchedule if it is 
    * already present in a slot.
    **/
-  protected synchronized PropertyGroupSchedule getLocalPGSchedule(Class pgc) {
-    if ((!hasOtherTimePhasedProperties) ||
-        (!TimePhasedPropertyGroup.class.isAssignableFrom(pgc))) {
+  protected PropertyGroupSchedule getLocalPGSchedule(Class pgc) {
+    if (!TimePhasedPropertyGroup.class.isAssignableFrom(pgc)) {
       return null;    
     }
 
-    int index = findLocalPGScheduleIndex(pgc);
-    if (index >=0) {
-      return (PropertyGroupSchedule) otherProperties.get(index);
-    } else {
-      return null;
-    }
+    return (PropertyGroupSchedule) findLocal(pgc);
   }
 
   /** Set the apropriate slot in the asset to the specified pgSchedule
    **/
   protected synchronized void setLocalPGSchedule(PropertyGroupSchedule pgSchedule) {
+    localPGs = null;
     if (hasOtherTimePhasedProperties) {
       int index = findLocalPGScheduleIndex(pgSchedule.getPGClass());
       if (index >= 0) {
@@ -434,6 +556,7 @@ public abstract class AssetSkeletonBase
       throw new IllegalArgumentException();
     }
 
+    localPGs = null;
     PropertyGroup removed = null;
 
     // Use removeOtherPropertyGroupSchedule to remove entire schedules.
@@ -471,6 +594,7 @@ public abstract class AssetSkeletonBase
       throw new IllegalArgumentException();
     }
 
+    localPGs = null;
     PropertyGroup removed = null;
     Class pgc = pg.getPrimaryClass();
 
@@ -501,6 +625,7 @@ public abstract class AssetSkeletonBase
   }
 
   protected synchronized PropertyGroupSchedule removeLocalPGSchedule(Class c) {
+    localPGs = null;
     int index = findLocalPGScheduleIndex(c);
 
     if (index >=0) {
@@ -590,7 +715,7 @@ public abstract class AssetSkeletonBase
         if (o instanceof PropertyGroup) {
           // Don't bother with PropertyGroups
           continue;
-        } else if (o instanceof PropertyGroup) {
+        } else if (o instanceof PropertyGroupSchedule) {
           ok = ((PropertyGroupSchedule) o).getPGClass();
         } else {
           throw new RuntimeException("Unable to handle object of Class: " + o.getClass() +
@@ -28,7 +28,6 @@ package org.cougaar.planning.ldm.lps;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Vector;
@@ -39,13 +38,11 @@ import org.cougaar.core.blackboard.EnvelopeTuple;
 import org.cougaar.core.domain.EnvelopeLogicProvider;
 import org.cougaar.core.domain.LogicProvider;
 import org.cougaar.core.domain.RestartLogicProvider;
-import org.cougaar.core.domain.RestartLogicProviderHelper;
 import org.cougaar.core.domain.RootPlan;
 import org.cougaar.core.mts.MessageAddress;
 import org.cougaar.planning.ldm.LogPlan;
 import org.cougaar.planning.ldm.PlanningFactory;
 import org.cougaar.planning.ldm.asset.Asset;
-import org.cougaar.planning.ldm.asset.ClusterPG;
 import org.cougaar.planning.ldm.asset.LocalPG;
 import org.cougaar.planning.ldm.asset.PropertyGroup;
 import org.cougaar.planning.ldm.asset.PropertyGroupSchedule;
@@ -155,42 +152,17 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
    * agent. The restarted agent will rescind them if they are no
    * longer valid.
    **/
-  public void restart(final MessageAddress cid) {
-    UnaryPredicate pred = new UnaryPredicate() {
-      public boolean execute(Object o) {
-        if (o instanceof AssetTransfer) {
-          AssetTransfer at = (AssetTransfer) o;
-          MessageAddress assignee = 
-            at.getAssignee().getClusterPG().getMessageAddress();
-          return 
-            RestartLogicProviderHelper.matchesRestart(
-                self, cid, assignee);
-        }
-        return false;
-      }
-    };
-    Enumeration e = rootplan.searchBlackboard(pred);
-    while (e.hasMoreElements()) {
-      AssetTransfer at = (AssetTransfer) e.nextElement();
+  public void restart(MessageAddress cid) {
+    Collection transfers =
+      RestartIndexHelper.find(logplan, LogPlan.ASSET_TRANSFERS_BY_ASSIGNEE, self, cid);
+    for (Iterator i = transfers.iterator(); i.hasNext(); ) {
+      AssetTransfer at = (AssetTransfer) i.next();
       rootplan.sendDirective(createAssetAssignment(at, AssetAssignment.REPEAT, true));
     }
-    pred = new UnaryPredicate() {
-      public boolean execute(Object o) {
-        if (o instanceof Asset) {
-          Asset asset = (Asset) o;
-          ClusterPG clusterPG = asset.getClusterPG();
-          if (clusterPG != null) {
-            MessageAddress assetCID = clusterPG.getMessageAddress();
-            return
-              RestartLogicProviderHelper.matchesRestart(
-                  self, cid, assetCID);
-          }
-        }
-        return false;
-      }
-    };
-    for (e = rootplan.searchBlackboard(pred); e.hasMoreElements(); ) {
-      Asset asset = (Asset) e.nextElement();
+    Collection assets =
+      RestartIndexHelper.find(logplan, LogPlan.ASSETS_BY_AGENT, self, cid);
+    for (Iterator i = assets.iterator(); i.hasNext(); ) {
+      Asset asset = (Asset) i.next();
       
       if (related(asset)) {
 
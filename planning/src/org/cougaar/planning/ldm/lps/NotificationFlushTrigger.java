@@ -0,0 +1,70 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.lps;
+
+import java.io.Serializable;
+
+import org.cougaar.core.persist.NotPersistable;
+
+/**
+ * While an instance of this class is on the blackboard, NotificationLP
+ * holds outgoing Notifications for up to the flush window, so that
+ * results revised in quick succession are sent once.  NotificationLP
+ * flushes expired notifications whenever the trigger is
+ * publishChanged; the publisher (normally NotificationFlushPlugin)
+ * must do so periodically while isPending() is true.  NotificationLP
+ * changes the trigger itself when isPending() becomes true.
+ **/
+public final class NotificationFlushTrigger
+  implements Serializable, NotPersistable
+{
+  private final long window;
+  private volatile boolean pending = false;
+
+  /** @param window how long, in milliseconds, notifications may be held **/
+  public NotificationFlushTrigger(long window) {
+    this.window = window;
+  }
+
+  /** @return the flush window in milliseconds **/
+  public long getWindow() {
+    return window;
+  }
+
+  /** @return true if NotificationLP is holding notifications **/
+  public boolean isPending() {
+    return pending;
+  }
+
+  void setPending(boolean pending) {
+    this.pending = pending;
+  }
+
+  public String toString() {
+    return "<NotificationFlushTrigger window=" + window + " pending=" + pending + ">";
+  }
+}
@@ -28,12 +28,17 @@ package org.cougaar.planning.ldm.lps;
 
 import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.cougaar.core.blackboard.BlackboardServesDomain;
 import org.cougaar.core.blackboard.EnvelopeTuple;
+import org.cougaar.core.domain.DelayedLPAction;
 import org.cougaar.core.domain.EnvelopeLogicProvider;
 import org.cougaar.core.domain.LogicProvider;
 import org.cougaar.core.domain.RestartLogicProvider;
-import org.cougaar.core.domain.RestartLogicProviderHelper;
 import org.cougaar.core.domain.RootPlan;
 import org.cougaar.core.mts.MessageAddress;
 import org.cougaar.core.util.UID;
@@ -41,12 +46,14 @@ import org.cougaar.planning.ldm.LogPlan;
 import org.cougaar.planning.ldm.PlanningFactory;
 import org.cougaar.planning.ldm.plan.AllocationResult;
 import org.cougaar.planning.ldm.plan.MPTask;
+import org.cougaar.planning.ldm.plan.NewBulkNotification;
 import org.cougaar.planning.ldm.plan.NewNotification;
 import org.cougaar.planning.ldm.plan.PEforCollections;
+import org.cougaar.planning.ldm.plan.Plan;
 import org.cougaar.planning.ldm.plan.PlanElement;
 import org.cougaar.planning.ldm.plan.Task;
 import org.cougaar.planning.ldm.plan.TaskScoreTable;
-import org.cougaar.util.UnaryPredicate;
+import org.cougaar.util.PropertyParser;
 import org.cougaar.util.log.Logger;
 import org.cougaar.util.log.Logging;
 
@@ -59,10 +66,17 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
 {
   private static Logger logger = Logging.getLogger(NotificationLP.class);
 
+  /** Send the remote notifications of a transaction as one
+   * BulkNotification per destination agent.  All agents receiving
+   * them must understand BulkNotifications.
+   **/
+  private static final boolean BATCH = PropertyParser.getBoolean("org.cougaar.planning.ldm.lps.NotificationLP.batch", false);
+
   private final RootPlan rootplan;
   private final LogPlan logplan;
   private final PlanningFactory ldmf;
   private final MessageAddress self;
+  private final NotificationQueue queue = new NotificationQueue();
 
   public NotificationLP(
       RootPlan rootplan,
@@ -85,6 +99,16 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
    **/
   public void execute(EnvelopeTuple o, Collection changes) {
     Object obj = o.getObject();
+    if (obj instanceof NotificationFlushTrigger) {
+      if (o.isRemove()) {
+        queue.flush(true);
+        queue.setTrigger(null);
+      } else {
+        queue.setTrigger((NotificationFlushTrigger) obj);
+        queue.flush(false);
+      }
+      return;
+    }
     if ( ( o.isAdd() && (obj instanceof PlanElement)) ||
          ( o.isChange() &&
            ( obj instanceof PlanElement ) &&
@@ -97,29 +121,32 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
     } 
   }
 
-  public void restart(final MessageAddress cid) {
-    UnaryPredicate pred = new UnaryPredicate() {
-      public boolean execute(Object o) {
-        if (o instanceof PlanElement) {
-          PlanElement pe = (PlanElement) o;
-          MessageAddress source = pe.getTask().getSource();
-          return RestartLogicProviderHelper.matchesRestart(self, cid, source);
-        }
-        return false;
+  /**
+   * Recheck the PlanElements of the tasks sent to us by the restarted
+   * agent(s). The tasks are found in the LogPlan source index rather
+   * than by searching the blackboard.
+   **/
+  public void restart(MessageAddress cid) {
+    Collection tasks =
+      RestartIndexHelper.find(logplan, LogPlan.TASKS_BY_SOURCE, self, cid);
+    for (Iterator i = tasks.iterator(); i.hasNext(); ) {
+      Task task = (Task) i.next();
+      PlanElement pe = logplan.findPlanElement(task);
+      if (pe != null) {
+        checkValues(pe, null);
       }
-    };
-    Enumeration en = rootplan.searchBlackboard(pred);
-    while (en.hasMoreElements()) {
-      PlanElement pe = (PlanElement) en.nextElement();
-      checkValues(pe, null);
     }
   }
 
   private void checkValues(PlanElement pe, Collection changes) {
-    checkValues(pe, changes, rootplan, logplan, ldmf, self);
+    checkValues(pe, changes, rootplan, logplan, ldmf, self, queue);
   }
 
   static final void checkValues(PlanElement pe, Collection changes, RootPlan rootplan, LogPlan logplan, PlanningFactory ldmf, MessageAddress self) {
+    checkValues(pe, changes, rootplan, logplan, ldmf, self, null);
+  }
+
+  private static void checkValues(PlanElement pe, Collection changes, RootPlan rootplan, LogPlan logplan, PlanningFactory ldmf, MessageAddress self, NotificationQueue queue) {
     Task task = pe.getTask();
 
     if (logger.isDebugEnabled()) {
@@ -135,7 +162,7 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
 	  Task pt = (Task) etasks.nextElement();
 	  if (pt != null) {
 	    AllocationResult result = resultsbytask.getAllocationResult(pt);
-	    createNotification(pt.getUID(), task, result, changes, rootplan, logplan, ldmf, self);
+	    createNotification(pt.getUID(), task, result, changes, rootplan, logplan, ldmf, self, queue);
 	  } // else no notification need be generated
 	}
       }
@@ -143,12 +170,16 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
       UID ptuid = task.getParentTaskUID();
       if (ptuid != null) {
 	AllocationResult ar = pe.getEstimatedResult();
-	createNotification(ptuid, task, ar, changes, rootplan, logplan, ldmf, self);
+	createNotification(ptuid, task, ar, changes, rootplan, logplan, ldmf, self, queue);
       } // else no notification need be generated
     }
   }
   
   static final void createNotification(UID ptuid, Task t, AllocationResult ar, Collection changes, RootPlan rootplan, LogPlan logplan, PlanningFactory ldmf, MessageAddress self) {
+    createNotification(ptuid, t, ar, changes, rootplan, logplan, ldmf, self, null);
+  }
+
+  private static void createNotification(UID ptuid, Task t, AllocationResult ar, Collection changes, RootPlan rootplan, LogPlan logplan, PlanningFactory ldmf, MessageAddress self, NotificationQueue queue) {
 
     if (logger.isDebugEnabled()) {
       PlanElement pe = null;
@@ -167,6 +198,23 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
       // deliver intra-agent notifications directly
       ReceiveNotificationLP.propagateNotification(
           rootplan,logplan,ptuid,ar,t.getUID(), changes);
+    } else if (queue != null && queue.isHolding()) {
+      if (ptuid == null) {
+	logger.error("createNotification: parent task UID is null for task " +
+		     t);
+      }
+      // held until the destination's flush window expires
+      queue.add(dest, new Key(ptuid, t.getUID(), t.getPlan()), ar);
+      rootplan.delayLPAction(queue.getDelayedFlush());
+    } else if (BATCH) {
+      if (ptuid == null) {
+	logger.error("createNotification: parent task UID is null for task " +
+		     t);
+      }
+      // collected per destination and sent at the end of the transaction
+      rootplan.delayLPAction(
+          new DelayedNotifications(rootplan, ldmf, self, dest,
+                                   new Key(ptuid, t.getUID(), t.getPlan()), ar));
     } else {
       // need to send an actual notification
       NewNotification nn = ldmf.newNotification();
@@ -189,4 +237,203 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
       rootplan.sendDirective(nn, changes);
     }
   }
+
+  /** Send collected notifications (Key -&gt; AllocationResult) to one
+   * destination, as a BulkNotification per plan if batching is enabled.
+   **/
+  private static void sendNotifications(RootPlan rootplan, PlanningFactory ldmf,
+                                        MessageAddress self, MessageAddress dest,
+                                        Map results) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Sending " + results.size() + " notifications to " + dest);
+    }
+    if (BATCH && results.size() > 1) {
+      // Plan -> NewBulkNotification; almost always just one
+      Map bulks = new HashMap(3);
+      for (Iterator i = results.entrySet().iterator(); i.hasNext(); ) {
+        Map.Entry entry = (Map.Entry) i.next();
+        Key key = (Key) entry.getKey();
+        NewBulkNotification nbn = (NewBulkNotification) bulks.get(key.plan);
+        if (nbn == null) {
+          nbn = ldmf.newBulkNotification();
+          nbn.setPlan(key.plan);
+          nbn.setSource(self);
+          nbn.setDestination(dest);
+          bulks.put(key.plan, nbn);
+        }
+        nbn.addNotification(key.ptuid, key.childuid, (AllocationResult) entry.getValue());
+      }
+      for (Iterator i = bulks.values().iterator(); i.hasNext(); ) {
+        rootplan.sendDirective((NewBulkNotification) i.next());
+      }
+      return;
+    }
+    for (Iterator i = results.entrySet().iterator(); i.hasNext(); ) {
+      Map.Entry entry = (Map.Entry) i.next();
+      Key key = (Key) entry.getKey();
+      NewNotification nn = ldmf.newNotification();
+      nn.setTaskUID(key.ptuid);
+      nn.setPlan(key.plan);
+      nn.setChildTaskUID(key.childuid);
+      nn.setAllocationResult((AllocationResult) entry.getValue());
+      nn.setSource(self);
+      nn.setDestination(dest);
+      rootplan.sendDirective(nn);
+    }
+  }
+
+  /** Holds remote notifications per destination while a
+   * NotificationFlushTrigger with a positive window is on the
+   * blackboard.  A newer result for the same parent/child task pair
+   * replaces the held one.  A destination is flushed at the end of the
+   * first transaction after its oldest held notification has waited
+   * for the window.  We change the trigger when we start holding
+   * notifications, and its owner then publishChanges it while they
+   * are pending so that such a transaction occurs.
+   * Held notifications are not persisted; after a restart they are
+   * resent by reconciliation.
+   **/
+  private final class NotificationQueue {
+    private NotificationFlushTrigger trigger = null;
+    // MessageAddress -> Pending
+    private final Map pending = new HashMap(5);
+    private final DelayedLPAction delayedFlush = new DelayedFlush();
+
+    void setTrigger(NotificationFlushTrigger trigger) {
+      this.trigger = trigger;
+    }
+
+    boolean isHolding() {
+      return (trigger != null && trigger.getWindow() > 0);
+    }
+
+    void add(MessageAddress dest, Key key, AllocationResult ar) {
+      Pending p = (Pending) pending.get(dest);
+      if (p == null) {
+        p = new Pending(System.currentTimeMillis());
+        pending.put(dest, p);
+      }
+      p.results.put(key, ar);
+      if (!trigger.isPending()) {
+        trigger.setPending(true);
+        // wake the trigger's owner so that it schedules a flush
+        rootplan.change(trigger, null);
+      }
+    }
+
+    /** Send the notifications of every destination whose window has
+     * expired, or of all destinations.
+     **/
+    void flush(boolean all) {
+      if (pending.isEmpty()) return;
+      long now = System.currentTimeMillis();
+      long window = (trigger == null ? 0 : trigger.getWindow());
+      for (Iterator i = pending.entrySet().iterator(); i.hasNext(); ) {
+        Map.Entry entry = (Map.Entry) i.next();
+        Pending p = (Pending) entry.getValue();
+        if (all || now - p.since >= window) {
+          sendNotifications(rootplan, ldmf, self, (MessageAddress) entry.getKey(), p.results);
+          i.remove();
+        }
+      }
+      if (trigger != null) {
+        trigger.setPending(!pending.isEmpty());
+      }
+    }
+
+    DelayedLPAction getDelayedFlush() {
+      return delayedFlush;
+    }
+
+    /** flush the expired destinations at the end of the transaction **/
+    private final class DelayedFlush implements DelayedLPAction {
+      public void execute(BlackboardServesDomain bb) {
+        flush(false);
+      }
+      public void merge(DelayedLPAction e) {
+        // one flush per transaction is enough
+      }
+    }
+  }
+
+  private final static class Pending {
+    private final long since;
+    // Key -> AllocationResult, in order of first notification
+    private final Map results = new LinkedHashMap(5);
+    Pending(long since) {
+      this.since = since;
+    }
+  }
+
+  /** Collects the remote notifications for one destination during a
+   * transaction, keeping only the latest AllocationResult for each
+   * parent/child task pair, and sends them as a single directive.
+   * The change reports of the individual notifications are dropped.
+   **/
+  private final static class DelayedNotifications
+    implements DelayedLPAction
+  {
+    private final RootPlan rootplan;
+    private final PlanningFactory ldmf;
+    private final MessageAddress self;
+    private final MessageAddress dest;
+    // Key -> AllocationResult, in order of first notification
+    private final Map results = new LinkedHashMap(5);
+
+    DelayedNotifications(RootPlan rootplan, PlanningFactory ldmf,
+                         MessageAddress self, MessageAddress dest,
+                         Key key, AllocationResult ar) {
+      this.rootplan = rootplan;
+      this.ldmf = ldmf;
+      this.self = self;
+      this.dest = dest;
+      results.put(key, ar);
+    }
+
+    public void execute(BlackboardServesDomain bb) {
+      sendNotifications(rootplan, ldmf, self, dest, results);
+    }
+
+    /** hashcode is the hashcode of the destination **/
+    public int hashCode() {
+      return dest.hashCode();
+    }
+
+    /** these guys are equal iff they have the same destination **/
+    public boolean equals(Object e) {
+      return (e instanceof DelayedNotifications &&
+              ((DelayedNotifications)e).dest.equals(dest));
+    }
+
+    /** merge another (later) one into this one **/
+    public void merge(DelayedLPAction e) {
+      DelayedNotifications other = (DelayedNotifications) e;
+      results.putAll(other.results);
+    }
+  }
+
+  /** A parent/child task pair.  The child task's plan goes along
+   * for the directive, but is not part of the key since a task is in
+   * only one plan.
+   **/
+  private final static class Key {
+    private final UID ptuid;
+    private final UID childuid;
+    private final Plan plan;
+    Key(UID ptuid, UID childuid, Plan plan) {
+      this.ptuid = ptuid;
+      this.childuid = childuid;
+      this.plan = plan;
+    }
+    public int hashCode() {
+      return ((ptuid == null ? 0 : ptuid.hashCode()) * 31 +
+              (childuid == null ? 0 : childuid.hashCode()));
+    }
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) return false;
+      Key k = (Key) o;
+      return ((ptuid == null ? k.ptuid == null : ptuid.equals(k.ptuid)) &&
+              (childuid == null ? k.childuid == null : childuid.equals(k.childuid)));
+    }
+  }
 }
@@ -36,6 +36,7 @@ import org.cougaar.core.domain.DelayedLPAction;
 import org.cougaar.core.domain.LogicProvider;
 import org.cougaar.core.domain.MessageLogicProvider;
 import org.cougaar.core.domain.RootPlan;
+import org.cougaar.core.mts.MessageAddress;
 import org.cougaar.core.util.UID;
 import org.cougaar.planning.ldm.LogPlan;
 import org.cougaar.planning.ldm.PlanningFactory;
@@ -44,6 +45,7 @@ import org.cougaar.planning.ldm.plan.Allocation;
 import org.cougaar.planning.ldm.plan.AllocationResult;
 import org.cougaar.planning.ldm.plan.AllocationforCollections;
 import org.cougaar.planning.ldm.plan.AssetTransfer;
+import org.cougaar.planning.ldm.plan.BulkNotification;
 import org.cougaar.planning.ldm.plan.Expansion;
 import org.cougaar.planning.ldm.plan.Notification;
 import org.cougaar.planning.ldm.plan.PEforCollections;
@@ -84,13 +86,24 @@ public class ReceiveNotificationLP
    **/
   public void execute(Directive dir, Collection changes) {
     if (dir instanceof Notification) {
-      processNotification((Notification) dir, changes);
+      Notification not = (Notification) dir;
+      processNotification(
+          not.getTaskUID(), not.getChildTaskUID(), not.getAllocationResult(),
+          not.getSource(), changes);
+    } else if (dir instanceof BulkNotification) {
+      BulkNotification bn = (BulkNotification) dir;
+      MessageAddress source = bn.getSource();
+      for (int i = 0, n = bn.size(); i < n; i++) {
+        processNotification(
+            bn.getTaskUID(i), bn.getChildTaskUID(i), bn.getAllocationResult(i),
+            source, changes);
+      }
     }
   }
 
-  private void processNotification(Notification not, Collection changes) {
-    UID tuid = not.getTaskUID();
-    UID childuid = not.getChildTaskUID();
+  private void processNotification(
+      UID tuid, UID childuid, AllocationResult ar,
+      MessageAddress source, Collection changes) {
     PlanElement pe = logplan.findPlanElement(tuid);
     boolean needToRescind = (pe == null);
 
@@ -111,7 +124,7 @@ public class ReceiveNotificationLP
                         "  ("+pe.getTask().getUID()+")"+
                         "\n\tFrom="+childuid+
                         "  ("+remoteTUID+")"+
-                        "\n\tResult="+not.getAllocationResult()+"\n"+
+                        "\n\tResult="+ar+"\n"+
                         "\n\tPE="+pe);
           }
           needToRescind = true; // Insure that the old child task is gone.
@@ -121,12 +134,11 @@ public class ReceiveNotificationLP
     }
 
     if (needToRescind) {
-      TaskRescind trm = ldmf.newTaskRescind(childuid, not.getSource());
+      TaskRescind trm = ldmf.newTaskRescind(childuid, source);
       if (logger.isDebugEnabled())
 	logger.debug("Sending new TaskRescind for " + childuid);
       rootplan.sendDirective(trm, changes);
     } else {
-      AllocationResult ar = not.getAllocationResult();
       propagateNotification(
           rootplan, logplan, pe, tuid, ar, childuid, changes);
     }
@@ -26,12 +26,12 @@
 
 package org.cougaar.planning.ldm.lps;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Enumeration;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.cougaar.core.blackboard.Directive;
 import org.cougaar.core.blackboard.SubscriberException;
@@ -41,6 +41,7 @@ import org.cougaar.core.domain.RootPlan;
 import org.cougaar.core.logging.LoggingServiceWithPrefix;
 import org.cougaar.core.mts.MessageAddress;
 import org.cougaar.core.service.AlarmService;
+import org.cougaar.core.util.UID;
 import org.cougaar.planning.ldm.LogPlan;
 import org.cougaar.planning.ldm.PlanningFactory;
 import org.cougaar.planning.ldm.plan.Context;
@@ -48,8 +49,11 @@ import org.cougaar.planning.ldm.plan.NewTask;
 import org.cougaar.planning.ldm.plan.PEforCollections;
 import org.cougaar.planning.ldm.plan.PlanElement;
 import org.cougaar.planning.ldm.plan.Preference;
+import org.cougaar.planning.ldm.plan.PrepositionalPhrase;
 import org.cougaar.planning.ldm.plan.Task;
+import org.cougaar.planning.ldm.plan.TaskDelta;
 import org.cougaar.planning.ldm.plan.TaskImpl;
+import org.cougaar.util.Enumerator;
 import org.cougaar.util.log.Logger;
 import org.cougaar.util.log.Logging;
 
@@ -70,8 +74,6 @@ public class ReceiveTaskLP
   private final PlanningFactory ldmf;
   private final MessageAddress self;
   private final AlarmService alarmService;
-  private Set existingPhrases = new HashSet();
-  private Set newPhrases = new HashSet();
 
   public ReceiveTaskLP(
       RootPlan rootplan,
@@ -109,9 +111,14 @@ public class ReceiveTaskLP
    * Also, the received task may have been deleted. If so, complete
    * the deletion process by actually removing the task from the
    * blackboard.
+   * <p>
+   * A TaskDelta carries just the changed parts of a task we already
+   * have, and is applied to it in place.
    **/
   public void execute(Directive dir, Collection changes) {
-    if (dir instanceof Task) {
+    if (dir instanceof TaskDelta) {
+      applyDelta((TaskDelta) dir, changes);
+    } else if (dir instanceof Task) {
       Task tsk = (Task) dir;
       try {
         Task existingTask = logplan.findTask(tsk);
@@ -172,9 +179,12 @@ public class ReceiveTaskLP
           // Update task from received task
           boolean changedTask = false;
 
+          TaskImpl newTaskImpl = (TaskImpl) tsk;
+          TaskImpl existingTaskImpl = (TaskImpl) existingTask;
+
 	  // 1: Compare preferences
-          Preference[] newPreferences = ((TaskImpl) tsk).getPreferencesAsArray();
-          Preference[] existingPreferences = ((TaskImpl) existingTask).getPreferencesAsArray();
+          Preference[] newPreferences = newTaskImpl.getPreferencesAsArray();
+          Preference[] existingPreferences = existingTaskImpl.getPreferencesAsArray();
           if (logger.isDebugEnabled()) {
             logger.debug("Comparing " + tsk);
           }
@@ -198,51 +208,23 @@ public class ReceiveTaskLP
           }
 
 	  // 2: Compare Prep Phrases
-          for (Enumeration e = existingTask.getPrepositionalPhrases(); e.hasMoreElements(); ) {
-            existingPhrases.add(e.nextElement());
-          }
-          for (Enumeration e = tsk.getPrepositionalPhrases(); e.hasMoreElements(); ) {
-            newPhrases.add(e.nextElement());
-          }
-
-
-	  boolean match = false;
-
-	  if (newPhrases.size() == existingPhrases.size()) {
-	    for (Iterator existingIterator = existingPhrases.iterator();
-		 existingIterator.hasNext();) {
-	      Object existingPhrase = existingIterator.next();
-	      match = false;
-
-	      for (Iterator newIterator = newPhrases.iterator();
-		   newIterator.hasNext();) {
-		if (newIterator.next().equals(existingPhrase)) {
-		  match = true;
-		  break;
-		}
-	      }
-	      
-	      if (match == false) {
-		break;
-	      }
-	    }
-	  }
-		 
+          PrepositionalPhrase[] newPhrases = newTaskImpl.getPrepositionalPhrasesAsArray();
+          PrepositionalPhrase[] existingPhrases = existingTaskImpl.getPrepositionalPhrasesAsArray();
 
-          if (!match) {
+          // in time linear in the number of phrases
+          if (!samePhrases(newPhrases, existingPhrases)) {
             ((NewTask) existingTask).setPrepositionalPhrases(tsk.getPrepositionalPhrases());
             changedTask = true;
             if (logger.isDebugEnabled()) {
-              logger.debug("Phrases differ " + newPhrases + "!=" + existingPhrases);
+              logger.debug("Phrases differ " + java.util.Arrays.asList(newPhrases) +
+                           "!=" + java.util.Arrays.asList(existingPhrases));
             }
           } else {
             if (logger.isDebugEnabled()) {
-              logger.debug("Phrases compare equal " + newPhrases + "==" + existingPhrases);
+              logger.debug("Phrases compare equal " + java.util.Arrays.asList(newPhrases) +
+                           "==" + java.util.Arrays.asList(existingPhrases));
             }
           }
-            
-          existingPhrases.clear();
-          newPhrases.clear();
 
 	  // 3: Compare context
           Context existingContext = existingTask.getContext();
@@ -283,30 +265,7 @@ public class ReceiveTaskLP
           if (changedTask) {
 	    rootplan.change(existingTask, changes);
           } else {
-	    // Nothing changed. Use this opportunity to send back an AR notification if necessary
-	    // FIXME: task.getPE is evil! Bug 3588 means this PE
-	    // might have previously changed, and rehydration will only confirm
-	    // that the task should be there.
-            PlanElement pe = existingTask.getPlanElement();
-            if (pe != null) {
-	      if (logger.isDebugEnabled()) {
-		logger.debug("Unchanged task with PE. Check shouldDoNotification");
-	      }
-	      // Cause a notification / estAR to be (re)sent (see bug 3338)
-	      if (((PEforCollections)pe).shouldDoNotification()) {
-		if (logger.isDebugEnabled()) {
-		  logger.debug("Got PE.shouldDoNotification. Invoke NotificationLP to send the notification.");
-		}
-		// FIXME: Avoid doing this if commitment date on 
-		// task is past? (see line 165)
-		NotificationLP.checkValues(pe, changes, rootplan, logplan, ldmf, self);
-	      } else {
-		if (logger.isDebugEnabled()) {
-		  logger.debug("Unchanged task, PE doesnt DoNotification. Do nothing (old would have done a pubChange). PE " + pe.getUID());
-		}
-	      }
-              //rootplan.change(pe, changes);	// Cause estimated result to be resent
-            }
+            unchangedTask(existingTask, changes);
           } // end block not changed task
         } // end block to update local Task with changes
       } catch (SubscriberException se) {
@@ -314,4 +273,220 @@ public class ReceiveTaskLP
       }
     }
   }
+
+  /**
+   * A resent task changed nothing.
+   * Use this opportunity to send back an AR notification if necessary
+   **/
+  private void unchangedTask(Task existingTask, Collection changes) {
+    // FIXME: task.getPE is evil! Bug 3588 means this PE
+    // might have previously changed, and rehydration will only confirm
+    // that the task should be there.
+    PlanElement pe = existingTask.getPlanElement();
+    if (pe != null) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Unchanged task with PE. Check shouldDoNotification");
+      }
+      // Cause a notification / estAR to be (re)sent (see bug 3338)
+      if (((PEforCollections)pe).shouldDoNotification()) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Got PE.shouldDoNotification. Invoke NotificationLP to send the notification.");
+        }
+        // FIXME: Avoid doing this if commitment date on 
+        // task is past? (see line 165)
+        NotificationLP.checkValues(pe, changes, rootplan, logplan, ldmf, self);
+      } else {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Unchanged task, PE doesnt DoNotification. Do nothing (old would have done a pubChange). PE " + pe.getUID());
+        }
+      }
+      //rootplan.change(pe, changes);	// Cause estimated result to be resent
+    }
+  }
+
+  /**
+   * Apply a TaskDelta to the task it was computed against. Deltas
+   * are only sent for tasks which were previously sent in full, with
+   * the same commitment date, so a missing task was either refused
+   * (it arrived past its commitment date, and so would this delta) or
+   * has since been removed; the sender resends in full when it
+   * reconciles with us after a restart.
+   **/
+  private void applyDelta(TaskDelta delta, Collection changes) {
+    UID uid = delta.getTaskUID();
+    try {
+      Task existingTask = logplan.findTask(uid);
+      if (existingTask == null) {
+        if (logger.isInfoEnabled()) {
+          logger.info("Received delta for unknown task, ignoring " + delta);
+        }
+      } else if (existingTask.isDeleted()) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Received delta for deleted task, ignoring " + delta);
+        }
+      } else if (! existingTask.beforeCommitment(currentDate())) {
+        // Task already commited. Can't change. (see bug 3757)
+        if (logger.isInfoEnabled()) 
+          logger.info("Existing task already committed (" + existingTask.getCommitmentDate() + "), not applying " + delta);
+      } else {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Applying " + delta);
+        }
+        boolean changedTask = false;
+        NewTask nt = (NewTask) existingTask;
+
+        // 1: Preferences, by aspect type
+        if (delta.getChangedPreferences().length > 0 ||
+            delta.getRemovedAspectTypes().length > 0) {
+          Preference[] existingPreferences = ((TaskImpl) existingTask).getPreferencesAsArray();
+          List prefs = mergePreferences(existingPreferences, delta);
+          if (!prefs.equals(java.util.Arrays.asList(existingPreferences))) {
+            nt.setPreferences(new Enumerator(prefs));
+            changedTask = true;
+          }
+        }
+
+        // 2: Prep Phrases, by preposition
+        if (delta.getChangedPrepositionalPhrases().length > 0 ||
+            delta.getRemovedPrepositions().length > 0) {
+          PrepositionalPhrase[] existingPhrases = 
+            ((TaskImpl) existingTask).getPrepositionalPhrasesAsArray();
+          List phrases = mergePhrases(existingPhrases, delta);
+          if (!phrases.equals(java.util.Arrays.asList(existingPhrases))) {
+            nt.setPrepositionalPhrases(new Enumerator(phrases));
+            changedTask = true;
+          }
+        }
+
+        // 3: Priority
+        if (delta.isPriorityChanged() &&
+            delta.getPriority() != existingTask.getPriority()) {
+          nt.setPriority(delta.getPriority());
+          changedTask = true;
+        }
+
+        if (changedTask) {
+          rootplan.change(existingTask, changes);
+        } else {
+          unchangedTask(existingTask, changes);
+        }
+      }
+    } catch (SubscriberException se) {
+      logger.error("Could not apply TaskDelta to LogPlan: " + delta, se);
+    }
+  }
+
+  /**
+   * @return true if a and b hold equal phrases, in any order.  A
+   * resend usually lists them in the same order, which is checked
+   * first; the rest are matched by preposition, which is unique
+   * unless the phrases were set with setPrepositionalPhrases.
+   **/
+  private static boolean samePhrases(PrepositionalPhrase[] a, PrepositionalPhrase[] b) {
+    if (a.length != b.length) {
+      return false;
+    }
+    int start = 0;
+    while (start < a.length && a[start].equals(b[start])) {
+      start++;
+    }
+    if (start == a.length) {
+      return true;
+    }
+    Map byPreposition = new HashMap((a.length - start) * 2);
+    for (int i = start; i < b.length; i++) {
+      if (byPreposition.put(b[i].getPreposition(), b[i]) != null) {
+        // repeated preposition, compare every pair
+        return containsAll(b, a, start) && containsAll(a, b, start);
+      }
+    }
+    for (int i = start; i < a.length; i++) {
+      Object other = byPreposition.remove(a[i].getPreposition());
+      if (other == null || !a[i].equals(other)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** @return true if each of b[start..] equals one of a[start..] **/
+  private static boolean containsAll(PrepositionalPhrase[] a, PrepositionalPhrase[] b, int start) {
+    for (int i = start; i < b.length; i++) {
+      boolean found = false;
+      for (int j = start; j < a.length; j++) {
+        if (b[i].equals(a[j])) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** existing preferences with the delta's replaced in place, 
+   * removed ones dropped and new ones appended.
+   **/
+  private static List mergePreferences(Preference[] existing, TaskDelta delta) {
+    Preference[] changed = delta.getChangedPreferences();
+    int[] removed = delta.getRemovedAspectTypes();
+    boolean[] used = new boolean[changed.length];
+    List result = new ArrayList(existing.length + changed.length);
+  existingLoop:
+    for (int i = 0; i < existing.length; i++) {
+      int at = existing[i].getAspectType();
+      for (int j = 0; j < removed.length; j++) {
+        if (removed[j] == at) continue existingLoop;
+      }
+      Preference p = existing[i];
+      for (int j = 0; j < changed.length; j++) {
+        if (changed[j].getAspectType() == at) {
+          p = changed[j];
+          used[j] = true;
+          break;
+        }
+      }
+      result.add(p);
+    }
+    for (int j = 0; j < changed.length; j++) {
+      if (!used[j]) result.add(changed[j]);
+    }
+    return result;
+  }
+
+  /** existing phrases with the delta's replaced in place, 
+   * removed ones dropped and new ones appended.
+   **/
+  private static List mergePhrases(PrepositionalPhrase[] existing, TaskDelta delta) {
+    PrepositionalPhrase[] changed = delta.getChangedPrepositionalPhrases();
+    String[] removed = delta.getRemovedPrepositions();
+    boolean[] used = new boolean[changed.length];
+    List result = new ArrayList(existing.length + changed.length);
+  existingLoop:
+    for (int i = 0; i < existing.length; i++) {
+      String prep = existing[i].getPreposition();
+      for (int j = 0; j < removed.length; j++) {
+        if (samePreposition(removed[j], prep)) continue existingLoop;
+      }
+      PrepositionalPhrase pp = existing[i];
+      for (int j = 0; j < changed.length; j++) {
+        if (samePreposition(changed[j].getPreposition(), prep)) {
+          pp = changed[j];
+          used[j] = true;
+          break;
+        }
+      }
+      result.add(pp);
+    }
+    for (int j = 0; j < changed.length; j++) {
+      if (!used[j]) result.add(changed[j]);
+    }
+    return result;
+  }
+
+  private static boolean samePreposition(String a, String b) {
+    return (a == null) ? (b == null) : a.equals(b);
+  }
 }
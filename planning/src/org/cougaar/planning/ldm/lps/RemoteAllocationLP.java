@@ -28,14 +28,12 @@ package org.cougaar.planning.ldm.lps;
 
 import java.util.Collection;
 import java.util.Date;
-import java.util.Enumeration;
 import java.util.Iterator;
 
 import org.cougaar.core.blackboard.EnvelopeTuple;
 import org.cougaar.core.domain.EnvelopeLogicProvider;
 import org.cougaar.core.domain.LogicProvider;
 import org.cougaar.core.domain.RestartLogicProvider;
-import org.cougaar.core.domain.RestartLogicProviderHelper;
 import org.cougaar.core.domain.RootPlan;
 import org.cougaar.core.mts.MessageAddress;
 import org.cougaar.core.service.AlarmService;
@@ -49,9 +47,9 @@ import org.cougaar.planning.ldm.plan.AllocationforCollections;
 import org.cougaar.planning.ldm.plan.NewTask;
 import org.cougaar.planning.ldm.plan.PlanElement;
 import org.cougaar.planning.ldm.plan.Task;
+import org.cougaar.planning.ldm.plan.TaskDelta;
 import org.cougaar.planning.plugin.util.PluginHelper;
 import org.cougaar.util.PropertyParser;
-import org.cougaar.util.UnaryPredicate;
 import org.cougaar.util.log.Logger;
 import org.cougaar.util.log.Logging;
 
@@ -79,6 +77,19 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
   // Whether to confirm the Task being allocated exists before sending the allocation. Defaults to true.
   private static final boolean CHECKALLOC = PropertyParser.getBoolean("org.cougaar.planning.ldm.lps.RemoteAllocationLP.checkBadTask", true);
 
+  // Whether to resend changed tasks as TaskDeltas of just the changed
+  // preferences, phrases and priority. Defaults to false.
+  // The receiving agents must be running a ReceiveTaskLP which
+  // understands TaskDeltas.
+  private static final boolean DELTAS = PropertyParser.getBoolean("org.cougaar.planning.ldm.lps.RemoteAllocationLP.deltas", false);
+
+  // How many sent tasks to remember for computing deltas.
+  private static final int DELTA_CACHE_SIZE =
+    Integer.getInteger("org.cougaar.planning.ldm.lps.RemoteAllocationLP.deltaCacheSize", 10000).intValue();
+
+  // What we last sent for each remote task, if DELTAS
+  private final SentTaskTable sentTasks;
+
   public RemoteAllocationLP(
       RootPlan rootplan,
       PlanningFactory ldmf,
@@ -91,6 +102,7 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
     this.self = self;
     this.alarmService = alarmService;
     this.logplan = logplan;
+    this.sentTasks = (DELTAS ? new SentTaskTable(ldmf, DELTA_CACHE_SIZE) : null);
     // logger is static final now
     //logger = new LoggingServiceWithPrefix(logger, self + ": ");
   }
@@ -154,10 +166,20 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
     rootplan.change(all, changes); 
 
     // Give the task directive to the blackboard for transmission
-    sendTask(copytask, changes);
+    sendTask(copytask, changes, true);
   }
 
-  private void sendTask(Task copytask, Collection changes) {
+  private void sendTask(Task copytask, Collection changes, boolean allowDelta) {
+    if (sentTasks != null) {
+      TaskDelta delta = sentTasks.record(copytask, allowDelta);
+      if (delta != null) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Send delta: " + delta);
+        }
+        rootplan.sendDirective(delta, changes);
+        return;
+      }
+    }
 //     if (copytask.getWorkflow() == null) {
 //       NewTask nt = (NewTask) copytask;
 //       nt.setWorkflow(specialWorkflow);
@@ -190,30 +212,19 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
    * If a agent restarts, we resend all the tasks we sent before in
    * case they have been lost or are out of date.
    **/
-  public void restart(final MessageAddress cid) {
+  public void restart(MessageAddress cid) {
     if (logger.isInfoEnabled()) {
       logger.info(
         "Reconcile with "+
         (cid==null?"all agents":cid.toString()));
     }
-    UnaryPredicate pred = new UnaryPredicate() {
-      public boolean execute(Object o) {
-        if (o instanceof Allocation) {
-          Allocation alloc = (Allocation) o;
-          Asset asset = alloc.getAsset();
-          ClusterPG cpg = asset.getClusterPG();
-          if (cpg == null) return false;
-          MessageAddress destination = cpg.getMessageAddress();
-          return 
-            RestartLogicProviderHelper.matchesRestart(
-              self, cid, destination);
-        }
-        return false;
-      }
-    };
-    Enumeration en = rootplan.searchBlackboard(pred);
-    while (en.hasMoreElements()) {
-      AllocationforCollections alloc = (AllocationforCollections) en.nextElement();
+    if (sentTasks != null) {
+      sentTasks.forget(cid);
+    }
+    Collection allocs =
+      RestartIndexHelper.find(logplan, LogPlan.ALLOCATIONS_BY_AGENT, self, cid);
+    for (Iterator en = allocs.iterator(); en.hasNext(); ) {
+      AllocationforCollections alloc = (AllocationforCollections) en.next();
       UID remoteTaskUID = alloc.getAllocationTaskUID();
       Task localTask = alloc.getTask();
       if (remoteTaskUID != null && taskShouldBeSent(localTask)) {
@@ -228,7 +239,7 @@ implements LogicProvider, EnvelopeLogicProvider, RestartLogicProvider
               + " with remoteUID=" + remoteTaskUID
               + " " + localTask);
         }
-        sendTask(remoteTask, null);
+        sendTask(remoteTask, null, false);
       }
     }
     if (logger.isInfoEnabled()) {
@@ -0,0 +1,74 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.lps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.cougaar.core.domain.RestartLogicProviderHelper;
+import org.cougaar.core.mts.MessageAddress;
+import org.cougaar.planning.ldm.LogPlan;
+import org.cougaar.planning.ldm.LogPlanIndex;
+
+/**
+ * Finds the LogPlan objects associated with a restarted agent using
+ * one of the agent-keyed LogPlan indexes, so restart reconciliation
+ * touches only the objects tied to that agent rather than searching
+ * the blackboard.
+ **/
+class RestartIndexHelper {
+  private RestartIndexHelper() {}
+
+  /**
+   * @param indexName the name of a LogPlanIndex keyed by the primary
+   * MessageAddress of an agent.
+   * @param cid the restarted agent or null for all agents.
+   * @return a new Collection of the indexed objects of every agent
+   * matching the restart.
+   **/
+  static Collection find(LogPlan logplan, String indexName,
+                         MessageAddress self, MessageAddress cid)
+  {
+    LogPlanIndex index = logplan.getIndex(indexName);
+    if (cid != null) {
+      MessageAddress key = cid.getPrimary();
+      if (!RestartLogicProviderHelper.matchesRestart(self, cid, key)) {
+        return new ArrayList(0);
+      }
+      return new ArrayList(index.find(key));
+    }
+    Collection result = new ArrayList();
+    for (Iterator i = index.keySet().iterator(); i.hasNext(); ) {
+      MessageAddress key = (MessageAddress) i.next();
+      if (RestartLogicProviderHelper.matchesRestart(self, null, key)) {
+        result.addAll(index.find(key));
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,307 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+
+package org.cougaar.planning.ldm.lps;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.cougaar.core.mts.MessageAddress;
+import org.cougaar.core.util.UID;
+import org.cougaar.planning.ldm.PlanningFactory;
+import org.cougaar.planning.ldm.asset.Asset;
+import org.cougaar.planning.ldm.plan.Context;
+import org.cougaar.planning.ldm.plan.NewTaskDelta;
+import org.cougaar.planning.ldm.plan.Preference;
+import org.cougaar.planning.ldm.plan.PrepositionalPhrase;
+import org.cougaar.planning.ldm.plan.Task;
+import org.cougaar.planning.ldm.plan.TaskDelta;
+import org.cougaar.planning.ldm.plan.TaskImpl;
+import org.cougaar.planning.ldm.plan.Verb;
+
+/**
+ * Remembers what RemoteAllocationLP last sent for each remote task, so
+ * that a later transmission of the same task can be reduced to a
+ * TaskDelta of the preferences, phrases and priority which actually
+ * changed.
+ * <p>
+ * Anything else about the task changing (verb, direct object, context,
+ * parent, auxiliary query types, commitment date, deletion,
+ * destination) forces a full transmission.  The commitment date
+ * decides whether the receiver accepts the task at all, so a task it
+ * refused gets a fresh chance.  The table is bounded; an evicted task
+ * is simply sent in full next time.
+ * <p>
+ * Indirect objects such as Assets and Schedules may be modified in
+ * place, which a later transmission couldn't detect, so a task with
+ * any indirect object other than an immutable value (String, Number,
+ * Verb, UID, ...) is always sent in full.
+ **/
+class SentTaskTable {
+  private final PlanningFactory ldmf;
+  private final Map sent;
+
+  SentTaskTable(PlanningFactory ldmf, final int maxSize) {
+    this.ldmf = ldmf;
+    this.sent = new LinkedHashMap(64, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Record copytask as the latest transmission of its UID.
+   * @param allowDelta false to force a full transmission
+   * @return the TaskDelta to send instead of copytask, or null if 
+   * copytask must be sent in full.
+   **/
+  synchronized TaskDelta record(Task copytask, boolean allowDelta) {
+    UID uid = copytask.getUID();
+    if (copytask.isDeleted()) {
+      sent.remove(uid);
+      return null;
+    }
+    Sent current = new Sent(copytask);
+    Sent previous = (Sent) sent.put(uid, current);
+    if (!allowDelta || previous == null || !previous.sameShape(current)) {
+      return null;
+    }
+    return previous.delta(current);
+  }
+
+  /**
+   * Forget what was sent to the specified agent, or to all agents if 
+   * dest is null.
+   **/
+  synchronized void forget(MessageAddress dest) {
+    if (dest == null) {
+      sent.clear();
+      return;
+    }
+    for (Iterator i = sent.values().iterator(); i.hasNext(); ) {
+      if (dest.equals(((Sent) i.next()).destination)) {
+        i.remove();
+      }
+    }
+  }
+
+  /** The parts of a transmitted task which deltas are computed over **/
+  private class Sent {
+    final UID uid;
+    final MessageAddress destination;
+    final Verb verb;
+    final Asset directObject;
+    final Context context;
+    final UID parentUID;
+    final int[] auxqtypes;
+    final byte priority;
+    final Date commitmentDate;
+    final Preference[] preferences;
+    final PrepositionalPhrase[] phrases;
+    /** copied, since phrases may be modified in place **/
+    final String[] prepositions;
+    /** the phrases' indirect objects, if all are immutable **/
+    final Object[] indirectObjects;
+    /** false if an indirect object may be modified in place **/
+    final boolean immutable;
+
+    Sent(Task t) {
+      uid = t.getUID();
+      destination = t.getDestination();
+      verb = t.getVerb();
+      directObject = t.getDirectObject();
+      context = t.getContext();
+      parentUID = t.getParentTaskUID();
+      int[] aqt = t.getAuxiliaryQueryTypes();
+      auxqtypes = (aqt == null) ? null : (int[]) aqt.clone();
+      priority = t.getPriority();
+      commitmentDate = t.getCommitmentDate();
+      preferences = ((TaskImpl) t).getPreferencesAsArray();
+      phrases = ((TaskImpl) t).getPrepositionalPhrasesAsArray();
+      prepositions = new String[phrases.length];
+      indirectObjects = new Object[phrases.length];
+      boolean ok = true;
+      for (int i = 0; i < phrases.length; i++) {
+        prepositions[i] = phrases[i].getPreposition();
+        Object io = phrases[i].getIndirectObject();
+        if (!isImmutable(io)) {
+          ok = false;
+          break;
+        }
+        indirectObjects[i] = io;
+      }
+      immutable = ok;
+    }
+
+    /** @return true if that differs from this only in the parts
+     * a TaskDelta can carry.
+     **/
+    boolean sameShape(Sent that) {
+      return (equal(destination, that.destination) &&
+              equal(verb, that.verb) &&
+              directObject == that.directObject &&
+              equal(context, that.context) &&
+              equal(parentUID, that.parentUID) &&
+              Arrays.equals(auxqtypes, that.auxqtypes) &&
+              equal(commitmentDate, that.commitmentDate) &&
+              immutable && that.immutable &&
+              uniqueAspects(preferences) && uniqueAspects(that.preferences) &&
+              uniquePrepositions(prepositions) && uniquePrepositions(that.prepositions));
+    }
+
+    /** @return the delta from this to that **/
+    TaskDelta delta(Sent that) {
+      NewTaskDelta delta = ldmf.newTaskDelta(uid, destination);
+
+      int nc = 0;
+      Preference[] changed = new Preference[that.preferences.length];
+      for (int i = 0; i < that.preferences.length; i++) {
+        Preference p = that.preferences[i];
+        Preference old = findPreference(preferences, p.getAspectType());
+        if (old == null || !old.equals(p)) {
+          changed[nc++] = p;
+        }
+      }
+      int nr = 0;
+      int[] removed = new int[preferences.length];
+      for (int i = 0; i < preferences.length; i++) {
+        int at = preferences[i].getAspectType();
+        if (findPreference(that.preferences, at) == null) {
+          removed[nr++] = at;
+        }
+      }
+      if (nc > 0) {
+        delta.setChangedPreferences((Preference[]) trim(changed, nc, new Preference[nc]));
+      }
+      if (nr > 0) {
+        int[] r = new int[nr];
+        System.arraycopy(removed, 0, r, 0, nr);
+        delta.setRemovedAspectTypes(r);
+      }
+
+      nc = 0;
+      PrepositionalPhrase[] changedPhrases = new PrepositionalPhrase[that.phrases.length];
+      for (int i = 0; i < that.phrases.length; i++) {
+        int old = findPreposition(prepositions, that.prepositions[i]);
+        if (old < 0 || !equal(indirectObjects[old], that.indirectObjects[i])) {
+          changedPhrases[nc++] = that.phrases[i];
+        }
+      }
+      nr = 0;
+      String[] removedPreps = new String[prepositions.length];
+      for (int i = 0; i < prepositions.length; i++) {
+        String prep = prepositions[i];
+        if (findPreposition(that.prepositions, prep) < 0) {
+          removedPreps[nr++] = prep;
+        }
+      }
+      if (nc > 0) {
+        delta.setChangedPrepositionalPhrases(
+          (PrepositionalPhrase[]) trim(changedPhrases, nc, new PrepositionalPhrase[nc]));
+      }
+      if (nr > 0) {
+        delta.setRemovedPrepositions((String[]) trim(removedPreps, nr, new String[nr]));
+      }
+
+      if (priority != that.priority) {
+        delta.setPriority(that.priority);
+      }
+      return delta;
+    }
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return (a == null) ? (b == null) : a.equals(b);
+  }
+
+  private static Object[] trim(Object[] from, int n, Object[] to) {
+    System.arraycopy(from, 0, to, 0, n);
+    return to;
+  }
+
+  private static Preference findPreference(Preference[] prefs, int aspectType) {
+    for (int i = 0; i < prefs.length; i++) {
+      if (prefs[i].getAspectType() == aspectType) {
+        return prefs[i];
+      }
+    }
+    return null;
+  }
+
+  /** @return the index of the preposition, or -1 **/
+  private static int findPreposition(String[] prepositions, String prep) {
+    for (int i = 0; i < prepositions.length; i++) {
+      if (equal(prep, prepositions[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return true if the indirect object can't be modified in place,
+   * so the reference sent earlier still shows what was sent
+   **/
+  private static boolean isImmutable(Object io) {
+    return (io == null ||
+            io instanceof String ||
+            io instanceof Number ||
+            io instanceof Boolean ||
+            io instanceof Character ||
+            io instanceof Verb ||
+            io instanceof UID ||
+            io instanceof MessageAddress);
+  }
+
+  private static boolean uniqueAspects(Preference[] prefs) {
+    for (int i = 1; i < prefs.length; i++) {
+      int at = prefs[i].getAspectType();
+      for (int j = 0; j < i; j++) {
+        if (prefs[j].getAspectType() == at) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean uniquePrepositions(String[] prepositions) {
+    for (int i = 1; i < prepositions.length; i++) {
+      String prep = prepositions[i];
+      for (int j = 0; j < i; j++) {
+        if (equal(prep, prepositions[j])) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
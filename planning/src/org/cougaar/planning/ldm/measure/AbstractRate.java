@@ -69,28 +69,31 @@ public final class AbstractRate extends AbstractMeasure implements Externalizabl
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "persecond",
+      "perminute",
+      "perhour",
+      "perday",
+      "perweek",
+      "permillisecond",
+      "perkilosecond"
+    },
+    new double[] {
+      1.0,
+      PER_SECOND_PER_PER_MINUTE,
+      PER_SECOND_PER_PER_HOUR,
+      PER_SECOND_PER_PER_DAY,
+      PER_SECOND_PER_PER_WEEK,
+      PER_SECOND_PER_PER_MILLISECOND,
+      PER_SECOND_PER_PER_KILOSECOND
+    });
+
   /** takes strings of the form "Number unit" **/
   public AbstractRate(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("persecond")) 
-      theValue=n;
-    else if (u.equals("perminute")) 
-      theValue=n*PER_SECOND_PER_PER_MINUTE;
-    else if (u.equals("perhour")) 
-      theValue=n*PER_SECOND_PER_PER_HOUR;
-    else if (u.equals("perday")) 
-      theValue=n*PER_SECOND_PER_PER_DAY;
-    else if (u.equals("perweek")) 
-      theValue=n*PER_SECOND_PER_PER_WEEK;
-    else if (u.equals("permillisecond")) 
-      theValue=n*PER_SECOND_PER_PER_MILLISECOND;
-    else if (u.equals("perkilosecond")) 
-      theValue=n*PER_SECOND_PER_PER_KILOSECOND;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -66,26 +66,29 @@ public final class Area extends Scalar implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "squaremeters",
+      "squarefeet",
+      "squareyards",
+      "acres",
+      "hectares",
+      "squareinches"
+    },
+    new double[] {
+      1.0,
+      SQUARE_METERS_PER_SQUARE_FEET,
+      SQUARE_METERS_PER_SQUARE_YARDS,
+      SQUARE_METERS_PER_ACRES,
+      SQUARE_METERS_PER_HECTARES,
+      SQUARE_METERS_PER_SQUARE_INCHES
+    });
+
   /** takes strings of the form "Number unit" **/
   public Area(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("squaremeters")) 
-      theValue=n;
-    else if (u.equals("squarefeet")) 
-      theValue=n*SQUARE_METERS_PER_SQUARE_FEET;
-    else if (u.equals("squareyards")) 
-      theValue=n*SQUARE_METERS_PER_SQUARE_YARDS;
-    else if (u.equals("acres")) 
-      theValue=n*SQUARE_METERS_PER_ACRES;
-    else if (u.equals("hectares")) 
-      theValue=n*SQUARE_METERS_PER_HECTARES;
-    else if (u.equals("squareinches")) 
-      theValue=n*SQUARE_METERS_PER_SQUARE_INCHES;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -56,16 +56,19 @@ public final class Cost extends AbstractMeasure implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "dollars"
+    },
+    new double[] {
+      1.0
+    });
+
   /** takes strings of the form "Number unit" **/
   public Cost(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("dollars")) 
-      theValue=n;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -73,34 +73,37 @@ public final class CostRate extends AbstractMeasure
     theValue = num.getValue(0)/den.getValue(0);
   }
 
+  // unit names accepted by the String constructor, and their
+  // divisors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.dividing(
+    new String[] {
+      "dollarspersecond",
+      "dollarsperminute",
+      "dollarsperhour",
+      "dollarsperday",
+      "dollarsperweek",
+      "dollarspermillisecond",
+      "dollarsperkilosecond",
+      "dollarspermonth",
+      "dollarsperyear",
+      "dollarsperfortnight"
+    },
+    new double[] {
+      (1.0d/1.0d),
+      (1.0d/(1.0d/60)),
+      (1.0d/(1.0d/3600)),
+      (1.0d/(1.0d/86400)),
+      (1.0d/(1.0d/604800)),
+      (1.0d/1000),
+      (1.0d/(1.0d/1000)),
+      (1.0d/(1.0d/2629743.8)),
+      (1.0d/(1.0d/31556926)),
+      (1.0d/(1.0d/1209600))
+    });
+
   /** takes strings of the form "Number unit" **/
   public CostRate(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("dollarspersecond")) 
-      theValue=n/(1.0d/1.0d);
-    else if (u.equals("dollarsperminute")) 
-      theValue=n/(1.0d/(1.0d/60));
-    else if (u.equals("dollarsperhour")) 
-      theValue=n/(1.0d/(1.0d/3600));
-    else if (u.equals("dollarsperday")) 
-      theValue=n/(1.0d/(1.0d/86400));
-    else if (u.equals("dollarsperweek")) 
-      theValue=n/(1.0d/(1.0d/604800));
-    else if (u.equals("dollarspermillisecond")) 
-      theValue=n/(1.0d/1000);
-    else if (u.equals("dollarsperkilosecond")) 
-      theValue=n/(1.0d/(1.0d/1000));
-    else if (u.equals("dollarspermonth")) 
-      theValue=n/(1.0d/(1.0d/2629743.8));
-    else if (u.equals("dollarsperyear")) 
-      theValue=n/(1.0d/(1.0d/31556926));
-    else if (u.equals("dollarsperfortnight")) 
-      theValue=n/(1.0d/(1.0d/1209600));
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
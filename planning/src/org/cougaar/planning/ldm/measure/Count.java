@@ -66,26 +66,29 @@ public final class Count extends Scalar implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "units",
+      "eaches",
+      "dozen",
+      "hundred",
+      "gross",
+      "million"
+    },
+    new double[] {
+      1.0,
+      UNITS_PER_EACHES,
+      UNITS_PER_DOZEN,
+      UNITS_PER_HUNDRED,
+      UNITS_PER_GROSS,
+      UNITS_PER_MILLION
+    });
+
   /** takes strings of the form "Number unit" **/
   public Count(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("units")) 
-      theValue=n;
-    else if (u.equals("eaches")) 
-      theValue=n*UNITS_PER_EACHES;
-    else if (u.equals("dozen")) 
-      theValue=n*UNITS_PER_DOZEN;
-    else if (u.equals("hundred")) 
-      theValue=n*UNITS_PER_HUNDRED;
-    else if (u.equals("gross")) 
-      theValue=n*UNITS_PER_GROSS;
-    else if (u.equals("million")) 
-      theValue=n*UNITS_PER_MILLION;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -73,134 +73,137 @@ public final class CountRate extends AbstractMeasure
     theValue = num.getValue(0)/den.getValue(0);
   }
 
+  // unit names accepted by the String constructor, and their
+  // divisors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.dividing(
+    new String[] {
+      "unitspersecond",
+      "unitsperminute",
+      "unitsperhour",
+      "unitsperday",
+      "unitsperweek",
+      "unitspermillisecond",
+      "unitsperkilosecond",
+      "unitspermonth",
+      "unitsperyear",
+      "unitsperfortnight",
+      "eachespersecond",
+      "eachesperminute",
+      "eachesperhour",
+      "eachesperday",
+      "eachesperweek",
+      "eachespermillisecond",
+      "eachesperkilosecond",
+      "eachespermonth",
+      "eachesperyear",
+      "eachesperfortnight",
+      "dozenpersecond",
+      "dozenperminute",
+      "dozenperhour",
+      "dozenperday",
+      "dozenperweek",
+      "dozenpermillisecond",
+      "dozenperkilosecond",
+      "dozenpermonth",
+      "dozenperyear",
+      "dozenperfortnight",
+      "hundredpersecond",
+      "hundredperminute",
+      "hundredperhour",
+      "hundredperday",
+      "hundredperweek",
+      "hundredpermillisecond",
+      "hundredperkilosecond",
+      "hundredpermonth",
+      "hundredperyear",
+      "hundredperfortnight",
+      "grosspersecond",
+      "grossperminute",
+      "grossperhour",
+      "grossperday",
+      "grossperweek",
+      "grosspermillisecond",
+      "grossperkilosecond",
+      "grosspermonth",
+      "grossperyear",
+      "grossperfortnight",
+      "millionpersecond",
+      "millionperminute",
+      "millionperhour",
+      "millionperday",
+      "millionperweek",
+      "millionpermillisecond",
+      "millionperkilosecond",
+      "millionpermonth",
+      "millionperyear",
+      "millionperfortnight"
+    },
+    new double[] {
+      (1.0d/1.0d),
+      (1.0d/(1.0d/60)),
+      (1.0d/(1.0d/3600)),
+      (1.0d/(1.0d/86400)),
+      (1.0d/(1.0d/604800)),
+      (1.0d/1000),
+      (1.0d/(1.0d/1000)),
+      (1.0d/(1.0d/2629743.8)),
+      (1.0d/(1.0d/31556926)),
+      (1.0d/(1.0d/1209600)),
+      (1.0/1.0d),
+      (1.0/(1.0d/60)),
+      (1.0/(1.0d/3600)),
+      (1.0/(1.0d/86400)),
+      (1.0/(1.0d/604800)),
+      (1.0/1000),
+      (1.0/(1.0d/1000)),
+      (1.0/(1.0d/2629743.8)),
+      (1.0/(1.0d/31556926)),
+      (1.0/(1.0d/1209600)),
+      ((1.0d/12)/1.0d),
+      ((1.0d/12)/(1.0d/60)),
+      ((1.0d/12)/(1.0d/3600)),
+      ((1.0d/12)/(1.0d/86400)),
+      ((1.0d/12)/(1.0d/604800)),
+      ((1.0d/12)/1000),
+      ((1.0d/12)/(1.0d/1000)),
+      ((1.0d/12)/(1.0d/2629743.8)),
+      ((1.0d/12)/(1.0d/31556926)),
+      ((1.0d/12)/(1.0d/1209600)),
+      ((1.0d/100)/1.0d),
+      ((1.0d/100)/(1.0d/60)),
+      ((1.0d/100)/(1.0d/3600)),
+      ((1.0d/100)/(1.0d/86400)),
+      ((1.0d/100)/(1.0d/604800)),
+      ((1.0d/100)/1000),
+      ((1.0d/100)/(1.0d/1000)),
+      ((1.0d/100)/(1.0d/2629743.8)),
+      ((1.0d/100)/(1.0d/31556926)),
+      ((1.0d/100)/(1.0d/1209600)),
+      ((1.0d/144)/1.0d),
+      ((1.0d/144)/(1.0d/60)),
+      ((1.0d/144)/(1.0d/3600)),
+      ((1.0d/144)/(1.0d/86400)),
+      ((1.0d/144)/(1.0d/604800)),
+      ((1.0d/144)/1000),
+      ((1.0d/144)/(1.0d/1000)),
+      ((1.0d/144)/(1.0d/2629743.8)),
+      ((1.0d/144)/(1.0d/31556926)),
+      ((1.0d/144)/(1.0d/1209600)),
+      ((1.0d/1000000)/1.0d),
+      ((1.0d/1000000)/(1.0d/60)),
+      ((1.0d/1000000)/(1.0d/3600)),
+      ((1.0d/1000000)/(1.0d/86400)),
+      ((1.0d/1000000)/(1.0d/604800)),
+      ((1.0d/1000000)/1000),
+      ((1.0d/1000000)/(1.0d/1000)),
+      ((1.0d/1000000)/(1.0d/2629743.8)),
+      ((1.0d/1000000)/(1.0d/31556926)),
+      ((1.0d/1000000)/(1.0d/1209600))
+    });
+
   /** takes strings of the form "Number unit" **/
   public CountRate(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("unitspersecond")) 
-      theValue=n/(1.0d/1.0d);
-    else if (u.equals("unitsperminute")) 
-      theValue=n/(1.0d/(1.0d/60));
-    else if (u.equals("unitsperhour")) 
-      theValue=n/(1.0d/(1.0d/3600));
-    else if (u.equals("unitsperday")) 
-      theValue=n/(1.0d/(1.0d/86400));
-    else if (u.equals("unitsperweek")) 
-      theValue=n/(1.0d/(1.0d/604800));
-    else if (u.equals("unitspermillisecond")) 
-      theValue=n/(1.0d/1000);
-    else if (u.equals("unitsperkilosecond")) 
-      theValue=n/(1.0d/(1.0d/1000));
-    else if (u.equals("unitspermonth")) 
-      theValue=n/(1.0d/(1.0d/2629743.8));
-    else if (u.equals("unitsperyear")) 
-      theValue=n/(1.0d/(1.0d/31556926));
-    else if (u.equals("unitsperfortnight")) 
-      theValue=n/(1.0d/(1.0d/1209600));
-    else if (u.equals("eachespersecond")) 
-      theValue=n/(1.0/1.0d);
-    else if (u.equals("eachesperminute")) 
-      theValue=n/(1.0/(1.0d/60));
-    else if (u.equals("eachesperhour")) 
-      theValue=n/(1.0/(1.0d/3600));
-    else if (u.equals("eachesperday")) 
-      theValue=n/(1.0/(1.0d/86400));
-    else if (u.equals("eachesperweek")) 
-      theValue=n/(1.0/(1.0d/604800));
-    else if (u.equals("eachespermillisecond")) 
-      theValue=n/(1.0/1000);
-    else if (u.equals("eachesperkilosecond")) 
-      theValue=n/(1.0/(1.0d/1000));
-    else if (u.equals("eachespermonth")) 
-      theValue=n/(1.0/(1.0d/2629743.8));
-    else if (u.equals("eachesperyear")) 
-      theValue=n/(1.0/(1.0d/31556926));
-    else if (u.equals("eachesperfortnight")) 
-      theValue=n/(1.0/(1.0d/1209600));
-    else if (u.equals("dozenpersecond")) 
-      theValue=n/((1.0d/12)/1.0d);
-    else if (u.equals("dozenperminute")) 
-      theValue=n/((1.0d/12)/(1.0d/60));
-    else if (u.equals("dozenperhour")) 
-      theValue=n/((1.0d/12)/(1.0d/3600));
-    else if (u.equals("dozenperday")) 
-      theValue=n/((1.0d/12)/(1.0d/86400));
-    else if (u.equals("dozenperweek")) 
-      theValue=n/((1.0d/12)/(1.0d/604800));
-    else if (u.equals("dozenpermillisecond")) 
-      theValue=n/((1.0d/12)/1000);
-    else if (u.equals("dozenperkilosecond")) 
-      theValue=n/((1.0d/12)/(1.0d/1000));
-    else if (u.equals("dozenpermonth")) 
-      theValue=n/((1.0d/12)/(1.0d/2629743.8));
-    else if (u.equals("dozenperyear")) 
-      theValue=n/((1.0d/12)/(1.0d/31556926));
-    else if (u.equals("dozenperfortnight")) 
-      theValue=n/((1.0d/12)/(1.0d/1209600));
-    else if (u.equals("hundredpersecond")) 
-      theValue=n/((1.0d/100)/1.0d);
-    else if (u.equals("hundredperminute")) 
-      theValue=n/((1.0d/100)/(1.0d/60));
-    else if (u.equals("hundredperhour")) 
-      theValue=n/((1.0d/100)/(1.0d/3600));
-    else if (u.equals("hundredperday")) 
-      theValue=n/((1.0d/100)/(1.0d/86400));
-    else if (u.equals("hundredperweek")) 
-      theValue=n/((1.0d/100)/(1.0d/604800));
-    else if (u.equals("hundredpermillisecond")) 
-      theValue=n/((1.0d/100)/1000);
-    else if (u.equals("hundredperkilosecond")) 
-      theValue=n/((1.0d/100)/(1.0d/1000));
-    else if (u.equals("hundredpermonth")) 
-      theValue=n/((1.0d/100)/(1.0d/2629743.8));
-    else if (u.equals("hundredperyear")) 
-      theValue=n/((1.0d/100)/(1.0d/31556926));
-    else if (u.equals("hundredperfortnight")) 
-      theValue=n/((1.0d/100)/(1.0d/1209600));
-    else if (u.equals("grosspersecond")) 
-      theValue=n/((1.0d/144)/1.0d);
-    else if (u.equals("grossperminute")) 
-      theValue=n/((1.0d/144)/(1.0d/60));
-    else if (u.equals("grossperhour")) 
-      theValue=n/((1.0d/144)/(1.0d/3600));
-    else if (u.equals("grossperday")) 
-      theValue=n/((1.0d/144)/(1.0d/86400));
-    else if (u.equals("grossperweek")) 
-      theValue=n/((1.0d/144)/(1.0d/604800));
-    else if (u.equals("grosspermillisecond")) 
-      theValue=n/((1.0d/144)/1000);
-    else if (u.equals("grossperkilosecond")) 
-      theValue=n/((1.0d/144)/(1.0d/1000));
-    else if (u.equals("grosspermonth")) 
-      theValue=n/((1.0d/144)/(1.0d/2629743.8));
-    else if (u.equals("grossperyear")) 
-      theValue=n/((1.0d/144)/(1.0d/31556926));
-    else if (u.equals("grossperfortnight")) 
-      theValue=n/((1.0d/144)/(1.0d/1209600));
-    else if (u.equals("millionpersecond")) 
-      theValue=n/((1.0d/1000000)/1.0d);
-    else if (u.equals("millionperminute")) 
-      theValue=n/((1.0d/1000000)/(1.0d/60));
-    else if (u.equals("millionperhour")) 
-      theValue=n/((1.0d/1000000)/(1.0d/3600));
-    else if (u.equals("millionperday")) 
-      theValue=n/((1.0d/1000000)/(1.0d/86400));
-    else if (u.equals("millionperweek")) 
-      theValue=n/((1.0d/1000000)/(1.0d/604800));
-    else if (u.equals("millionpermillisecond")) 
-      theValue=n/((1.0d/1000000)/1000);
-    else if (u.equals("millionperkilosecond")) 
-      theValue=n/((1.0d/1000000)/(1.0d/1000));
-    else if (u.equals("millionpermonth")) 
-      theValue=n/((1.0d/1000000)/(1.0d/2629743.8));
-    else if (u.equals("millionperyear")) 
-      theValue=n/((1.0d/1000000)/(1.0d/31556926));
-    else if (u.equals("millionperfortnight")) 
-      theValue=n/((1.0d/1000000)/(1.0d/1209600));
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
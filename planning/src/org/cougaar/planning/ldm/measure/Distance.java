@@ -74,34 +74,37 @@ public final class Distance extends Scalar implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "meters",
+      "miles",
+      "nauticalmiles",
+      "yards",
+      "feet",
+      "inches",
+      "kilometers",
+      "centimeters",
+      "millimeters",
+      "furlongs"
+    },
+    new double[] {
+      1.0,
+      METERS_PER_MILES,
+      METERS_PER_NAUTICAL_MILES,
+      METERS_PER_YARDS,
+      METERS_PER_FEET,
+      METERS_PER_INCHES,
+      METERS_PER_KILOMETERS,
+      METERS_PER_CENTIMETERS,
+      METERS_PER_MILLIMETERS,
+      METERS_PER_FURLONGS
+    });
+
   /** takes strings of the form "Number unit" **/
   public Distance(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("meters")) 
-      theValue=n;
-    else if (u.equals("miles")) 
-      theValue=n*METERS_PER_MILES;
-    else if (u.equals("nauticalmiles")) 
-      theValue=n*METERS_PER_NAUTICAL_MILES;
-    else if (u.equals("yards")) 
-      theValue=n*METERS_PER_YARDS;
-    else if (u.equals("feet")) 
-      theValue=n*METERS_PER_FEET;
-    else if (u.equals("inches")) 
-      theValue=n*METERS_PER_INCHES;
-    else if (u.equals("kilometers")) 
-      theValue=n*METERS_PER_KILOMETERS;
-    else if (u.equals("centimeters")) 
-      theValue=n*METERS_PER_CENTIMETERS;
-    else if (u.equals("millimeters")) 
-      theValue=n*METERS_PER_MILLIMETERS;
-    else if (u.equals("furlongs")) 
-      theValue=n*METERS_PER_FURLONGS;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
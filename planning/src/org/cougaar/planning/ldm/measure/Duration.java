@@ -74,34 +74,37 @@ public final class Duration extends Scalar implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "seconds",
+      "minutes",
+      "hours",
+      "days",
+      "weeks",
+      "milliseconds",
+      "kiloseconds",
+      "months",
+      "years",
+      "fortnights"
+    },
+    new double[] {
+      1.0,
+      SECONDS_PER_MINUTES,
+      SECONDS_PER_HOURS,
+      SECONDS_PER_DAYS,
+      SECONDS_PER_WEEKS,
+      SECONDS_PER_MILLISECONDS,
+      SECONDS_PER_KILOSECONDS,
+      SECONDS_PER_MONTHS,
+      SECONDS_PER_YEARS,
+      SECONDS_PER_FORTNIGHTS
+    });
+
   /** takes strings of the form "Number unit" **/
   public Duration(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("seconds")) 
-      theValue=n;
-    else if (u.equals("minutes")) 
-      theValue=n*SECONDS_PER_MINUTES;
-    else if (u.equals("hours")) 
-      theValue=n*SECONDS_PER_HOURS;
-    else if (u.equals("days")) 
-      theValue=n*SECONDS_PER_DAYS;
-    else if (u.equals("weeks")) 
-      theValue=n*SECONDS_PER_WEEKS;
-    else if (u.equals("milliseconds")) 
-      theValue=n*SECONDS_PER_MILLISECONDS;
-    else if (u.equals("kiloseconds")) 
-      theValue=n*SECONDS_PER_KILOSECONDS;
-    else if (u.equals("months")) 
-      theValue=n*SECONDS_PER_MONTHS;
-    else if (u.equals("years")) 
-      theValue=n*SECONDS_PER_YEARS;
-    else if (u.equals("fortnights")) 
-      theValue=n*SECONDS_PER_FORTNIGHTS;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
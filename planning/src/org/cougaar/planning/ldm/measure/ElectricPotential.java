@@ -58,18 +58,21 @@ public final class ElectricPotential extends AbstractMeasure implements External
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "volts",
+      "millivolts"
+    },
+    new double[] {
+      1.0,
+      VOLTS_PER_MILLIVOLTS
+    });
+
   /** takes strings of the form "Number unit" **/
   public ElectricPotential(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("volts")) 
-      theValue=n;
-    else if (u.equals("millivolts")) 
-      theValue=n*VOLTS_PER_MILLIVOLTS;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
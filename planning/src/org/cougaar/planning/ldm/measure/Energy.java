@@ -60,20 +60,23 @@ public final class Energy extends AbstractMeasure implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "cal",
+      "joule",
+      "kcal"
+    },
+    new double[] {
+      1.0,
+      CAL_PER_JOULE,
+      CAL_PER_KCAL
+    });
+
   /** takes strings of the form "Number unit" **/
   public Energy(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("cal")) 
-      theValue=n;
-    else if (u.equals("joule")) 
-      theValue=n*CAL_PER_JOULE;
-    else if (u.equals("kcal")) 
-      theValue=n*CAL_PER_KCAL;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -73,214 +73,217 @@ public final class FlowRate extends AbstractMeasure
     theValue = num.getValue(0)/den.getValue(0);
   }
 
+  // unit names accepted by the String constructor, and their
+  // divisors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.dividing(
+    new String[] {
+      "literspersecond",
+      "litersperminute",
+      "litersperhour",
+      "litersperday",
+      "litersperweek",
+      "literspermillisecond",
+      "litersperkilosecond",
+      "literspermonth",
+      "litersperyear",
+      "litersperfortnight",
+      "ouncespersecond",
+      "ouncesperminute",
+      "ouncesperhour",
+      "ouncesperday",
+      "ouncesperweek",
+      "ouncespermillisecond",
+      "ouncesperkilosecond",
+      "ouncespermonth",
+      "ouncesperyear",
+      "ouncesperfortnight",
+      "gallonspersecond",
+      "gallonsperminute",
+      "gallonsperhour",
+      "gallonsperday",
+      "gallonsperweek",
+      "gallonspermillisecond",
+      "gallonsperkilosecond",
+      "gallonspermonth",
+      "gallonsperyear",
+      "gallonsperfortnight",
+      "imperialgallonspersecond",
+      "imperialgallonsperminute",
+      "imperialgallonsperhour",
+      "imperialgallonsperday",
+      "imperialgallonsperweek",
+      "imperialgallonspermillisecond",
+      "imperialgallonsperkilosecond",
+      "imperialgallonspermonth",
+      "imperialgallonsperyear",
+      "imperialgallonsperfortnight",
+      "cubicfeetpersecond",
+      "cubicfeetperminute",
+      "cubicfeetperhour",
+      "cubicfeetperday",
+      "cubicfeetperweek",
+      "cubicfeetpermillisecond",
+      "cubicfeetperkilosecond",
+      "cubicfeetpermonth",
+      "cubicfeetperyear",
+      "cubicfeetperfortnight",
+      "cubicyardspersecond",
+      "cubicyardsperminute",
+      "cubicyardsperhour",
+      "cubicyardsperday",
+      "cubicyardsperweek",
+      "cubicyardspermillisecond",
+      "cubicyardsperkilosecond",
+      "cubicyardspermonth",
+      "cubicyardsperyear",
+      "cubicyardsperfortnight",
+      "mtonspersecond",
+      "mtonsperminute",
+      "mtonsperhour",
+      "mtonsperday",
+      "mtonsperweek",
+      "mtonspermillisecond",
+      "mtonsperkilosecond",
+      "mtonspermonth",
+      "mtonsperyear",
+      "mtonsperfortnight",
+      "cubiccentimeterspersecond",
+      "cubiccentimetersperminute",
+      "cubiccentimetersperhour",
+      "cubiccentimetersperday",
+      "cubiccentimetersperweek",
+      "cubiccentimeterspermillisecond",
+      "cubiccentimetersperkilosecond",
+      "cubiccentimeterspermonth",
+      "cubiccentimetersperyear",
+      "cubiccentimetersperfortnight",
+      "cubicmeterspersecond",
+      "cubicmetersperminute",
+      "cubicmetersperhour",
+      "cubicmetersperday",
+      "cubicmetersperweek",
+      "cubicmeterspermillisecond",
+      "cubicmetersperkilosecond",
+      "cubicmeterspermonth",
+      "cubicmetersperyear",
+      "cubicmetersperfortnight",
+      "barrelspersecond",
+      "barrelsperminute",
+      "barrelsperhour",
+      "barrelsperday",
+      "barrelsperweek",
+      "barrelspermillisecond",
+      "barrelsperkilosecond",
+      "barrelspermonth",
+      "barrelsperyear",
+      "barrelsperfortnight"
+    },
+    new double[] {
+      (1.0d/1.0d),
+      (1.0d/(1.0d/60)),
+      (1.0d/(1.0d/3600)),
+      (1.0d/(1.0d/86400)),
+      (1.0d/(1.0d/604800)),
+      (1.0d/1000),
+      (1.0d/(1.0d/1000)),
+      (1.0d/(1.0d/2629743.8)),
+      (1.0d/(1.0d/31556926)),
+      (1.0d/(1.0d/1209600)),
+      (33.814023/1.0d),
+      (33.814023/(1.0d/60)),
+      (33.814023/(1.0d/3600)),
+      (33.814023/(1.0d/86400)),
+      (33.814023/(1.0d/604800)),
+      (33.814023/1000),
+      (33.814023/(1.0d/1000)),
+      (33.814023/(1.0d/2629743.8)),
+      (33.814023/(1.0d/31556926)),
+      (33.814023/(1.0d/1209600)),
+      ((1.0d/3.785412)/1.0d),
+      ((1.0d/3.785412)/(1.0d/60)),
+      ((1.0d/3.785412)/(1.0d/3600)),
+      ((1.0d/3.785412)/(1.0d/86400)),
+      ((1.0d/3.785412)/(1.0d/604800)),
+      ((1.0d/3.785412)/1000),
+      ((1.0d/3.785412)/(1.0d/1000)),
+      ((1.0d/3.785412)/(1.0d/2629743.8)),
+      ((1.0d/3.785412)/(1.0d/31556926)),
+      ((1.0d/3.785412)/(1.0d/1209600)),
+      ((1.0d/4.546090)/1.0d),
+      ((1.0d/4.546090)/(1.0d/60)),
+      ((1.0d/4.546090)/(1.0d/3600)),
+      ((1.0d/4.546090)/(1.0d/86400)),
+      ((1.0d/4.546090)/(1.0d/604800)),
+      ((1.0d/4.546090)/1000),
+      ((1.0d/4.546090)/(1.0d/1000)),
+      ((1.0d/4.546090)/(1.0d/2629743.8)),
+      ((1.0d/4.546090)/(1.0d/31556926)),
+      ((1.0d/4.546090)/(1.0d/1209600)),
+      ((1.0d/28.316847)/1.0d),
+      ((1.0d/28.316847)/(1.0d/60)),
+      ((1.0d/28.316847)/(1.0d/3600)),
+      ((1.0d/28.316847)/(1.0d/86400)),
+      ((1.0d/28.316847)/(1.0d/604800)),
+      ((1.0d/28.316847)/1000),
+      ((1.0d/28.316847)/(1.0d/1000)),
+      ((1.0d/28.316847)/(1.0d/2629743.8)),
+      ((1.0d/28.316847)/(1.0d/31556926)),
+      ((1.0d/28.316847)/(1.0d/1209600)),
+      ((1.0d/764.55486)/1.0d),
+      ((1.0d/764.55486)/(1.0d/60)),
+      ((1.0d/764.55486)/(1.0d/3600)),
+      ((1.0d/764.55486)/(1.0d/86400)),
+      ((1.0d/764.55486)/(1.0d/604800)),
+      ((1.0d/764.55486)/1000),
+      ((1.0d/764.55486)/(1.0d/1000)),
+      ((1.0d/764.55486)/(1.0d/2629743.8)),
+      ((1.0d/764.55486)/(1.0d/31556926)),
+      ((1.0d/764.55486)/(1.0d/1209600)),
+      ((1.0d/1132.67388)/1.0d),
+      ((1.0d/1132.67388)/(1.0d/60)),
+      ((1.0d/1132.67388)/(1.0d/3600)),
+      ((1.0d/1132.67388)/(1.0d/86400)),
+      ((1.0d/1132.67388)/(1.0d/604800)),
+      ((1.0d/1132.67388)/1000),
+      ((1.0d/1132.67388)/(1.0d/1000)),
+      ((1.0d/1132.67388)/(1.0d/2629743.8)),
+      ((1.0d/1132.67388)/(1.0d/31556926)),
+      ((1.0d/1132.67388)/(1.0d/1209600)),
+      (1000/1.0d),
+      (1000/(1.0d/60)),
+      (1000/(1.0d/3600)),
+      (1000/(1.0d/86400)),
+      (1000/(1.0d/604800)),
+      (1000/1000),
+      (1000/(1.0d/1000)),
+      (1000/(1.0d/2629743.8)),
+      (1000/(1.0d/31556926)),
+      (1000/(1.0d/1209600)),
+      ((1.0d/1000)/1.0d),
+      ((1.0d/1000)/(1.0d/60)),
+      ((1.0d/1000)/(1.0d/3600)),
+      ((1.0d/1000)/(1.0d/86400)),
+      ((1.0d/1000)/(1.0d/604800)),
+      ((1.0d/1000)/1000),
+      ((1.0d/1000)/(1.0d/1000)),
+      ((1.0d/1000)/(1.0d/2629743.8)),
+      ((1.0d/1000)/(1.0d/31556926)),
+      ((1.0d/1000)/(1.0d/1209600)),
+      ((1.0d/158.98729)/1.0d),
+      ((1.0d/158.98729)/(1.0d/60)),
+      ((1.0d/158.98729)/(1.0d/3600)),
+      ((1.0d/158.98729)/(1.0d/86400)),
+      ((1.0d/158.98729)/(1.0d/604800)),
+      ((1.0d/158.98729)/1000),
+      ((1.0d/158.98729)/(1.0d/1000)),
+      ((1.0d/158.98729)/(1.0d/2629743.8)),
+      ((1.0d/158.98729)/(1.0d/31556926)),
+      ((1.0d/158.98729)/(1.0d/1209600))
+    });
+
   /** takes strings of the form "Number unit" **/
   public FlowRate(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("literspersecond")) 
-      theValue=n/(1.0d/1.0d);
-    else if (u.equals("litersperminute")) 
-      theValue=n/(1.0d/(1.0d/60));
-    else if (u.equals("litersperhour")) 
-      theValue=n/(1.0d/(1.0d/3600));
-    else if (u.equals("litersperday")) 
-      theValue=n/(1.0d/(1.0d/86400));
-    else if (u.equals("litersperweek")) 
-      theValue=n/(1.0d/(1.0d/604800));
-    else if (u.equals("literspermillisecond")) 
-      theValue=n/(1.0d/1000);
-    else if (u.equals("litersperkilosecond")) 
-      theValue=n/(1.0d/(1.0d/1000));
-    else if (u.equals("literspermonth")) 
-      theValue=n/(1.0d/(1.0d/2629743.8));
-    else if (u.equals("litersperyear")) 
-      theValue=n/(1.0d/(1.0d/31556926));
-    else if (u.equals("litersperfortnight")) 
-      theValue=n/(1.0d/(1.0d/1209600));
-    else if (u.equals("ouncespersecond")) 
-      theValue=n/(33.814023/1.0d);
-    else if (u.equals("ouncesperminute")) 
-      theValue=n/(33.814023/(1.0d/60));
-    else if (u.equals("ouncesperhour")) 
-      theValue=n/(33.814023/(1.0d/3600));
-    else if (u.equals("ouncesperday")) 
-      theValue=n/(33.814023/(1.0d/86400));
-    else if (u.equals("ouncesperweek")) 
-      theValue=n/(33.814023/(1.0d/604800));
-    else if (u.equals("ouncespermillisecond")) 
-      theValue=n/(33.814023/1000);
-    else if (u.equals("ouncesperkilosecond")) 
-      theValue=n/(33.814023/(1.0d/1000));
-    else if (u.equals("ouncespermonth")) 
-      theValue=n/(33.814023/(1.0d/2629743.8));
-    else if (u.equals("ouncesperyear")) 
-      theValue=n/(33.814023/(1.0d/31556926));
-    else if (u.equals("ouncesperfortnight")) 
-      theValue=n/(33.814023/(1.0d/1209600));
-    else if (u.equals("gallonspersecond")) 
-      theValue=n/((1.0d/3.785412)/1.0d);
-    else if (u.equals("gallonsperminute")) 
-      theValue=n/((1.0d/3.785412)/(1.0d/60));
-    else if (u.equals("gallonsperhour")) 
-      theValue=n/((1.0d/3.785412)/(1.0d/3600));
-    else if (u.equals("gallonsperday")) 
-      theValue=n/((1.0d/3.785412)/(1.0d/86400));
-    else if (u.equals("gallonsperweek")) 
-      theValue=n/((1.0d/3.785412)/(1.0d/604800));
-    else if (u.equals("gallonspermillisecond")) 
-      theValue=n/((1.0d/3.785412)/1000);
-    else if (u.equals("gallonsperkilosecond")) 
-      theValue=n/((1.0d/3.785412)/(1.0d/1000));
-    else if (u.equals("gallonspermonth")) 
-      theValue=n/((1.0d/3.785412)/(1.0d/2629743.8));
-    else if (u.equals("gallonsperyear")) 
-      theValue=n/((1.0d/3.785412)/(1.0d/31556926));
-    else if (u.equals("gallonsperfortnight")) 
-      theValue=n/((1.0d/3.785412)/(1.0d/1209600));
-    else if (u.equals("imperialgallonspersecond")) 
-      theValue=n/((1.0d/4.546090)/1.0d);
-    else if (u.equals("imperialgallonsperminute")) 
-      theValue=n/((1.0d/4.546090)/(1.0d/60));
-    else if (u.equals("imperialgallonsperhour")) 
-      theValue=n/((1.0d/4.546090)/(1.0d/3600));
-    else if (u.equals("imperialgallonsperday")) 
-      theValue=n/((1.0d/4.546090)/(1.0d/86400));
-    else if (u.equals("imperialgallonsperweek")) 
-      theValue=n/((1.0d/4.546090)/(1.0d/604800));
-    else if (u.equals("imperialgallonspermillisecond")) 
-      theValue=n/((1.0d/4.546090)/1000);
-    else if (u.equals("imperialgallonsperkilosecond")) 
-      theValue=n/((1.0d/4.546090)/(1.0d/1000));
-    else if (u.equals("imperialgallonspermonth")) 
-      theValue=n/((1.0d/4.546090)/(1.0d/2629743.8));
-    else if (u.equals("imperialgallonsperyear")) 
-      theValue=n/((1.0d/4.546090)/(1.0d/31556926));
-    else if (u.equals("imperialgallonsperfortnight")) 
-      theValue=n/((1.0d/4.546090)/(1.0d/1209600));
-    else if (u.equals("cubicfeetpersecond")) 
-      theValue=n/((1.0d/28.316847)/1.0d);
-    else if (u.equals("cubicfeetperminute")) 
-      theValue=n/((1.0d/28.316847)/(1.0d/60));
-    else if (u.equals("cubicfeetperhour")) 
-      theValue=n/((1.0d/28.316847)/(1.0d/3600));
-    else if (u.equals("cubicfeetperday")) 
-      theValue=n/((1.0d/28.316847)/(1.0d/86400));
-    else if (u.equals("cubicfeetperweek")) 
-      theValue=n/((1.0d/28.316847)/(1.0d/604800));
-    else if (u.equals("cubicfeetpermillisecond")) 
-      theValue=n/((1.0d/28.316847)/1000);
-    else if (u.equals("cubicfeetperkilosecond")) 
-      theValue=n/((1.0d/28.316847)/(1.0d/1000));
-    else if (u.equals("cubicfeetpermonth")) 
-      theValue=n/((1.0d/28.316847)/(1.0d/2629743.8));
-    else if (u.equals("cubicfeetperyear")) 
-      theValue=n/((1.0d/28.316847)/(1.0d/31556926));
-    else if (u.equals("cubicfeetperfortnight")) 
-      theValue=n/((1.0d/28.316847)/(1.0d/1209600));
-    else if (u.equals("cubicyardspersecond")) 
-      theValue=n/((1.0d/764.55486)/1.0d);
-    else if (u.equals("cubicyardsperminute")) 
-      theValue=n/((1.0d/764.55486)/(1.0d/60));
-    else if (u.equals("cubicyardsperhour")) 
-      theValue=n/((1.0d/764.55486)/(1.0d/3600));
-    else if (u.equals("cubicyardsperday")) 
-      theValue=n/((1.0d/764.55486)/(1.0d/86400));
-    else if (u.equals("cubicyardsperweek")) 
-      theValue=n/((1.0d/764.55486)/(1.0d/604800));
-    else if (u.equals("cubicyardspermillisecond")) 
-      theValue=n/((1.0d/764.55486)/1000);
-    else if (u.equals("cubicyardsperkilosecond")) 
-      theValue=n/((1.0d/764.55486)/(1.0d/1000));
-    else if (u.equals("cubicyardspermonth")) 
-      theValue=n/((1.0d/764.55486)/(1.0d/2629743.8));
-    else if (u.equals("cubicyardsperyear")) 
-      theValue=n/((1.0d/764.55486)/(1.0d/31556926));
-    else if (u.equals("cubicyardsperfortnight")) 
-      theValue=n/((1.0d/764.55486)/(1.0d/1209600));
-    else if (u.equals("mtonspersecond")) 
-      theValue=n/((1.0d/1132.67388)/1.0d);
-    else if (u.equals("mtonsperminute")) 
-      theValue=n/((1.0d/1132.67388)/(1.0d/60));
-    else if (u.equals("mtonsperhour")) 
-      theValue=n/((1.0d/1132.67388)/(1.0d/3600));
-    else if (u.equals("mtonsperday")) 
-      theValue=n/((1.0d/1132.67388)/(1.0d/86400));
-    else if (u.equals("mtonsperweek")) 
-      theValue=n/((1.0d/1132.67388)/(1.0d/604800));
-    else if (u.equals("mtonspermillisecond")) 
-      theValue=n/((1.0d/1132.67388)/1000);
-    else if (u.equals("mtonsperkilosecond")) 
-      theValue=n/((1.0d/1132.67388)/(1.0d/1000));
-    else if (u.equals("mtonspermonth")) 
-      theValue=n/((1.0d/1132.67388)/(1.0d/2629743.8));
-    else if (u.equals("mtonsperyear")) 
-      theValue=n/((1.0d/1132.67388)/(1.0d/31556926));
-    else if (u.equals("mtonsperfortnight")) 
-      theValue=n/((1.0d/1132.67388)/(1.0d/1209600));
-    else if (u.equals("cubiccentimeterspersecond")) 
-      theValue=n/(1000/1.0d);
-    else if (u.equals("cubiccentimetersperminute")) 
-      theValue=n/(1000/(1.0d/60));
-    else if (u.equals("cubiccentimetersperhour")) 
-      theValue=n/(1000/(1.0d/3600));
-    else if (u.equals("cubiccentimetersperday")) 
-      theValue=n/(1000/(1.0d/86400));
-    else if (u.equals("cubiccentimetersperweek")) 
-      theValue=n/(1000/(1.0d/604800));
-    else if (u.equals("cubiccentimeterspermillisecond")) 
-      theValue=n/(1000/1000);
-    else if (u.equals("cubiccentimetersperkilosecond")) 
-      theValue=n/(1000/(1.0d/1000));
-    else if (u.equals("cubiccentimeterspermonth")) 
-      theValue=n/(1000/(1.0d/2629743.8));
-    else if (u.equals("cubiccentimetersperyear")) 
-      theValue=n/(1000/(1.0d/31556926));
-    else if (u.equals("cubiccentimetersperfortnight")) 
-      theValue=n/(1000/(1.0d/1209600));
-    else if (u.equals("cubicmeterspersecond")) 
-      theValue=n/((1.0d/1000)/1.0d);
-    else if (u.equals("cubicmetersperminute")) 
-      theValue=n/((1.0d/1000)/(1.0d/60));
-    else if (u.equals("cubicmetersperhour")) 
-      theValue=n/((1.0d/1000)/(1.0d/3600));
-    else if (u.equals("cubicmetersperday")) 
-      theValue=n/((1.0d/1000)/(1.0d/86400));
-    else if (u.equals("cubicmetersperweek")) 
-      theValue=n/((1.0d/1000)/(1.0d/604800));
-    else if (u.equals("cubicmeterspermillisecond")) 
-      theValue=n/((1.0d/1000)/1000);
-    else if (u.equals("cubicmetersperkilosecond")) 
-      theValue=n/((1.0d/1000)/(1.0d/1000));
-    else if (u.equals("cubicmeterspermonth")) 
-      theValue=n/((1.0d/1000)/(1.0d/2629743.8));
-    else if (u.equals("cubicmetersperyear")) 
-      theValue=n/((1.0d/1000)/(1.0d/31556926));
-    else if (u.equals("cubicmetersperfortnight")) 
-      theValue=n/((1.0d/1000)/(1.0d/1209600));
-    else if (u.equals("barrelspersecond")) 
-      theValue=n/((1.0d/158.98729)/1.0d);
-    else if (u.equals("barrelsperminute")) 
-      theValue=n/((1.0d/158.98729)/(1.0d/60));
-    else if (u.equals("barrelsperhour")) 
-      theValue=n/((1.0d/158.98729)/(1.0d/3600));
-    else if (u.equals("barrelsperday")) 
-      theValue=n/((1.0d/158.98729)/(1.0d/86400));
-    else if (u.equals("barrelsperweek")) 
-      theValue=n/((1.0d/158.98729)/(1.0d/604800));
-    else if (u.equals("barrelspermillisecond")) 
-      theValue=n/((1.0d/158.98729)/1000);
-    else if (u.equals("barrelsperkilosecond")) 
-      theValue=n/((1.0d/158.98729)/(1.0d/1000));
-    else if (u.equals("barrelspermonth")) 
-      theValue=n/((1.0d/158.98729)/(1.0d/2629743.8));
-    else if (u.equals("barrelsperyear")) 
-      theValue=n/((1.0d/158.98729)/(1.0d/31556926));
-    else if (u.equals("barrelsperfortnight")) 
-      theValue=n/((1.0d/158.98729)/(1.0d/1209600));
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -49,15 +49,19 @@ public final class Longitude extends AbstractMeasure
     theValue = wrap(v);
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "degrees"
+    },
+    new double[] {
+      1.0
+    });
+
+  /** takes strings of the form "Number unit" **/
   public Longitude(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("degrees"))
-      theValue=n;
-    else
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   public int getCommonUnit() { return 0; }
@@ -68,28 +68,31 @@ public final class Mass extends Scalar implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "grams",
+      "kilograms",
+      "ounces",
+      "pounds",
+      "tons",
+      "shorttons",
+      "longtons"
+    },
+    new double[] {
+      1.0,
+      GRAMS_PER_KILOGRAMS,
+      GRAMS_PER_OUNCES,
+      GRAMS_PER_POUNDS,
+      GRAMS_PER_TONS,
+      GRAMS_PER_SHORT_TONS,
+      GRAMS_PER_LONG_TONS
+    });
+
   /** takes strings of the form "Number unit" **/
   public Mass(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("grams")) 
-      theValue=n;
-    else if (u.equals("kilograms")) 
-      theValue=n*GRAMS_PER_KILOGRAMS;
-    else if (u.equals("ounces")) 
-      theValue=n*GRAMS_PER_OUNCES;
-    else if (u.equals("pounds")) 
-      theValue=n*GRAMS_PER_POUNDS;
-    else if (u.equals("tons")) 
-      theValue=n*GRAMS_PER_TONS;
-    else if (u.equals("shorttons")) 
-      theValue=n*GRAMS_PER_SHORT_TONS;
-    else if (u.equals("longtons")) 
-      theValue=n*GRAMS_PER_LONG_TONS;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -73,154 +73,157 @@ public final class MassTransferRate extends AbstractMeasure
     theValue = num.getValue(0)/den.getValue(0);
   }
 
+  // unit names accepted by the String constructor, and their
+  // divisors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.dividing(
+    new String[] {
+      "gramspersecond",
+      "gramsperminute",
+      "gramsperhour",
+      "gramsperday",
+      "gramsperweek",
+      "gramspermillisecond",
+      "gramsperkilosecond",
+      "gramspermonth",
+      "gramsperyear",
+      "gramsperfortnight",
+      "kilogramspersecond",
+      "kilogramsperminute",
+      "kilogramsperhour",
+      "kilogramsperday",
+      "kilogramsperweek",
+      "kilogramspermillisecond",
+      "kilogramsperkilosecond",
+      "kilogramspermonth",
+      "kilogramsperyear",
+      "kilogramsperfortnight",
+      "ouncespersecond",
+      "ouncesperminute",
+      "ouncesperhour",
+      "ouncesperday",
+      "ouncesperweek",
+      "ouncespermillisecond",
+      "ouncesperkilosecond",
+      "ouncespermonth",
+      "ouncesperyear",
+      "ouncesperfortnight",
+      "poundspersecond",
+      "poundsperminute",
+      "poundsperhour",
+      "poundsperday",
+      "poundsperweek",
+      "poundspermillisecond",
+      "poundsperkilosecond",
+      "poundspermonth",
+      "poundsperyear",
+      "poundsperfortnight",
+      "tonspersecond",
+      "tonsperminute",
+      "tonsperhour",
+      "tonsperday",
+      "tonsperweek",
+      "tonspermillisecond",
+      "tonsperkilosecond",
+      "tonspermonth",
+      "tonsperyear",
+      "tonsperfortnight",
+      "shorttonspersecond",
+      "shorttonsperminute",
+      "shorttonsperhour",
+      "shorttonsperday",
+      "shorttonsperweek",
+      "shorttonspermillisecond",
+      "shorttonsperkilosecond",
+      "shorttonspermonth",
+      "shorttonsperyear",
+      "shorttonsperfortnight",
+      "longtonspersecond",
+      "longtonsperminute",
+      "longtonsperhour",
+      "longtonsperday",
+      "longtonsperweek",
+      "longtonspermillisecond",
+      "longtonsperkilosecond",
+      "longtonspermonth",
+      "longtonsperyear",
+      "longtonsperfortnight"
+    },
+    new double[] {
+      (1.0d/1.0d),
+      (1.0d/(1.0d/60)),
+      (1.0d/(1.0d/3600)),
+      (1.0d/(1.0d/86400)),
+      (1.0d/(1.0d/604800)),
+      (1.0d/1000),
+      (1.0d/(1.0d/1000)),
+      (1.0d/(1.0d/2629743.8)),
+      (1.0d/(1.0d/31556926)),
+      (1.0d/(1.0d/1209600)),
+      ((1.0d/1000)/1.0d),
+      ((1.0d/1000)/(1.0d/60)),
+      ((1.0d/1000)/(1.0d/3600)),
+      ((1.0d/1000)/(1.0d/86400)),
+      ((1.0d/1000)/(1.0d/604800)),
+      ((1.0d/1000)/1000),
+      ((1.0d/1000)/(1.0d/1000)),
+      ((1.0d/1000)/(1.0d/2629743.8)),
+      ((1.0d/1000)/(1.0d/31556926)),
+      ((1.0d/1000)/(1.0d/1209600)),
+      (0.035273962/1.0d),
+      (0.035273962/(1.0d/60)),
+      (0.035273962/(1.0d/3600)),
+      (0.035273962/(1.0d/86400)),
+      (0.035273962/(1.0d/604800)),
+      (0.035273962/1000),
+      (0.035273962/(1.0d/1000)),
+      (0.035273962/(1.0d/2629743.8)),
+      (0.035273962/(1.0d/31556926)),
+      (0.035273962/(1.0d/1209600)),
+      (0.0022046226/1.0d),
+      (0.0022046226/(1.0d/60)),
+      (0.0022046226/(1.0d/3600)),
+      (0.0022046226/(1.0d/86400)),
+      (0.0022046226/(1.0d/604800)),
+      (0.0022046226/1000),
+      (0.0022046226/(1.0d/1000)),
+      (0.0022046226/(1.0d/2629743.8)),
+      (0.0022046226/(1.0d/31556926)),
+      (0.0022046226/(1.0d/1209600)),
+      ((1.0d/907184.74)/1.0d),
+      ((1.0d/907184.74)/(1.0d/60)),
+      ((1.0d/907184.74)/(1.0d/3600)),
+      ((1.0d/907184.74)/(1.0d/86400)),
+      ((1.0d/907184.74)/(1.0d/604800)),
+      ((1.0d/907184.74)/1000),
+      ((1.0d/907184.74)/(1.0d/1000)),
+      ((1.0d/907184.74)/(1.0d/2629743.8)),
+      ((1.0d/907184.74)/(1.0d/31556926)),
+      ((1.0d/907184.74)/(1.0d/1209600)),
+      ((1.0d/907184.74)/1.0d),
+      ((1.0d/907184.74)/(1.0d/60)),
+      ((1.0d/907184.74)/(1.0d/3600)),
+      ((1.0d/907184.74)/(1.0d/86400)),
+      ((1.0d/907184.74)/(1.0d/604800)),
+      ((1.0d/907184.74)/1000),
+      ((1.0d/907184.74)/(1.0d/1000)),
+      ((1.0d/907184.74)/(1.0d/2629743.8)),
+      ((1.0d/907184.74)/(1.0d/31556926)),
+      ((1.0d/907184.74)/(1.0d/1209600)),
+      ((1.0d/1016046.9)/1.0d),
+      ((1.0d/1016046.9)/(1.0d/60)),
+      ((1.0d/1016046.9)/(1.0d/3600)),
+      ((1.0d/1016046.9)/(1.0d/86400)),
+      ((1.0d/1016046.9)/(1.0d/604800)),
+      ((1.0d/1016046.9)/1000),
+      ((1.0d/1016046.9)/(1.0d/1000)),
+      ((1.0d/1016046.9)/(1.0d/2629743.8)),
+      ((1.0d/1016046.9)/(1.0d/31556926)),
+      ((1.0d/1016046.9)/(1.0d/1209600))
+    });
+
   /** takes strings of the form "Number unit" **/
   public MassTransferRate(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("gramspersecond")) 
-      theValue=n/(1.0d/1.0d);
-    else if (u.equals("gramsperminute")) 
-      theValue=n/(1.0d/(1.0d/60));
-    else if (u.equals("gramsperhour")) 
-      theValue=n/(1.0d/(1.0d/3600));
-    else if (u.equals("gramsperday")) 
-      theValue=n/(1.0d/(1.0d/86400));
-    else if (u.equals("gramsperweek")) 
-      theValue=n/(1.0d/(1.0d/604800));
-    else if (u.equals("gramspermillisecond")) 
-      theValue=n/(1.0d/1000);
-    else if (u.equals("gramsperkilosecond")) 
-      theValue=n/(1.0d/(1.0d/1000));
-    else if (u.equals("gramspermonth")) 
-      theValue=n/(1.0d/(1.0d/2629743.8));
-    else if (u.equals("gramsperyear")) 
-      theValue=n/(1.0d/(1.0d/31556926));
-    else if (u.equals("gramsperfortnight")) 
-      theValue=n/(1.0d/(1.0d/1209600));
-    else if (u.equals("kilogramspersecond")) 
-      theValue=n/((1.0d/1000)/1.0d);
-    else if (u.equals("kilogramsperminute")) 
-      theValue=n/((1.0d/1000)/(1.0d/60));
-    else if (u.equals("kilogramsperhour")) 
-      theValue=n/((1.0d/1000)/(1.0d/3600));
-    else if (u.equals("kilogramsperday")) 
-      theValue=n/((1.0d/1000)/(1.0d/86400));
-    else if (u.equals("kilogramsperweek")) 
-      theValue=n/((1.0d/1000)/(1.0d/604800));
-    else if (u.equals("kilogramspermillisecond")) 
-      theValue=n/((1.0d/1000)/1000);
-    else if (u.equals("kilogramsperkilosecond")) 
-      theValue=n/((1.0d/1000)/(1.0d/1000));
-    else if (u.equals("kilogramspermonth")) 
-      theValue=n/((1.0d/1000)/(1.0d/2629743.8));
-    else if (u.equals("kilogramsperyear")) 
-      theValue=n/((1.0d/1000)/(1.0d/31556926));
-    else if (u.equals("kilogramsperfortnight")) 
-      theValue=n/((1.0d/1000)/(1.0d/1209600));
-    else if (u.equals("ouncespersecond")) 
-      theValue=n/(0.035273962/1.0d);
-    else if (u.equals("ouncesperminute")) 
-      theValue=n/(0.035273962/(1.0d/60));
-    else if (u.equals("ouncesperhour")) 
-      theValue=n/(0.035273962/(1.0d/3600));
-    else if (u.equals("ouncesperday")) 
-      theValue=n/(0.035273962/(1.0d/86400));
-    else if (u.equals("ouncesperweek")) 
-      theValue=n/(0.035273962/(1.0d/604800));
-    else if (u.equals("ouncespermillisecond")) 
-      theValue=n/(0.035273962/1000);
-    else if (u.equals("ouncesperkilosecond")) 
-      theValue=n/(0.035273962/(1.0d/1000));
-    else if (u.equals("ouncespermonth")) 
-      theValue=n/(0.035273962/(1.0d/2629743.8));
-    else if (u.equals("ouncesperyear")) 
-      theValue=n/(0.035273962/(1.0d/31556926));
-    else if (u.equals("ouncesperfortnight")) 
-      theValue=n/(0.035273962/(1.0d/1209600));
-    else if (u.equals("poundspersecond")) 
-      theValue=n/(0.0022046226/1.0d);
-    else if (u.equals("poundsperminute")) 
-      theValue=n/(0.0022046226/(1.0d/60));
-    else if (u.equals("poundsperhour")) 
-      theValue=n/(0.0022046226/(1.0d/3600));
-    else if (u.equals("poundsperday")) 
-      theValue=n/(0.0022046226/(1.0d/86400));
-    else if (u.equals("poundsperweek")) 
-      theValue=n/(0.0022046226/(1.0d/604800));
-    else if (u.equals("poundspermillisecond")) 
-      theValue=n/(0.0022046226/1000);
-    else if (u.equals("poundsperkilosecond")) 
-      theValue=n/(0.0022046226/(1.0d/1000));
-    else if (u.equals("poundspermonth")) 
-      theValue=n/(0.0022046226/(1.0d/2629743.8));
-    else if (u.equals("poundsperyear")) 
-      theValue=n/(0.0022046226/(1.0d/31556926));
-    else if (u.equals("poundsperfortnight")) 
-      theValue=n/(0.0022046226/(1.0d/1209600));
-    else if (u.equals("tonspersecond")) 
-      theValue=n/((1.0d/907184.74)/1.0d);
-    else if (u.equals("tonsperminute")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/60));
-    else if (u.equals("tonsperhour")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/3600));
-    else if (u.equals("tonsperday")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/86400));
-    else if (u.equals("tonsperweek")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/604800));
-    else if (u.equals("tonspermillisecond")) 
-      theValue=n/((1.0d/907184.74)/1000);
-    else if (u.equals("tonsperkilosecond")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/1000));
-    else if (u.equals("tonspermonth")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/2629743.8));
-    else if (u.equals("tonsperyear")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/31556926));
-    else if (u.equals("tonsperfortnight")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/1209600));
-    else if (u.equals("shorttonspersecond")) 
-      theValue=n/((1.0d/907184.74)/1.0d);
-    else if (u.equals("shorttonsperminute")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/60));
-    else if (u.equals("shorttonsperhour")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/3600));
-    else if (u.equals("shorttonsperday")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/86400));
-    else if (u.equals("shorttonsperweek")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/604800));
-    else if (u.equals("shorttonspermillisecond")) 
-      theValue=n/((1.0d/907184.74)/1000);
-    else if (u.equals("shorttonsperkilosecond")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/1000));
-    else if (u.equals("shorttonspermonth")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/2629743.8));
-    else if (u.equals("shorttonsperyear")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/31556926));
-    else if (u.equals("shorttonsperfortnight")) 
-      theValue=n/((1.0d/907184.74)/(1.0d/1209600));
-    else if (u.equals("longtonspersecond")) 
-      theValue=n/((1.0d/1016046.9)/1.0d);
-    else if (u.equals("longtonsperminute")) 
-      theValue=n/((1.0d/1016046.9)/(1.0d/60));
-    else if (u.equals("longtonsperhour")) 
-      theValue=n/((1.0d/1016046.9)/(1.0d/3600));
-    else if (u.equals("longtonsperday")) 
-      theValue=n/((1.0d/1016046.9)/(1.0d/86400));
-    else if (u.equals("longtonsperweek")) 
-      theValue=n/((1.0d/1016046.9)/(1.0d/604800));
-    else if (u.equals("longtonspermillisecond")) 
-      theValue=n/((1.0d/1016046.9)/1000);
-    else if (u.equals("longtonsperkilosecond")) 
-      theValue=n/((1.0d/1016046.9)/(1.0d/1000));
-    else if (u.equals("longtonspermonth")) 
-      theValue=n/((1.0d/1016046.9)/(1.0d/2629743.8));
-    else if (u.equals("longtonsperyear")) 
-      theValue=n/((1.0d/1016046.9)/(1.0d/31556926));
-    else if (u.equals("longtonsperfortnight")) 
-      theValue=n/((1.0d/1016046.9)/(1.0d/1209600));
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -60,20 +60,23 @@ public final class Power extends AbstractMeasure implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "watts",
+      "kilowatts",
+      "horsepower"
+    },
+    new double[] {
+      1.0,
+      WATTS_PER_KILOWATTS,
+      WATTS_PER_HORSEPOWER
+    });
+
   /** takes strings of the form "Number unit" **/
   public Power(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("watts")) 
-      theValue=n;
-    else if (u.equals("kilowatts")) 
-      theValue=n*WATTS_PER_KILOWATTS;
-    else if (u.equals("horsepower")) 
-      theValue=n*WATTS_PER_HORSEPOWER;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
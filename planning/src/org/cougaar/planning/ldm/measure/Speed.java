@@ -73,214 +73,217 @@ public final class Speed extends AbstractMeasure
     theValue = num.getValue(0)/den.getValue(0);
   }
 
+  // unit names accepted by the String constructor, and their
+  // divisors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.dividing(
+    new String[] {
+      "meterspersecond",
+      "metersperminute",
+      "metersperhour",
+      "metersperday",
+      "metersperweek",
+      "meterspermillisecond",
+      "metersperkilosecond",
+      "meterspermonth",
+      "metersperyear",
+      "metersperfortnight",
+      "milespersecond",
+      "milesperminute",
+      "milesperhour",
+      "milesperday",
+      "milesperweek",
+      "milespermillisecond",
+      "milesperkilosecond",
+      "milespermonth",
+      "milesperyear",
+      "milesperfortnight",
+      "nauticalmilespersecond",
+      "nauticalmilesperminute",
+      "nauticalmilesperhour",
+      "nauticalmilesperday",
+      "nauticalmilesperweek",
+      "nauticalmilespermillisecond",
+      "nauticalmilesperkilosecond",
+      "nauticalmilespermonth",
+      "nauticalmilesperyear",
+      "nauticalmilesperfortnight",
+      "yardspersecond",
+      "yardsperminute",
+      "yardsperhour",
+      "yardsperday",
+      "yardsperweek",
+      "yardspermillisecond",
+      "yardsperkilosecond",
+      "yardspermonth",
+      "yardsperyear",
+      "yardsperfortnight",
+      "feetpersecond",
+      "feetperminute",
+      "feetperhour",
+      "feetperday",
+      "feetperweek",
+      "feetpermillisecond",
+      "feetperkilosecond",
+      "feetpermonth",
+      "feetperyear",
+      "feetperfortnight",
+      "inchespersecond",
+      "inchesperminute",
+      "inchesperhour",
+      "inchesperday",
+      "inchesperweek",
+      "inchespermillisecond",
+      "inchesperkilosecond",
+      "inchespermonth",
+      "inchesperyear",
+      "inchesperfortnight",
+      "kilometerspersecond",
+      "kilometersperminute",
+      "kilometersperhour",
+      "kilometersperday",
+      "kilometersperweek",
+      "kilometerspermillisecond",
+      "kilometersperkilosecond",
+      "kilometerspermonth",
+      "kilometersperyear",
+      "kilometersperfortnight",
+      "centimeterspersecond",
+      "centimetersperminute",
+      "centimetersperhour",
+      "centimetersperday",
+      "centimetersperweek",
+      "centimeterspermillisecond",
+      "centimetersperkilosecond",
+      "centimeterspermonth",
+      "centimetersperyear",
+      "centimetersperfortnight",
+      "millimeterspersecond",
+      "millimetersperminute",
+      "millimetersperhour",
+      "millimetersperday",
+      "millimetersperweek",
+      "millimeterspermillisecond",
+      "millimetersperkilosecond",
+      "millimeterspermonth",
+      "millimetersperyear",
+      "millimetersperfortnight",
+      "furlongspersecond",
+      "furlongsperminute",
+      "furlongsperhour",
+      "furlongsperday",
+      "furlongsperweek",
+      "furlongspermillisecond",
+      "furlongsperkilosecond",
+      "furlongspermonth",
+      "furlongsperyear",
+      "furlongsperfortnight"
+    },
+    new double[] {
+      (1.0d/1.0d),
+      (1.0d/(1.0d/60)),
+      (1.0d/(1.0d/3600)),
+      (1.0d/(1.0d/86400)),
+      (1.0d/(1.0d/604800)),
+      (1.0d/1000),
+      (1.0d/(1.0d/1000)),
+      (1.0d/(1.0d/2629743.8)),
+      (1.0d/(1.0d/31556926)),
+      (1.0d/(1.0d/1209600)),
+      ((1.0d/1609.344)/1.0d),
+      ((1.0d/1609.344)/(1.0d/60)),
+      ((1.0d/1609.344)/(1.0d/3600)),
+      ((1.0d/1609.344)/(1.0d/86400)),
+      ((1.0d/1609.344)/(1.0d/604800)),
+      ((1.0d/1609.344)/1000),
+      ((1.0d/1609.344)/(1.0d/1000)),
+      ((1.0d/1609.344)/(1.0d/2629743.8)),
+      ((1.0d/1609.344)/(1.0d/31556926)),
+      ((1.0d/1609.344)/(1.0d/1209600)),
+      ((1.0d/1852.0)/1.0d),
+      ((1.0d/1852.0)/(1.0d/60)),
+      ((1.0d/1852.0)/(1.0d/3600)),
+      ((1.0d/1852.0)/(1.0d/86400)),
+      ((1.0d/1852.0)/(1.0d/604800)),
+      ((1.0d/1852.0)/1000),
+      ((1.0d/1852.0)/(1.0d/1000)),
+      ((1.0d/1852.0)/(1.0d/2629743.8)),
+      ((1.0d/1852.0)/(1.0d/31556926)),
+      ((1.0d/1852.0)/(1.0d/1209600)),
+      ((1.0d/0.9414)/1.0d),
+      ((1.0d/0.9414)/(1.0d/60)),
+      ((1.0d/0.9414)/(1.0d/3600)),
+      ((1.0d/0.9414)/(1.0d/86400)),
+      ((1.0d/0.9414)/(1.0d/604800)),
+      ((1.0d/0.9414)/1000),
+      ((1.0d/0.9414)/(1.0d/1000)),
+      ((1.0d/0.9414)/(1.0d/2629743.8)),
+      ((1.0d/0.9414)/(1.0d/31556926)),
+      ((1.0d/0.9414)/(1.0d/1209600)),
+      ((1.0d/0.3048)/1.0d),
+      ((1.0d/0.3048)/(1.0d/60)),
+      ((1.0d/0.3048)/(1.0d/3600)),
+      ((1.0d/0.3048)/(1.0d/86400)),
+      ((1.0d/0.3048)/(1.0d/604800)),
+      ((1.0d/0.3048)/1000),
+      ((1.0d/0.3048)/(1.0d/1000)),
+      ((1.0d/0.3048)/(1.0d/2629743.8)),
+      ((1.0d/0.3048)/(1.0d/31556926)),
+      ((1.0d/0.3048)/(1.0d/1209600)),
+      ((1.0d/0.0254)/1.0d),
+      ((1.0d/0.0254)/(1.0d/60)),
+      ((1.0d/0.0254)/(1.0d/3600)),
+      ((1.0d/0.0254)/(1.0d/86400)),
+      ((1.0d/0.0254)/(1.0d/604800)),
+      ((1.0d/0.0254)/1000),
+      ((1.0d/0.0254)/(1.0d/1000)),
+      ((1.0d/0.0254)/(1.0d/2629743.8)),
+      ((1.0d/0.0254)/(1.0d/31556926)),
+      ((1.0d/0.0254)/(1.0d/1209600)),
+      ((1.0d/1000.0)/1.0d),
+      ((1.0d/1000.0)/(1.0d/60)),
+      ((1.0d/1000.0)/(1.0d/3600)),
+      ((1.0d/1000.0)/(1.0d/86400)),
+      ((1.0d/1000.0)/(1.0d/604800)),
+      ((1.0d/1000.0)/1000),
+      ((1.0d/1000.0)/(1.0d/1000)),
+      ((1.0d/1000.0)/(1.0d/2629743.8)),
+      ((1.0d/1000.0)/(1.0d/31556926)),
+      ((1.0d/1000.0)/(1.0d/1209600)),
+      (100/1.0d),
+      (100/(1.0d/60)),
+      (100/(1.0d/3600)),
+      (100/(1.0d/86400)),
+      (100/(1.0d/604800)),
+      (100/1000),
+      (100/(1.0d/1000)),
+      (100/(1.0d/2629743.8)),
+      (100/(1.0d/31556926)),
+      (100/(1.0d/1209600)),
+      (1000/1.0d),
+      (1000/(1.0d/60)),
+      (1000/(1.0d/3600)),
+      (1000/(1.0d/86400)),
+      (1000/(1.0d/604800)),
+      (1000/1000),
+      (1000/(1.0d/1000)),
+      (1000/(1.0d/2629743.8)),
+      (1000/(1.0d/31556926)),
+      (1000/(1.0d/1209600)),
+      ((1.0d/201.168)/1.0d),
+      ((1.0d/201.168)/(1.0d/60)),
+      ((1.0d/201.168)/(1.0d/3600)),
+      ((1.0d/201.168)/(1.0d/86400)),
+      ((1.0d/201.168)/(1.0d/604800)),
+      ((1.0d/201.168)/1000),
+      ((1.0d/201.168)/(1.0d/1000)),
+      ((1.0d/201.168)/(1.0d/2629743.8)),
+      ((1.0d/201.168)/(1.0d/31556926)),
+      ((1.0d/201.168)/(1.0d/1209600))
+    });
+
   /** takes strings of the form "Number unit" **/
   public Speed(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("meterspersecond")) 
-      theValue=n/(1.0d/1.0d);
-    else if (u.equals("metersperminute")) 
-      theValue=n/(1.0d/(1.0d/60));
-    else if (u.equals("metersperhour")) 
-      theValue=n/(1.0d/(1.0d/3600));
-    else if (u.equals("metersperday")) 
-      theValue=n/(1.0d/(1.0d/86400));
-    else if (u.equals("metersperweek")) 
-      theValue=n/(1.0d/(1.0d/604800));
-    else if (u.equals("meterspermillisecond")) 
-      theValue=n/(1.0d/1000);
-    else if (u.equals("metersperkilosecond")) 
-      theValue=n/(1.0d/(1.0d/1000));
-    else if (u.equals("meterspermonth")) 
-      theValue=n/(1.0d/(1.0d/2629743.8));
-    else if (u.equals("metersperyear")) 
-      theValue=n/(1.0d/(1.0d/31556926));
-    else if (u.equals("metersperfortnight")) 
-      theValue=n/(1.0d/(1.0d/1209600));
-    else if (u.equals("milespersecond")) 
-      theValue=n/((1.0d/1609.344)/1.0d);
-    else if (u.equals("milesperminute")) 
-      theValue=n/((1.0d/1609.344)/(1.0d/60));
-    else if (u.equals("milesperhour")) 
-      theValue=n/((1.0d/1609.344)/(1.0d/3600));
-    else if (u.equals("milesperday")) 
-      theValue=n/((1.0d/1609.344)/(1.0d/86400));
-    else if (u.equals("milesperweek")) 
-      theValue=n/((1.0d/1609.344)/(1.0d/604800));
-    else if (u.equals("milespermillisecond")) 
-      theValue=n/((1.0d/1609.344)/1000);
-    else if (u.equals("milesperkilosecond")) 
-      theValue=n/((1.0d/1609.344)/(1.0d/1000));
-    else if (u.equals("milespermonth")) 
-      theValue=n/((1.0d/1609.344)/(1.0d/2629743.8));
-    else if (u.equals("milesperyear")) 
-      theValue=n/((1.0d/1609.344)/(1.0d/31556926));
-    else if (u.equals("milesperfortnight")) 
-      theValue=n/((1.0d/1609.344)/(1.0d/1209600));
-    else if (u.equals("nauticalmilespersecond")) 
-      theValue=n/((1.0d/1852.0)/1.0d);
-    else if (u.equals("nauticalmilesperminute")) 
-      theValue=n/((1.0d/1852.0)/(1.0d/60));
-    else if (u.equals("nauticalmilesperhour")) 
-      theValue=n/((1.0d/1852.0)/(1.0d/3600));
-    else if (u.equals("nauticalmilesperday")) 
-      theValue=n/((1.0d/1852.0)/(1.0d/86400));
-    else if (u.equals("nauticalmilesperweek")) 
-      theValue=n/((1.0d/1852.0)/(1.0d/604800));
-    else if (u.equals("nauticalmilespermillisecond")) 
-      theValue=n/((1.0d/1852.0)/1000);
-    else if (u.equals("nauticalmilesperkilosecond")) 
-      theValue=n/((1.0d/1852.0)/(1.0d/1000));
-    else if (u.equals("nauticalmilespermonth")) 
-      theValue=n/((1.0d/1852.0)/(1.0d/2629743.8));
-    else if (u.equals("nauticalmilesperyear")) 
-      theValue=n/((1.0d/1852.0)/(1.0d/31556926));
-    else if (u.equals("nauticalmilesperfortnight")) 
-      theValue=n/((1.0d/1852.0)/(1.0d/1209600));
-    else if (u.equals("yardspersecond")) 
-      theValue=n/((1.0d/0.9414)/1.0d);
-    else if (u.equals("yardsperminute")) 
-      theValue=n/((1.0d/0.9414)/(1.0d/60));
-    else if (u.equals("yardsperhour")) 
-      theValue=n/((1.0d/0.9414)/(1.0d/3600));
-    else if (u.equals("yardsperday")) 
-      theValue=n/((1.0d/0.9414)/(1.0d/86400));
-    else if (u.equals("yardsperweek")) 
-      theValue=n/((1.0d/0.9414)/(1.0d/604800));
-    else if (u.equals("yardspermillisecond")) 
-      theValue=n/((1.0d/0.9414)/1000);
-    else if (u.equals("yardsperkilosecond")) 
-      theValue=n/((1.0d/0.9414)/(1.0d/1000));
-    else if (u.equals("yardspermonth")) 
-      theValue=n/((1.0d/0.9414)/(1.0d/2629743.8));
-    else if (u.equals("yardsperyear")) 
-      theValue=n/((1.0d/0.9414)/(1.0d/31556926));
-    else if (u.equals("yardsperfortnight")) 
-      theValue=n/((1.0d/0.9414)/(1.0d/1209600));
-    else if (u.equals("feetpersecond")) 
-      theValue=n/((1.0d/0.3048)/1.0d);
-    else if (u.equals("feetperminute")) 
-      theValue=n/((1.0d/0.3048)/(1.0d/60));
-    else if (u.equals("feetperhour")) 
-      theValue=n/((1.0d/0.3048)/(1.0d/3600));
-    else if (u.equals("feetperday")) 
-      theValue=n/((1.0d/0.3048)/(1.0d/86400));
-    else if (u.equals("feetperweek")) 
-      theValue=n/((1.0d/0.3048)/(1.0d/604800));
-    else if (u.equals("feetpermillisecond")) 
-      theValue=n/((1.0d/0.3048)/1000);
-    else if (u.equals("feetperkilosecond")) 
-      theValue=n/((1.0d/0.3048)/(1.0d/1000));
-    else if (u.equals("feetpermonth")) 
-      theValue=n/((1.0d/0.3048)/(1.0d/2629743.8));
-    else if (u.equals("feetperyear")) 
-      theValue=n/((1.0d/0.3048)/(1.0d/31556926));
-    else if (u.equals("feetperfortnight")) 
-      theValue=n/((1.0d/0.3048)/(1.0d/1209600));
-    else if (u.equals("inchespersecond")) 
-      theValue=n/((1.0d/0.0254)/1.0d);
-    else if (u.equals("inchesperminute")) 
-      theValue=n/((1.0d/0.0254)/(1.0d/60));
-    else if (u.equals("inchesperhour")) 
-      theValue=n/((1.0d/0.0254)/(1.0d/3600));
-    else if (u.equals("inchesperday")) 
-      theValue=n/((1.0d/0.0254)/(1.0d/86400));
-    else if (u.equals("inchesperweek")) 
-      theValue=n/((1.0d/0.0254)/(1.0d/604800));
-    else if (u.equals("inchespermillisecond")) 
-      theValue=n/((1.0d/0.0254)/1000);
-    else if (u.equals("inchesperkilosecond")) 
-      theValue=n/((1.0d/0.0254)/(1.0d/1000));
-    else if (u.equals("inchespermonth")) 
-      theValue=n/((1.0d/0.0254)/(1.0d/2629743.8));
-    else if (u.equals("inchesperyear")) 
-      theValue=n/((1.0d/0.0254)/(1.0d/31556926));
-    else if (u.equals("inchesperfortnight")) 
-      theValue=n/((1.0d/0.0254)/(1.0d/1209600));
-    else if (u.equals("kilometerspersecond")) 
-      theValue=n/((1.0d/1000.0)/1.0d);
-    else if (u.equals("kilometersperminute")) 
-      theValue=n/((1.0d/1000.0)/(1.0d/60));
-    else if (u.equals("kilometersperhour")) 
-      theValue=n/((1.0d/1000.0)/(1.0d/3600));
-    else if (u.equals("kilometersperday")) 
-      theValue=n/((1.0d/1000.0)/(1.0d/86400));
-    else if (u.equals("kilometersperweek")) 
-      theValue=n/((1.0d/1000.0)/(1.0d/604800));
-    else if (u.equals("kilometerspermillisecond")) 
-      theValue=n/((1.0d/1000.0)/1000);
-    else if (u.equals("kilometersperkilosecond")) 
-      theValue=n/((1.0d/1000.0)/(1.0d/1000));
-    else if (u.equals("kilometerspermonth")) 
-      theValue=n/((1.0d/1000.0)/(1.0d/2629743.8));
-    else if (u.equals("kilometersperyear")) 
-      theValue=n/((1.0d/1000.0)/(1.0d/31556926));
-    else if (u.equals("kilometersperfortnight")) 
-      theValue=n/((1.0d/1000.0)/(1.0d/1209600));
-    else if (u.equals("centimeterspersecond")) 
-      theValue=n/(100/1.0d);
-    else if (u.equals("centimetersperminute")) 
-      theValue=n/(100/(1.0d/60));
-    else if (u.equals("centimetersperhour")) 
-      theValue=n/(100/(1.0d/3600));
-    else if (u.equals("centimetersperday")) 
-      theValue=n/(100/(1.0d/86400));
-    else if (u.equals("centimetersperweek")) 
-      theValue=n/(100/(1.0d/604800));
-    else if (u.equals("centimeterspermillisecond")) 
-      theValue=n/(100/1000);
-    else if (u.equals("centimetersperkilosecond")) 
-      theValue=n/(100/(1.0d/1000));
-    else if (u.equals("centimeterspermonth")) 
-      theValue=n/(100/(1.0d/2629743.8));
-    else if (u.equals("centimetersperyear")) 
-      theValue=n/(100/(1.0d/31556926));
-    else if (u.equals("centimetersperfortnight")) 
-      theValue=n/(100/(1.0d/1209600));
-    else if (u.equals("millimeterspersecond")) 
-      theValue=n/(1000/1.0d);
-    else if (u.equals("millimetersperminute")) 
-      theValue=n/(1000/(1.0d/60));
-    else if (u.equals("millimetersperhour")) 
-      theValue=n/(1000/(1.0d/3600));
-    else if (u.equals("millimetersperday")) 
-      theValue=n/(1000/(1.0d/86400));
-    else if (u.equals("millimetersperweek")) 
-      theValue=n/(1000/(1.0d/604800));
-    else if (u.equals("millimeterspermillisecond")) 
-      theValue=n/(1000/1000);
-    else if (u.equals("millimetersperkilosecond")) 
-      theValue=n/(1000/(1.0d/1000));
-    else if (u.equals("millimeterspermonth")) 
-      theValue=n/(1000/(1.0d/2629743.8));
-    else if (u.equals("millimetersperyear")) 
-      theValue=n/(1000/(1.0d/31556926));
-    else if (u.equals("millimetersperfortnight")) 
-      theValue=n/(1000/(1.0d/1209600));
-    else if (u.equals("furlongspersecond")) 
-      theValue=n/((1.0d/201.168)/1.0d);
-    else if (u.equals("furlongsperminute")) 
-      theValue=n/((1.0d/201.168)/(1.0d/60));
-    else if (u.equals("furlongsperhour")) 
-      theValue=n/((1.0d/201.168)/(1.0d/3600));
-    else if (u.equals("furlongsperday")) 
-      theValue=n/((1.0d/201.168)/(1.0d/86400));
-    else if (u.equals("furlongsperweek")) 
-      theValue=n/((1.0d/201.168)/(1.0d/604800));
-    else if (u.equals("furlongspermillisecond")) 
-      theValue=n/((1.0d/201.168)/1000);
-    else if (u.equals("furlongsperkilosecond")) 
-      theValue=n/((1.0d/201.168)/(1.0d/1000));
-    else if (u.equals("furlongspermonth")) 
-      theValue=n/((1.0d/201.168)/(1.0d/2629743.8));
-    else if (u.equals("furlongsperyear")) 
-      theValue=n/((1.0d/201.168)/(1.0d/31556926));
-    else if (u.equals("furlongsperfortnight")) 
-      theValue=n/((1.0d/201.168)/(1.0d/1209600));
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -25,9 +25,13 @@
  */
 package org.cougaar.planning.ldm.measure;
 
+import java.lang.reflect.InvocationTargetException;
+
 /** Point test for measure class functionality **/
 
 public class Test {
+  private static int parseFailures = 0;
+
   public static void main(String arg[]) {
     System.out.println("Constructors:");
     Mass m0 = new Mass(1234.0, Mass.GRAMS);
@@ -101,5 +105,94 @@ public class Test {
                        d.getValue(Distance.MILES, Duration.HOURS));
     System.out.println("  computeNumerator(30minutes) = "+
                        d.computeNumerator(Duration.newMinutes(30)).getValue(Distance.MILES));
+
+    System.out.println();
+    System.out.println("Parsing:");
+    checkParse(2.5, "squarefeet", Area.newSquareFeet(2.5));
+    checkParse(2.5, "dollars", Cost.newDollars(2.5));
+    checkParse(2.5, "dollarsperhour", CostRate.newDollarsPerHour(2.5));
+    checkParse(2.5, "dozen", Count.newDozen(2.5));
+    checkParse(2.5, "unitsperminute", CountRate.newUnitsPerMinute(2.5));
+    checkParse(2.5, "nauticalmiles", Distance.newNauticalMiles(2.5));
+    checkParse(2.5, "hours", Duration.newHours(2.5));
+    checkParse(2.5, "millivolts", ElectricPotential.newMillivolts(2.5));
+    checkParse(2.5, "kcal", Energy.newKcal(2.5));
+    checkParse(2.5, "litersperhour", FlowRate.newLitersPerHour(2.5));
+    checkParse(2.5, "degrees", Heading.newDegrees(2.5));
+    checkParse(2.5, "degrees", Latitude.newDegrees(2.5));
+    checkParse(2.5, "degrees", Longitude.newDegrees(2.5));
+    checkParse(2.5, "kilograms", Mass.newKilograms(2.5));
+    checkParse(-0.25, "ounces", Mass.newOunces(-0.25));
+    checkParse(2.5, "gramsperhour", MassTransferRate.newGramsPerHour(2.5));
+    checkParse(2.5, "kilowatts", Power.newKilowatts(2.5));
+    checkParse(2.5, "metersperhour", Speed.newMetersPerHour(2.5));
+    checkParse(2.5, "secondsperhour", TimeRate.newSecondsPerHour(2.5));
+    checkParse(2.5, "gallons", Volume.newGallons(2.5));
+    checkParse(2.5, "perhour", AbstractRate.newPerHour(2.5));
+    checkParseFails(Mass.class, "12 furlongs", UnknownUnitException.class);
+    checkParseFails(Mass.class, "12", UnknownUnitException.class);
+    checkParseFails(Mass.class, "12 gramsx", UnknownUnitException.class);
+    checkParseFails(Mass.class, "1e3 grams", UnknownUnitException.class);
+    checkParseFails(Mass.class, "1.2.3 grams", NumberFormatException.class);
+    // the number ends at the first space
+    checkParseFails(Mass.class, " 12 grams", NumberFormatException.class);
+    checkParseFails(Speed.class, "12 miles", UnknownUnitException.class);
+    System.out.println("  "+(parseFailures == 0 ? "all passed" : parseFailures+" FAILED"));
+  }
+
+  /** Parse v and unit in several spellings, each must equal expected **/
+  private static void checkParse(double v, String unit, Measure expected) {
+    String[] inputs = {
+      v+" "+unit,
+      v+unit,
+      v+"   "+unit.toUpperCase()+"  ",
+      v+" "+Character.toUpperCase(unit.charAt(0))+unit.substring(1),
+    };
+    for (int i = 0; i < inputs.length; i++) {
+      Object result;
+      try {
+        result = parse(expected.getClass(), inputs[i]);
+      } catch (RuntimeException e) {
+        result = e;
+      }
+      if (!expected.equals(result)) {
+        parseFailures++;
+        System.out.println("  FAILED: "+shortName(expected.getClass())+
+                           "(\""+inputs[i]+"\") = "+result+", expected "+expected);
+      }
+    }
+  }
+
+  /** Parse s, which must throw an exception of the given class **/
+  private static void checkParseFails(Class cl, String s, Class exceptionClass) {
+    Object result;
+    try {
+      result = parse(cl, s);
+    } catch (RuntimeException e) {
+      result = e;
+    }
+    if (result == null || result.getClass() != exceptionClass) {
+      parseFailures++;
+      System.out.println("  FAILED: "+shortName(cl)+"(\""+s+"\") = "+result+
+                         ", expected "+shortName(exceptionClass));
+    }
+  }
+
+  /** call cl's String constructor **/
+  private static Object parse(Class cl, String s) {
+    try {
+      return cl.getConstructor(new Class[] {String.class}).newInstance(new Object[] {s});
+    } catch (InvocationTargetException e) {
+      Throwable t = e.getTargetException();
+      if (t instanceof RuntimeException) throw (RuntimeException) t;
+      throw new RuntimeException(t.toString());
+    } catch (Exception e) {
+      throw new RuntimeException(e.toString());
+    }
+  }
+
+  private static String shortName(Class cl) {
+    String n = cl.getName();
+    return n.substring(n.lastIndexOf('.') + 1);
   }
 }
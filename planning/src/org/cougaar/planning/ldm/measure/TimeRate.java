@@ -73,214 +73,217 @@ public final class TimeRate extends AbstractMeasure
     theValue = num.getValue(0)/den.getValue(0);
   }
 
+  // unit names accepted by the String constructor, and their
+  // divisors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.dividing(
+    new String[] {
+      "secondspersecond",
+      "secondsperminute",
+      "secondsperhour",
+      "secondsperday",
+      "secondsperweek",
+      "secondspermillisecond",
+      "secondsperkilosecond",
+      "secondspermonth",
+      "secondsperyear",
+      "secondsperfortnight",
+      "minutespersecond",
+      "minutesperminute",
+      "minutesperhour",
+      "minutesperday",
+      "minutesperweek",
+      "minutespermillisecond",
+      "minutesperkilosecond",
+      "minutespermonth",
+      "minutesperyear",
+      "minutesperfortnight",
+      "hourspersecond",
+      "hoursperminute",
+      "hoursperhour",
+      "hoursperday",
+      "hoursperweek",
+      "hourspermillisecond",
+      "hoursperkilosecond",
+      "hourspermonth",
+      "hoursperyear",
+      "hoursperfortnight",
+      "dayspersecond",
+      "daysperminute",
+      "daysperhour",
+      "daysperday",
+      "daysperweek",
+      "dayspermillisecond",
+      "daysperkilosecond",
+      "dayspermonth",
+      "daysperyear",
+      "daysperfortnight",
+      "weekspersecond",
+      "weeksperminute",
+      "weeksperhour",
+      "weeksperday",
+      "weeksperweek",
+      "weekspermillisecond",
+      "weeksperkilosecond",
+      "weekspermonth",
+      "weeksperyear",
+      "weeksperfortnight",
+      "millisecondspersecond",
+      "millisecondsperminute",
+      "millisecondsperhour",
+      "millisecondsperday",
+      "millisecondsperweek",
+      "millisecondspermillisecond",
+      "millisecondsperkilosecond",
+      "millisecondspermonth",
+      "millisecondsperyear",
+      "millisecondsperfortnight",
+      "kilosecondspersecond",
+      "kilosecondsperminute",
+      "kilosecondsperhour",
+      "kilosecondsperday",
+      "kilosecondsperweek",
+      "kilosecondspermillisecond",
+      "kilosecondsperkilosecond",
+      "kilosecondspermonth",
+      "kilosecondsperyear",
+      "kilosecondsperfortnight",
+      "monthspersecond",
+      "monthsperminute",
+      "monthsperhour",
+      "monthsperday",
+      "monthsperweek",
+      "monthspermillisecond",
+      "monthsperkilosecond",
+      "monthspermonth",
+      "monthsperyear",
+      "monthsperfortnight",
+      "yearspersecond",
+      "yearsperminute",
+      "yearsperhour",
+      "yearsperday",
+      "yearsperweek",
+      "yearspermillisecond",
+      "yearsperkilosecond",
+      "yearspermonth",
+      "yearsperyear",
+      "yearsperfortnight",
+      "fortnightspersecond",
+      "fortnightsperminute",
+      "fortnightsperhour",
+      "fortnightsperday",
+      "fortnightsperweek",
+      "fortnightspermillisecond",
+      "fortnightsperkilosecond",
+      "fortnightspermonth",
+      "fortnightsperyear",
+      "fortnightsperfortnight"
+    },
+    new double[] {
+      (1.0d/1.0d),
+      (1.0d/(1.0d/60)),
+      (1.0d/(1.0d/3600)),
+      (1.0d/(1.0d/86400)),
+      (1.0d/(1.0d/604800)),
+      (1.0d/1000),
+      (1.0d/(1.0d/1000)),
+      (1.0d/(1.0d/2629743.8)),
+      (1.0d/(1.0d/31556926)),
+      (1.0d/(1.0d/1209600)),
+      ((1.0d/60)/1.0d),
+      ((1.0d/60)/(1.0d/60)),
+      ((1.0d/60)/(1.0d/3600)),
+      ((1.0d/60)/(1.0d/86400)),
+      ((1.0d/60)/(1.0d/604800)),
+      ((1.0d/60)/1000),
+      ((1.0d/60)/(1.0d/1000)),
+      ((1.0d/60)/(1.0d/2629743.8)),
+      ((1.0d/60)/(1.0d/31556926)),
+      ((1.0d/60)/(1.0d/1209600)),
+      ((1.0d/3600)/1.0d),
+      ((1.0d/3600)/(1.0d/60)),
+      ((1.0d/3600)/(1.0d/3600)),
+      ((1.0d/3600)/(1.0d/86400)),
+      ((1.0d/3600)/(1.0d/604800)),
+      ((1.0d/3600)/1000),
+      ((1.0d/3600)/(1.0d/1000)),
+      ((1.0d/3600)/(1.0d/2629743.8)),
+      ((1.0d/3600)/(1.0d/31556926)),
+      ((1.0d/3600)/(1.0d/1209600)),
+      ((1.0d/86400)/1.0d),
+      ((1.0d/86400)/(1.0d/60)),
+      ((1.0d/86400)/(1.0d/3600)),
+      ((1.0d/86400)/(1.0d/86400)),
+      ((1.0d/86400)/(1.0d/604800)),
+      ((1.0d/86400)/1000),
+      ((1.0d/86400)/(1.0d/1000)),
+      ((1.0d/86400)/(1.0d/2629743.8)),
+      ((1.0d/86400)/(1.0d/31556926)),
+      ((1.0d/86400)/(1.0d/1209600)),
+      ((1.0d/604800)/1.0d),
+      ((1.0d/604800)/(1.0d/60)),
+      ((1.0d/604800)/(1.0d/3600)),
+      ((1.0d/604800)/(1.0d/86400)),
+      ((1.0d/604800)/(1.0d/604800)),
+      ((1.0d/604800)/1000),
+      ((1.0d/604800)/(1.0d/1000)),
+      ((1.0d/604800)/(1.0d/2629743.8)),
+      ((1.0d/604800)/(1.0d/31556926)),
+      ((1.0d/604800)/(1.0d/1209600)),
+      (1000/1.0d),
+      (1000/(1.0d/60)),
+      (1000/(1.0d/3600)),
+      (1000/(1.0d/86400)),
+      (1000/(1.0d/604800)),
+      (1000/1000),
+      (1000/(1.0d/1000)),
+      (1000/(1.0d/2629743.8)),
+      (1000/(1.0d/31556926)),
+      (1000/(1.0d/1209600)),
+      ((1.0d/1000)/1.0d),
+      ((1.0d/1000)/(1.0d/60)),
+      ((1.0d/1000)/(1.0d/3600)),
+      ((1.0d/1000)/(1.0d/86400)),
+      ((1.0d/1000)/(1.0d/604800)),
+      ((1.0d/1000)/1000),
+      ((1.0d/1000)/(1.0d/1000)),
+      ((1.0d/1000)/(1.0d/2629743.8)),
+      ((1.0d/1000)/(1.0d/31556926)),
+      ((1.0d/1000)/(1.0d/1209600)),
+      ((1.0d/2629743.8)/1.0d),
+      ((1.0d/2629743.8)/(1.0d/60)),
+      ((1.0d/2629743.8)/(1.0d/3600)),
+      ((1.0d/2629743.8)/(1.0d/86400)),
+      ((1.0d/2629743.8)/(1.0d/604800)),
+      ((1.0d/2629743.8)/1000),
+      ((1.0d/2629743.8)/(1.0d/1000)),
+      ((1.0d/2629743.8)/(1.0d/2629743.8)),
+      ((1.0d/2629743.8)/(1.0d/31556926)),
+      ((1.0d/2629743.8)/(1.0d/1209600)),
+      ((1.0d/31556926)/1.0d),
+      ((1.0d/31556926)/(1.0d/60)),
+      ((1.0d/31556926)/(1.0d/3600)),
+      ((1.0d/31556926)/(1.0d/86400)),
+      ((1.0d/31556926)/(1.0d/604800)),
+      ((1.0d/31556926)/1000),
+      ((1.0d/31556926)/(1.0d/1000)),
+      ((1.0d/31556926)/(1.0d/2629743.8)),
+      ((1.0d/31556926)/(1.0d/31556926)),
+      ((1.0d/31556926)/(1.0d/1209600)),
+      ((1.0d/1209600)/1.0d),
+      ((1.0d/1209600)/(1.0d/60)),
+      ((1.0d/1209600)/(1.0d/3600)),
+      ((1.0d/1209600)/(1.0d/86400)),
+      ((1.0d/1209600)/(1.0d/604800)),
+      ((1.0d/1209600)/1000),
+      ((1.0d/1209600)/(1.0d/1000)),
+      ((1.0d/1209600)/(1.0d/2629743.8)),
+      ((1.0d/1209600)/(1.0d/31556926)),
+      ((1.0d/1209600)/(1.0d/1209600))
+    });
+
   /** takes strings of the form "Number unit" **/
   public TimeRate(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("secondspersecond")) 
-      theValue=n/(1.0d/1.0d);
-    else if (u.equals("secondsperminute")) 
-      theValue=n/(1.0d/(1.0d/60));
-    else if (u.equals("secondsperhour")) 
-      theValue=n/(1.0d/(1.0d/3600));
-    else if (u.equals("secondsperday")) 
-      theValue=n/(1.0d/(1.0d/86400));
-    else if (u.equals("secondsperweek")) 
-      theValue=n/(1.0d/(1.0d/604800));
-    else if (u.equals("secondspermillisecond")) 
-      theValue=n/(1.0d/1000);
-    else if (u.equals("secondsperkilosecond")) 
-      theValue=n/(1.0d/(1.0d/1000));
-    else if (u.equals("secondspermonth")) 
-      theValue=n/(1.0d/(1.0d/2629743.8));
-    else if (u.equals("secondsperyear")) 
-      theValue=n/(1.0d/(1.0d/31556926));
-    else if (u.equals("secondsperfortnight")) 
-      theValue=n/(1.0d/(1.0d/1209600));
-    else if (u.equals("minutespersecond")) 
-      theValue=n/((1.0d/60)/1.0d);
-    else if (u.equals("minutesperminute")) 
-      theValue=n/((1.0d/60)/(1.0d/60));
-    else if (u.equals("minutesperhour")) 
-      theValue=n/((1.0d/60)/(1.0d/3600));
-    else if (u.equals("minutesperday")) 
-      theValue=n/((1.0d/60)/(1.0d/86400));
-    else if (u.equals("minutesperweek")) 
-      theValue=n/((1.0d/60)/(1.0d/604800));
-    else if (u.equals("minutespermillisecond")) 
-      theValue=n/((1.0d/60)/1000);
-    else if (u.equals("minutesperkilosecond")) 
-      theValue=n/((1.0d/60)/(1.0d/1000));
-    else if (u.equals("minutespermonth")) 
-      theValue=n/((1.0d/60)/(1.0d/2629743.8));
-    else if (u.equals("minutesperyear")) 
-      theValue=n/((1.0d/60)/(1.0d/31556926));
-    else if (u.equals("minutesperfortnight")) 
-      theValue=n/((1.0d/60)/(1.0d/1209600));
-    else if (u.equals("hourspersecond")) 
-      theValue=n/((1.0d/3600)/1.0d);
-    else if (u.equals("hoursperminute")) 
-      theValue=n/((1.0d/3600)/(1.0d/60));
-    else if (u.equals("hoursperhour")) 
-      theValue=n/((1.0d/3600)/(1.0d/3600));
-    else if (u.equals("hoursperday")) 
-      theValue=n/((1.0d/3600)/(1.0d/86400));
-    else if (u.equals("hoursperweek")) 
-      theValue=n/((1.0d/3600)/(1.0d/604800));
-    else if (u.equals("hourspermillisecond")) 
-      theValue=n/((1.0d/3600)/1000);
-    else if (u.equals("hoursperkilosecond")) 
-      theValue=n/((1.0d/3600)/(1.0d/1000));
-    else if (u.equals("hourspermonth")) 
-      theValue=n/((1.0d/3600)/(1.0d/2629743.8));
-    else if (u.equals("hoursperyear")) 
-      theValue=n/((1.0d/3600)/(1.0d/31556926));
-    else if (u.equals("hoursperfortnight")) 
-      theValue=n/((1.0d/3600)/(1.0d/1209600));
-    else if (u.equals("dayspersecond")) 
-      theValue=n/((1.0d/86400)/1.0d);
-    else if (u.equals("daysperminute")) 
-      theValue=n/((1.0d/86400)/(1.0d/60));
-    else if (u.equals("daysperhour")) 
-      theValue=n/((1.0d/86400)/(1.0d/3600));
-    else if (u.equals("daysperday")) 
-      theValue=n/((1.0d/86400)/(1.0d/86400));
-    else if (u.equals("daysperweek")) 
-      theValue=n/((1.0d/86400)/(1.0d/604800));
-    else if (u.equals("dayspermillisecond")) 
-      theValue=n/((1.0d/86400)/1000);
-    else if (u.equals("daysperkilosecond")) 
-      theValue=n/((1.0d/86400)/(1.0d/1000));
-    else if (u.equals("dayspermonth")) 
-      theValue=n/((1.0d/86400)/(1.0d/2629743.8));
-    else if (u.equals("daysperyear")) 
-      theValue=n/((1.0d/86400)/(1.0d/31556926));
-    else if (u.equals("daysperfortnight")) 
-      theValue=n/((1.0d/86400)/(1.0d/1209600));
-    else if (u.equals("weekspersecond")) 
-      theValue=n/((1.0d/604800)/1.0d);
-    else if (u.equals("weeksperminute")) 
-      theValue=n/((1.0d/604800)/(1.0d/60));
-    else if (u.equals("weeksperhour")) 
-      theValue=n/((1.0d/604800)/(1.0d/3600));
-    else if (u.equals("weeksperday")) 
-      theValue=n/((1.0d/604800)/(1.0d/86400));
-    else if (u.equals("weeksperweek")) 
-      theValue=n/((1.0d/604800)/(1.0d/604800));
-    else if (u.equals("weekspermillisecond")) 
-      theValue=n/((1.0d/604800)/1000);
-    else if (u.equals("weeksperkilosecond")) 
-      theValue=n/((1.0d/604800)/(1.0d/1000));
-    else if (u.equals("weekspermonth")) 
-      theValue=n/((1.0d/604800)/(1.0d/2629743.8));
-    else if (u.equals("weeksperyear")) 
-      theValue=n/((1.0d/604800)/(1.0d/31556926));
-    else if (u.equals("weeksperfortnight")) 
-      theValue=n/((1.0d/604800)/(1.0d/1209600));
-    else if (u.equals("millisecondspersecond")) 
-      theValue=n/(1000/1.0d);
-    else if (u.equals("millisecondsperminute")) 
-      theValue=n/(1000/(1.0d/60));
-    else if (u.equals("millisecondsperhour")) 
-      theValue=n/(1000/(1.0d/3600));
-    else if (u.equals("millisecondsperday")) 
-      theValue=n/(1000/(1.0d/86400));
-    else if (u.equals("millisecondsperweek")) 
-      theValue=n/(1000/(1.0d/604800));
-    else if (u.equals("millisecondspermillisecond")) 
-      theValue=n/(1000/1000);
-    else if (u.equals("millisecondsperkilosecond")) 
-      theValue=n/(1000/(1.0d/1000));
-    else if (u.equals("millisecondspermonth")) 
-      theValue=n/(1000/(1.0d/2629743.8));
-    else if (u.equals("millisecondsperyear")) 
-      theValue=n/(1000/(1.0d/31556926));
-    else if (u.equals("millisecondsperfortnight")) 
-      theValue=n/(1000/(1.0d/1209600));
-    else if (u.equals("kilosecondspersecond")) 
-      theValue=n/((1.0d/1000)/1.0d);
-    else if (u.equals("kilosecondsperminute")) 
-      theValue=n/((1.0d/1000)/(1.0d/60));
-    else if (u.equals("kilosecondsperhour")) 
-      theValue=n/((1.0d/1000)/(1.0d/3600));
-    else if (u.equals("kilosecondsperday")) 
-      theValue=n/((1.0d/1000)/(1.0d/86400));
-    else if (u.equals("kilosecondsperweek")) 
-      theValue=n/((1.0d/1000)/(1.0d/604800));
-    else if (u.equals("kilosecondspermillisecond")) 
-      theValue=n/((1.0d/1000)/1000);
-    else if (u.equals("kilosecondsperkilosecond")) 
-      theValue=n/((1.0d/1000)/(1.0d/1000));
-    else if (u.equals("kilosecondspermonth")) 
-      theValue=n/((1.0d/1000)/(1.0d/2629743.8));
-    else if (u.equals("kilosecondsperyear")) 
-      theValue=n/((1.0d/1000)/(1.0d/31556926));
-    else if (u.equals("kilosecondsperfortnight")) 
-      theValue=n/((1.0d/1000)/(1.0d/1209600));
-    else if (u.equals("monthspersecond")) 
-      theValue=n/((1.0d/2629743.8)/1.0d);
-    else if (u.equals("monthsperminute")) 
-      theValue=n/((1.0d/2629743.8)/(1.0d/60));
-    else if (u.equals("monthsperhour")) 
-      theValue=n/((1.0d/2629743.8)/(1.0d/3600));
-    else if (u.equals("monthsperday")) 
-      theValue=n/((1.0d/2629743.8)/(1.0d/86400));
-    else if (u.equals("monthsperweek")) 
-      theValue=n/((1.0d/2629743.8)/(1.0d/604800));
-    else if (u.equals("monthspermillisecond")) 
-      theValue=n/((1.0d/2629743.8)/1000);
-    else if (u.equals("monthsperkilosecond")) 
-      theValue=n/((1.0d/2629743.8)/(1.0d/1000));
-    else if (u.equals("monthspermonth")) 
-      theValue=n/((1.0d/2629743.8)/(1.0d/2629743.8));
-    else if (u.equals("monthsperyear")) 
-      theValue=n/((1.0d/2629743.8)/(1.0d/31556926));
-    else if (u.equals("monthsperfortnight")) 
-      theValue=n/((1.0d/2629743.8)/(1.0d/1209600));
-    else if (u.equals("yearspersecond")) 
-      theValue=n/((1.0d/31556926)/1.0d);
-    else if (u.equals("yearsperminute")) 
-      theValue=n/((1.0d/31556926)/(1.0d/60));
-    else if (u.equals("yearsperhour")) 
-      theValue=n/((1.0d/31556926)/(1.0d/3600));
-    else if (u.equals("yearsperday")) 
-      theValue=n/((1.0d/31556926)/(1.0d/86400));
-    else if (u.equals("yearsperweek")) 
-      theValue=n/((1.0d/31556926)/(1.0d/604800));
-    else if (u.equals("yearspermillisecond")) 
-      theValue=n/((1.0d/31556926)/1000);
-    else if (u.equals("yearsperkilosecond")) 
-      theValue=n/((1.0d/31556926)/(1.0d/1000));
-    else if (u.equals("yearspermonth")) 
-      theValue=n/((1.0d/31556926)/(1.0d/2629743.8));
-    else if (u.equals("yearsperyear")) 
-      theValue=n/((1.0d/31556926)/(1.0d/31556926));
-    else if (u.equals("yearsperfortnight")) 
-      theValue=n/((1.0d/31556926)/(1.0d/1209600));
-    else if (u.equals("fortnightspersecond")) 
-      theValue=n/((1.0d/1209600)/1.0d);
-    else if (u.equals("fortnightsperminute")) 
-      theValue=n/((1.0d/1209600)/(1.0d/60));
-    else if (u.equals("fortnightsperhour")) 
-      theValue=n/((1.0d/1209600)/(1.0d/3600));
-    else if (u.equals("fortnightsperday")) 
-      theValue=n/((1.0d/1209600)/(1.0d/86400));
-    else if (u.equals("fortnightsperweek")) 
-      theValue=n/((1.0d/1209600)/(1.0d/604800));
-    else if (u.equals("fortnightspermillisecond")) 
-      theValue=n/((1.0d/1209600)/1000);
-    else if (u.equals("fortnightsperkilosecond")) 
-      theValue=n/((1.0d/1209600)/(1.0d/1000));
-    else if (u.equals("fortnightspermonth")) 
-      theValue=n/((1.0d/1209600)/(1.0d/2629743.8));
-    else if (u.equals("fortnightsperyear")) 
-      theValue=n/((1.0d/1209600)/(1.0d/31556926));
-    else if (u.equals("fortnightsperfortnight")) 
-      theValue=n/((1.0d/1209600)/(1.0d/1209600));
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -0,0 +1,114 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+package org.cougaar.planning.ldm.measure;
+
+/** A table of the unit names a Measure class accepts in its String
+ * constructor, such as "100 meters".  Names are matched ignoring
+ * case with a single hashed lookup on the unit part of the string,
+ * without copying it.
+ * <p>
+ * Values in a "multiplying" table are converted to the internal unit
+ * as (number * factor), in a "dividing" table as (number / divisor),
+ * matching the arithmetic of the generated constructors.
+ **/
+public final class UnitTable {
+  private final boolean divide;
+  /** open-addressed lower-case unit names, null if empty */
+  private final String[] names;
+  private final double[] factors;
+  private final int mask;
+
+  private UnitTable(String[] units, double[] values, boolean divide) {
+    if (units.length != values.length) {
+      throw new IllegalArgumentException(
+          "Got "+units.length+" units but "+values.length+" values");
+    }
+    this.divide = divide;
+    int cap = 4;
+    while (cap < 2 * units.length) cap <<= 1;
+    names = new String[cap];
+    factors = new double[cap];
+    mask = cap - 1;
+    for (int i = 0; i < units.length; i++) {
+      String u = units[i].toLowerCase();
+      int h = hash(u, 0, u.length()) & mask;
+      while (names[h] != null && !names[h].equals(u)) {
+        h = (h + 1) & mask;
+      }
+      if (names[h] == null) {
+        // first one wins, as in an if/else chain
+        names[h] = u;
+        factors[h] = values[i];
+      }
+    }
+  }
+
+  /** @return a table converting with (number * factor) **/
+  public static UnitTable multiplying(String[] units, double[] factors) {
+    return new UnitTable(units, factors, false);
+  }
+
+  /** @return a table converting with (number / divisor) **/
+  public static UnitTable dividing(String[] units, double[] divisors) {
+    return new UnitTable(units, divisors, true);
+  }
+
+  /** Parse a string of the form "Number unit" into the internal unit.
+   * @throws UnknownUnitException if the unit is missing or unknown
+   * @throws NumberFormatException if the number is malformed
+   **/
+  public double parse(String s) {
+    int i = AbstractMeasure.indexOfType(s);
+    if (i < 0) throw new UnknownUnitException();
+    // trim the number and unit in place, like String.trim()
+    int nb = 0;
+    int ne = i;
+    while (nb < ne && s.charAt(nb) <= ' ') nb++;
+    while (ne > nb && s.charAt(ne - 1) <= ' ') ne--;
+    double n = Double.parseDouble(s.substring(nb, ne));
+    int ub = i;
+    int ue = s.length();
+    while (ub < ue && s.charAt(ub) <= ' ') ub++;
+    while (ue > ub && s.charAt(ue - 1) <= ' ') ue--;
+    int len = ue - ub;
+    for (int h = hash(s, ub, ue) & mask; ; h = (h + 1) & mask) {
+      String name = names[h];
+      if (name == null) throw new UnknownUnitException();
+      if (name.length() == len && s.regionMatches(true, ub, name, 0, len)) {
+        return (divide ? n / factors[h] : n * factors[h]);
+      }
+    }
+  }
+
+  /** String.hashCode of the lower-cased region **/
+  private static int hash(String s, int begin, int end) {
+    int h = 0;
+    for (int i = begin; i < end; i++) {
+      h = 31 * h + Character.toLowerCase(s.charAt(i));
+    }
+    return h;
+  }
+}
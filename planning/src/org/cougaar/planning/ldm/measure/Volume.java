@@ -74,34 +74,37 @@ public final class Volume extends Scalar implements Externalizable {
       throw new UnknownUnitException();
   }
 
+  // unit names accepted by the String constructor, and their
+  // factors to our internal unit
+  private static final UnitTable UNIT_TABLE = UnitTable.multiplying(
+    new String[] {
+      "liters",
+      "ounces",
+      "gallons",
+      "imperialgallons",
+      "cubicfeet",
+      "cubicyards",
+      "mtons",
+      "cubiccentimeters",
+      "cubicmeters",
+      "barrels"
+    },
+    new double[] {
+      1.0,
+      LITERS_PER_OUNCES,
+      LITERS_PER_GALLONS,
+      LITERS_PER_IMPERIAL_GALLONS,
+      LITERS_PER_CUBIC_FEET,
+      LITERS_PER_CUBIC_YARDS,
+      LITERS_PER_MTONS,
+      LITERS_PER_CUBIC_CENTIMETERS,
+      LITERS_PER_CUBIC_METERS,
+      LITERS_PER_BARRELS
+    });
+
   /** takes strings of the form "Number unit" **/
   public Volume(String s) {
-    int i = indexOfType(s);
-    if (i < 0) throw new UnknownUnitException();
-    double n = Double.valueOf(s.substring(0,i).trim()).doubleValue();
-    String u = s.substring(i).trim().toLowerCase();
-    if (u.equals("liters")) 
-      theValue=n;
-    else if (u.equals("ounces")) 
-      theValue=n*LITERS_PER_OUNCES;
-    else if (u.equals("gallons")) 
-      theValue=n*LITERS_PER_GALLONS;
-    else if (u.equals("imperialgallons")) 
-      theValue=n*LITERS_PER_IMPERIAL_GALLONS;
-    else if (u.equals("cubicfeet")) 
-      theValue=n*LITERS_PER_CUBIC_FEET;
-    else if (u.equals("cubicyards")) 
-      theValue=n*LITERS_PER_CUBIC_YARDS;
-    else if (u.equals("mtons")) 
-      theValue=n*LITERS_PER_MTONS;
-    else if (u.equals("cubiccentimeters")) 
-      theValue=n*LITERS_PER_CUBIC_CENTIMETERS;
-    else if (u.equals("cubicmeters")) 
-      theValue=n*LITERS_PER_CUBIC_METERS;
-    else if (u.equals("barrels")) 
-      theValue=n*LITERS_PER_BARRELS;
-    else 
-      throw new UnknownUnitException();
+    theValue = UNIT_TABLE.parse(s);
   }
 
   // TypeNamed factory methods
@@ -98,6 +98,7 @@ public class AllocationImpl extends PlanElementImpl
   public void setEstimatedResult(AllocationResult estimatedresult) {
     super.setEstimatedResult(estimatedresult);
     setCheckConflicts(true);
+    invalidateRoleSchedule(getAsset());
   }
  	
   /**
@@ -36,6 +36,9 @@ import java.util.Date;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.cougaar.util.MoreMath;
 
 /**
  * The "result" of allocating a task.
@@ -49,7 +52,7 @@ public class AllocationResult
   private final boolean isSuccess;
   private final float confrating;
   private final AspectValue[] avResults;
-  private final ArrayList phasedavrs; // A List of AspectValue[], null if not phased
+  private final Phases phases; // null if not phased
 
   // Mutable auxqueries array, typically null.
   // Locked by "avResults", since it's non-null.
@@ -57,16 +60,22 @@ public class AllocationResult
   // overhead, since we expect far more readers than writers.
   private String[] auxqueries;
 
-  // Mutable memoized variables.
-  // Locked by "avResults", since it's non-null.
-  // 
-  // Must call "clearMemos()" at end of "readObject", since
-  // transient initializers are not called in deserialization.
-  // To make things consistent, we use an explicit "clearMemos()"
-  // at the end of all constructors.
-  private transient int[] _ats;// Array of aspect types
-  private transient int _lasttype; // Type of last type to index conversion
-  private transient int _lastindex; // Index of last type to index conversion
+  // Aspect lookup tables, derived from the final avResults.
+  //
+  // The object is immutable apart from the auxqueries, so these are
+  // built once by "buildIndex()" at the end of every constructor and
+  // "readObject" (transient initializers are not called in
+  // deserialization). They are volatile rather than locked so that
+  // getValue/getAspectValue/isDefined never take a monitor.
+  //
+  // _slots is a dense map from aspect type to (index + 1) in
+  // avResults, zero meaning the type is undefined. Types outside
+  // [0..MAX_DENSE_ASPECT] are found by scanning avResults.
+  private transient volatile int[] _slots;
+  private transient volatile int[] _ats;// Array of aspect types
+
+  private static final int MAX_DENSE_ASPECT = 255;
+  private static final int[] NO_SLOTS = new int[0];
 
   /** Constructor that takes a result in the form of AspectValues (NON-PHASED).
    * Subclasses of AspectValue, such as TypedQuantityAspectValue are allowed.
@@ -82,8 +91,8 @@ public class AllocationResult
     isSuccess = success;
     confrating = (float) rating;
     avResults = cloneAndCheckAVV(aspectvalues);
-    phasedavrs = null;
-    clearMemos();
+    phases = null;
+    buildIndex();
   }
 
   /** Factory that takes a result in the form of AspectValues (NON-PHASED).
@@ -118,8 +127,8 @@ public class AllocationResult
     isSuccess = success;
     confrating = (float) rating;
     avResults = cloneAndCheckAVV(rollupavs);
-    phasedavrs = copyPhasedResults(allresults);
-    clearMemos();
+    phases = Phases.newPhases(copyPhasedResults(allresults));
+    buildIndex();
   }
 
   /** @deprecated Use #AllocationResult(double,boolean,AspectValue[],Collection) instead because
@@ -144,8 +153,8 @@ public class AllocationResult
     isSuccess = success;
     confrating = (float) rating;
     avResults = cloneAndCheckAVV(rollupavs);
-    phasedavrs = copyPhasedResults(phasedresults);
-    clearMemos();
+    phases = Phases.newPhases(copyPhasedResults(phasedresults));
+    buildIndex();
   }
 
   /** AllocationResult factory that takes a PHASED result in the form of AspectValues.
@@ -190,7 +199,7 @@ public class AllocationResult
     int nAspects = mergedavs.size();
     avResults = (AspectValue[]) mergedavs.toArray(new AspectValue[nAspects]);
     confrating = (ar1.confrating * len1 + ar2.confrating * (nAspects - len1)) / nAspects;
-    phasedavrs = null;
+    phases = null;
 
     String[] ar1_auxqueries = ar1.currentAuxQueries();
     boolean is_shared = false;
@@ -217,7 +226,7 @@ public class AllocationResult
       }
     }
     isSuccess = ar1.isSuccess() || ar2.isSuccess();
-    clearMemos();
+    buildIndex();
   }
 
   /**
@@ -238,23 +247,36 @@ public class AllocationResult
     confrating = ar.confrating;
     isSuccess = ar.isSuccess;
     avResults = (AspectValue[]) ar.avResults.clone();
-    if (ar.phasedavrs == null) {
-      phasedavrs = null;
-    } else {
-      phasedavrs = new ArrayList(ar.phasedavrs.size());
-      for (Iterator i = ar.phasedavrs.iterator(); i.hasNext(); ) {
-        AspectValue[] av = (AspectValue[]) i.next();
-        phasedavrs.add(av.clone());
-      }
-    }
+    phases = ar.phases;         // immutable, so may be shared
     auxqueries = ar.currentAuxQueries();
-    clearMemos();
+    buildIndex();
   }
 
 
+  private void buildIndex() {
+    int n = avResults.length;
+    int[] ats = new int[n];
+    int maxType = -1;
+    for (int i = 0; i < n; i++) {
+      int type = avResults[i].getAspectType();
+      ats[i] = type;
+      if (type > maxType && type <= MAX_DENSE_ASPECT) maxType = type;
+    }
+    int[] slots = (maxType < 0 ? NO_SLOTS : new int[maxType + 1]);
+    // Assign in reverse so the first occurrence of a type wins
+    for (int i = n - 1; i >= 0; i--) {
+      int type = ats[i];
+      if (type >= 0 && type <= MAX_DENSE_ASPECT) slots[type] = i + 1;
+    }
+    _ats = ats;
+    _slots = slots;
+  }
+
   private int getIndexOfType(int aspectType) {
-    assert Thread.holdsLock(avResults);
-    if (aspectType == _lasttype) return _lastindex; // Use memoized value
+    if (aspectType >= 0 && aspectType <= MAX_DENSE_ASPECT) {
+      int[] slots = _slots;
+      return (aspectType < slots.length ? slots[aspectType] - 1 : -1);
+    }
     for (int i = 0 ; i < avResults.length; i++) {
       if (avResults[i].getAspectType() == aspectType) return i;
     }
@@ -278,13 +300,9 @@ public class AllocationResult
    * @see org.cougaar.planning.ldm.plan.AspectType
    */
   public double getValue(int aspectType) {
-    synchronized (avResults) {
-      if (_lasttype == aspectType) 
-        return avResults[_lastindex].getValue(); // return memoized value
-      int i = getIndexOfType(aspectType);
-      if (i >= 0)
-        return avResults[i].getValue();
-    }
+    int i = getIndexOfType(aspectType);
+    if (i >= 0)
+      return avResults[i].getValue();
     // didn't find it.
     throw new IllegalArgumentException("AllocationResult.getValue(int "
                                        + aspectType
@@ -294,13 +312,9 @@ public class AllocationResult
 
   /** Get the AspectValue of the result with the specified type **/
   public AspectValue getAspectValue(int aspectType) {
-    synchronized (avResults) {
-      if (_lasttype == aspectType) 
-        return avResults[_lastindex];
-      int i = getIndexOfType(aspectType);
-      if (i >= 0)
-        return avResults[i];
-    }
+    int i = getIndexOfType(aspectType);
+    if (i >= 0)
+      return avResults[i];
     // didn't find it.
     throw new IllegalArgumentException("AllocationResult.getAspectValue(int "
                                        + aspectType
@@ -314,15 +328,7 @@ public class AllocationResult
     * @see org.cougaar.planning.ldm.plan.AspectType
     */
   public boolean isDefined(int aspectType) {
-    synchronized (avResults) {
-      int i = getIndexOfType(aspectType);
-      if (i >= 0) {
-        _lasttype = aspectType;
-        _lastindex = i; // memoize lookup
-        return true;
-      }
-    }
-    return false;
+    return getIndexOfType(aspectType) >= 0;
   }
     
           
@@ -345,15 +351,36 @@ public class AllocationResult
    * result is phased.
    */
   public boolean isPhased() {
-    return phasedavrs != null;
+    return phases != null;
   }
 
-  private void clearMemos() {
-    synchronized (avResults) {
-      _ats = null;
-      _lasttype=-1;
-      _lastindex=-1;
-    }
+  /** @return the number of phases, or 0 if the result is not phased. **/
+  public int getPhaseCount() {
+    return (phases == null ? 0 : phases.size());
+  }
+
+  /** Get the value of an AspectType in one phase of a phased result,
+   * without building the AspectValues of that phase.
+   * <P> Warning!!! Not all AspectValues can be simply represented as
+   * a double. Use of this method with such AspectValues is undefined.
+   * @throws IllegalArgumentException if the result is not phased or
+   * the AspectType is not defined in that phase
+   * @throws IndexOutOfBoundsException if there is no such phase
+   **/
+  public double getPhasedValue(int phase, int aspectType) {
+    if (phases == null) throw new IllegalArgumentException("Not phased");
+    return phases.getValue(phase, aspectType);
+  }
+
+  /** Get the AspectValues of one phase of a phased result, without
+   * building those of the other phases.
+   * @return a new AspectValue[]
+   * @throws IllegalArgumentException if the result is not phased
+   * @throws IndexOutOfBoundsException if there is no such phase
+   **/
+  public AspectValue[] getPhasedAspectValues(int phase) {
+    if (phases == null) throw new IllegalArgumentException("Not phased");
+    return phases.getAspectValues(phase);
   }
 
   /** A Collection of AspectTypes representative of the type and
@@ -362,14 +389,7 @@ public class AllocationResult
    * @see org.cougaar.planning.ldm.plan.AspectType   
    */
   public int[] getAspectTypes() {
-    synchronized (avResults) {
-      if (_ats != null) return _ats;
-      _ats = new int[avResults.length];
-      for (int i = 0; i < avResults.length; i++) {
-        _ats[i] = avResults[i].getAspectType();
-      }
-      return _ats;
-    }
+    return _ats;
   }
   
   /** A collection of doubles that represent the result for each
@@ -383,7 +403,7 @@ public class AllocationResult
     return convertToDouble(avResults);
   }
 
-  private double[] convertToDouble(AspectValue[] avs) {
+  private static double[] convertToDouble(AspectValue[] avs) {
     double[] result = new double[avs.length];
     for (int i = 0; i < avs.length; i++) {
       result[i] = avs[i].getValue();
@@ -416,13 +436,13 @@ public class AllocationResult
   public Enumeration getPhasedResults() {
     if (!isPhased()) throw new IllegalArgumentException("Not phased");
     return new Enumeration() {
-      Iterator iter = phasedavrs.iterator();
+      int next = 0;
       public boolean hasMoreElements() {
-        return iter.hasNext();
+        return next < phases.size();
       }
       public Object nextElement() {
-        AspectValue[] avs = (AspectValue[]) iter.next();
-        return convertToDouble(avs);
+        if (next >= phases.size()) throw new NoSuchElementException();
+        return phases.getValues(next++);
       }
     };
   }
@@ -430,13 +450,21 @@ public class AllocationResult
   /** A List of Lists that represent each phased result in the form
    * of AspectValues.
    * If the result is not phased, use getAspectValueResults()
+   * <P> Most phased results are stored as values, so this builds an
+   * AspectValue per aspect per phase.  Use getPhaseCount and
+   * getPhasedValue or getPhasedAspectValues where possible.
    * @return A List<AspectValue[]>. If the AllocationResult is not phased, will return null.
    */
   public List getPhasedAspectValueResults() {
-    if (phasedavrs == null) {
+    if (phases == null) {
       return null;
     } else {
-      return new ArrayList(phasedavrs);
+      int n = phases.size();
+      ArrayList ret = new ArrayList(n);
+      for (int i = 0; i < n; i++) {
+        ret.add(phases.getAspectValues(i));
+      }
+      return ret;
     }
   }
         
@@ -501,7 +529,7 @@ public class AllocationResult
       AspectValue[] aspectvalues) {
     AspectValue[] ret = (AspectValue[]) aspectvalues.clone();
     assert isAVVValid(ret);
-    // must clearMemos()
+    // must buildIndex()
     return ret;
   }
 
@@ -571,13 +599,7 @@ public class AllocationResult
     if (!AspectValue.nearlyEquals(this.avResults, that.avResults)) return false;
     // check the phased results
     if (isPhased()) {
-      Iterator i1 = that.phasedavrs.iterator();
-      Iterator i2 = this.phasedavrs.iterator();
-      while (i1.hasNext()) {
-        if (!i2.hasNext()) return false;
-        if (!AspectValue.nearlyEquals((AspectValue[]) i1.next(), (AspectValue[]) i2.next())) return false;
-      }
-      if (i2.hasNext()) return false;
+      if (!phases.isEqual(that.phases)) return false;
     }
 
     // check the aux queries
@@ -637,11 +659,10 @@ public class AllocationResult
    * @return an array of an array of doubles
    **/
   public double[][] getPhasedResultsAsArray() {
-    int len = (isPhased() ? phasedavrs.size() : 0);
+    int len = (isPhased() ? phases.size() : 0);
     double[][] d = new double[len][];
     for (int i = 0; i < len; i++) {
-      AspectValue[] avs = (AspectValue[]) phasedavrs.get(i);
-      d[i] = convertToDouble(avs);
+      d[i] = phases.getValues(i);
     }
     return d;
   }
@@ -654,8 +675,8 @@ public class AllocationResult
    **/
   public double[] getPhasedResultsFromArray(int i) {
     if (!isPhased()) return null;
-    if (i < 0 || i >= phasedavrs.size()) return null;
-    return convertToDouble((AspectValue[]) phasedavrs.get(i));
+    if (i < 0 || i >= phases.size()) return null;
+    return phases.getValues(i);
   }
     
   private void appendAVS(StringBuffer buf, AspectValue[] avs) {
@@ -675,11 +696,11 @@ public class AllocationResult
     buf.append(confrating);
     appendAVS(buf, avResults);
     if (isPhased()) {
-      for (int i = 0, n = phasedavrs.size(); i < n; i++) {
+      for (int i = 0, n = phases.size(); i < n; i++) {
         buf.append("Phase ");
         buf.append(i);
         buf.append("=");
-        appendAVS(buf, (AspectValue[]) phasedavrs.get(i));
+        appendAVS(buf, phases.getAspectValues(i));
       }
     }
     buf.append("]");
@@ -739,11 +760,187 @@ public class AllocationResult
     return ava;
   }
 
+  /**
+   * The phased results.  Phases whose AspectValues are exactly those
+   * AspectValue.newAspectValue(type, double) would build, all with the
+   * same aspect types in the same order, are kept as columns: one int[]
+   * of types shared by every phase and one double[] matrix of values,
+   * phase-major.  This avoids an AspectValue object per aspect per
+   * phase.  Any other phased result keeps its AspectValue[]s as given.
+   * Immutable.
+   **/
+  private static final class Phases implements Serializable {
+    private final int count;
+    private final int[] types;         // shared types, null if !columnar
+    private final double[] values;     // count * types.length, or null
+    private final AspectValue[][] avs; // per phase, null if columnar
+
+    private Phases(int count, int[] types, double[] values, AspectValue[][] avs) {
+      this.count = count;
+      this.types = types;
+      this.values = values;
+      this.avs = avs;
+    }
+
+    /** @param l a List of AspectValue[], one per phase **/
+    static Phases newPhases(List l) {
+      int n = l.size();
+      int[] types = null;
+      double[] values = null;
+      if (n > 0) {
+        AspectValue[] first = (AspectValue[]) l.get(0);
+        int k = first.length;
+        types = new int[k];
+        values = new double[n * k];
+        Class[] classes = new Class[k];
+        for (int j = 0; j < k; j++) {
+          types[j] = first[j].getAspectType();
+          classes[j] = getRebuiltClass(first[j]);
+          if (classes[j] == null) {
+            types = null;
+            break;
+          }
+        }
+      outer:
+        for (int i = 0; types != null && i < n; i++) {
+          AspectValue[] phase = (AspectValue[]) l.get(i);
+          if (phase.length != k) {
+            types = null;
+            break;
+          }
+          for (int j = 0; j < k; j++) {
+            AspectValue av = phase[j];
+            if (av.getAspectType() != types[j] || !isRebuildable(av, classes[j])) {
+              types = null;
+              break outer;
+            }
+            values[i * k + j] = av.getValue();
+          }
+        }
+      }
+      if (n == 0) {
+        return new Phases(0, new int[0], new double[0], null);
+      }
+      if (types != null) {
+        return new Phases(n, types, values, null);
+      }
+      AspectValue[][] avs = new AspectValue[n][];
+      for (int i = 0; i < n; i++) {
+        avs[i] = cloneAndCheckAVV((AspectValue[]) l.get(i));
+      }
+      return new Phases(n, null, null, avs);
+    }
+
+    /** @return the class AspectValue.newAspectValue(type, double)
+     * builds for av's aspect type, if that is av's class and a class
+     * whose only state is the aspect type and a number, or null.
+     * Called once per aspect, not per phase.
+     **/
+    private static Class getRebuiltClass(AspectValue av) {
+      Class c = av.getClass();
+      if (!(c == FloatAspectValue.class ||
+            c == DoubleAspectValue.class ||
+            c == IntAspectValue.class ||
+            c == LongAspectValue.class ||
+            TimeAspectValue.class.isAssignableFrom(c))) {
+        return null;
+      }
+      try {
+        AspectValue copy = AspectValue.newAspectValue(av.getAspectType(), av.getValue());
+        return (copy.getClass() == c ? c : null);
+      } catch (RuntimeException re) {
+        return null;
+      }
+    }
+
+    /** Would AspectValue.newAspectValue(type, double) give back an
+     * equal AspectValue?  c is the class from getRebuiltClass, so this
+     * only needs to check that the value survives the trip through a
+     * double.
+     **/
+    private static boolean isRebuildable(AspectValue av, Class c) {
+      if (av.getClass() != c) return false;
+      if (c == LongAspectValue.class || TimeAspectValue.class.isAssignableFrom(c)) {
+        return ((long) av.getValue()) == av.longValue();
+      }
+      return true;
+    }
+
+    int size() {
+      return count;
+    }
+
+    /** @return a new AspectValue[] for the phase **/
+    AspectValue[] getAspectValues(int phase) {
+      checkPhase(phase);
+      if (avs != null) {
+        return (AspectValue[]) avs[phase].clone();
+      }
+      int k = types.length;
+      AspectValue[] ret = new AspectValue[k];
+      for (int j = 0; j < k; j++) {
+        ret[j] = AspectValue.newAspectValue(types[j], values[phase * k + j]);
+      }
+      return ret;
+    }
+
+    /** @return a new double[] for the phase **/
+    double[] getValues(int phase) {
+      checkPhase(phase);
+      if (avs != null) {
+        return convertToDouble(avs[phase]);
+      }
+      int k = types.length;
+      double[] ret = new double[k];
+      System.arraycopy(values, phase * k, ret, 0, k);
+      return ret;
+    }
+
+    double getValue(int phase, int aspectType) {
+      checkPhase(phase);
+      if (avs != null) {
+        AspectValue[] avv = avs[phase];
+        for (int j = 0; j < avv.length; j++) {
+          if (avv[j].getAspectType() == aspectType) return avv[j].getValue();
+        }
+      } else {
+        for (int j = 0; j < types.length; j++) {
+          if (types[j] == aspectType) return values[phase * types.length + j];
+        }
+      }
+      throw new IllegalArgumentException("AllocationResult.getPhasedValue(int "
+                                         + phase + ", int " + aspectType
+                                         + ") - The AspectType is not defined by this phase.");
+    }
+
+    boolean isEqual(Phases that) {
+      if (this == that) return true;
+      if (that == null || this.count != that.count) return false;
+      if (this.types != null && Arrays.equals(this.types, that.types)) {
+        // same layout, so AspectValue.nearlyEquals reduces to this
+        for (int i = 0; i < values.length; i++) {
+          if (!MoreMath.nearlyEquals(this.values[i], that.values[i])) return false;
+        }
+        return true;
+      }
+      for (int i = 0; i < count; i++) {
+        if (!AspectValue.nearlyEquals(this.getAspectValues(i), that.getAspectValues(i))) return false;
+      }
+      return true;
+    }
+
+    private void checkPhase(int phase) {
+      if (phase < 0 || phase >= count) {
+        throw new IndexOutOfBoundsException("Phase: "+phase+", Count: "+count);
+      }
+    }
+  }
+
   private void readObject(ObjectInputStream ois)
     throws IOException, ClassNotFoundException
   {
     ois.defaultReadObject();
-    clearMemos();
+    buildIndex();
   }
 }
 
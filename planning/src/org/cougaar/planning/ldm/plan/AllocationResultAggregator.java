@@ -89,7 +89,7 @@ public interface AllocationResultAggregator
    * returns null when there are no subtasks or any task has no result.
    **/
   class DefaultARA implements AllocationResultAggregator {
-    private static final String UNDEFINED = "UNDEFINED";
+    static final String UNDEFINED = "UNDEFINED";
 
     public AllocationResult calculate(Workflow wf, TaskScoreTable tst, AllocationResult currentar) {
       double acc[] = new double[AspectType._ASPECT_COUNT];
@@ -218,7 +218,26 @@ public interface AllocationResultAggregator
         }
 
       } // end of looping through all subtasks
-      
+
+      return finish(acc, ap, hash, tstSize, suc, rating, auxqsummary, currentar);
+    }
+
+    /**
+     * Complete an aggregation given the accumulated values of
+     * tstSize subtasks. The DURATION is derived here and
+     * CUSTOMER_SATISFACTION and the confidence rating are averaged.
+     * Shared with IncrementalAllocationResultAggregator so that both
+     * produce identical results.
+     * @param auxqsummary for each AuxiliaryQueryType, UNDEFINED if no
+     * subtask supplied a value, null if there was a conflict, or the
+     * value common to all subtasks that supplied one.
+     * @return currentar if the aggregate is unchanged.
+     **/
+    static AllocationResult finish(double[] acc, boolean[] ap, int hash, int tstSize,
+                                   boolean suc, double rating, String[] auxqsummary,
+                                   AllocationResult currentar)
+    {
+      int aql = auxqsummary.length;
       // compute duration IFF defined.
       if (ap[START_TIME] && ap[END_TIME]) {
         acc[DURATION] = acc[END_TIME] - acc[START_TIME];
@@ -213,6 +213,7 @@ public class AssetTransferImpl extends PlanElementImpl
   public void setEstimatedResult(AllocationResult estimatedresult) {
     super.setEstimatedResult(estimatedresult);
     setCheckConflicts(true);
+    invalidateRoleSchedule(getAsset());
   }
   
   /* INFRASTRUCTURE ONLY */
@@ -0,0 +1,100 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+import org.cougaar.core.util.UID;
+
+/** An implementation of org.cougaar.BulkNotification
+ */
+public class BulkNotificationImpl extends PlanningDirectiveImpl
+  implements BulkNotification, NewBulkNotification
+{
+  // parallel lists, written as a count followed by triples
+  private transient ArrayList taskUIDs = new ArrayList();
+  private transient ArrayList childUIDs = new ArrayList();
+  private transient ArrayList results = new ArrayList();
+
+  //no-arg constructor
+  public BulkNotificationImpl() {
+    super();
+  }
+
+  public int size() {
+    return taskUIDs.size();
+  }
+
+  public UID getTaskUID(int i) {
+    return (UID) taskUIDs.get(i);
+  }
+
+  public UID getChildTaskUID(int i) {
+    return (UID) childUIDs.get(i);
+  }
+
+  public AllocationResult getAllocationResult(int i) {
+    return (AllocationResult) results.get(i);
+  }
+
+  public void addNotification(UID tuid, UID childuid, AllocationResult ar) {
+    taskUIDs.add(tuid);
+    childUIDs.add(childuid);
+    results.add(ar);
+  }
+
+  private void writeObject(ObjectOutputStream stream) throws IOException {
+    stream.defaultWriteObject();
+    int n = taskUIDs.size();
+    stream.writeInt(n);
+    for (int i = 0; i < n; i++) {
+      stream.writeObject(taskUIDs.get(i));
+      stream.writeObject(childUIDs.get(i));
+      stream.writeObject(results.get(i));
+    }
+  }
+
+  private void readObject(ObjectInputStream stream) throws ClassNotFoundException, IOException {
+    stream.defaultReadObject();
+    int n = stream.readInt();
+    taskUIDs = new ArrayList(n);
+    childUIDs = new ArrayList(n);
+    results = new ArrayList(n);
+    for (int i = 0; i < n; i++) {
+      taskUIDs.add(stream.readObject());
+      childUIDs.add(stream.readObject());
+      results.add(stream.readObject());
+    }
+  }
+
+  public String toString() {
+    return "<BulkNotification of " + size() + " notifications>";
+  }
+}
@@ -83,6 +83,7 @@ public interface ClusterObjectFactory {
   NewLocationScheduleElement newLocationScheduleElement();
   NewMPTask newMPTask();
   NewNotification newNotification();
+  NewBulkNotification newBulkNotification();
   NewDeletion newDeletion();
   NewAssetVerification newAssetVerification();
   NewAssetVerification newAssetVerification(Asset asset, Asset assignee, Schedule schedule);
@@ -356,6 +357,14 @@ public interface ClusterObjectFactory {
    *	@return TaskRescind
    **/
   TaskRescind newTaskRescind(UID taskUID, MessageAddress destination, boolean deleted);
+
+  /** Build a TaskDelta Message.  This message is only sent by
+   *	RemoteAllocationLP - NOT PLUGINS!!!.
+   *	@param taskUID - The UID of the remote Task to be changed
+   *	@param destination - The Cluster to send the TaskDelta Message to.
+   *	@return NewTaskDelta carrying no changes
+   **/
+  NewTaskDelta newTaskDelta(UID taskUID, MessageAddress destination);
   
   /** Build an AssetRescind Message.  This message is only sent by
    *	CCRescind - NOT PLUGINS!!!.
@@ -270,6 +270,14 @@ public class ClusterObjectFactoryImpl implements ClusterObjectFactory {
     return nn;
   }
 
+  public NewBulkNotification newBulkNotification() {
+    NewBulkNotification nbn = new BulkNotificationImpl();
+    //set default source and destination to this cluster
+    nbn.setSource(cid);
+    nbn.setDestination(cid);
+    return nbn;
+  }
+
   public NewDeletion newDeletion() {
     NewDeletion nd = new DeletionImpl();
     //set default source and destination to this cluster
@@ -308,6 +316,10 @@ public class ClusterObjectFactoryImpl implements ClusterObjectFactory {
     return new TaskRescindImpl(cid, destination, getRealityPlan(), taskUID, deleted);
   }
 
+  public NewTaskDelta newTaskDelta(UID taskUID, MessageAddress destination){
+    return new TaskDeltaImpl(cid, destination, getRealityPlan(), taskUID);
+  }
+
   public AssetRescind newAssetRescind(Asset asset, Asset rescindeeAsset,
                                       Schedule rescindSchedule) {
     if (!rescindeeAsset.hasClusterPG()) {
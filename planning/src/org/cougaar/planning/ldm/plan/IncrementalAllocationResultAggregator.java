@@ -0,0 +1,282 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An AllocationResultAggregator that can maintain its aggregate
+ * incrementally. A Workflow using such an aggregator keeps an
+ * Accumulator holding running values and, when subtask results
+ * change, removes the old result from the Accumulator and adds the
+ * new one instead of re-walking every subtask result.
+ * @see WorkflowImpl#aggregateAllocationResults(java.util.List)
+ **/
+public interface IncrementalAllocationResultAggregator
+  extends AllocationResultAggregator
+{
+  /** An incremental equivalent of AllocationResultAggregator.DEFAULT **/
+  IncrementalAllocationResultAggregator DEFAULT_INCREMENTAL = new DefaultIncrementalARA();
+
+  /** @return a new, empty Accumulator for one Workflow **/
+  Accumulator newAccumulator();
+
+  /**
+   * The running aggregate of the results of the subtasks of a
+   * Workflow. A null AllocationResult denotes a subtask having no
+   * result.
+   **/
+  interface Accumulator {
+    /** Include the result of a subtask **/
+    void add(AllocationResult ar);
+
+    /** Remove a result previously added **/
+    void remove(AllocationResult ar);
+
+    /**
+     * Compute the aggregate result.
+     * @param tst The current subtask results. These are the same
+     * results that have been added, and may be consulted by an
+     * Accumulator that cannot maintain some value incrementally.
+     * @param currentar The current AllocationResult
+     **/
+    AllocationResult getResult(TaskScoreTable tst, AllocationResult currentar);
+  }
+
+  /**
+   * Incremental version of AllocationResultAggregator.DefaultARA. Sums
+   * are maintained directly. Minima and maxima are maintained along
+   * with the number of results attaining them; if that number drops
+   * to zero the extreme is recomputed from the TaskScoreTable when the
+   * result is next requested. Auxiliary query values are counted by
+   * value so conflicts can be resolved as results are removed.
+   **/
+  class DefaultIncrementalARA implements IncrementalAllocationResultAggregator {
+    public AllocationResult calculate(Workflow wf, TaskScoreTable tst, AllocationResult currentar) {
+      if (tst == null) return null;
+      Accumulator acc = newAccumulator();
+      for (int i = 0, n = tst.size(); i < n; i++) {
+        acc.add(tst.getAllocationResult(i));
+      }
+      return acc.getResult(tst, currentar);
+    }
+
+    public Accumulator newAccumulator() {
+      return new DefaultAccumulator();
+    }
+  }
+
+  class DefaultAccumulator implements Accumulator {
+    private static final int N = AspectType._ASPECT_COUNT;
+    private static final int SUM = 0;
+    private static final int MIN = 1;
+    private static final int MAX = 2;
+
+    /** How each aspect is accumulated, -1 if ignored **/
+    private static final int[] KIND = new int[N];
+    static {
+      for (int i = 0; i < N; i++) KIND[i] = -1;
+      KIND[START_TIME] = MIN;
+      KIND[END_TIME] = MAX;
+      KIND[COST] = SUM;
+      KIND[DANGER] = MAX;
+      KIND[RISK] = MAX;
+      KIND[QUANTITY] = SUM;
+      KIND[INTERVAL] = SUM;
+      KIND[TOTAL_QUANTITY] = SUM;
+      KIND[TOTAL_SHIPMENTS] = SUM;
+      KIND[CUSTOMER_SATISFACTION] = SUM;
+      KIND[READINESS] = MIN;
+    }
+
+    private int size = 0;
+    private int nNull = 0;
+    private int nFailed = 0;
+    private double ratingSum = 0.0;
+    /** sum or extreme value of each aspect **/
+    private double[] value = new double[N];
+    /** number of results defining each aspect **/
+    private int[] defined = new int[N];
+    /** number of results attaining the extreme of MIN/MAX aspects **/
+    private int[] extremeCount = new int[N];
+    /** Map of value to Count for each AuxiliaryQueryType **/
+    private Map[] auxqs = new Map[AuxiliaryQueryType.AQTYPE_COUNT];
+
+    private static class Count {
+      int n = 0;
+    }
+
+    public void add(AllocationResult ar) {
+      size++;
+      if (ar == null) {
+        nNull++;
+        return;
+      }
+      if (!ar.isSuccess()) nFailed++;
+      ratingSum += ar.getConfidenceRating();
+      int[] ats = ar.getAspectTypes();
+      for (int b = 0; b < ats.length; b++) {
+        int type = ats[b];
+        if (type < 0 || type >= N || KIND[type] < 0) continue;
+        double v = ar.getValue(type);
+        if (defined[type]++ == 0) {
+          value[type] = v;
+          extremeCount[type] = 1;
+          continue;
+        }
+        switch (KIND[type]) {
+        case SUM:
+          value[type] += v;
+          break;
+        case MIN:
+          addExtreme(type, v, v < value[type]);
+          break;
+        case MAX:
+          addExtreme(type, v, v > value[type]);
+          break;
+        }
+      }
+      for (int aq = 0; aq < auxqs.length; aq++) {
+        String data = ar.auxiliaryQuery(aq);
+        if (data != null) {
+          if (auxqs[aq] == null) auxqs[aq] = new HashMap(3);
+          Count count = (Count) auxqs[aq].get(data);
+          if (count == null) {
+            count = new Count();
+            auxqs[aq].put(data, count);
+          }
+          count.n++;
+        }
+      }
+    }
+
+    private void addExtreme(int type, double v, boolean better) {
+      if (extremeCount[type] == 0) return; // Already needs recomputation
+      if (better) {
+        value[type] = v;
+        extremeCount[type] = 1;
+      } else if (v == value[type]) {
+        extremeCount[type]++;
+      }
+    }
+
+    public void remove(AllocationResult ar) {
+      size--;
+      if (ar == null) {
+        nNull--;
+        return;
+      }
+      if (!ar.isSuccess()) nFailed--;
+      ratingSum -= ar.getConfidenceRating();
+      int[] ats = ar.getAspectTypes();
+      for (int b = 0; b < ats.length; b++) {
+        int type = ats[b];
+        if (type < 0 || type >= N || KIND[type] < 0) continue;
+        double v = ar.getValue(type);
+        if (--defined[type] == 0) {
+          value[type] = 0.0;
+          extremeCount[type] = 0;
+          continue;
+        }
+        if (KIND[type] == SUM) {
+          value[type] -= v;
+        } else if (v == value[type] && extremeCount[type] > 0) {
+          extremeCount[type]--;
+        }
+      }
+      for (int aq = 0; aq < auxqs.length; aq++) {
+        String data = ar.auxiliaryQuery(aq);
+        if (data != null && auxqs[aq] != null) {
+          Count count = (Count) auxqs[aq].get(data);
+          if (count != null && --count.n == 0) {
+            auxqs[aq].remove(data);
+          }
+        }
+      }
+    }
+
+    /** Recompute an extreme whose attaining results have all been removed **/
+    private void recomputeExtreme(int type, TaskScoreTable tst) {
+      boolean isMin = (KIND[type] == MIN);
+      int count = 0;
+      double ext = 0.0;
+      for (int i = 0, n = tst.size(); i < n; i++) {
+        AllocationResult ar = tst.getAllocationResult(i);
+        if (ar == null || !ar.isDefined(type)) continue;
+        double v = ar.getValue(type);
+        if (count == 0 || (isMin ? v < ext : v > ext)) {
+          ext = v;
+          count = 1;
+        } else if (v == ext) {
+          count++;
+        }
+      }
+      value[type] = ext;
+      extremeCount[type] = count;
+    }
+
+    public AllocationResult getResult(TaskScoreTable tst, AllocationResult currentar) {
+      if (size == 0 || nNull > 0) return null;
+      double[] acc = new double[N];
+      boolean[] ap = new boolean[N];
+      acc[START_TIME] = Double.MAX_VALUE;
+      acc[CUSTOMER_SATISFACTION] = 1.0; // start at best
+      acc[READINESS] = 1.0;
+      int hash = 0;
+      for (int type = 0; type < N; type++) {
+        if (KIND[type] < 0 || defined[type] == 0) continue;
+        if (KIND[type] != SUM && extremeCount[type] == 0) {
+          recomputeExtreme(type, tst);
+        }
+        double v = value[type];
+        switch (KIND[type]) {
+        case SUM: acc[type] += v; break;
+        case MIN: acc[type] = Math.min(acc[type], v); break;
+        case MAX: acc[type] = Math.max(acc[type], v); break;
+        }
+        ap[type] = true;
+        hash |= (1<<type);
+      }
+      String[] auxqsummary = new String[auxqs.length];
+      for (int aq = 0; aq < auxqs.length; aq++) {
+        Map values = auxqs[aq];
+        if (values == null || values.isEmpty()) {
+          auxqsummary[aq] = DefaultARA.UNDEFINED;
+        } else if (values.size() == 1) {
+          Iterator i = values.keySet().iterator();
+          auxqsummary[aq] = (String) i.next();
+        } else {
+          auxqsummary[aq] = null; // conflict
+        }
+      }
+      return DefaultARA.finish(acc, ap, hash, size, nFailed == 0,
+                               ratingSum, auxqsummary, currentar);
+    }
+  }
+}
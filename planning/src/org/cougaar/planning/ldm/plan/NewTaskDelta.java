@@ -0,0 +1,66 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import org.cougaar.core.util.UID;
+
+/** NewTaskDelta Interface
+ * Provides setter methods for object creation 
+ **/
+
+public interface NewTaskDelta extends TaskDelta, NewPlanningDirective 
+{
+  /**
+   * Sets the UID of the task to be changed
+   **/
+  void setTaskUID(UID uid);
+
+  /**
+   * Sets the new or replaced Preferences.
+   **/
+  void setChangedPreferences(Preference[] prefs);
+
+  /**
+   * Sets the aspect types of the removed Preferences.
+   **/
+  void setRemovedAspectTypes(int[] aspectTypes);
+
+  /**
+   * Sets the new or replaced PrepositionalPhrases.
+   **/
+  void setChangedPrepositionalPhrases(PrepositionalPhrase[] phrases);
+
+  /**
+   * Sets the prepositions of the removed PrepositionalPhrases.
+   **/
+  void setRemovedPrepositions(String[] prepositions);
+
+  /**
+   * Sets the new priority.
+   **/
+  void setPriority(byte priority);
+}
@@ -343,6 +343,16 @@ public abstract class PlanElementImpl
       System.err.println("\n WARNING - could not remove PlanElement from roleschedule");
     }
   }
+  // The times of this planelement have changed, so the Asset's RoleSchedule
+  // can no longer rely on its time index.
+  protected void invalidateRoleSchedule(Asset asset) {
+    if (asset != null) {
+      RoleSchedule rs = asset.getRoleSchedule();
+      if (rs instanceof ScheduleImpl) {
+        ((ScheduleImpl) rs).invalidateTimeIndex();
+      }
+    }
+  }
 
   private void writeObject(ObjectOutputStream stream) throws IOException {
  
@@ -103,6 +103,11 @@ public class PrepositionalPhraseImpl
     }
   }
 
+  public int hashCode() {
+    return ((preposition == null) ? 0 : preposition.hashCode()) ^
+      ((indirectobject == null) ? 0 : indirectobject.hashCode());
+  }
+
   private void writeObject(ObjectOutputStream stream) throws IOException {
  
     stream.defaultWriteObject();
@@ -32,6 +32,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.cougaar.planning.ldm.asset.Asset;
+import org.cougaar.util.PropertyParser;
 import org.cougaar.util.UnaryPredicate;
 
 /**
@@ -47,6 +48,16 @@ public class RoleScheduleImpl
 {
   private transient Schedule availableschedule;
   private Asset asset;
+
+  /** Answer overlap/encapsulation queries from an interval index **/
+  private static final boolean TIME_INDEXED = PropertyParser.getBoolean("org.cougaar.planning.ldm.plan.RoleScheduleImpl.timeIndexed", true);
+
+  /** Let readers work from a snapshot rather than lock the schedule.
+   * Off by default: the snapshot is recopied on the first read after
+   * every change, which costs more than locking when writes and reads
+   * alternate, as in add-then-check-for-conflicts loops.
+   **/
+  private static final boolean SNAPSHOT_READ = PropertyParser.getBoolean("org.cougaar.planning.ldm.plan.RoleScheduleImpl.snapshotRead", false);
 	
   /** Constructor
    * @param theasset this roleschedule is attached to
@@ -78,6 +89,14 @@ public class RoleScheduleImpl
     return availableschedule;
   }
 
+  protected boolean isTimeIndexed() {
+    return TIME_INDEXED;
+  }
+
+  protected boolean isSnapshotRead() {
+    return SNAPSHOT_READ;
+  }
+
   /**
    *  Cougaar INTERNAL METHOD - SHOULD NEVER BE CALLED BY A PLUGIN
    *  add a single planelement to the roleschedule container
@@ -102,11 +121,11 @@ public class RoleScheduleImpl
     return getEncapsulatedRoleSchedule(start.getTime(), end.getTime());
   }
 
-  public synchronized Collection getEncapsulatedRoleSchedule(long start, long end) {
+  public Collection getEncapsulatedRoleSchedule(long start, long end) {
     return getEncapsulatedScheduleElements(start, end);
   }
 
-  public synchronized Collection getEqualAspectValues(final int aspect, final double value) {
+  public Collection getEqualAspectValues(final int aspect, final double value) {
     return filter(new UnaryPredicate() {
         public boolean execute(Object obj) {
           AllocationResult ar = ((PlanElement)obj).getEstimatedResult();
@@ -118,7 +137,7 @@ public class RoleScheduleImpl
       });
   }
   
-  public synchronized Collection getMatchingRoleElements(final Role aRole) {
+  public Collection getMatchingRoleElements(final Role aRole) {
     return filter(new UnaryPredicate() {
         public boolean execute (Object obj) {
           if (obj instanceof Allocation) {
@@ -140,7 +159,7 @@ public class RoleScheduleImpl
   public Collection getOverlappingRoleSchedule(Date start, Date end) {
     return getOverlappingRoleSchedule(start.getTime(), end.getTime());
   }
-  public synchronized Collection getOverlappingRoleSchedule(long start, long end) {
+  public Collection getOverlappingRoleSchedule(long start, long end) {
     return getOverlappingScheduleElements(start,end);
   }
   
@@ -195,11 +214,20 @@ public class RoleScheduleImpl
   }
       
   // for BeanInfo
-  public synchronized String[] getRoleScheduleIDs() {
-    int l = size();
+  public String[] getRoleScheduleIDs() {
+    if (isSnapshotRead()) {
+      return getRoleScheduleIDs(getSnapshot().asList());
+    }
+    synchronized (this) {
+      return getRoleScheduleIDs(this);
+    }
+  }
+
+  private static String[] getRoleScheduleIDs(List elements) {
+    int l = elements.size();
     String[] IDs = new String[l];
     for (int i = 0; i < l; i++) {
-      IDs[i] = ((PlanElement)get(i)).getUID().toString();
+      IDs[i] = ((PlanElement)elements.get(i)).getUID().toString();
     }
     return IDs;
   }
@@ -56,6 +56,17 @@ public class ScheduleImpl
 {
   protected String scheduleType = ScheduleType.OTHER;
   protected Class scheduleElementType = ScheduleElement.class;
+
+  /** Schedules smaller than this are always scanned linearly **/
+  protected static final int TIME_INDEX_THRESHOLD = 32;
+
+  /** Interval index over the current elements, or null if stale **/
+  private transient ScheduleTimeIndex timeIndex = null;
+  /** modCount at which timeIndex was built, or a query found it stale **/
+  private transient int timeIndexModCount = -1;
+
+  /** Copy of the elements for unsynchronized readers, or null if stale **/
+  private transient volatile ScheduleSnapshot snapshot = null;
                 
   /** Construct an empty schedule **/
   public ScheduleImpl () {
@@ -93,40 +104,64 @@ public class ScheduleImpl
     return scheduleElementType;
   }
         
-  public synchronized Date getStartDate() {
-    TimeSpan ts = (TimeSpan) first();
-    if (ts == null) {
-      throw new IndexOutOfBoundsException("Called getStartDate on an empty schedule");
+  public Date getStartDate() {
+    if (isSnapshotRead()) {
+      return new Date(getSnapshot().getStartTime());
+    }
+    synchronized (this) {
+      TimeSpan ts = (TimeSpan) first();
+      if (ts == null) {
+        throw new IndexOutOfBoundsException("Called getStartDate on an empty schedule");
+      }
+      return new Date(ts.getStartTime());
     }
-    return new Date(ts.getStartTime());
   }
 
-  public synchronized long getStartTime() {
-    TimeSpan ts = (TimeSpan) first();
-    if (ts == null) {
-      throw new IndexOutOfBoundsException("Called getStartTime on an empty schedule");
+  public long getStartTime() {
+    if (isSnapshotRead()) {
+      return getSnapshot().getStartTime();
+    }
+    synchronized (this) {
+      TimeSpan ts = (TimeSpan) first();
+      if (ts == null) {
+        throw new IndexOutOfBoundsException("Called getStartTime on an empty schedule");
+      }
+      return ts.getStartTime();
     }
-    return ts.getStartTime();
   }
 
-  public synchronized Date getEndDate() {
-    if (isEmpty()) {
-      throw new IndexOutOfBoundsException("Called getEndDate on an empty schedule");
+  public Date getEndDate() {
+    if (isSnapshotRead()) {
+      return new Date(getSnapshot().getEndTime());
+    }
+    synchronized (this) {
+      if (isEmpty()) {
+        throw new IndexOutOfBoundsException("Called getEndDate on an empty schedule");
+      }
+      return new Date(getEndTime());
     }
-    return new Date(getEndTime());
   }
 
-  public synchronized long getEndTime() {
-    if (isEmpty()) {
-      throw new IndexOutOfBoundsException("Called getEndTime on an empty schedule");
+  public long getEndTime() {
+    if (isSnapshotRead()) {
+      return getSnapshot().getEndTime();
     }
-    long max = MIN_VALUE;
-    for (int i = 0; i < size; i++) {
-      ScheduleElement se = (ScheduleElement) elementData[i];
-      long end = se.getEndTime();
-      if (end > max) max = end;
+    synchronized (this) {
+      if (isEmpty()) {
+        throw new IndexOutOfBoundsException("Called getEndTime on an empty schedule");
+      }
+      ScheduleTimeIndex index = getTimeIndex();
+      if (index != null) {
+        return index.getMaxEndTime();
+      }
+      long max = MIN_VALUE;
+      for (int i = 0; i < size; i++) {
+        ScheduleElement se = (ScheduleElement) elementData[i];
+        long end = se.getEndTime();
+        if (end > max) max = end;
+      }
+      return max;
     }
-    return max;
   }
 
   /** get an enumeration over a copy of all of the schedule elements of this 
@@ -135,13 +170,23 @@ public class ScheduleImpl
    * reflected in the Enumeration.
    * @return Enumeration{ScheduleElement}
    */
-  public synchronized Enumeration getAllScheduleElements() {
-    ArrayList copy = new ArrayList(this);
-    return new Enumerator(copy);
+  public Enumeration getAllScheduleElements() {
+    if (isSnapshotRead()) {
+      return new Enumerator(getSnapshot().asList());
+    }
+    synchronized (this) {
+      ArrayList copy = new ArrayList(this);
+      return new Enumerator(copy);
+    }
   }
    
-  public synchronized Collection filter(UnaryPredicate predicate) {
-    return Filters.filter(this, predicate);
+  public Collection filter(UnaryPredicate predicate) {
+    if (isSnapshotRead()) {
+      return getSnapshot().filter(predicate);
+    }
+    synchronized (this) {
+      return Filters.filter(this, predicate);
+    }
   }
 
   
@@ -151,16 +196,31 @@ public class ScheduleImpl
    * of a schedule element.
    * @return OrderedSet
    */
-  public synchronized Collection getScheduleElementsWithDate(Date aDate) {
+  public Collection getScheduleElementsWithDate(Date aDate) {
     return getScheduleElementsWithTime(aDate.getTime());
   }
 
-  public synchronized Collection getScheduleElementsWithTime(final long aTime) {
-    return intersectingSet(aTime);
+  public Collection getScheduleElementsWithTime(final long aTime) {
+    if (isSnapshotRead()) {
+      return getSnapshot().intersecting(aTime);
+    }
+    synchronized (this) {
+      ScheduleTimeIndex index = getTimeIndex();
+      if (index != null) {
+        return index.intersecting(aTime);
+      }
+      return intersectingSet(aTime);
+    }
   }
         
-  public synchronized void applyThunkToScheduleElements(Thunk t) {
-    Collectors.apply(t, this);
+  public void applyThunkToScheduleElements(Thunk t) {
+    if (isSnapshotRead()) {
+      Collectors.apply(t, getSnapshot().asList());
+      return;
+    }
+    synchronized (this) {
+      Collectors.apply(t, this);
+    }
   }
 
 
@@ -169,28 +229,115 @@ public class ScheduleImpl
    * or may not be fully bound by the date range - they may overlap.
    * @return OrderedSet
    */
-  public synchronized Collection getOverlappingScheduleElements(Date startDate, Date endDate){
+  public Collection getOverlappingScheduleElements(Date startDate, Date endDate){
     return getOverlappingScheduleElements(startDate.getTime(), endDate.getTime());
   }
 
-  public synchronized Collection getOverlappingScheduleElements(final long startTime, 
-                                                                final long endTime)
+  public Collection getOverlappingScheduleElements(final long startTime, 
+                                                   final long endTime)
   {
-    return intersectingSet(startTime, endTime);
+    if (isSnapshotRead()) {
+      return getSnapshot().intersecting(startTime, endTime);
+    }
+    synchronized (this) {
+      ScheduleTimeIndex index = getTimeIndex();
+      if (index != null) {
+        return index.intersecting(startTime, endTime);
+      }
+      return intersectingSet(startTime, endTime);
+    }
   }
 
   /** get a Collection of schedule elements that are fully bound
    * or encapsulated by a date range.
    * @return OrderedSet
    */
-  public synchronized Collection getEncapsulatedScheduleElements(Date startDate, Date endDate) {
+  public Collection getEncapsulatedScheduleElements(Date startDate, Date endDate) {
     return getEncapsulatedScheduleElements(startDate.getTime(), endDate.getTime());
   } 
         
-  public synchronized Collection getEncapsulatedScheduleElements(final long startTime,
-                                                                 final long endTime)
+  public Collection getEncapsulatedScheduleElements(final long startTime,
+                                                    final long endTime)
   {
-    return encapsulatedSet(startTime, endTime);
+    if (isSnapshotRead()) {
+      return getSnapshot().encapsulated(startTime, endTime);
+    }
+    synchronized (this) {
+      ScheduleTimeIndex index = getTimeIndex();
+      if (index != null) {
+        return index.encapsulated(startTime, endTime);
+      }
+      return encapsulatedSet(startTime, endTime);
+    }
+  }
+
+  /** Should time queries on this schedule be answered from an
+   * interval index rather than by scanning?  The index pays for itself
+   * on large schedules which are queried more often than they are
+   * modified, such as asset role schedules.  Default is false.
+   **/
+  protected boolean isTimeIndexed() {
+    return false;
+  }
+
+  /** Discard the interval index, if any.  Must be called when the
+   * start or end time of an element changes without the schedule
+   * itself being modified.
+   **/
+  public synchronized void invalidateTimeIndex() {
+    timeIndex = null;
+    timeIndexModCount = -1;
+    snapshot = null;
+  }
+
+  /** Should readers use an immutable snapshot of the schedule instead
+   * of locking it?  If true, the query, filter and enumeration methods
+   * never block on a writer, and iterator() returns a snapshot iterator
+   * without complaint.  The snapshot is recopied on the first read after
+   * each modification, so this suits schedules which are read far more
+   * often than they are written.  Default is false.
+   **/
+  protected boolean isSnapshotRead() {
+    return false;
+  }
+
+  /** @return a snapshot of the current elements.
+   * Writers through ScheduleImpl discard the snapshot as they modify
+   * the schedule; the modCount comparison catches any other mutator.
+   **/
+  ScheduleSnapshot getSnapshot() {
+    ScheduleSnapshot s = snapshot;
+    if (s != null && s.getModCount() == modCount) {
+      return s;
+    }
+    synchronized (this) {
+      s = snapshot;
+      if (s == null || s.getModCount() != modCount) {
+        s = new ScheduleSnapshot(toArray(), modCount, isTimeIndexed());
+        snapshot = s;
+      }
+      return s;
+    }
+  }
+
+  /** @return a current interval index, or null if queries should scan.
+   * After a modification the first query scans and the index is only
+   * rebuilt if the schedule is queried again before the next change,
+   * so that alternating writes and reads cost no more than scanning.
+   **/
+  private ScheduleTimeIndex getTimeIndex() {
+    if (size < TIME_INDEX_THRESHOLD || !isTimeIndexed()) {
+      return null;
+    }
+    if (timeIndexModCount != modCount) {
+      timeIndex = null;
+      timeIndexModCount = modCount;
+      return null;
+    }
+    if (timeIndex == null || timeIndex.size() != size) {
+      timeIndex = new ScheduleTimeIndex(elementData, size);
+    }
+    return timeIndex;
   }
 
   /** add a single schedule element to the already existing Schedule.
@@ -256,7 +403,32 @@ public class ScheduleImpl
       return false;
     }
     
-    return super.add(o);
+    boolean added = super.add(o);
+    snapshot = null;
+    return added;
+  }
+
+  public synchronized boolean addAll(Collection c) {
+    boolean added = super.addAll(c);
+    snapshot = null;
+    return added;
+  }
+
+  public synchronized boolean remove(Object o) {
+    boolean removed = super.remove(o);
+    snapshot = null;
+    return removed;
+  }
+
+  public synchronized boolean removeAll(Collection c) {
+    boolean removed = super.removeAll(c);
+    snapshot = null;
+    return removed;
+  }
+
+  public synchronized void clear() {
+    super.clear();
+    snapshot = null;
   }
       
   /** returns Iterator over a copy of the Schedule. Prints a warning and
@@ -266,14 +438,19 @@ public class ScheduleImpl
    *  @return Iterator over a copy
    *  @deprecated Get a copy of the Schedule before iterating
    */
-  public synchronized Iterator iterator() {
-    Throwable throwable = 
-      new Throwable("Returning an iterator over a copy of this Schedule." + 
-                    " Stack trace is included so that calling code can be modified");
-    throwable.printStackTrace();
+  public Iterator iterator() {
+    if (isSnapshotRead()) {
+      return getSnapshot().asList().iterator();
+    }
+    synchronized (this) {
+      Throwable throwable = 
+        new Throwable("Returning an iterator over a copy of this Schedule." + 
+                      " Stack trace is included so that calling code can be modified");
+      throwable.printStackTrace();
     
-    ArrayList copy = new ArrayList(this);
-    return copy.iterator();
+      ArrayList copy = new ArrayList(this);
+      return copy.iterator();
+    }
   }
 
   /** listIterator - Returns an iterator of the elements in this list 
@@ -374,9 +551,15 @@ public class ScheduleImpl
     return (isEmpty() ? (new Date(-1)) : getEndDate());
   }
 
-  public synchronized ScheduleElement[] getScheduleElements() {
-    ScheduleElement s[] = new ScheduleElement[size()];
-    return (ScheduleElement[])toArray(s);
+  public ScheduleElement[] getScheduleElements() {
+    if (isSnapshotRead()) {
+      List elements = getSnapshot().asList();
+      return (ScheduleElement[])elements.toArray(new ScheduleElement[elements.size()]);
+    }
+    synchronized (this) {
+      ScheduleElement s[] = new ScheduleElement[size()];
+      return (ScheduleElement[])toArray(s);
+    }
   }
 
   public synchronized ScheduleElement getScheduleElement(int i) {
@@ -0,0 +1,163 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.cougaar.util.Filters;
+import org.cougaar.util.TimeSpan;
+import org.cougaar.util.UnaryPredicate;
+
+/**
+ * An immutable copy of the elements of a ScheduleImpl, published so
+ * that readers can query and iterate the schedule without holding its
+ * lock.  As with ScheduleImpl's own index, the first time query on a
+ * snapshot scans, and the interval index is only built if it is
+ * queried again.
+ **/
+final class ScheduleSnapshot {
+  private final Object[] elements;
+  private final List list;
+  private final int modCount;
+  private final boolean indexed;
+  private final long maxEndTime;
+  private volatile ScheduleTimeIndex index = null;
+  private volatile boolean queried = false;
+
+  ScheduleSnapshot(Object[] elements, int modCount, boolean indexed) {
+    this.elements = elements;
+    this.list = Collections.unmodifiableList(Arrays.asList(elements));
+    this.modCount = modCount;
+    this.indexed = indexed;
+    long max = TimeSpan.MIN_VALUE;
+    for (int i = 0; i < elements.length; i++) {
+      long end = ((TimeSpan) elements[i]).getEndTime();
+      if (end > max) max = end;
+    }
+    maxEndTime = max;
+  }
+
+  int getModCount() {
+    return modCount;
+  }
+
+  int size() {
+    return elements.length;
+  }
+
+  /** @return the elements, in schedule order, as an unmodifiable List **/
+  List asList() {
+    return list;
+  }
+
+  long getStartTime() {
+    if (elements.length == 0) {
+      throw new IndexOutOfBoundsException("Called getStartTime on an empty schedule");
+    }
+    return ((TimeSpan) elements[0]).getStartTime();
+  }
+
+  long getEndTime() {
+    if (elements.length == 0) {
+      throw new IndexOutOfBoundsException("Called getEndTime on an empty schedule");
+    }
+    return maxEndTime;
+  }
+
+  Collection filter(UnaryPredicate predicate) {
+    return Filters.filter(list, predicate);
+  }
+
+  /** Elements where start &lt;= time &lt; end **/
+  Collection intersecting(long time) {
+    ScheduleTimeIndex ix = getIndex();
+    if (ix != null) {
+      return ix.intersecting(time);
+    }
+    ArrayList result = new ArrayList();
+    for (int i = 0; i < elements.length; i++) {
+      TimeSpan ts = (TimeSpan) elements[i];
+      if (ts.getStartTime() <= time && ts.getEndTime() > time) {
+        result.add(ts);
+      }
+    }
+    return result;
+  }
+
+  /** Elements where start &lt; endTime and end &gt; startTime **/
+  Collection intersecting(long startTime, long endTime) {
+    ScheduleTimeIndex ix = getIndex();
+    if (ix != null) {
+      return ix.intersecting(startTime, endTime);
+    }
+    ArrayList result = new ArrayList();
+    for (int i = 0; i < elements.length; i++) {
+      TimeSpan ts = (TimeSpan) elements[i];
+      if (ts.getStartTime() < endTime && ts.getEndTime() > startTime) {
+        result.add(ts);
+      }
+    }
+    return result;
+  }
+
+  /** Elements where start &gt;= startTime and end &lt;= endTime **/
+  Collection encapsulated(long startTime, long endTime) {
+    ScheduleTimeIndex ix = getIndex();
+    if (ix != null) {
+      return ix.encapsulated(startTime, endTime);
+    }
+    ArrayList result = new ArrayList();
+    for (int i = 0; i < elements.length; i++) {
+      TimeSpan ts = (TimeSpan) elements[i];
+      if (ts.getStartTime() >= startTime && ts.getEndTime() <= endTime) {
+        result.add(ts);
+      }
+    }
+    return result;
+  }
+
+  private ScheduleTimeIndex getIndex() {
+    if (!indexed || elements.length < ScheduleImpl.TIME_INDEX_THRESHOLD) {
+      return null;
+    }
+    ScheduleTimeIndex ix = index;
+    if (ix == null) {
+      if (!queried) {
+        queried = true;
+        return null;
+      }
+      // racing readers may each build one; they are equivalent
+      ix = new ScheduleTimeIndex(elements, elements.length);
+      index = ix;
+    }
+    return ix;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import org.cougaar.util.TimeSpan;
+
+/**
+ * A read-only interval index over a snapshot of the elements of a
+ * ScheduleImpl.
+ * <p>
+ * Elements are kept in start time order (ties in their original
+ * schedule order) alongside two segment trees holding the maximum and
+ * minimum end time of each subrange, so that point, overlap and
+ * encapsulation queries are answered in O(log n + k) rather than by
+ * scanning the whole schedule.  Results are returned in start time
+ * order, as the linear queries do.
+ * <p>
+ * The index is not updated in place: ScheduleImpl discards and
+ * rebuilds it when the schedule is modified.
+ **/
+final class ScheduleTimeIndex {
+  private final Object[] elements;
+  private final long[] starts;
+  private final long[] ends;
+  private final int n;
+  /** leaf count of the segment trees (power of two) **/
+  private final int cap;
+  private final long[] maxEnd;
+  private final long[] minEnd;
+
+  private static final Comparator START_ORDER = new Comparator() {
+      public int compare(Object a, Object b) {
+        long sa = ((TimeSpan) a).getStartTime();
+        long sb = ((TimeSpan) b).getStartTime();
+        return (sa < sb) ? -1 : ((sa == sb) ? 0 : 1);
+      }
+    };
+
+  /** Build an index over the first size entries of data, which are
+   * normally already sorted by start time.
+   **/
+  ScheduleTimeIndex(Object[] data, int size) {
+    n = size;
+    elements = new Object[n];
+    System.arraycopy(data, 0, elements, 0, n);
+    starts = new long[n];
+    ends = new long[n];
+
+    boolean sorted = true;
+    for (int i = 0; i < n; i++) {
+      starts[i] = ((TimeSpan) elements[i]).getStartTime();
+      if (i > 0 && starts[i] < starts[i-1]) sorted = false;
+    }
+    if (!sorted) {
+      // element times have changed since they were added; merge sort
+      // is stable so equal starts keep their schedule order.
+      Arrays.sort(elements, START_ORDER);
+      for (int i = 0; i < n; i++) {
+        starts[i] = ((TimeSpan) elements[i]).getStartTime();
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      ends[i] = ((TimeSpan) elements[i]).getEndTime();
+    }
+
+    int c = 1;
+    while (c < n) c <<= 1;
+    cap = c;
+    maxEnd = new long[2*cap];
+    minEnd = new long[2*cap];
+    for (int i = 0; i < cap; i++) {
+      maxEnd[cap+i] = (i < n) ? ends[i] : Long.MIN_VALUE;
+      minEnd[cap+i] = (i < n) ? ends[i] : Long.MAX_VALUE;
+    }
+    for (int i = cap-1; i > 0; i--) {
+      maxEnd[i] = Math.max(maxEnd[2*i], maxEnd[2*i+1]);
+      minEnd[i] = Math.min(minEnd[2*i], minEnd[2*i+1]);
+    }
+  }
+
+  int size() {
+    return n;
+  }
+
+  /** @return the latest end time of any element **/
+  long getMaxEndTime() {
+    return maxEnd[1];
+  }
+
+  /** Elements where start &lt;= time &lt; end **/
+  Collection intersecting(long time) {
+    ArrayList result = new ArrayList();
+    collectEndingAfter(1, 0, cap, upperBound(time), time, result);
+    return result;
+  }
+
+  /** Elements where start &lt; endTime and end &gt; startTime **/
+  Collection intersecting(long startTime, long endTime) {
+    ArrayList result = new ArrayList();
+    collectEndingAfter(1, 0, cap, lowerBound(endTime), startTime, result);
+    return result;
+  }
+
+  /** Elements where start &gt;= startTime and end &lt;= endTime **/
+  Collection encapsulated(long startTime, long endTime) {
+    ArrayList result = new ArrayList();
+    collectEndingBy(1, 0, cap, lowerBound(startTime), endTime, result);
+    return result;
+  }
+
+  /** @return index of the first element with start &gt;= time **/
+  private int lowerBound(long time) {
+    int lo = 0, hi = n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (starts[mid] < time) lo = mid+1; else hi = mid;
+    }
+    return lo;
+  }
+
+  /** @return index of the first element with start &gt; time **/
+  private int upperBound(long time) {
+    int lo = 0, hi = n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (starts[mid] <= time) lo = mid+1; else hi = mid;
+    }
+    return lo;
+  }
+
+  /** Add, in index order, the elements in [0, limit) whose end is
+   * after time.  node covers [lo, hi).
+   **/
+  private void collectEndingAfter(int node, int lo, int hi, int limit,
+                                  long time, Collection result) {
+    if (lo >= limit || maxEnd[node] <= time) return;
+    if (node >= cap) {
+      result.add(elements[lo]);
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    collectEndingAfter(2*node, lo, mid, limit, time, result);
+    collectEndingAfter(2*node+1, mid, hi, limit, time, result);
+  }
+
+  /** Add, in index order, the elements in [from, n) whose end is at
+   * or before time.  node covers [lo, hi).
+   **/
+  private void collectEndingBy(int node, int lo, int hi, int from,
+                               long time, Collection result) {
+    if (hi <= from || lo >= n || minEnd[node] > time) return;
+    if (node >= cap) {
+      result.add(elements[lo]);
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    collectEndingBy(2*node, lo, mid, from, time, result);
+    collectEndingBy(2*node+1, mid, hi, from, time, result);
+  }
+}
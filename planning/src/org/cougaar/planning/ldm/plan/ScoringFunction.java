@@ -133,6 +133,70 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
    */
   public abstract double getScore(AspectValue value);
 
+  /** Find the Scores of many values at once.  scores[i] is
+   * getScore(AspectValue.newAspectValue(aspectType, values[i])), so a
+   * value the aspect type can't hold exactly, like a fraction of a
+   * millisecond for a time, is rounded as the AspectValue would round
+   * it before it is scored.  The built-in functions do that rounding
+   * with roundValue and score the values directly, without
+   * allocating an AspectValue per value.  Subclasses that override
+   * getScore should override this method too.
+   * @param values the candidate values
+   * @param scores filled with the score of each value, at least as
+   *   long as values
+   */
+  public void scoreAll(double[] values, double[] scores) {
+    int n = values.length;
+    for (int i = 0; i < n; i++) {
+      scores[i] = getScore(AspectValue.newAspectValue(aspectType, values[i]));
+    }
+  }
+
+  // How AspectValues of aspectType hold a double, see roundValue
+  private static final int ROUND_UNKNOWN = 0;
+  private static final int ROUND_DOUBLE = 1;
+  private static final int ROUND_FLOAT = 2;
+  private static final int ROUND_LONG = 3;
+  private static final int ROUND_INT = 4;
+  private static final int ROUND_OTHER = 5;
+
+  /** One of the ROUND_ constants, found on first use **/
+  private transient int rounding = ROUND_UNKNOWN;
+
+  /** @return v as held by AspectValue.newAspectValue(aspectType, v),
+   * found without building the AspectValue when aspectType makes
+   * one of the plain numeric AspectValues.
+   **/
+  protected final double roundValue(double v) {
+    int r = rounding;
+    if (r == ROUND_UNKNOWN) {
+      r = ROUND_OTHER;
+      try {
+        Class c = AspectValue.newAspectValue(aspectType, 0.0).getClass();
+        if (c == FloatAspectValue.class) {
+          r = ROUND_FLOAT;
+        } else if (c == DoubleAspectValue.class) {
+          r = ROUND_DOUBLE;
+        } else if (c == LongAspectValue.class ||
+                   TimeAspectValue.class.isAssignableFrom(c)) {
+          r = ROUND_LONG;
+        } else if (c == IntAspectValue.class) {
+          r = ROUND_INT;
+        }
+      } catch (RuntimeException re) {
+        // not a known aspect type, let newAspectValue complain below
+      }
+      rounding = r;
+    }
+    switch (r) {
+    case ROUND_DOUBLE: return v;
+    case ROUND_FLOAT: return (float) v;
+    case ROUND_LONG: return (long) v;
+    case ROUND_INT: return (int) v;
+    default: return AspectValue.newAspectValue(aspectType, v).getValue();
+    }
+  }
+
 
   // methods that create basic Scoring Functions
 
@@ -297,25 +361,10 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
    **/
   final AspectScorePoint _minY(double minx, double maxx,
                                double x1, double y1, double x2, double y2) {
-    if (x1 > maxx || x2 < minx)
+    double[] xy = new double[2];
+    if (!_extremeY(false, minx, maxx, x1, y1, x2, y2, xy))
       return newASP(minx, WORST, aspectType);
-
-    if (x1 < minx) {
-      y1 = _interpY(minx, x1, y1, x2, y2);
-      x1 = minx;
-    }
-    if (x2 > maxx) {
-      y2 = _interpY(maxx, x1, y1, x2, y2);
-      x2 = maxx;
-    }
-
-    // return the lowest y
-    if (y2< y1) {
-      y1 = y2;
-      x1 = x2;
-    }
-
-    return newASP(x1, y1, aspectType);
+    return newASP(xy[0], xy[1], aspectType);
   }
 
   /** return an AspectScorePoint for the maximum y of the segment
@@ -324,8 +373,21 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
    **/
   final AspectScorePoint _maxY(double minx, double maxx,
                                double x1, double y1, double x2, double y2) {
-    if (x1 > maxx || x2 < minx)
+    double[] xy = new double[2];
+    if (!_extremeY(true, minx, maxx, x1, y1, x2, y2, xy))
       return newASP(minx, BEST, aspectType);
+    return newASP(xy[0], xy[1], aspectType);
+  }
+
+  /** clip the segment ((x1,y1) (x2, y2)) to the range minx-maxx and
+   * store the x and y of its lowest point (highest if highest) in xy.
+   * @return false, leaving xy alone, if out of range.
+   **/
+  final static boolean _extremeY(boolean highest, double minx, double maxx,
+                                 double x1, double y1, double x2, double y2,
+                                 double[] xy) {
+    if (x1 > maxx || x2 < minx)
+      return false;
 
     if (x1 < minx) {
       y1 = _interpY(minx, x1, y1, x2, y2);
@@ -336,14 +398,14 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       x2 = maxx;
     }
 
-    // return the highest y
-    // return the lowest y
-    if (y2> y1) {
+    if (highest ? (y2 > y1) : (y2 < y1)) {
       y1 = y2;
       x1 = x2;
     }
 
-    return newASP(x1, y1, aspectType);
+    xy[0] = x1;
+    xy[1] = y1;
+    return true;
   }
 
   /** Check a set of AspectScorePoints for validity as the "curve" of
@@ -392,6 +454,51 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
   public static class PiecewiseLinearScoringFunction extends ScoringFunction {
     protected AspectScorePoint curve[];
 
+    /** The curve as parallel arrays, built on first use. */
+    private transient Curve compiled;
+
+    /**
+     * Values, scores and segment slopes of the curve.  slopes[i] is
+     * the slope from point i-1 to point i, NaN if undefined.
+     */
+    private static final class Curve {
+      final double[] xs;
+      final double[] ys;
+      final double[] slopes;
+      /** true if the values never decrease, so we can binary search */
+      final boolean sorted;
+
+      Curve(AspectScorePoint[] curve) {
+        int l = curve.length;
+        xs = new double[l];
+        ys = new double[l];
+        slopes = new double[l];
+        boolean sorted = true;
+        for (int i = 0; i < l; i++) {
+          xs[i] = curve[i].getValue();
+          ys[i] = curve[i].getScore();
+          if (i == 0) {
+            slopes[i] = Double.NaN;
+          } else if (xs[i] > xs[i-1]) {
+            slopes[i] = (ys[i]-ys[i-1])/(xs[i]-xs[i-1]);
+          } else {
+            slopes[i] = Double.NaN;
+            if (!(xs[i] == xs[i-1])) sorted = false;
+          }
+        }
+        this.sorted = sorted;
+      }
+    }
+
+    private Curve getCurve() {
+      Curve c = compiled;
+      if (c == null) {
+        c = new Curve(curve);
+        compiled = c;
+      }
+      return c;
+    }
+
     public PiecewiseLinearScoringFunction(Enumeration points) {
       super(0);
       if (points == null || ! points.hasMoreElements()) {
@@ -421,6 +528,14 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       return false;
     }
 
+    public int hashCode() {
+      int h = 1;
+      for (int i = 0; i < curve.length; i++) {
+        h = 31*h + curve[i].hashCode();
+      }
+      return h;
+    }
+
     public Object clone() {
       return new PiecewiseLinearScoringFunction(new Enumeration() {
         private int ix = 0;
@@ -438,81 +553,91 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
     }
 
     protected double getScore(double vp){
-      int l = curve.length;
-      AspectScorePoint c1 = null;
-      for (int i = 0 ; i<l; i++) {
-        c1 = curve[i];
-        double v1 = c1.getValue();
-        double s1 = c1.getScore();
-
-        if (vp<v1) {
-          if (i>0) {
-            AspectScorePoint c0 = curve[i-1];
-            double v0 = c0.getValue();
-
-            if (v1 <= v0) return s1; // second point wins on undefined.
-
-            double s0 = c0.getScore();
-            double slope = (s1-s0)/(v1-v0);
-
-            return s0+(vp-v0)*slope;
-
+      Curve c = getCurve();
+      double[] xs = c.xs;
+      int l = xs.length;
+      // find the first point with vp < value
+      int i;
+      if (c.sorted) {
+        int lo = 0;
+        int hi = l;
+        while (lo < hi) {
+          int mid = (lo + hi) >>> 1;
+          if (vp < xs[mid]) {
+            hi = mid;
           } else {
-            return s1;
+            lo = mid + 1;
           }
-        } // else continue
+        }
+        i = lo;
+      } else {
+        i = 0;
+        while (i < l && !(vp < xs[i])) i++;
+      }
+      if (i == l) {
+        // flat after last point.
+        return c.ys[l-1];
       }
-      // drop through - flat after last point.
-      return c1.getScore();
+      if (i == 0) return c.ys[0];
+      if (xs[i] <= xs[i-1]) return c.ys[i]; // second point wins on undefined.
+      return c.ys[i-1]+(vp-xs[i-1])*c.slopes[i];
     }
-    public AspectScorePoint getMinInRange(AspectValue lowerbound, AspectValue upperbound) {
-      AspectScorePoint c0 = curve[0];
-      AspectScorePoint c1;
-      int l = curve.length;
-      if (l == 1) return c0;
-      double x0 = c0.getValue();
-      double y0 = c0.getScore();
-
-      double minx = lowerbound.getValue();
-      double maxx = upperbound.getValue();
 
-      AspectScorePoint bp = null;
-
-      for (int i = 1 ; i<l; i++) {
-        c1 = curve[i];
-        double x1 = c1.getValue();
-        double y1 = c1.getScore();
-        AspectScorePoint pp = super._minY(minx, maxx, x0, y0, x1, y1);
-        if (bp == null || pp.getScore() <bp.getScore())
-          bp = pp;
+    public void scoreAll(double[] values, double[] scores) {
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        scores[i] = getScore(roundValue(values[i]));
       }
-      if (bp == null || bp.getScore() == WORST) return null;
-      return bp;
+    }
+
+    public AspectScorePoint getMinInRange(AspectValue lowerbound, AspectValue upperbound) {
+      return getExtremeInRange(false, lowerbound, upperbound);
     }
 
     public AspectScorePoint getMaxInRange(AspectValue lowerbound, AspectValue upperbound) {
-      AspectScorePoint c0 = curve[0];
-      AspectScorePoint c1;
+      return getExtremeInRange(true, lowerbound, upperbound);
+    }
+
+    /** The lowest (highest if highest) point in range, comparing each
+     * point against the first point as _minY and _maxY do, but only
+     * allocating the result.
+     **/
+    private AspectScorePoint getExtremeInRange(boolean highest,
+                                               AspectValue lowerbound,
+                                               AspectValue upperbound) {
       int l = curve.length;
-      if (l == 1) return c0;
-      double x0 = c0.getValue();
-      double y0 = c0.getScore();
+      if (l == 1) return curve[0];
+      Curve c = getCurve();
+      double x0 = c.xs[0];
+      double y0 = c.ys[0];
+      double outside = (highest ? BEST : WORST);
 
       double minx = lowerbound.getValue();
       double maxx = upperbound.getValue();
 
-      AspectScorePoint bp = null;
+      double[] xy = new double[2];
+      boolean found = false;
+      double bx = 0.0;
+      double by = 0.0;
 
       for (int i = 1 ; i<l; i++) {
-        c1 = curve[i];
-        double x1 = c1.getValue();
-        double y1 = c1.getScore();
-        AspectScorePoint pp = super._maxY(minx, maxx, x0, y0, x1, y1);
-        if (bp == null || pp.getScore() > bp.getScore())
-          bp = pp;
+        double x;
+        double y;
+        if (_extremeY(highest, minx, maxx, x0, y0, c.xs[i], c.ys[i], xy)) {
+          x = xy[0];
+          y = xy[1];
+        } else {
+          x = minx;
+          y = outside;
+        }
+        if (!found || (highest ? (y > by) : (y < by))) {
+          found = true;
+          bx = x;
+          by = y;
+        }
       }
-      if (bp == null || bp.getScore() == BEST) return null;
-      return bp;
+      if (!found || by == outside) return null;
+      return newASP(bx, by, aspectType);
     }
 
     protected class DPair {
@@ -701,6 +826,10 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       }
       return false;
     }
+
+    public int hashCode() {
+      return point.hashCode();
+    }
   }
 
 
@@ -767,6 +896,13 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
         return WORST;
       }
     }
+    public void scoreAll(double[] values, double[] scores) {
+      double p = point.getValue();
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        scores[i] = ((roundValue(values[i]) == p) ? BEST : WORST);
+      }
+    }
     public String toString() { return "<StrictValue "+point+">"; }
   }
 
@@ -821,6 +957,13 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
     public double getScore(AspectValue value){
       return Math.min(WORST, slope * Math.abs( point.minus(value) ));
     }
+    public void scoreAll(double[] values, double[] scores) {
+      double p = point.getValue();
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        scores[i] = Math.min(WORST, slope * Math.abs(p - roundValue(values[i])));
+      }
+    }
 
     public AspectScorePoint getMinInRange(AspectValue lowerbound, AspectValue upperbound){
       AspectScorePoint asp = null;
@@ -865,6 +1008,11 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       return false;
     }
 
+    public int hashCode() {
+      return 31*(point1 == null ? 0 : point1.hashCode()) +
+        (point2 == null ? 0 : point2.hashCode());
+    }
+
     public AspectValue getPoint1() {
       return point1;
     }
@@ -936,6 +1084,21 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
         return WORST;
       }
     }
+    public void scoreAll(double[] values, double[] scores) {
+      double p1 = point1.getValue();
+      double p2 = point2.getValue();
+      double b = best.getValue();
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        double vp = roundValue(values[i]);
+        if (!(vp < p1 || vp > p2)) {
+          double p = ((vp < b) ? p1 : p2);
+          scores[i] = ok + (vp - p) * (BEST - ok) / (b - p);
+        } else {
+          scores[i] = WORST;
+        }
+      }
+    }
 
     public AspectScorePoint getMaxInRange(AspectValue lowerbound,
 					  AspectValue upperbound){
@@ -1015,6 +1178,15 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       else
         return WORST;
     }
+    public void scoreAll(double[] values, double[] scores) {
+      double p1 = point1.getValue();
+      double p2 = point2.getValue();
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        double vp = roundValue(values[i]);
+        scores[i] = ((!(vp < p1 || vp > p2)) ? BEST : WORST);
+      }
+    }
 
     public AspectScorePoint getMaxInRange(AspectValue lowerbound,
 					  AspectValue upperbound){
@@ -1145,6 +1317,21 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
         return BEST;
       }
     }
+    public void scoreAll(double[] values, double[] scores) {
+      double p1 = point1.getValue();
+      double p2 = point2.getValue();
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        double vp = roundValue(values[i]);
+        if (vp < p1) {
+          scores[i] = Math.min(WORST, slope * (p1 - vp));
+        } else if (vp > p2) {
+          scores[i] = Math.min(WORST, slope * (vp - p2));
+        } else {
+          scores[i] = BEST;
+        }
+      }
+    }
     public AspectScorePoint getMinInRange(AspectValue lowerbound,
 					  AspectValue upperbound){
       // range spans basin
@@ -1242,6 +1429,14 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
         return WORST;
       }
     }
+    public void scoreAll(double[] values, double[] scores) {
+      double p = point.getValue();
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        double vp = roundValue(values[i]);
+        scores[i] = ((!(vp < p)) ? Math.min(WORST, slope * (vp - p)) : WORST);
+      }
+    }
 
     public Enumeration getValidRanges(AspectValue lowerbound,
 				      AspectValue upperbound){
@@ -1344,6 +1539,14 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
         return WORST;
       }
     }
+    public void scoreAll(double[] values, double[] scores) {
+      double p = point.getValue();
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        double vp = roundValue(values[i]);
+        scores[i] = ((!(vp > p)) ? Math.min(WORST, slope * (p - vp)) : WORST);
+      }
+    }
 
     public Enumeration getValidRanges(AspectValue lowerbound,
 				      AspectValue upperbound){
@@ -1420,6 +1623,13 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       else
         return v1;
     }
+    public void scoreAll(double[] values, double[] scores) {
+      double p = point.getValue();
+      int n = values.length;
+      for (int i = 0; i < n; i++) {
+        scores[i] = ((roundValue(values[i]) < p) ? v0 : v1);
+      }
+    }
     public AspectScorePoint getMinInRange(AspectValue lowerbound,
 					  AspectValue upperbound){
 
@@ -1545,6 +1755,14 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       return false;
     }
 
+    public int hashCode() {
+      int h = 1;
+      for (int i = 0; i < my_points.length; i++) {
+        h = 31*h + (my_points[i] == null ? 0 : my_points[i].hashCode());
+      }
+      return h;
+    }
+
     public Object clone() {
       AspectScorePoint[] newPoints = new AspectScorePoint[my_points.length];
       for (int i = 0; i < newPoints.length; i++) {
@@ -1612,6 +1830,21 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       }
       return WORST;
     }
+    public void scoreAll(double[] values, double[] scores) {
+      int n = values.length;
+      int l = my_points.length;
+      for (int i = 0; i < n; i++) {
+        double vp = roundValue(values[i]);
+        double score = WORST;
+        for (int j = 0; j < l; j++) {
+          if (my_points[j].getValue() == vp) {
+            score = my_points[j].getScore();
+            break;
+          }
+        }
+        scores[i] = score;
+      }
+    }
     public String toString() { return "<Enumerated "+my_points.length+">"; }
   }
 
@@ -1638,6 +1871,10 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
       return false;
     }
 
+    public int hashCode() {
+      return aspectType+(((int)score)<<2);
+    }
+
     public Object clone() {
       return new ConstantScoringFunction(score, aspectType);
     }
@@ -1668,6 +1905,9 @@ public abstract class ScoringFunction implements Serializable, Cloneable {
     public double getScore(AspectValue value){
       return score;
     }
+    public void scoreAll(double[] values, double[] scores) {
+      Arrays.fill(scores, 0, values.length, score);
+    }
     public String toString() { return "<Constant "+score+">"; }
   }
 
@@ -0,0 +1,258 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import java.util.Random;
+
+/** Point test for the ScoringFunctions **/
+
+public class ScoringFunctionTest {
+  public static void main(String[] args) {
+    int failures = checkPiecewiseLinear() + checkRanges() + checkScoreAll();
+    System.out.println(failures == 0 ? "all passed" : failures+" FAILED");
+  }
+
+  /**
+   * Compare PiecewiseLinearScoringFunction.getScore, which binary
+   * searches sorted curves, with a walk of the curve from the first
+   * point, on random curves with repeated and decreasing values.
+   * @return the number of mismatches
+   */
+  static int checkPiecewiseLinear() {
+    Random r = new Random(17);
+    int failures = 0;
+    int n = 0;
+    for (int t = 0; t < 20000; t++) {
+      int l = 1 + r.nextInt(12);
+      AspectScorePoint[] curve = new AspectScorePoint[l];
+      double x = r.nextInt(20) - 10;
+      for (int i = 0; i < l; i++) {
+        int step = r.nextInt(10);
+        // mostly increasing, some repeated values, a few decreasing
+        x += ((step == 0) ? 0 : (step == 1 && (t % 10) == 0) ? -3 : step);
+        curve[i] = new AspectScorePoint(x, r.nextDouble(), AspectType.COST);
+      }
+      ScoringFunction.PiecewiseLinearScoringFunction sf = new ScoringFunction.PiecewiseLinearScoringFunction(curve);
+      for (int k = 0; k < 30; k++) {
+        double v;
+        switch (k) {
+        case 0: v = Double.NaN; break;
+        case 1: v = Double.NEGATIVE_INFINITY; break;
+        case 2: v = Double.POSITIVE_INFINITY; break;
+        default:
+          // on, between and beyond the points
+          v = ((k & 1) == 0 ?
+               curve[r.nextInt(l)].getValue() :
+               curve[0].getValue() - 20 + r.nextDouble() * (x - curve[0].getValue() + 40));
+        }
+        double expected = linearWalkScore(curve, v);
+        double score = sf.getScore(v);
+        n++;
+        if (Double.doubleToLongBits(score) != Double.doubleToLongBits(expected)) {
+          failures++;
+          if (failures <= 10) {
+            StringBuffer buf = new StringBuffer();
+            for (int i = 0; i < l; i++) {
+              buf.append(" (").append(curve[i].getValue()).append(", ").append(curve[i].getScore()).append(")");
+            }
+            System.out.println("getScore("+v+") = "+score+", expected "+expected+" on"+buf);
+          }
+        }
+      }
+    }
+    System.out.println("PiecewiseLinear getScore: "+n+" values, "+failures+" mismatches");
+    return failures;
+  }
+
+  /**
+   * Compare PiecewiseLinearScoringFunction.getMinInRange and
+   * getMaxInRange with the lowest and highest of _minY and _maxY over
+   * each segment from the first point, on random curves and ranges.
+   * @return the number of mismatches
+   */
+  static int checkRanges() {
+    Random r = new Random(23);
+    int failures = 0;
+    int n = 0;
+    for (int t = 0; t < 5000; t++) {
+      int l = 1 + r.nextInt(8);
+      AspectScorePoint[] curve = new AspectScorePoint[l];
+      double x = r.nextInt(20) - 10;
+      for (int i = 0; i < l; i++) {
+        x += r.nextInt(10);
+        // some points at BEST and WORST
+        int s = r.nextInt(6);
+        double y = (s == 0 ? ScoringFunction.BEST : s == 1 ? ScoringFunction.WORST : r.nextDouble());
+        curve[i] = new AspectScorePoint(x, y, AspectType.COST);
+      }
+      ScoringFunction.PiecewiseLinearScoringFunction sf =
+        new ScoringFunction.PiecewiseLinearScoringFunction(curve);
+      for (int k = 0; k < 10; k++) {
+        double a = curve[0].getValue() - 15 + r.nextInt(x > curve[0].getValue() ? (int) (x - curve[0].getValue()) + 30 : 30);
+        double b = a + r.nextInt(15);
+        AspectValue lo = AspectValue.newAspectValue(AspectType.COST, a);
+        AspectValue hi = AspectValue.newAspectValue(AspectType.COST, b);
+        n++;
+        for (int m = 0; m < 2; m++) {
+          boolean max = (m == 1);
+          AspectScorePoint expected = segmentWalkExtreme(sf, curve, max, lo.getValue(), hi.getValue());
+          AspectScorePoint found = (max ? sf.getMaxInRange(lo, hi) : sf.getMinInRange(lo, hi));
+          if (!samePoint(found, expected)) {
+            failures++;
+            if (failures <= 10) {
+              System.out.println((max ? "getMaxInRange(" : "getMinInRange(")+a+", "+b+") = "+
+                                 found+", expected "+expected);
+            }
+          }
+        }
+      }
+    }
+    System.out.println("PiecewiseLinear ranges: "+n+" ranges, "+failures+" mismatches");
+    return failures;
+  }
+
+  /** the range search as a walk of the segments with _minY or _maxY */
+  private static AspectScorePoint segmentWalkExtreme(ScoringFunction sf, AspectScorePoint[] curve,
+                                                     boolean max, double minx, double maxx) {
+    int l = curve.length;
+    if (l == 1) return curve[0];
+    double x0 = curve[0].getValue();
+    double y0 = curve[0].getScore();
+    AspectScorePoint bp = null;
+    for (int i = 1; i < l; i++) {
+      double x1 = curve[i].getValue();
+      double y1 = curve[i].getScore();
+      AspectScorePoint pp = (max ?
+                             sf._maxY(minx, maxx, x0, y0, x1, y1) :
+                             sf._minY(minx, maxx, x0, y0, x1, y1));
+      if (bp == null || (max ? pp.getScore() > bp.getScore() : pp.getScore() < bp.getScore()))
+        bp = pp;
+    }
+    if (bp == null || bp.getScore() == (max ? ScoringFunction.BEST : ScoringFunction.WORST)) return null;
+    return bp;
+  }
+
+  private static boolean samePoint(AspectScorePoint a, AspectScorePoint b) {
+    if (a == null || b == null) return a == b;
+    return (a.getValue() == b.getValue() &&
+            a.getScore() == b.getScore() &&
+            a.getAspectType() == b.getAspectType());
+  }
+
+  /**
+   * Compare scoreAll with getScore of an AspectValue, value by value,
+   * for each of the built-in functions, on a float and a time aspect.
+   * The values aren't all ones the aspect type can hold exactly.
+   * @return the number of mismatches
+   */
+  static int checkScoreAll() {
+    return checkScoreAll(AspectType.COST, 1.0) + checkScoreAll(AspectType.START_TIME, 1000.0);
+  }
+
+  private static int checkScoreAll(int type, double scale) {
+    AspectValue low = AspectValue.newAspectValue(type, 10.0 * scale);
+    AspectValue best = AspectValue.newAspectValue(type, 15.0 * scale);
+    AspectValue high = AspectValue.newAspectValue(type, 30.0 * scale);
+    AspectScorePoint[] points = {
+      new AspectScorePoint(0.0 * scale, 0.9, type),
+      new AspectScorePoint(10.0 * scale, 0.0, type),
+      new AspectScorePoint(10.0 * scale, 0.2, type),
+      new AspectScorePoint(25.0 * scale, 0.5, type),
+      new AspectScorePoint(40.0 * scale, 1.0, type),
+    };
+    ScoringFunction[] sfs = {
+      ScoringFunction.createPiecewiseLinearScoringFunction(points),
+      ScoringFunction.createStrictlyAtValue(best),
+      ScoringFunction.createPreferredAtValue(best, 0.1 / scale),
+      ScoringFunction.createStrictlyBetweenValues(low, high),
+      ScoringFunction.createStrictlyBetweenWithBestValues(low, best, high),
+      ScoringFunction.createVScoringFunction(low, best, high),
+      ScoringFunction.createVScoringFunction(low, best, high, 0.3),
+      ScoringFunction.createPreferredBetweenValues(low, high, 0.1 / scale),
+      ScoringFunction.createNearOrAbove(best, 0.1 / scale),
+      ScoringFunction.createNearOrBelow(best, 0.1 / scale),
+      ScoringFunction.createEnumerated(points),
+      ScoringFunction.createStepScoringFunction(best, 0.2, 0.8),
+      ScoringFunction.createConstantScoringFunction(0.4, type),
+    };
+    // the function's own points, just either side of them, between
+    // them and far away
+    double[] values = new double[170];
+    for (int i = 0; i < 161; i++) {
+      values[i] = (-10.0 + i * 0.3125) * scale;
+    }
+    values[161] = -1e12;
+    values[162] = 1e12;
+    values[163] = -0.0;
+    values[164] = Double.MIN_VALUE;
+    values[165] = 15.0 * scale + 1e-9;
+    values[166] = 15.0 * scale - 1e-9;
+    values[167] = 10.0 * scale - 0.4;
+    values[168] = 30.0 * scale + 0.7;
+    values[169] = 0.1;
+    int failures = 0;
+    for (int f = 0; f < sfs.length; f++) {
+      ScoringFunction sf = sfs[f];
+      // scoreAll may be given a longer scores array
+      double[] scores = new double[values.length + 1];
+      scores[values.length] = -42.0;
+      sf.scoreAll(values, scores);
+      if (scores[values.length] != -42.0) {
+        failures++;
+        System.out.println(sf+" scoreAll wrote past the values");
+      }
+      for (int i = 0; i < values.length; i++) {
+        double expected = sf.getScore(AspectValue.newAspectValue(type, values[i]));
+        if (Double.doubleToLongBits(scores[i]) != Double.doubleToLongBits(expected)) {
+          failures++;
+          System.out.println(sf+" scoreAll("+values[i]+") = "+scores[i]+
+                             ", getScore = "+expected);
+        }
+      }
+    }
+    System.out.println("scoreAll on aspect "+type+": "+sfs.length+" functions, "+failures+" mismatches");
+    return failures;
+  }
+
+  /** the score of v on the curve, by walking it from the first point */
+  private static double linearWalkScore(AspectScorePoint[] curve, double vp) {
+    int l = curve.length;
+    for (int i = 0; i < l; i++) {
+      double v1 = curve[i].getValue();
+      if (vp < v1) {
+        if (i == 0) return curve[i].getScore();
+        double v0 = curve[i-1].getValue();
+        if (v1 <= v0) return curve[i].getScore(); // second point wins on undefined.
+        double s0 = curve[i-1].getScore();
+        double slope = (curve[i].getScore()-s0)/(v1-v0);
+        return s0+(vp-v0)*slope;
+      }
+    }
+    // flat after last point.
+    return curve[l-1].getScore();
+  }
+}
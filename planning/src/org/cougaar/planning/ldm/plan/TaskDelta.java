@@ -0,0 +1,83 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import org.cougaar.core.util.UID;
+
+/** TaskDelta Interface
+ * A TaskDelta carries only the changed parts of a task which was 
+ * previously sent in full to another agent.  The receiving agent
+ * applies it in place to its copy of the task.
+ * <p>
+ * A change to the commitment date, which decides whether the
+ * receiver accepts the task at all, is always sent as a full task.
+ **/
+
+public interface TaskDelta extends PlanningDirective {
+
+  /**
+   * @return the UID of the (remote copy of the) task to be changed.
+   **/
+  UID getTaskUID();
+
+  /**
+   * @return the new or replaced Preferences, at most one per aspect type.
+   **/
+  Preference[] getChangedPreferences();
+
+  /**
+   * @return the aspect types whose Preferences were removed.
+   **/
+  int[] getRemovedAspectTypes();
+
+  /**
+   * @return the new or replaced PrepositionalPhrases, at most one per
+   * preposition.
+   **/
+  PrepositionalPhrase[] getChangedPrepositionalPhrases();
+
+  /**
+   * @return the prepositions whose PrepositionalPhrases were removed.
+   **/
+  String[] getRemovedPrepositions();
+
+  /**
+   * @return true if the delta carries a new priority.
+   **/
+  boolean isPriorityChanged();
+
+  /**
+   * @return the new priority, if isPriorityChanged().
+   **/
+  byte getPriority();
+
+  /**
+   * @return true if the delta changes nothing.  An empty delta is
+   * still sent, as a resend of the unchanged task would have been.
+   **/
+  boolean isEmpty();
+}
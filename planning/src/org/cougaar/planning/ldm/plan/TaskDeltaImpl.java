@@ -0,0 +1,133 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import org.cougaar.core.mts.MessageAddress;
+import org.cougaar.core.util.UID;
+
+/** TaskDelta implementation
+ * Carries the changed parts of a previously sent task.
+ **/
+
+public class TaskDeltaImpl 
+  extends PlanningDirectiveImpl
+  implements TaskDelta, NewTaskDelta
+{
+  private static final Preference[] NO_PREFERENCES = new Preference[0];
+  private static final PrepositionalPhrase[] NO_PHRASES = new PrepositionalPhrase[0];
+  private static final int[] NO_ASPECTS = new int[0];
+  private static final String[] NO_PREPOSITIONS = new String[0];
+
+  private UID taskUID = null;
+  private Preference[] changedPreferences = NO_PREFERENCES;
+  private int[] removedAspectTypes = NO_ASPECTS;
+  private PrepositionalPhrase[] changedPhrases = NO_PHRASES;
+  private String[] removedPrepositions = NO_PREPOSITIONS;
+  private boolean priorityChanged = false;
+  private byte priority;
+
+  /** @param src
+   * @param dest
+   * @param tuid UID of the task to change
+   **/
+  public TaskDeltaImpl(MessageAddress src, MessageAddress dest, Plan plan, UID tuid) {
+    super.setSource(src);
+    super.setDestination(dest);
+    super.setPlan(plan);
+    taskUID = tuid;
+  }
+
+  public UID getTaskUID() {
+    return taskUID;
+  }
+
+  public void setTaskUID(UID tuid) {
+    taskUID = tuid;
+  }
+
+  public Preference[] getChangedPreferences() {
+    return changedPreferences;
+  }
+
+  public void setChangedPreferences(Preference[] prefs) {
+    changedPreferences = (prefs == null) ? NO_PREFERENCES : prefs;
+  }
+
+  public int[] getRemovedAspectTypes() {
+    return removedAspectTypes;
+  }
+
+  public void setRemovedAspectTypes(int[] aspectTypes) {
+    removedAspectTypes = (aspectTypes == null) ? NO_ASPECTS : aspectTypes;
+  }
+
+  public PrepositionalPhrase[] getChangedPrepositionalPhrases() {
+    return changedPhrases;
+  }
+
+  public void setChangedPrepositionalPhrases(PrepositionalPhrase[] phrases) {
+    changedPhrases = (phrases == null) ? NO_PHRASES : phrases;
+  }
+
+  public String[] getRemovedPrepositions() {
+    return removedPrepositions;
+  }
+
+  public void setRemovedPrepositions(String[] prepositions) {
+    removedPrepositions = (prepositions == null) ? NO_PREPOSITIONS : prepositions;
+  }
+
+  public boolean isPriorityChanged() {
+    return priorityChanged;
+  }
+
+  public byte getPriority() {
+    return priority;
+  }
+
+  public void setPriority(byte thepriority) {
+    priority = thepriority;
+    priorityChanged = true;
+  }
+
+  public boolean isEmpty() {
+    return (changedPreferences.length == 0 &&
+            removedAspectTypes.length == 0 &&
+            changedPhrases.length == 0 &&
+            removedPrepositions.length == 0 &&
+            !priorityChanged);
+  }
+
+  public String toString() {
+    return "<TaskDelta for " + taskUID + 
+      " prefs=" + changedPreferences.length + "/-" + removedAspectTypes.length +
+      " phrases=" + changedPhrases.length + "/-" + removedPrepositions.length +
+      (priorityChanged ? " priority=" + priority : "") +
+      ">";
+  }
+
+}
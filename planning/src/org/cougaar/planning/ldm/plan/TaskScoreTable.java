@@ -37,8 +37,18 @@ import org.cougaar.core.util.UID;
  **/
 
 public final class TaskScoreTable {
+  /** Tables at least this large build a UID index on first use */
+  static final int INDEX_THRESHOLD = 8;
+
   private Task tasks[];
   private AllocationResult results[];
+
+  /**
+   * Open-addressed UID hash table of (task index + 1), zero marks an
+   * empty slot.  Built lazily, since most tables are small and only
+   * looked up by position.
+   */
+  private volatile int[] uidIndex;
   
   public TaskScoreTable(Hashtable table) {
     // initialize our arrays
@@ -78,6 +88,10 @@ public final class TaskScoreTable {
   public AllocationResult getAllocationResult(Task task) {
     int l = tasks.length;
 
+    if (l >= INDEX_THRESHOLD) {
+      int i = getTaskIndex(task.getUID());
+      if (i >= 0 && tasks[i] == task) return results[i];
+    }
     for (int i = 0; i<l; i++) {
       if (tasks[i] == task) return results[i];
     }
@@ -99,28 +113,66 @@ public final class TaskScoreTable {
   }
 
   public AllocationResult getAllocationResult(UID uid) {
-    int l = tasks.length;
-    for (int i = 0; i<l; i++) {
-      if (tasks[i].getUID().equals(uid)) return results[i];
-    }
-    return null;
+    int i = getTaskIndex(uid);
+    return (i >= 0 ? results[i] : null);
   }
   public Task getTask(UID uid) {
-    int l = tasks.length;
-    for (int i = 0; i<l; i++) {
-      Task t = tasks[i];
-      if (t.getUID().equals(uid)) return t;
-    }
-    return null;
+    int i = getTaskIndex(uid);
+    return (i >= 0 ? tasks[i] : null);
   }
   public int getTaskIndex(UID uid) {
     int l = tasks.length;
 
-    for (int i = 0; i<l; i++) {
-      Task t = tasks[i];
-      if (t.getUID().equals(uid)) return i;
+    if (l < INDEX_THRESHOLD) {
+      for (int i = 0; i<l; i++) {
+        Task t = tasks[i];
+        if (t.getUID().equals(uid)) return i;
+      }
+      return -1;
+    }
+    if (uid == null) return -1;
+    int[] index = uidIndex;
+    if (index == null) {
+      index = buildUIDIndex();
+      uidIndex = index;
+    }
+    int mask = index.length - 1;
+    for (int h = mix(uid.hashCode()) & mask; ; h = (h + 1) & mask) {
+      int slot = index[h];
+      if (slot == 0) return -1;
+      if (tasks[slot - 1].getUID().equals(uid)) return slot - 1;
+    }
+  }
+
+  /** Index every task, keeping the first of any duplicate UIDs. */
+  private int[] buildUIDIndex() {
+    int l = tasks.length;
+    int cap = 1;
+    while (cap < 2 * l) cap <<= 1;
+    int[] index = new int[cap];
+    int mask = cap - 1;
+    for (int i = 0; i < l; i++) {
+      UID uid = tasks[i].getUID();
+      int h = mix(uid.hashCode()) & mask;
+      while (true) {
+        int slot = index[h];
+        if (slot == 0) {
+          index[h] = i + 1;
+          break;
+        }
+        if (tasks[slot - 1].getUID().equals(uid)) break;
+        h = (h + 1) & mask;
+      }
     }
-    return -1;
+    return index;
+  }
+
+  /** Spread the UID hash bits, since UIDs of siblings are sequential. */
+  private static int mix(int h) {
+    h ^= (h >>> 16);
+    h *= 0x85ebca6b;
+    h ^= (h >>> 13);
+    return h;
   }
 
   // support for ExpansionImpl.
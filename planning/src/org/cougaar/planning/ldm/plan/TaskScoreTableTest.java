@@ -0,0 +1,131 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.ldm.plan;
+
+import org.cougaar.core.util.UID;
+
+/** Point test for TaskScoreTable's UID index **/
+
+public class TaskScoreTableTest {
+  /** The index of the first task with the UID, found without the index. */
+  private static int scanTaskIndex(Task[] tasks, UID uid) {
+    for (int i = 0; i < tasks.length; i++) {
+      if (tasks[i].getUID().equals(uid)) return i;
+    }
+    return -1;
+  }
+
+  /** Tasks "test/0".."test/(l-1)", each UID twice if dups, spread by stride. */
+  private static Task[] makeTasks(int l, boolean dups, long stride) {
+    Task[] tasks = new Task[l];
+    for (int i = 0; i < l; i++) {
+      tasks[i] = new TaskImpl(new UID("test", (dups ? i / 2 : i) * stride));
+    }
+    return tasks;
+  }
+
+  // Check that lookups through the UID index agree with a scan of the
+  // tasks at sizes around INDEX_THRESHOLD, then time both.  The timed
+  // sizes may be given as arguments.
+  public static void main(String[] args) {
+    int failures = 0;
+    long[] strides = { 1, 1 << 20 };
+    for (int l = 0; l <= 4 * TaskScoreTable.INDEX_THRESHOLD; l++) {
+      for (int k = 0; k < 4; k++) {
+        long stride = strides[k & 1];
+        Task[] tasks = makeTasks(l, (k >= 2), stride);
+        AllocationResult[] results = new AllocationResult[l];
+        for (int i = 0; i < l; i++) {
+          results[i] = new AllocationResult(i, true, new AspectValue[0]);
+        }
+        TaskScoreTable table = new TaskScoreTable(tasks, results);
+        // present and absent UIDs, and one from another agent
+        for (int i = -2; i <= l + 2; i++) {
+          UID uid = (i == -2 ? new UID("other", 0) : new UID("test", i * stride));
+          int expected = scanTaskIndex(tasks, uid);
+          int found = table.getTaskIndex(uid);
+          if (found != expected) {
+            failures++;
+            System.out.println("size "+l+(k >= 2 ? " with duplicates" : "")+
+                               ": getTaskIndex("+uid+") = "+found+", expected "+expected);
+          }
+        }
+        for (int i = 0; i < l; i++) {
+          if (table.getAllocationResult(tasks[i]) != results[i]) {
+            failures++;
+            System.out.println("size "+l+(k >= 2 ? " with duplicates" : "")+
+                               ": wrong result for task "+i);
+          }
+        }
+      }
+    }
+    System.out.println(failures == 0 ? "all passed" : failures+" FAILED");
+
+    int[] sizes = { 10, 100, 1000, 10000, 100000 };
+    if (args.length > 0) {
+      sizes = new int[args.length];
+      for (int i = 0; i < args.length; i++) {
+        sizes[i] = Integer.parseInt(args[i]);
+      }
+    }
+    for (int s = 0; s < sizes.length; s++) {
+      int l = sizes[s];
+      Task[] tasks = makeTasks(l, false, 1);
+      UID[] uids = new UID[l];
+      for (int i = 0; i < l; i++) {
+        uids[i] = tasks[i].getUID();
+      }
+      // about a million lookups each way, with the scans spread over
+      // the table and limited to about 10^8 comparisons; each indexed
+      // pass builds a new index
+      int reps = Math.max(1, 1000000 / l);
+      int nScan = (int) Math.max(1, Math.min((long) reps * l, 100000000L / l));
+      long best = Long.MAX_VALUE;
+      long bestScan = Long.MAX_VALUE;
+      int sum = 0;
+      for (int r = 0; r < 5; r++) {
+        long t0 = System.currentTimeMillis();
+        for (int rep = 0; rep < reps; rep++) {
+          TaskScoreTable table = new TaskScoreTable(tasks);
+          for (int i = 0; i < l; i++) {
+            sum += table.getTaskIndex(uids[i]);
+          }
+        }
+        long t1 = System.currentTimeMillis();
+        for (int i = 0; i < nScan; i++) {
+          sum += scanTaskIndex(tasks, uids[(int) ((i * 40503L) % l)]);
+        }
+        long t2 = System.currentTimeMillis();
+        best = Math.min(best, t1 - t0);
+        bestScan = Math.min(bestScan, t2 - t1);
+      }
+      System.out.println(l+" subtasks: "+
+                         (best * 1000000 / ((long) reps * l))+"ns per indexed lookup, "+
+                         (bestScan * 1000000 / nScan)+"ns per scan ("+sum+")");
+    }
+  }
+}
@@ -41,6 +41,7 @@ import org.cougaar.core.blackboard.ClaimableImpl;
 import org.cougaar.core.mts.MessageAddress;
 import org.cougaar.core.util.UID;
 import org.cougaar.util.Empty;
+import org.cougaar.util.PropertyParser;
 import org.cougaar.util.log.Logger;
 import org.cougaar.util.log.Logging;
 
@@ -55,13 +56,21 @@ public class WorkflowImpl
   private static final Logger logger = Logging.getLogger(WorkflowImpl.class);
   static final long serialVersionUID = -8610461428992212L;
 
+  // Whether to aggregate subtask results incrementally by default. Defaults to false.
+  private static final boolean INCREMENTAL_AGGREGATION = PropertyParser.getBoolean("org.cougaar.planning.ldm.plan.WorkflowImpl.incrementalAggregation", false);
+
+  private static final AllocationResultAggregator DEFAULT_ARA =
+    (INCREMENTAL_AGGREGATION
+     ? (AllocationResultAggregator) IncrementalAllocationResultAggregator.DEFAULT_INCREMENTAL
+     : AllocationResultAggregator.DEFAULT);
+
   private transient Task basetask;
   // protected access for MPWorkflowImpl
   protected transient Vector subtasks = new Vector();
   private transient Vector constraints = new Vector();
   private UID uid;
   private MessageAddress owner;
-  private transient AllocationResultAggregator currentARA = AllocationResultAggregator.DEFAULT;
+  private transient AllocationResultAggregator currentARA = DEFAULT_ARA;
   private transient AllocationResult cachedar = null;
   private transient int walkingSubtasks = 0;
   private transient Set changedSubtasks = new HashSet(3);
@@ -145,8 +154,14 @@ public class WorkflowImpl
 
   private transient TaskScoreTable _tst = null;
 
+  // Running aggregate of the results in _tst when currentARA is an
+  // IncrementalAllocationResultAggregator.
+  private transient IncrementalAllocationResultAggregator.Accumulator _accumulator = null;
+  private transient int _accumulatorUpdates = 0;
+
   private void clearTST() {
     _tst = null;
+    _accumulator = null;
   }
 
   private TaskScoreTable updateTST() {
@@ -168,6 +183,63 @@ public class WorkflowImpl
   }
 
 
+  /**
+   * Aggregate using the Accumulator of an incremental aggregator.
+   * Only the subtasks named in changedSubtaskUIDs are examined, each
+   * found through the TaskScoreTable's UID index, and a result that is
+   * not the one recorded in the table is removed from and added to the
+   * Accumulator. With no list of changed subtasks every subtask result
+   * is compared by reference. If a listed UID is not one of our
+   * subtasks, or after as many updates as there are subtasks (to bound
+   * rounding error in running sums), the Accumulator is rebuilt.
+   **/
+  private AllocationResult aggregateIncrementally(IncrementalAllocationResultAggregator ara,
+                                                  List changedSubtaskUIDs) {
+    assert Thread.holdsLock(this); // redundant - only called from aggregateAllocationResults
+    boolean rebuild = (_tst == null || _accumulator == null);
+    if (!rebuild) {
+      if (changedSubtaskUIDs.isEmpty()) {
+        for (int i = 0, n = _tst.size(); i < n; i++) {
+          accumulateSubtask(i);
+        }
+      } else {
+        for (int j = 0, n = changedSubtaskUIDs.size(); j < n; j++) {
+          int i = _tst.getTaskIndex((UID) changedSubtaskUIDs.get(j));
+          if (i < 0) {
+            rebuild = true;
+            break;
+          }
+          accumulateSubtask(i);
+        }
+      }
+      rebuild |= (_accumulatorUpdates > _tst.size());
+    }
+    if (rebuild) {
+      TaskScoreTable tst = updateTST();
+      if (tst == null) return null;
+      _accumulator = ara.newAccumulator();
+      for (int i = 0, n = tst.size(); i < n; i++) {
+        _accumulator.add(tst.getAllocationResult(i));
+      }
+      _accumulatorUpdates = 0;
+    }
+    return _accumulator.getResult(_tst, cachedar);
+  }
+
+  /** Move subtask i's current estimated result into the Accumulator **/
+  private void accumulateSubtask(int i) {
+    PlanElement pe = _tst.getTask(i).getPlanElement();
+    if (pe == null) return;
+    AllocationResult oldar = _tst.getAllocationResult(i);
+    AllocationResult newar = pe.getEstimatedResult();
+    if (newar != oldar) {
+      _accumulator.remove(oldar);
+      _accumulator.add(newar);
+      _tst.setAllocationResult(i, newar);
+      _accumulatorUpdates++;
+    }
+  }
+
   /** Calls calculate on the defined AllocationResultAggregator
    * @return a new AllocationResult representing aggregation of
    * all subtask results
@@ -182,10 +254,16 @@ public class WorkflowImpl
    * contributing to the new allocation result.
    **/
   public synchronized AllocationResult aggregateAllocationResults(List changedSubtaskUIDs) {
-    TaskScoreTable tst = updateTST();
-    if (tst == null) return null;
-    // call calculate on the PenaltyValueAggregator
-    AllocationResult newresult = currentARA.calculate(this, tst, cachedar);
+    AllocationResult newresult;
+    if (currentARA instanceof IncrementalAllocationResultAggregator) {
+      newresult = aggregateIncrementally((IncrementalAllocationResultAggregator) currentARA,
+                                         changedSubtaskUIDs);
+    } else {
+      TaskScoreTable tst = updateTST();
+      if (tst == null) return null;
+      // call calculate on the PenaltyValueAggregator
+      newresult = currentARA.calculate(this, tst, cachedar);
+    }
     cachedar = newresult;
     changedSubtasks.addAll(changedSubtaskUIDs);
     return newresult;
@@ -465,8 +543,9 @@ public class WorkflowImpl
     * @param aragg The AllocationResultAggregator to use.
     * @see org.cougaar.planning.ldm.plan.AllocationResultAggregator
     */
-  public void setAllocationResultAggregator(AllocationResultAggregator aragg) {
+  public synchronized void setAllocationResultAggregator(AllocationResultAggregator aragg) {
     currentARA = aragg;
+    _accumulator = null;
   }
 
   /** Return the Unique ID number for this object */
@@ -490,7 +569,7 @@ public class WorkflowImpl
     stream.writeObject(basetask);
     stream.writeObject(subtasks);
     stream.writeObject(constraints);
-    if (currentARA == AllocationResultAggregator.DEFAULT) {
+    if (currentARA == DEFAULT_ARA) {
       stream.writeObject(null);
     } else {
       stream.writeObject(currentARA);
@@ -514,7 +593,7 @@ public class WorkflowImpl
     constraints = (Vector) stream.readObject();
     currentARA = (AllocationResultAggregator) stream.readObject();
     if (currentARA == null) {
-      currentARA = AllocationResultAggregator.DEFAULT;
+      currentARA = DEFAULT_ARA;
     }
     if (stream instanceof org.cougaar.core.persist.PersistenceInputStream) {
       myAnnotation = (Annotation) stream.readObject();
@@ -26,6 +26,7 @@
 
 package org.cougaar.planning.plugin.completion;
 
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -37,6 +38,7 @@ import java.util.WeakHashMap;
 import org.cougaar.core.blackboard.ChangeReport;
 import org.cougaar.core.blackboard.IncrementalSubscription;
 import org.cougaar.core.persist.PersistenceNotEnabledException;
+import org.cougaar.planning.ldm.plan.PlanElement;
 import org.cougaar.util.UnaryPredicate;
 
 /**
@@ -52,8 +54,10 @@ public class CompletionTargetPlugin extends CompletionPlugin {
   private static final long NORMAL_ACTIVITY_DELAY = 600000;
   private static final String SLEEP_INTERVAL_KEY = "SLEEP_INTERVAL=";
   private static final String ACTIVITY_DELAY_KEY = "ACTIVITY_DELAY=";
+  private static final String INCREMENTAL_KEY = "INCREMENTAL=";
   private long SLEEP_INTERVAL = NORMAL_SLEEP_INTERVAL;
   private long ACTIVITY_DELAY = NORMAL_ACTIVITY_DELAY;
+  private boolean INCREMENTAL = true;
   private static class MyChangeReport implements ChangeReport {
   }
   private ChangeReport myChangeReport = new MyChangeReport();
@@ -63,6 +67,8 @@ public class CompletionTargetPlugin extends CompletionPlugin {
   protected Set ignoredVerbs = new HashSet();
   private IncrementalSubscription relaySubscription;
   private IncrementalSubscription activitySubscription;
+  private IncrementalSubscription completionSubscription;
+  private IncrementalSubscription planElementSubscription;
   protected long now;           // Time of current execute()
   protected long scenarioNow;   // Scenario time of current execute()
   private long lastActivity;    // Time of last activity
@@ -73,6 +79,7 @@ public class CompletionTargetPlugin extends CompletionPlugin {
   private Map filters = new WeakHashMap();
 
   protected CompletionCalculator calc;
+  protected IncrementalCompletion incrementalCompletion;
 
   public CompletionTargetPlugin() {
     super(requiredServices);
@@ -107,6 +114,13 @@ public class CompletionTargetPlugin extends CompletionPlugin {
                                                 + ACTIVITY_DELAY);
         continue;
       }
+      if (param.startsWith(INCREMENTAL_KEY)) {
+        INCREMENTAL = Boolean.valueOf(param.substring(INCREMENTAL_KEY.length())).booleanValue();
+        if (logger.isInfoEnabled()) logger.info("Set "
+                                                + INCREMENTAL_KEY
+                                                + INCREMENTAL);
+        continue;
+      }
     }
     debug = true;//getMessageAddress().toString().equals("47-FSB");
     relaySubscription = (IncrementalSubscription)
@@ -114,10 +128,69 @@ public class CompletionTargetPlugin extends CompletionPlugin {
     UnaryPredicate activityPredicate = createActivityPredicate();
     activitySubscription = (IncrementalSubscription)
       blackboard.subscribe(activityPredicate, new AmnesiaCollection(), true);
+    if (INCREMENTAL) {
+      setupIncrementalCompletion();
+    }
     lastActivity = System.currentTimeMillis();
     resetTimer(SLEEP_INTERVAL);
   }
 
+  /**
+   * Subscribe to the objects contributing to blackboard completion.
+   * The objects already on the blackboard arrive as the
+   * subscription's initial adds, and thereafter only the
+   * subscription deltas are examined. The subscriptions retain
+   * nothing; the IncrementalCompletion remembers only the
+   * contribution of each object.
+   * <p>
+   * IncrementalCompletion averages getConfidence itself, so a
+   * calculator that overrides calculate is left to recompute
+   * completion from a query of the whole blackboard.
+   **/
+  private void setupIncrementalCompletion() {
+    CompletionCalculator cc = getCalculator();
+    if (overridesCalculate(cc)) {
+      if (logger.isInfoEnabled()) logger.info(cc.getClass().getName()
+                                              + " overrides calculate, not "
+                                              + INCREMENTAL_KEY + "true");
+      return;
+    }
+    incrementalCompletion = new IncrementalCompletion(cc);
+    completionSubscription = (IncrementalSubscription)
+      blackboard.subscribe(cc.getPredicate(), new AmnesiaCollection(), true);
+    planElementSubscription = (IncrementalSubscription)
+      blackboard.subscribe(planElementPredicate, new AmnesiaCollection(), true);
+  }
+
+  private static boolean overridesCalculate(CompletionCalculator cc) {
+    try {
+      Method m = cc.getClass().getMethod("calculate", new Class[] {Collection.class});
+      return m.getDeclaringClass() != CompletionCalculator.class;
+    } catch (NoSuchMethodException nsme) {
+      return true;
+    }
+  }
+
+  private static final UnaryPredicate planElementPredicate =
+    new UnaryPredicate() {
+      public boolean execute(Object o) {
+        return (o instanceof PlanElement);
+      }
+    };
+
+  private void updateIncrementalCompletion() {
+    if (completionSubscription.hasChanged()) {
+      incrementalCompletion.addAll(completionSubscription.getAddedCollection());
+      incrementalCompletion.changeAll(completionSubscription.getChangedCollection());
+      incrementalCompletion.removeAll(completionSubscription.getRemovedCollection());
+    }
+    if (planElementSubscription.hasChanged()) {
+      incrementalCompletion.planElementsChanged(planElementSubscription.getAddedCollection());
+      incrementalCompletion.planElementsChanged(planElementSubscription.getChangedCollection());
+      incrementalCompletion.planElementsChanged(planElementSubscription.getRemovedCollection());
+    }
+  }
+
   public void execute() {
     processSubscriptions();
     if (relaySubscription.hasChanged()) {
@@ -143,6 +216,9 @@ public class CompletionTargetPlugin extends CompletionPlugin {
     boolean timerExpired = timerExpired();
     now = System.currentTimeMillis();
     scenarioNow = getAlarmService().currentTimeMillis();
+    if (incrementalCompletion != null) {
+      updateIncrementalCompletion();
+    }
     if (activitySubscription.hasChanged()) {
       lastActivity = now;
       // Activity has changed blackboard completion
@@ -176,9 +252,14 @@ public class CompletionTargetPlugin extends CompletionPlugin {
   }
 
   private void updateBlackboardCompletion() {
-    CompletionCalculator cc = getCalculator();
-    Collection objs = blackboard.query(cc.getPredicate());
-    blackboardCompletion = cc.calculate(objs);
+    if (incrementalCompletion != null) {
+      blackboardCompletion = incrementalCompletion.getCompletion();
+      if (logger.isDebugEnabled()) logger.debug(incrementalCompletion.toString());
+    } else {
+      CompletionCalculator cc = getCalculator();
+      Collection objs = blackboard.query(cc.getPredicate());
+      blackboardCompletion = cc.calculate(objs);
+    }
     updateBlackboardCompletionPending = false;
   }
 
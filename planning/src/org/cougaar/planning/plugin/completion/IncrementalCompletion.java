@@ -0,0 +1,212 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 2001-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.plugin.completion;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.cougaar.core.util.UniqueObject;
+import org.cougaar.planning.ldm.plan.AllocationResult;
+import org.cougaar.planning.ldm.plan.PlanElement;
+import org.cougaar.planning.ldm.plan.Task;
+
+/**
+ * Maintains the blackboard completion of a CompletionCalculator
+ * incrementally. Instead of querying the blackboard and summing the
+ * confidence of every task, the contribution of each object matching
+ * the calculator predicate is remembered and the running totals are
+ * adjusted as objects are added, changed or removed. The result is
+ * identical to CompletionCalculator.calculate applied to the full
+ * collection, but costs only O(delta) per transaction.
+ **/
+public class IncrementalCompletion {
+  private static final byte UNPLANNED = 0;
+  private static final byte UNCONFIDENT = 1;
+  private static final byte CONFIDENT = 2;
+
+  private static class Entry {
+    double confidence;
+    byte state;
+  }
+
+  private CompletionCalculator calc;
+  private Map entries = new HashMap();
+  private double sum = 0.0;
+  private int nUnplanned = 0;
+  private int nUnconfident = 0;
+  private int nConfident = 0;
+
+  public IncrementalCompletion(CompletionCalculator calc) {
+    this.calc = calc;
+  }
+
+  public CompletionCalculator getCalculator() {
+    return calc;
+  }
+
+  /**
+   * Discard all state and recompute from the given objects, all of
+   * which are assumed to match the calculator predicate.
+   **/
+  public void reset(Collection objs) {
+    entries.clear();
+    sum = 0.0;
+    nUnplanned = nUnconfident = nConfident = 0;
+    addAll(objs);
+  }
+
+  public void addAll(Collection objs) {
+    for (Iterator i = objs.iterator(); i.hasNext(); ) {
+      add(i.next());
+    }
+  }
+
+  public void changeAll(Collection objs) {
+    for (Iterator i = objs.iterator(); i.hasNext(); ) {
+      add(i.next());
+    }
+  }
+
+  public void removeAll(Collection objs) {
+    for (Iterator i = objs.iterator(); i.hasNext(); ) {
+      remove(i.next());
+    }
+  }
+
+  /**
+   * Note an object that matches the calculator predicate. Adding an
+   * object that is already known is the same as changing it, so the
+   * initial contents of a subscription may safely overlap a prior
+   * reset().
+   **/
+  public void add(Object o) {
+    Object key = getKey(o);
+    Entry entry = (Entry) entries.get(key);
+    if (entry == null) {
+      entry = new Entry();
+      entries.put(key, entry);
+    } else {
+      unaccount(entry);
+    }
+    entry.confidence = calc.getConfidence(o);
+    entry.state = getState(o, entry.confidence);
+    account(entry);
+  }
+
+  public void remove(Object o) {
+    Entry entry = (Entry) entries.remove(getKey(o));
+    if (entry != null) {
+      unaccount(entry);
+      if (entries.isEmpty()) sum = 0.0; // Discard accumulated rounding
+    }
+  }
+
+  /**
+   * Recompute the contribution of the task of each PlanElement. Tasks
+   * that are not tracked (e.g. not matching the predicate) are
+   * ignored.
+   **/
+  public void planElementsChanged(Collection pes) {
+    for (Iterator i = pes.iterator(); i.hasNext(); ) {
+      Object o = i.next();
+      if (o instanceof PlanElement) {
+        Task task = ((PlanElement) o).getTask();
+        if (task != null && entries.containsKey(getKey(task))) {
+          add(task);
+        }
+      }
+    }
+  }
+
+  public double getCompletion() {
+    int n = entries.size();
+    if (n <= 0) return 1.0;
+    return sum / n;
+  }
+
+  public int getCount() {
+    return entries.size();
+  }
+
+  public int getUnplannedCount() {
+    return nUnplanned;
+  }
+
+  public int getUnconfidentCount() {
+    return nUnconfident;
+  }
+
+  public int getConfidentCount() {
+    return nConfident;
+  }
+
+  private Object getKey(Object o) {
+    if (o instanceof UniqueObject) {
+      Object uid = ((UniqueObject) o).getUID();
+      if (uid != null) return uid;
+    }
+    return o;
+  }
+
+  private byte getState(Object o, double confidence) {
+    if (o instanceof Task) {
+      PlanElement pe = ((Task) o).getPlanElement();
+      if (pe == null) return UNPLANNED;
+      AllocationResult ar = pe.getEstimatedResult();
+      if (ar == null) return UNPLANNED;
+    }
+    return (confidence >= 1.0 ? CONFIDENT : UNCONFIDENT);
+  }
+
+  private void account(Entry entry) {
+    sum += entry.confidence;
+    switch (entry.state) {
+    case UNPLANNED: nUnplanned++; break;
+    case UNCONFIDENT: nUnconfident++; break;
+    default: nConfident++; break;
+    }
+  }
+
+  private void unaccount(Entry entry) {
+    sum -= entry.confidence;
+    switch (entry.state) {
+    case UNPLANNED: nUnplanned--; break;
+    case UNCONFIDENT: nUnconfident--; break;
+    default: nConfident--; break;
+    }
+  }
+
+  public String toString() {
+    return "IncrementalCompletion["
+      + entries.size() + " tasks, "
+      + nUnplanned + " unplanned, "
+      + nUnconfident + " unconfident, "
+      + nConfident + " confident]";
+  }
+}
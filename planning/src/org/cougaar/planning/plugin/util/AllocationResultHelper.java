@@ -50,7 +50,7 @@ public class AllocationResultHelper {
   public class Phase {
     public AspectValue[] result;
     private Phase(int ix) {
-      result = (AspectValue[]) phasedResults.get(ix);
+      result = (AspectValue[]) getPhasedResults().get(ix);
     }
 
     public AspectValue getAspectValue(int type) {
@@ -88,7 +88,9 @@ public class AllocationResultHelper {
   /** The new perfectResult **/
   private AspectValue[] perfectResult;
 
-  /** The new phased results **/
+  /** The new phased results, or null until they are needed if they
+   * are still those of ar. See getPhasedResults.
+   **/
   private List phasedResults = new ArrayList();
 
   /** The AspectType map **/
@@ -106,21 +108,42 @@ public class AllocationResultHelper {
     if (pe != null) {
       ar = pe.getEstimatedResult();
     }
+    AspectValue[] firstResult;
     if (ar != null) {
       if (ar.isPhased()) {
-	phasedResults = ar.getPhasedAspectValueResults();
+	phasedResults = null;
+	firstResult = ar.getPhasedAspectValues(0);
       } else {
+	firstResult = ar.getAspectValueResults();
 	phasedResults = new ArrayList(1);
-	phasedResults.add(ar.getAspectValueResults());
+	phasedResults.add(firstResult);
       }
-      setTypeIndexes((AspectValue[]) phasedResults.get(0));
+      setTypeIndexes(firstResult);
       //              checkPhases(phasedResults);
     } else {
+      firstResult = taskAVS;
       phasedResults = new ArrayList(1);
       phasedResults.add(taskAVS);
       setTypeIndexes(taskAVS);
     }
-    perfectResult = getPerfectResult(taskAVS);
+    perfectResult = getPerfectResult(firstResult, taskAVS);
+  }
+
+  /**
+   * The phased results as a List of AspectValue[]. The phases of a
+   * phased ar are only built as AspectValues here, when they are
+   * first edited or handed out, so a helper that is only asked for
+   * its phase count doesn't build them at all.
+   **/
+  private List getPhasedResults() {
+    if (phasedResults == null) {
+      int n = ar.getPhaseCount();
+      phasedResults = new ArrayList(n);
+      for (int i = 0; i < n; i++) {
+	phasedResults.add(ar.getPhasedAspectValues(i));
+      }
+    }
+    return phasedResults;
   }
 
   private AspectValue[] getAspectValuesOfTask(Task task) {
@@ -135,9 +158,9 @@ public class AllocationResultHelper {
     return (AspectValue[]) avs.toArray(new AspectValue[avs.size()]);
   }
 
-  private AspectValue[] getPerfectResult(AspectValue[] avs) {
+  private AspectValue[] getPerfectResult(AspectValue[] firstResult, AspectValue[] avs) {
     AspectValue[] result = new AspectValue[avs.length];
-    result = AspectValue.clone((AspectValue[]) phasedResults.get(0));
+    result = AspectValue.clone(firstResult);
     for (int i = 0; i < avs.length; i++) {
       result[getTypeIndex(avs[i].getAspectType())] = avs[i];
     }
@@ -164,7 +187,7 @@ public class AllocationResultHelper {
 					       AspectValue[] ru)
   {
     return new AllocationResult(confrating, isSuccess,
-				ru, phasedResults);
+				ru, getPhasedResults());
   }
 
   private boolean isSuccess(AspectValue[] ru) {
@@ -213,6 +236,7 @@ public class AllocationResultHelper {
 
   public int getPhaseCount() {
     //          checkPhases(phasedResults);
+    if (phasedResults == null) return ar.getPhaseCount();
     return phasedResults.size();
   }
 
@@ -268,7 +292,7 @@ public class AllocationResultHelper {
     long startTime = s;
     long endTime = e;
     if (newResults == null)
-      newResults = new ArrayList(phasedResults.size() + 2); // At most two new results
+      newResults = new ArrayList(getPhaseCount() + 2); // At most two new results
     boolean covered = false;
     boolean thisChanged = false;
     AspectValue[] newResult;
@@ -286,7 +310,7 @@ public class AllocationResultHelper {
       }
       startTime = Math.max(startTime, minTime);
 
-      for (Iterator i = phasedResults.iterator(); i.hasNext(); ) {
+      for (Iterator i = getPhasedResults().iterator(); i.hasNext(); ) {
 	AspectValue[] oneResult = (AspectValue[]) i.next();
 	long thisStart = getStartTime(oneResult);
 	long thisEnd   = getEndTime(oneResult);
@@ -342,7 +366,11 @@ public class AllocationResultHelper {
     }
     isChanged = true;
     //          checkPhases(newResults);
-    phasedResults.clear();
+    if (phasedResults == null) {
+      phasedResults = new ArrayList(newResults.size());
+    } else {
+      phasedResults.clear();
+    }
     phasedResults.addAll(newResults);
     newResults.clear();
   }
@@ -353,7 +381,7 @@ public class AllocationResultHelper {
     boolean first = true;
     Arrays.fill(sums, 0.0);
     Arrays.fill(divisor, 1.0);
-    for (Iterator iter = phasedResults.iterator(); iter.hasNext(); ) {
+    for (Iterator iter = getPhasedResults().iterator(); iter.hasNext(); ) {
       AspectValue[] oneResult = (AspectValue[]) iter.next();
       for (int i = 0; i < oneResult.length; i++) {
 	AspectValue av = oneResult[i];
@@ -0,0 +1,93 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+
+package org.cougaar.planning.plugin.util;
+
+import java.util.Collection;
+
+import org.cougaar.core.blackboard.IncrementalSubscription;
+import org.cougaar.core.plugin.ServiceUserPlugin;
+import org.cougaar.planning.ldm.lps.NotificationFlushTrigger;
+import org.cougaar.util.UnaryPredicate;
+
+/**
+ * Enables coalescing of outgoing Notifications in NotificationLP.
+ * <p>
+ * The single optional parameter is the flush window in milliseconds
+ * (default 500).  Notifications for the same parent/child task pair
+ * revised within the window are sent once, with the latest
+ * AllocationResult, at most about two windows after the first was
+ * held.  The timer only runs while notifications are held;
+ * NotificationLP changes the trigger when it starts holding some.
+ **/
+public class NotificationFlushPlugin extends ServiceUserPlugin {
+  private static final long DEFAULT_WINDOW = 500L;
+
+  private long window = DEFAULT_WINDOW;
+  private NotificationFlushTrigger trigger;
+  private IncrementalSubscription triggerSub;
+
+  private static final UnaryPredicate triggerP = new UnaryPredicate() {
+    public boolean execute(Object o) {
+      return (o instanceof NotificationFlushTrigger);
+    }
+  };
+
+  public NotificationFlushPlugin() {
+    super(new Class[0]);
+  }
+
+  public void setupSubscriptions() {
+    Collection params = getParameters();
+    if (params != null && !params.isEmpty()) {
+      String s = (String) params.iterator().next();
+      try {
+        window = Long.parseLong(s.trim());
+      } catch (NumberFormatException nfe) {
+        logger.error("Bad flush window \"" + s + "\", using " + DEFAULT_WINDOW, nfe);
+      }
+    }
+    trigger = new NotificationFlushTrigger(window);
+    triggerSub = (IncrementalSubscription) blackboard.subscribe(triggerP);
+    blackboard.publishAdd(trigger);
+  }
+
+  public void execute() {
+    if (timerExpired()) {
+      cancelTimer();
+      if (trigger.isPending()) {
+        if (logger.isDebugEnabled()) logger.debug("Flushing held notifications");
+        blackboard.publishChange(trigger);
+      }
+    }
+    // Keep waking up only while something is held.  The flush above
+    // happens when this transaction closes, so at most one extra
+    // wake-up follows the last flush.
+    if (window > 0 && trigger.isPending() && !hasUnexpiredTimer()) {
+      resetTimer(window);
+    }
+  }
+}
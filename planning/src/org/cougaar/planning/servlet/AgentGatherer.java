@@ -0,0 +1,322 @@
+/*
+ *
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+package org.cougaar.planning.servlet;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.List;
+
+import org.cougaar.util.log.Logging;
+
+/**
+ * Fetches a result from each of many agents at once, e.g. for the 
+ * <code>CompletionServlet</code>'s "gathered" views or the 
+ * <code>HierarchyWorker</code>'s recursion into subordinates.
+ * <p>
+ * At most "maxFetches" fetches of a gatherer run at a time, in a
+ * pool of at most
+ * org.cougaar.planning.servlet.AgentGatherer.threads (default 32)
+ * daemon threads shared by all gatherers.  A fetch that runs longer
+ * than "timeoutMillis" is aborted and its slot is given to the next
+ * agent, so a hung agent can't stall the rest of the society.  The
+ * timeout is counted from when a pool thread starts the fetch, so
+ * time spent queued behind other gatherers' fetches doesn't count.  A
+ * non-positive timeout waits forever.
+ * <p>
+ * An aborted fetch's thread is interrupted, and the connection that
+ * the Fetcher registered with <code>closeOnAbort</code>, if any, is
+ * closed, which frees the pool thread of a fetch that is blocked
+ * reading from a hung agent.
+ * <p>
+ * Results are read back in agent order with
+ * <code>waitFor</code>, which lets the caller stream each result as
+ * soon as it and all the earlier agents are done.
+ * <p>
+ * The fetches are started and timed out by the caller's thread, from
+ * within <code>waitFor</code>.
+ */
+public class AgentGatherer {
+
+  /**
+   * Fetches the result for a single agent, typically over HTTP.
+   * An in-process implementation can stand in for remote agents.
+   */
+  public interface Fetcher {
+    Object fetch(String agentName) throws Exception;
+  }
+
+  /** maximum number of fetch threads, shared by all gatherers */
+  public static final int POOL_THREADS =
+    Integer.getInteger(
+        "org.cougaar.planning.servlet.AgentGatherer.threads",
+        32).intValue();
+
+  private static final WorkerPool pool =
+    new WorkerPool(
+        "AgentGatherer", POOL_THREADS,
+        Logging.getLogger(AgentGatherer.class));
+
+  /** the Fetch running in the current pool thread, if any */
+  private static final ThreadLocal currentFetch = new ThreadLocal();
+
+  /**
+   * Called by a Fetcher, from within <code>fetch</code>, to register
+   * the connection that should be closed if the fetch is aborted.
+   *
+   * @param resource an HttpURLConnection, which is disconnected, or
+   *   an InputStream, which is closed
+   */
+  public static void closeOnAbort(Object resource) {
+    Fetch f = (Fetch) currentFetch.get();
+    if (f != null) {
+      f.setResource(resource);
+    }
+  }
+
+  private final List agents;
+  private final Fetcher fetcher;
+  private final int maxFetches;
+  private final long timeoutMillis;
+
+  private final Object[] results;
+  private final boolean[] done;
+  /** when each running fetch times out, MAX_VALUE until it starts */
+  private final long[] deadlines;
+  private final Fetch[] fetches;
+  private int nextToStart;
+  private int running;
+
+  /**
+   * @param agents the agent names, as Strings
+   * @param fetcher fetches each agent's result
+   * @param maxFetches the maximum number of concurrent fetches
+   * @param timeoutMillis how long to wait for each fetch, or 0 to
+   *   wait forever
+   */
+  public AgentGatherer(
+      List agents, Fetcher fetcher,
+      int maxFetches, long timeoutMillis) {
+    this.agents = agents;
+    this.fetcher = fetcher;
+    this.maxFetches = Math.max(1, maxFetches);
+    this.timeoutMillis = timeoutMillis;
+    int n = agents.size();
+    results = new Object[n];
+    done = new boolean[n];
+    deadlines = new long[n];
+    fetches = new Fetch[n];
+  }
+
+  public int size() {
+    return results.length;
+  }
+
+  public String getAgentName(int i) {
+    return (String) agents.get(i);
+  }
+
+  /**
+   * Wait for the result of the i'th agent.
+   *
+   * @return the agent's result, or the Exception if the fetch
+   *   failed or timed out
+   */
+  public synchronized Object waitFor(int i) throws InterruptedException {
+    while (true) {
+      long now = System.currentTimeMillis();
+      expire(now);
+      startMore();
+      if (done[i]) {
+        return results[i];
+      }
+      long next = getNextDeadline();
+      if (next == Long.MAX_VALUE) {
+        wait();
+      } else {
+        wait(Math.max(1, next - now));
+      }
+    }
+  }
+
+  /**
+   * Abort all the fetches that haven't finished, e.g. if the caller
+   * won't read the remaining results.
+   */
+  public synchronized void cancel() {
+    for (int i = 0; i < results.length; i++) {
+      if (!done[i]) {
+        results[i] = new Exception("Cancelled");
+        done[i] = true;
+        if (fetches[i] != null) {
+          fetches[i].abort();
+          fetches[i] = null;
+        }
+      }
+    }
+    nextToStart = results.length;
+    running = 0;
+    notifyAll();
+  }
+
+  private void expire(long now) {
+    for (int i = 0; i < nextToStart; i++) {
+      if (!done[i] && (deadlines[i] <= now)) {
+        results[i] = 
+          new Exception(
+              "Timed out after "+timeoutMillis+" milliseconds");
+        done[i] = true;
+        running--;
+        fetches[i].abort();
+        fetches[i] = null;
+      }
+    }
+  }
+
+  private void startMore() {
+    while ((running < maxFetches) && (nextToStart < results.length)) {
+      int i = nextToStart++;
+      deadlines[i] = Long.MAX_VALUE;
+      running++;
+      start(i);
+    }
+  }
+
+  private long getNextDeadline() {
+    long next = Long.MAX_VALUE;
+    for (int i = 0; i < nextToStart; i++) {
+      if (!done[i] && (deadlines[i] < next)) {
+        next = deadlines[i];
+      }
+    }
+    return next;
+  }
+
+  private void start(int i) {
+    Fetch f = new Fetch(i, getAgentName(i));
+    fetches[i] = f;
+    pool.execute(f);
+  }
+
+  /** Start the clock of the i'th fetch, now that it's running */
+  private synchronized void started(int i) {
+    if (!done[i] && (timeoutMillis > 0)) {
+      deadlines[i] = System.currentTimeMillis() + timeoutMillis;
+      notifyAll();
+    }
+  }
+
+  private synchronized void finished(int i, Object result) {
+    if (done[i]) {
+      // timed out
+      return;
+    }
+    results[i] = result;
+    done[i] = true;
+    fetches[i] = null;
+    running--;
+    notifyAll();
+  }
+
+  /** A single agent's fetch, run by the pool. */
+  private class Fetch implements Runnable {
+    private final int i;
+    private final String agentName;
+    private Thread runner;
+    private Object resource;
+    private boolean aborted;
+
+    Fetch(int i, String agentName) {
+      this.i = i;
+      this.agentName = agentName;
+    }
+
+    public void run() {
+      synchronized (this) {
+        if (aborted) {
+          return;
+        }
+        runner = Thread.currentThread();
+      }
+      started(i);
+      currentFetch.set(this);
+      Object result;
+      try {
+        result = fetcher.fetch(agentName);
+      } catch (Exception e) {
+        result = e;
+      } finally {
+        currentFetch.set(null);
+        synchronized (this) {
+          // an abort after this point mustn't interrupt the next task
+          runner = null;
+          resource = null;
+        }
+      }
+      finished(i, result);
+    }
+
+    void setResource(Object o) {
+      synchronized (this) {
+        if (!aborted) {
+          resource = o;
+          return;
+        }
+      }
+      close(o);
+    }
+
+    void abort() {
+      Object o;
+      synchronized (this) {
+        if (aborted) {
+          return;
+        }
+        aborted = true;
+        if (runner != null) {
+          runner.interrupt();
+        }
+        o = resource;
+        resource = null;
+      }
+      if (!pool.cancel(this) && (o != null)) {
+        close(o);
+      }
+    }
+
+    private void close(Object o) {
+      try {
+        if (o instanceof HttpURLConnection) {
+          ((HttpURLConnection) o).disconnect();
+        } else if (o instanceof InputStream) {
+          ((InputStream) o).close();
+        }
+      } catch (Exception e) {
+        // the fetch will fail, which is what we want
+      }
+    }
+  }
+}
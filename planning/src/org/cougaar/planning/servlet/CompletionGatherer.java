@@ -0,0 +1,67 @@
+/*
+ *
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+package org.cougaar.planning.servlet;
+
+import java.util.List;
+
+import org.cougaar.planning.servlet.data.completion.CompletionData;
+
+/**
+ * Fetches the <code>CompletionData</code> of many agents at once, for
+ * the <code>CompletionServlet</code>'s "gathered" views.
+ *
+ * @see AgentGatherer
+ */
+public class CompletionGatherer extends AgentGatherer {
+
+  /**
+   * Fetches the completion of a single agent, typically over HTTP.
+   * An in-process implementation can stand in for remote agents.
+   */
+  public interface AgentFetcher {
+    CompletionData fetch(String agentName) throws Exception;
+  }
+
+  /**
+   * @param agents the agent names, as Strings
+   * @param fetcher fetches each agent's completion
+   * @param maxFetches the maximum number of concurrent fetches
+   * @param timeoutMillis how long to wait for each fetch
+   */
+  public CompletionGatherer(
+      List agents, final AgentFetcher fetcher,
+      int maxFetches, long timeoutMillis) {
+    super(
+        agents,
+        new Fetcher() {
+          public Object fetch(String agentName) throws Exception {
+            return fetcher.fetch(agentName);
+          }
+        },
+        maxFetches, timeoutMillis);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ *
+ * <copyright>
+ *
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ *
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * </copyright>
+ */
+package org.cougaar.planning.servlet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cougaar.planning.servlet.data.completion.CompletionData;
+import org.cougaar.planning.servlet.data.completion.SimpleCompletionData;
+
+/**
+ * Point test for <code>CompletionGatherer</code>, with an in-process
+ * fetcher standing in for remote agents: some answer at once, some
+ * slowly, one fails and one never answers.
+ */
+public class CompletionGathererTest {
+  private static final int MAX_FETCHES = 4;
+  private static final long TIMEOUT_MILLIS = 500;
+
+  private static int failures = 0;
+
+  /** The stand-in agents, counting how many are fetching at once. */
+  private static class StandInFetcher
+    implements CompletionGatherer.AgentFetcher {
+    private int running;
+    private int maxRunning;
+    private int interrupted;
+
+    public CompletionData fetch(String agentName) throws Exception {
+      synchronized (this) {
+        if (++running > maxRunning) {
+          maxRunning = running;
+        }
+      }
+      try {
+        if (agentName.startsWith("Hung")) {
+          try {
+            Thread.sleep(Long.MAX_VALUE);
+          } catch (InterruptedException ie) {
+            synchronized (this) {
+              interrupted++;
+            }
+            throw ie;
+          }
+        }
+        if (agentName.startsWith("Failing")) {
+          throw new Exception("No servlet at <"+agentName+">");
+        }
+        if (agentName.startsWith("Slow")) {
+          Thread.sleep(100);
+        }
+        SimpleCompletionData data = new SimpleCompletionData();
+        data.setNumberOfTasks(agentName.length());
+        data.setRatio(1.0);
+        return data;
+      } finally {
+        synchronized (this) {
+          running--;
+        }
+      }
+    }
+
+    synchronized int getMaxRunning() {
+      return maxRunning;
+    }
+
+    synchronized int getInterrupted() {
+      return interrupted;
+    }
+  }
+
+  public static void main(String args[]) throws Exception {
+    List agents = new ArrayList();
+    for (int i = 0; i < 20; i++) {
+      agents.add(((i % 3) == 0 ? "Slow" : "Agent")+i);
+    }
+    agents.add(5, "Failing5");
+    agents.add(9, "Hung9");
+
+    System.out.println("Gather "+agents.size()+" agents:");
+    StandInFetcher fetcher = new StandInFetcher();
+    CompletionGatherer g =
+      new CompletionGatherer(
+          agents, fetcher, MAX_FETCHES, TIMEOUT_MILLIS);
+    long start = System.currentTimeMillis();
+    for (int i = 0; i < g.size(); i++) {
+      String agentName = g.getAgentName(i);
+      Object o = g.waitFor(i);
+      if (agentName.startsWith("Hung") || agentName.startsWith("Failing")) {
+        check(agentName+" fails", o instanceof Exception);
+        System.out.println("  "+agentName+": "+((Exception) o).getMessage());
+      } else {
+        check(agentName+" in order",
+              (o instanceof CompletionData) &&
+              ((CompletionData) o).getNumberOfTasks() == agentName.length());
+      }
+    }
+    long elapsed = System.currentTimeMillis() - start;
+    System.out.println("  took "+elapsed+" millis");
+    check("hung agent only delays its own slot", elapsed < 4 * TIMEOUT_MILLIS);
+    check("at most "+MAX_FETCHES+" fetches at once",
+          fetcher.getMaxRunning() <= MAX_FETCHES);
+    Thread.sleep(100);
+    check("hung fetch interrupted", fetcher.getInterrupted() == 1);
+
+    System.out.println("Cancel:");
+    fetcher = new StandInFetcher();
+    List hung = new ArrayList();
+    hung.add("Agent0");
+    hung.add("Hung1");
+    hung.add("Hung2");
+    g = new CompletionGatherer(hung, fetcher, MAX_FETCHES, 0);
+    check("Agent0 answers", g.waitFor(0) instanceof CompletionData);
+    g.cancel();
+    check("Hung1 cancelled", g.waitFor(1) instanceof Exception);
+    Thread.sleep(100);
+    check("hung fetches interrupted", fetcher.getInterrupted() == 2);
+
+    System.out.println(failures == 0 ? "all passed" : failures+" FAILED");
+  }
+
+  private static void check(String what, boolean ok) {
+    if (!ok) {
+      failures++;
+      System.out.println("  FAILED: "+what);
+    }
+  }
+}
@@ -28,10 +28,14 @@
 package org.cougaar.planning.servlet;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StreamCorruptedException;
+import java.net.URL;
+import java.net.URLConnection;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -70,6 +74,7 @@ import org.cougaar.planning.ldm.plan.Aggregation;
 import org.cougaar.planning.ldm.plan.Expansion;
 import org.cougaar.planning.ldm.plan.Allocation;
 import org.cougaar.planning.plugin.completion.CompletionCalculator;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
 import org.cougaar.planning.servlet.data.completion.AbstractTask;
 import org.cougaar.planning.servlet.data.completion.CompletionData;
 import org.cougaar.planning.servlet.data.completion.FailedTask;
@@ -82,6 +87,7 @@ import org.cougaar.planning.servlet.data.xml.XMLWriter;
 
 import org.cougaar.util.UnaryPredicate;
 import org.cougaar.util.Filters;
+import org.cougaar.util.log.Logging;
 
 
 /**
@@ -140,6 +146,37 @@ extends BaseServletComponent
 
   protected static final int MAX_AGENT_FRAMES = 18;
 
+  /** Maximum number of threads used to examine an agent's tasks. */
+  protected static final int STATS_THREADS =
+    Integer.getInteger(
+        "org.cougaar.planning.servlet.CompletionServlet.threads",
+        1).intValue();
+
+  /**
+   * Threads that examine tasks for <code>collectStats</code>, shared
+   * by all requests.  The requesting thread examines a range itself,
+   * so the pool needs one thread fewer than STATS_THREADS.
+   */
+  protected static final WorkerPool STATS_POOL =
+    new WorkerPool(
+        "CompletionServlet stats", STATS_THREADS - 1,
+        Logging.getLogger(CompletionServlet.class));
+
+  /** Minimum number of tasks examined by each stats thread. */
+  protected static final int MIN_TASKS_PER_THREAD = 5000;
+
+  /** Maximum number of agents fetched at once by the gathered views. */
+  protected static final int GATHER_THREADS =
+    Integer.getInteger(
+        "org.cougaar.planning.servlet.CompletionServlet.gatherThreads",
+        16).intValue();
+
+  /** Time allowed for each agent in the gathered views. */
+  protected static final long GATHER_TIMEOUT_MILLIS =
+    Long.getLong(
+        "org.cougaar.planning.servlet.CompletionServlet.gatherTimeout",
+        30000).longValue();
+
   protected String path;
 
   protected MessageAddress localAgent;
@@ -282,6 +319,37 @@ extends BaseServletComponent
     }
   }
 
+  /**
+   * Encodes a string that may contain HTML syntax-significant
+   * characters by replacing with a character entity.
+   **/
+  private static String encodeHTML(String s, boolean noBreakSpaces) {
+    StringBuffer buf = null;  // In case we need to edit the string
+    int ix = 0;               // Beginning of uncopied part of s
+    for (int i = 0, n = s.length(); i < n; i++) {
+      String replacement = null;
+      switch (s.charAt(i)) {
+        case '"': replacement = "&quot;"; break;
+        case '<': replacement = "&lt;"; break;
+        case '>': replacement = "&gt;"; break;
+        case '&': replacement = "&amp;"; break;
+        case ' ': if (noBreakSpaces) replacement = "&nbsp;"; break;
+      }
+      if (replacement != null) {
+        if (buf == null) buf = new StringBuffer();
+        buf.append(s.substring(ix, i));
+        buf.append(replacement);
+        ix = i + 1;
+      }
+    }
+    if (buf != null) {
+      buf.append(s.substring(ix));
+      return buf.toString();
+    } else {
+      return s;
+    }
+  }
+
   protected CompletionCalculator getCalculator() {
     synchronized (lock) {
       if (calc == null) {
@@ -295,6 +363,57 @@ extends BaseServletComponent
     return ""; // must not contain special URL characters
   }
 
+  /**
+   * Fetches an agent's <code>SimpleCompletionData</code> from its
+   * completion servlet, using the compact "format=binary" view unless
+   * ServletWorker.BINARY_FETCH is false, and "format=data" if the
+   * agent doesn't serve the binary view.
+   */
+  protected class HttpAgentFetcher 
+    implements CompletionGatherer.AgentFetcher {
+    private final String baseURL;
+
+    /**
+     * @param baseURL the server URL, e.g. "http://localhost:8800"
+     */
+    public HttpAgentFetcher(String baseURL) {
+      this.baseURL = baseURL;
+    }
+
+    public CompletionData fetch(String agentName) throws Exception {
+      String url = 
+        baseURL+
+        "/$"+
+        formURLEncode(agentName)+
+        getPath();
+      if (ServletWorker.BINARY_FETCH) {
+        try {
+          return fetchURL(url+"?format=binary");
+        } catch (StreamCorruptedException sce) {
+          // e.g. an older agent that answers with html
+        }
+      }
+      return fetchURL(url+"?format=data");
+    }
+
+    protected CompletionData fetchURL(String url) throws Exception {
+      InputStream is = null;
+      try {
+        URLConnection conn = new URL(url).openConnection();
+        AgentGatherer.closeOnAbort(conn);
+        is = conn.getInputStream();
+        return (CompletionData) ServletWorker.readData(is);
+      } finally {
+        if (is != null) {
+          try {
+            is.close();
+          } catch (IOException e) {
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Inner-class that's registered as the servlet.
    */
@@ -320,9 +439,11 @@ extends BaseServletComponent
     public static final int FORMAT_DATA = 0;
     public static final int FORMAT_XML = 1;
     public static final int FORMAT_HTML = 2;
+    public static final int FORMAT_BINARY = 3;
 
     private int format;
     private boolean showTables;
+    private boolean gather;
 
     private HttpServletRequest request;
     private HttpServletResponse response;
@@ -369,6 +490,8 @@ extends BaseServletComponent
         format = FORMAT_XML;
       } else if ("html".equals(formatParam)) {
         format = FORMAT_HTML;
+      } else if ("binary".equals(formatParam)) {
+        format = FORMAT_BINARY;
       } else {
         format = FORMAT_HTML; // other
       }
@@ -382,6 +505,8 @@ extends BaseServletComponent
         showTables = false; // other
       }
 
+      gather = "true".equals(request.getParameter("gather"));
+
       String viewType = request.getParameter("viewType");
       if (viewType == null) {
         viewDefault(); // default
@@ -497,6 +622,11 @@ extends BaseServletComponent
           getEncodedAgentName()+getPath()+
           "?viewType=viewAllAgents"+
           "\" target=\"_top\">Show all agents.</a>");
+      out.println(
+          "<a href=\"/$"+
+          getEncodedAgentName()+getPath()+
+          "?viewType=viewAllAgents&gather=true"+
+          "\" target=\"_top\"> Show all agents in one table.</a>");
       out.println(
           "<a href=\"/$"+
           getEncodedAgentName()+getPath()+
@@ -527,6 +657,12 @@ extends BaseServletComponent
             ObjectOutputStream oos = new ObjectOutputStream(out);
             oos.writeObject(result);
             oos.flush();
+          } else if (format == FORMAT_BINARY) {
+            // compact binary
+            OutputStream out = response.getOutputStream();
+            BinaryWriter bw = new BinaryWriter(out);
+            bw.writeObject(result);
+            bw.flush();
           } else {
             // xml
             response.setContentType("text/plain");
@@ -654,9 +790,12 @@ extends BaseServletComponent
       out.println("<input type=\"hidden\" name=\"viewType\" value=\"viewSelectedAgents\">");
       for (int i = 0, n = selectedAgents.size(); i < n; i++) {
         String agentName = (String) selectedAgents.get(i);
-        out.println("<input type=\"hidden\" name=\"selectedAgents\" value=\"" + agentName + "\">");
+        out.println("<input type=\"hidden\" name=\"selectedAgents\" value=\"" + encodeHTML(agentName, false) + "\">");
       }
       out.println("<input type=\"hidden\" name=\"currentPage\" value=\"" + thisPage + "\">");
+      if (gather) {
+        out.println("<input type=\"hidden\" name=\"gather\" value=\"true\">");
+      }
       out.println("</form>");
     }
 
@@ -670,6 +809,10 @@ extends BaseServletComponent
     }
 
     private void viewSelectedAgents(List agents, String titleModifier) throws IOException {
+      if (gather) {
+        viewGatheredAgents(agents, titleModifier);
+        return;
+      }
       response.setContentType("text/html");
       if (refreshInterval > 0) {
         response.setHeader("Refresh", String.valueOf(refreshInterval));
@@ -792,6 +935,156 @@ extends BaseServletComponent
       out.println("<html>");
     }
 
+    /**
+     * Output a single table with the completion of the given agents,
+     * fetched by this servlet instead of by the browser.
+     * <p>
+     * The agents are fetched in parallel by a CompletionGatherer, and
+     * each row is written as soon as it and the rows above it are
+     * ready, followed by a society total.
+     */
+    private void viewGatheredAgents(List agents, String titleModifier) throws IOException {
+      response.setContentType("text/html");
+      if (refreshInterval > 0) {
+        response.setHeader("Refresh", String.valueOf(refreshInterval));
+      }
+      out = response.getWriter();
+      format = FORMAT_HTML;     // Force html format
+      showTables = false;       // only counts are needed
+      String title = getTitlePrefix() + "Completion of " + titleModifier + " Agents";
+      out.println(
+          "<html>\n" +
+          "<head>\n" +
+          "<title>" + title + "</title>\n" +
+          "</head>\n"+
+          "<body>\n"+
+          "<h2><center>" + title + "</h2></center>");
+      printThresholdAndRefreshForm(out, agents, null, null);
+      out.println(
+          "<table border=1 cellpadding=2 cellspacing=0>\n"+
+          "<tr><th>Agent</th><th>Ratio</th><th>Tasks</th>"+
+          "<th>Planned</th><th>Successful</th><th>Completed</th>"+
+          "<th>Root Proj Supply</th><th>Root Supply</th>"+
+          "<th>Root Transport</th></tr>");
+      out.flush();
+      CompletionGatherer gatherer =
+        new CompletionGatherer(
+            agents, createAgentFetcher(),
+            GATHER_THREADS, GATHER_TIMEOUT_MILLIS);
+      int nAgents = 0;
+      int nFailedAgents = 0;
+      double weightedRatio = 0.0;
+      int[] totals = new int[7];
+      try {
+        for (int i = 0, n = gatherer.size(); i < n; i++) {
+          String agentName = gatherer.getAgentName(i);
+          Object o = gatherer.waitFor(i);
+          if (!(o instanceof CompletionData)) {
+            nFailedAgents++;
+            String message =
+              ((o instanceof Exception) ? ((Exception) o).getMessage() : null);
+            if (message == null) {
+              message = ((o instanceof Exception) ? o.toString() : "No data");
+            }
+            out.println(
+                "<tr><td>"+encodeHTML(agentName, false)+"</td>"+
+                "<td colspan=8><font color=red>"+
+                encodeHTML(message, false)+
+                "</font></td></tr>");
+            out.flush();
+            continue;
+          }
+          CompletionData result = (CompletionData) o;
+          int[] counts = getCounts(result);
+          nAgents++;
+          weightedRatio += result.getRatio() * counts[0];
+          for (int j = 0; j < counts.length; j++) {
+            totals[j] += counts[j];
+          }
+          printGatheredRow(
+              "<a href=\"/$"+formURLEncode(agentName)+getPath()+
+              "\" target=\"_top\">"+encodeHTML(agentName, false)+"</a>",
+              result.getRatio(), counts);
+          out.flush();
+        }
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        out.println("</table>\nInterrupted</body>\n</html>");
+        out.flush();
+        return;
+      } finally {
+        // don't leave fetches running for rows we won't print
+        gatherer.cancel();
+      }
+      double ratio = ((totals[0] > 0) ? (weightedRatio / totals[0]) : 1.0);
+      printGatheredRow(
+          "<b>Total ("+nAgents+" agents"+
+          ((nFailedAgents > 0) ? (", "+nFailedAgents+" failed") : "")+
+          ")</b>",
+          ratio, totals);
+      out.println("</table>\n</body>\n</html>");
+      out.flush();
+    }
+
+    /**
+     * @return the tasks, planned, successful, completed, root project
+     *   supply, root supply and root transport counts
+     */
+    private int[] getCounts(CompletionData result) {
+      int nTasks = result.getNumberOfTasks();
+      int nPlannedTasks = nTasks - result.getNumberOfUnplannedTasks();
+      int nEstimatedTasks = nPlannedTasks - result.getNumberOfUnestimatedTasks();
+      int nSuccessfulTasks = nEstimatedTasks - result.getNumberOfFailedTasks();
+      int nFullConfidenceTasks = nSuccessfulTasks - result.getNumberOfUnconfidentTasks();
+      return new int[] {
+        nTasks,
+        nPlannedTasks,
+        nSuccessfulTasks,
+        nFullConfidenceTasks,
+        result.getNumberOfRootProjectSupplyTasks(),
+        result.getNumberOfRootSupplyTasks(),
+        result.getNumberOfRootTransportTasks(),
+      };
+    }
+
+    private void printGatheredRow(String label, double ratio, int[] counts) {
+      String bgcolor;
+      if (ratio < redThreshold) {
+        bgcolor = "#aa0000";
+      } else if (ratio < yellowThreshold) {
+        bgcolor = "#ffff00";
+      } else {
+        bgcolor = "#d0ffd0";
+      }
+      out.print("<tr><td>"+label+"</td>");
+      out.print("<td bgcolor=\"" + bgcolor + "\">" + formatPercent(ratio) + "</td>");
+      for (int j = 0; j < counts.length; j++) {
+        out.print("<td align=right>" + counts[j] + "</td>");
+      }
+      out.println("</tr>");
+    }
+
+    /**
+     * Create the fetcher for the gathered views.  The local agent is
+     * computed in-process, other agents are fetched over HTTP.
+     */
+    protected CompletionGatherer.AgentFetcher createAgentFetcher() {
+      final CompletionGatherer.AgentFetcher http =
+        new HttpAgentFetcher(
+            request.getScheme()+"://"+
+            request.getServerName()+":"+
+            request.getServerPort());
+      final String localName = localAgent.getAddress();
+      return new CompletionGatherer.AgentFetcher() {
+        public CompletionData fetch(String agentName) throws Exception {
+          if (agentName.equals(localName)) {
+            return getCompletionData();
+          }
+          return http.fetch(agentName);
+        }
+      };
+    }
+
     private List getSelectedAgents() {
       String[] selectedAgents = request.getParameterValues("selectedAgents");
       if (selectedAgents != null) {
@@ -816,6 +1109,11 @@ extends BaseServletComponent
         viewSelectedAgents(new ArrayList(selectedAgents), "Selected");
         return;
       }
+      if ("Show in one table".equals(submit)) {
+        gather = true;
+        viewSelectedAgents(new ArrayList(selectedAgents), "Selected");
+        return;
+      }
       if ("Select All".equals(submit)) {
         selectAll = true;
       } else if ("Select None".equals(submit)) {
@@ -840,6 +1138,7 @@ extends BaseServletComponent
       out.println("<input type=\"submit\" name=\"submit\" value=\"Select All\">");
       out.println("<input type=\"submit\" name=\"submit\" value=\"Select None\">");
       out.println("<input type=\"submit\" name=\"submit\" value=\"Show\">");
+      out.println("<input type=\"submit\" name=\"submit\" value=\"Show in one table\">");
       out.println("<input type=\"hidden\" name=\"viewType\" value=\"viewManyAgents\">");
       out.println("<table><tr>");
       int nagents = l.size();
@@ -1010,45 +1309,30 @@ extends BaseServletComponent
       long nowTime = System.currentTimeMillis();
       double ratio = getRatio(tasks);
       int nTasks = tasks.size();
-      int nRootProjectSupplyTasks = filterTasks(tasks, projectSupplyRootTaskPred).size();
-      int nRootSupplyTasks = filterTasks(tasks, supplyRootTaskPred).size();
-      int nRootTransportTasks = filterTasks(tasks, transportRootTaskPred).size();
-
-      Iterator taskIter = tasks.iterator();
+      TaskStats stats = collectStats(tasks, showTables);
       if (showTables) {
         // create and initialize our result
         FullCompletionData result = new FullCompletionData();
         result.setNumberOfTasks(nTasks);
         result.setRatio(ratio);
         result.setTimeMillis(nowTime);
-        result.setNumberOfRootProjectSupplyTasks(nRootProjectSupplyTasks);
-        result.setNumberOfRootSupplyTasks(nRootSupplyTasks);
-        result.setNumberOfRootTransportTasks(nRootTransportTasks);
-
-        // examine tasks
-        for (int i = 0; i < nTasks; i++) {
-          Task ti = (Task)taskIter.next();
-          PlanElement pe = ti.getPlanElement();
-          if (pe != null) {
-            AllocationResult peEstResult = pe.getEstimatedResult();
-            if (peEstResult != null) {
-              double estConf = peEstResult.getConfidenceRating();
-              if (peEstResult.isSuccess()) {
-                if (cc.isConfident(estConf)) {
-                  // Confident
-                } else {
-                  result.addUnconfidentTask(
-                      makeUnconfidentTask(estConf, ti));
-                }
-              } else {
-                result.addFailedTask(makeFailedTask(estConf, ti));
-              }
-            } else {
-              result.addUnestimatedTask(makeUnestimatedTask(ti));
-            }
-          } else {
-            result.addUnplannedTask(makeUnplannedTask(ti));
-          }
+        result.setNumberOfRootProjectSupplyTasks(
+            stats.nRootProjectSupplyTasks);
+        result.setNumberOfRootSupplyTasks(stats.nRootSupplyTasks);
+        result.setNumberOfRootTransportTasks(stats.nRootTransportTasks);
+        for (int i = 0, n = stats.unplanned.size(); i < n; i++) {
+          result.addUnplannedTask((UnplannedTask) stats.unplanned.get(i));
+        }
+        for (int i = 0, n = stats.unestimated.size(); i < n; i++) {
+          result.addUnestimatedTask(
+              (UnestimatedTask) stats.unestimated.get(i));
+        }
+        for (int i = 0, n = stats.failed.size(); i < n; i++) {
+          result.addFailedTask((FailedTask) stats.failed.get(i));
+        }
+        for (int i = 0, n = stats.unconfident.size(); i < n; i++) {
+          result.addUnconfidentTask(
+              (UnconfidentTask) stats.unconfident.get(i));
         }
         return result;
       } else {
@@ -1057,42 +1341,207 @@ extends BaseServletComponent
         result.setNumberOfTasks(nTasks);
         result.setRatio(ratio);
         result.setTimeMillis(nowTime);
-        result.setNumberOfRootProjectSupplyTasks(nRootProjectSupplyTasks);
-        result.setNumberOfRootSupplyTasks(nRootSupplyTasks);
-        result.setNumberOfRootTransportTasks(nRootTransportTasks);
-        // examine tasks
-        int nUnplannedTasks = 0;
-        int nUnestimatedTasks = 0;
-        int nFailedTasks = 0;
-        int nUnconfidentTasks = 0;
-        for (int i = 0; i < nTasks; i++) {
-          Task ti = (Task)taskIter.next();
-          PlanElement pe = ti.getPlanElement();
-          if (pe != null) {
-            AllocationResult peEstResult = pe.getEstimatedResult();
-            if (peEstResult != null) {
-              double estConf = peEstResult.getConfidenceRating();
-              if (peEstResult.isSuccess()) {
-                if (cc.isConfident(estConf)) {
-                  // 100% success
-                } else {
-                  nUnconfidentTasks++;
+        result.setNumberOfRootProjectSupplyTasks(
+            stats.nRootProjectSupplyTasks);
+        result.setNumberOfRootSupplyTasks(stats.nRootSupplyTasks);
+        result.setNumberOfRootTransportTasks(stats.nRootTransportTasks);
+        result.setNumberOfUnplannedTasks(stats.nUnplannedTasks);
+        result.setNumberOfUnestimatedTasks(stats.nUnestimatedTasks);
+        result.setNumberOfFailedTasks(stats.nFailedTasks);
+        result.setNumberOfUnconfidentTasks(stats.nUnconfidentTasks);
+        return result;
+      }
+    }
+
+    /**
+     * Examine the tasks in a single pass.
+     * <p>
+     * If STATS_THREADS is greater than one and there are enough tasks
+     * then the tasks are split into contiguous ranges, one per thread,
+     * and the partial results are merged in order.  The ranges are
+     * examined by this thread and the shared STATS_POOL.
+     *
+     * @param keepLists true if the unplanned/unestimated/failed/
+     *   unconfident tasks should be listed, otherwise only counted
+     */
+    protected TaskStats collectStats(Collection tasks, boolean keepLists) {
+      int nTasks = tasks.size();
+      int nThreads = Math.min(STATS_THREADS, nTasks / MIN_TASKS_PER_THREAD);
+      if (nThreads <= 1) {
+        TaskStats stats = new TaskStats(keepLists);
+        for (Iterator iter = tasks.iterator(); iter.hasNext(); ) {
+          stats.add((Task) iter.next());
+        }
+        return stats;
+      }
+      final Object[] a = tasks.toArray();
+      final TaskStats[] parts = new TaskStats[nThreads];
+      Runnable[] ranges = new Runnable[nThreads - 1];
+      // number of pooled ranges that haven't finished, also the lock
+      final int[] pending = new int[] { ranges.length };
+      for (int t = 0; t < nThreads; t++) {
+        final int begin = (int) (((long) a.length * t) / nThreads);
+        final int end = (int) (((long) a.length * (t + 1)) / nThreads);
+        final TaskStats part = new TaskStats(keepLists);
+        parts[t] = part;
+        Runnable r = new Runnable() {
+          public void run() {
+            try {
+              for (int i = begin; i < end; i++) {
+                part.add((Task) a[i]);
+              }
+            } catch (RuntimeException e) {
+              part.error = e;
+            }
+          }
+        };
+        if (t < (nThreads - 1)) {
+          final Runnable range = r;
+          ranges[t] = new Runnable() {
+            public void run() {
+              try {
+                range.run();
+              } finally {
+                synchronized (pending) {
+                  pending[0]--;
+                  pending.notifyAll();
                 }
+              }
+            }
+          };
+          STATS_POOL.execute(ranges[t]);
+        } else {
+          // examine the last range in this thread
+          r.run();
+        }
+      }
+      // examine the ranges that the pool hasn't started, rather than
+      // wait for other requests to free its threads
+      for (int t = 0; t < ranges.length; t++) {
+        if (STATS_POOL.cancel(ranges[t])) {
+          ranges[t].run();
+        }
+      }
+      boolean interrupted = false;
+      synchronized (pending) {
+        while (pending[0] > 0) {
+          try {
+            pending.wait();
+          } catch (InterruptedException ie) {
+            // keep waiting, the results aren't complete
+            interrupted = true;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      TaskStats stats = parts[0];
+      for (int t = 1; t < nThreads; t++) {
+        stats.merge(parts[t]);
+      }
+      if (stats.error != null) {
+        throw stats.error;
+      }
+      return stats;
+    }
+
+    /**
+     * Counts (and optionally lists) of the tasks examined by
+     * <code>collectStats</code>.
+     */
+    protected class TaskStats {
+      public int nRootProjectSupplyTasks;
+      public int nRootSupplyTasks;
+      public int nRootTransportTasks;
+      public int nUnplannedTasks;
+      public int nUnestimatedTasks;
+      public int nFailedTasks;
+      public int nUnconfidentTasks;
+      /** Lists of AbstractTasks, null unless "keepLists" */
+      public final List unplanned;
+      public final List unestimated;
+      public final List failed;
+      public final List unconfident;
+      private final CompletionCalculator cc = getCalculator();
+      private RuntimeException error;
+
+      public TaskStats(boolean keepLists) {
+        if (keepLists) {
+          unplanned = new ArrayList();
+          unestimated = new ArrayList();
+          failed = new ArrayList();
+          unconfident = new ArrayList();
+        } else {
+          unplanned = null;
+          unestimated = null;
+          failed = null;
+          unconfident = null;
+        }
+      }
+
+      public void add(Task ti) {
+        if (projectSupplyRootTaskPred.execute(ti)) {
+          nRootProjectSupplyTasks++;
+        }
+        if (supplyRootTaskPred.execute(ti)) {
+          nRootSupplyTasks++;
+        }
+        if (transportRootTaskPred.execute(ti)) {
+          nRootTransportTasks++;
+        }
+        PlanElement pe = ti.getPlanElement();
+        if (pe != null) {
+          AllocationResult peEstResult = pe.getEstimatedResult();
+          if (peEstResult != null) {
+            double estConf = peEstResult.getConfidenceRating();
+            if (peEstResult.isSuccess()) {
+              if (cc.isConfident(estConf)) {
+                // 100% success
               } else {
-                nFailedTasks++;
+                nUnconfidentTasks++;
+                if (unconfident != null) {
+                  unconfident.add(makeUnconfidentTask(estConf, ti));
+                }
               }
             } else {
-              nUnestimatedTasks++;
+              nFailedTasks++;
+              if (failed != null) {
+                failed.add(makeFailedTask(estConf, ti));
+              }
             }
           } else {
-            nUnplannedTasks++;
+            nUnestimatedTasks++;
+            if (unestimated != null) {
+              unestimated.add(makeUnestimatedTask(ti));
+            }
+          }
+        } else {
+          nUnplannedTasks++;
+          if (unplanned != null) {
+            unplanned.add(makeUnplannedTask(ti));
           }
         }
-        result.setNumberOfUnplannedTasks(nUnplannedTasks);
-        result.setNumberOfUnestimatedTasks(nUnestimatedTasks);
-        result.setNumberOfFailedTasks(nFailedTasks);
-        result.setNumberOfUnconfidentTasks(nUnconfidentTasks);
-        return result;
+      }
+
+      /** Append the results of the tasks that follow ours. */
+      public void merge(TaskStats s) {
+        nRootProjectSupplyTasks += s.nRootProjectSupplyTasks;
+        nRootSupplyTasks += s.nRootSupplyTasks;
+        nRootTransportTasks += s.nRootTransportTasks;
+        nUnplannedTasks += s.nUnplannedTasks;
+        nUnestimatedTasks += s.nUnestimatedTasks;
+        nFailedTasks += s.nFailedTasks;
+        nUnconfidentTasks += s.nUnconfidentTasks;
+        if (unplanned != null) {
+          unplanned.addAll(s.unplanned);
+          unestimated.addAll(s.unestimated);
+          failed.addAll(s.failed);
+          unconfident.addAll(s.unconfident);
+        }
+        if (error == null) {
+          error = s.error;
+        }
       }
     }
 
@@ -61,6 +61,7 @@ import org.cougaar.core.service.BlackboardQueryService;
 import org.cougaar.core.util.UID;
 import org.cougaar.core.util.UniqueObject;
 import org.cougaar.planning.ldm.LogPlan;
+import org.cougaar.planning.ldm.LogPlanIndex;
 import org.cougaar.planning.ldm.asset.AggregateAsset;
 import org.cougaar.planning.ldm.asset.Asset;
 import org.cougaar.planning.ldm.asset.AssetGroup;
@@ -384,6 +385,16 @@ extends ComponentServlet
         public void incPlanElementCount(int inc) { die(); }
         public void incTaskCount(int inc) { die(); }
         public void incWorkflowCount(int inc) { die(); }
+        public Collection findTasks(Verb verb) { die(); return null; }
+        public Collection findTasksByParentUID(UID uid) { die(); return null; }
+        public Collection findTasksByDirectObject(Asset asset) { die(); return null; }
+        public Collection findTasksBySource(MessageAddress source) { die(); return null; }
+        public Collection findPlanElementsByAsset(Asset asset) { die(); return null; }
+        public Collection findAllocationsToAgent(MessageAddress agent) { die(); return null; }
+        public Collection findAssetTransfersToAgent(MessageAddress agent) { die(); return null; }
+        public Collection findAssetsOfAgent(MessageAddress agent) { die(); return null; }
+        public boolean addIndex(String name, UnaryPredicate pred, LogPlanIndex index) { die(); return false; }
+        public LogPlanIndex getIndex(String name) { die(); return null; }
       };
       return logplan;
     }
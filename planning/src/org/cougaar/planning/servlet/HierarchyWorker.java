@@ -26,21 +26,25 @@
  
 package org.cougaar.planning.servlet;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StreamCorruptedException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 
@@ -95,7 +99,21 @@ import org.cougaar.util.UnaryPredicate;
  *   ....
  * </Hierarchy>
  *
- * NOTE : If any agent hangs, the whole request will hang...
+ * When recursing, this agent fetches the whole hierarchy itself, a
+ * level at a time, with each org fetched once.  Subordinates are
+ * fetched in parallel, at most 
+ * org.cougaar.planning.servlet.HierarchyWorker.threads (default 8)
+ * at a time.
+ *
+ * Each subordinate is given
+ * org.cougaar.planning.servlet.HierarchyWorker.timeout milliseconds
+ * (default 60000, 0 to wait forever) to answer.  Subordinates that
+ * answer with nothing are fetched again after waits of 2, 4, 8 and
+ * 16 seconds.
+ *
+ * Subordinates' responses may be cached for
+ * org.cougaar.planning.servlet.HierarchyWorker.cacheTTL milliseconds
+ * (default 0, no caching).
  * </pre>
  */
 public class HierarchyWorker
@@ -113,6 +131,30 @@ public class HierarchyWorker
 
   public static final String CONVERSE_OF_PREFIX = "ConverseOf";
 
+  /** maximum number of subordinates fetched at once, per request */
+  public static final int FETCH_THREADS =
+    Integer.getInteger("org.cougaar.planning.servlet.HierarchyWorker.threads", 8).intValue();
+  /** milliseconds to wait for each subordinate, or 0 to wait forever */
+  public static final long FETCH_TIMEOUT_MILLIS =
+    Long.getLong("org.cougaar.planning.servlet.HierarchyWorker.timeout", 60000).longValue();
+  /** milliseconds to wait before each retry of the subordinates that returned null */
+  protected static final long[] RETRY_WAIT_MILLIS = { 2000, 4000, 8000, 16000 };
+  /** milliseconds to cache subordinates' responses, or 0 for no cache */
+  public static final long CACHE_TTL_MILLIS =
+    Long.getLong("org.cougaar.planning.servlet.HierarchyWorker.cacheTTL", 0).longValue();
+  protected static final int MAX_CACHE_ENTRIES = 256;
+
+  /**
+   * URL -> CachedResponse, shared by all requests, in least recently
+   * used order
+   */
+  private static final Map responseCache =
+    new LinkedHashMap(16, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry eldest) {
+        return size() > MAX_CACHE_ENTRIES;
+      }
+    };
+
   protected boolean recurse;
   protected boolean allRelationships;
   protected Set visitedOrgs = new HashSet ();
@@ -174,7 +216,7 @@ public class HierarchyWorker
    * sets both recurse and format 
    *
    * recurse is either true or false
-   * format  is either data, xml, or html
+   * format  is either data, xml, html, or binary
    *
    * see class description for what these values mean
    * </pre>
@@ -364,52 +406,172 @@ public class HierarchyWorker
     return hd;
   }
 
+  /**
+   * Fetch the subordinates' hierarchies breadth-first, a level at a
+   * time, and add their orgs to hd.
+   * <p>
+   * Each subordinate is asked for its own org only, and its
+   * subordinates are fetched by this agent in the next level, so that
+   * a single visited set covers the whole request and an org that is
+   * shared by several subtrees is fetched once.  At most FETCH_THREADS
+   * fetches run at a time, however deep the hierarchy.
+   * <p>
+   * Subordinates that return null are fetched again after each of
+   * the RETRY_WAIT_MILLIS, before moving on to the next level.  The
+   * waits are in this thread, so they don't hold up other fetches.
+   */
   protected void recurseOnSubords (Set recurseSubOrgSet,
-				   HttpServletRequest request,
-				   SimpleServletSupport support,
-				   boolean allRelationships, 
+				   final HttpServletRequest request,
+				   final SimpleServletSupport support,
+				   final boolean allRelationships, 
 				   Set visitedOrgs,
 				   HierarchyData hd) {
-    for (Iterator iter = recurseSubOrgSet.iterator(); 
-	 iter.hasNext();
-	 ) {
-      String subOrgName = (String)iter.next();
-      // fetch the sub's data
-
-      HierarchyData subHD = null;
-      int tries = 5;
-      long [] timeToWait = new long [] { 32000, 16000, 8000, 4000, 2000 };
-      while (subHD == null && tries-- > 0) {
-	subHD = fetchForSubordinate(request, support, subOrgName, allRelationships, visitedOrgs);
-	if (subHD == null) {
-	  if (VERBOSE && tries > 1) {
-	    System.out.println("At " + new Date() + 
-			       " In "+ support.getAgentIdentifier()+
-			       ", fetch hierarchy from "+subOrgName+
-			       " returned null, retry in " + 
-			       timeToWait[tries] + " millis.");
-	  }
+    AgentGatherer.Fetcher fetcher = 
+      new AgentGatherer.Fetcher() {
+        public Object fetch(String subOrgName) throws Exception {
+          return fetchForSubordinate(request, support, subOrgName, allRelationships);
+        }
+      };
 
-	  synchronized(this) { 
-	    try { wait(timeToWait[tries]); } catch (Exception e) {
-	      System.out.println ("got exception " + e);
-	    } 
-	  }
-	}
+    // visitedOrgs is only read and updated by this thread
+    List subOrgNames = new ArrayList(recurseSubOrgSet);
+    try {
+      while (!subOrgNames.isEmpty()) {
+        List nextSubOrgNames = new ArrayList();
+        List fetchNames = subOrgNames;
+        for (int retry = 0; !fetchNames.isEmpty(); retry++) {
+          if (retry > 0) {
+            if (VERBOSE) {
+              System.out.println("At " + new Date() + 
+                                 " In "+ support.getAgentIdentifier()+
+                                 ", fetch hierarchy from "+fetchNames+
+                                 " returned null, retry in " + 
+                                 RETRY_WAIT_MILLIS[retry - 1] + " millis.");
+            }
+            Thread.sleep(RETRY_WAIT_MILLIS[retry - 1]);
+          }
+          fetchNames = 
+            gatherSubords(fetchNames, fetcher, support,
+                          (retry < RETRY_WAIT_MILLIS.length),
+                          visitedOrgs, hd, nextSubOrgNames);
+        }
+        subOrgNames = nextSubOrgNames;
       }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+  }
 
-      if (VERBOSE && (subHD == null)) {
-	System.out.println("In "+ support.getAgentIdentifier()+
-			   ", fetch hierarchy from "+subOrgName+
-			   " returned null.");
+  /**
+   * Fetch the named subordinates in parallel, add their orgs to hd,
+   * and queue their unvisited subordinates in nextSubOrgNames.
+   * @return the names of the subordinates that returned null, if
+   *   they may be retried, else an empty list
+   */
+  protected List gatherSubords(List subOrgNames,
+                               AgentGatherer.Fetcher fetcher,
+                               SimpleServletSupport support,
+                               boolean mayRetry,
+                               Set visitedOrgs,
+                               HierarchyData hd,
+                               List nextSubOrgNames) throws InterruptedException {
+    AgentGatherer gatherer = 
+      new AgentGatherer(
+        subOrgNames, fetcher, FETCH_THREADS, FETCH_TIMEOUT_MILLIS);
+    List retryNames = new ArrayList();
+
+    try {
+      for (int j = 0, n = gatherer.size(); j < n; j++) {
+        String subOrgName = gatherer.getAgentName(j);
+        Object result = gatherer.waitFor(j);
+
+        HierarchyData subHD = null;
+        if (result instanceof HierarchyData) {
+          subHD = (HierarchyData) result;
+        } else if (result instanceof Exception) {
+          System.err.println ("In "+support.getAgentIdentifier()+
+                              ", fetch hierarchy from "+subOrgName+
+                              " failed : " + ((Exception) result).getMessage());
+        } else if (mayRetry) {
+          retryNames.add(subOrgName);
+          continue;
+        }
+
+        if (VERBOSE && (subHD == null)) {
+          System.out.println("In "+ support.getAgentIdentifier()+
+                             ", fetch hierarchy from "+subOrgName+
+                             " returned null.");
+        }
+
+        // take Orgs from sub's hierarchy data, and queue their subordinates
+        int nSubHD = ((subHD != null) ? subHD.numOrgs() : 0);
+        for (int i = 0; i < nSubHD; i++) {
+          Organization subOrg = subHD.getOrgDataAt(i);
+          hd.addOrgData(subOrg);
+          addSubordinates(subOrg, visitedOrgs, nextSubOrgNames);
+        }
       }
+    } finally {
+      gatherer.cancel();
+    }
+    return retryNames;
+  }
+
+  /**
+   * Add the fetched org's subordinates that haven't been visited to
+   * subOrgNames, and mark them visited.  The same rules apply as to
+   * the self org in <code>getHierarchyData</code>.
+   */
+  protected void addSubordinates(Organization org, 
+				 Set visitedOrgs,
+				 List subOrgNames) {
+    String orgName = org.getUID();
+    for (int i = 0, n = org.getNumRelations(); i < n; i++) {
+      Organization.OrgRelation relation = org.getOrgRelationAt(i);
+      String subOrgName = relation.getRelatedOrg();
+      if ((orgName != null && orgName.equals(subOrgName)) || // don't recurse on yourself
+	  (relation.hasName() && 
+	   !validRole(relation.getName())) ||                 // only on customers, subordinates, etc.
+	  !visitedOrgs.add(subOrgName)) {                     // only ones we haven't visited before
+	continue;
+      }
+      subOrgNames.add(subOrgName);
+    }
+  }
+
+  /** 
+   * fetchForSubordinate, retrying with longer and longer waits if
+   * it returns null.
+   * @deprecated recurseOnSubords now retries without sleeping in a
+   *   fetch thread, and no longer calls this
+   */
+  protected HierarchyData fetchWithRetries(HttpServletRequest request, 
+					   SimpleServletSupport support,
+					   String subOrgName,
+					   boolean allRelationships) {
+    HierarchyData subHD = null;
+    int tries = 5;
+    long [] timeToWait = new long [] { 32000, 16000, 8000, 4000, 2000 };
+    while (subHD == null && tries-- > 0) {
+      subHD = fetchForSubordinate(request, support, subOrgName, allRelationships);
+      if (subHD == null) {
+	if (VERBOSE && tries > 1) {
+	  System.out.println("At " + new Date() + 
+			     " In "+ support.getAgentIdentifier()+
+			     ", fetch hierarchy from "+subOrgName+
+			     " returned null, retry in " + 
+			     timeToWait[tries] + " millis.");
+	}
 
-      // take Orgs from sub's hierarchy data
-      int nSubHD = ((subHD != null) ? subHD.numOrgs() : 0);
-      for (int i = 0; i < nSubHD; i++) {
-	hd.addOrgData(subHD.getOrgDataAt(i));
+	try { 
+	  Thread.sleep(timeToWait[tries]); 
+	} catch (InterruptedException e) {
+	  System.out.println ("got exception " + e);
+	  break;
+	} 
       }
     }
+    return subHD;
   }
 
   /** 
@@ -429,17 +591,18 @@ public class HierarchyWorker
   }
 
   /** 
-   * recursion happens here -- for each subOrgName subordinate, a new 
-   * servlet in the target agent will be executed
+   * for each subOrgName subordinate, a new servlet in the target agent
+   * will be executed, which returns just that subordinate's org.
+   * <p>
+   * The org is fetched in the binary format unless BINARY_FETCH is
+   * false, and in the data format if the subordinate doesn't serve
+   * the binary format.
    */
   protected HierarchyData fetchForSubordinate(HttpServletRequest request, 
 					      SimpleServletSupport support,
 					      String subOrgName,
-					      boolean allRelationships,
-					      Set visitedOrgs) {
+					      boolean allRelationships) {
     HierarchyData hd = null;
-    InputStream is = null;
-    ObjectInputStream ois = null;
 
     try {
       // build URL for remote connection
@@ -451,33 +614,30 @@ public class HierarchyWorker
       buf.append("/$");
       buf.append(subOrgName);
       buf.append(support.getPath());
-      buf.append("?data=true&recurse=true&visitedOrgs=");
-      for (Iterator iter=visitedOrgs.iterator();iter.hasNext();) {
-	buf.append (iter.next ());
-	if (iter.hasNext())
-	  buf.append (",");
-      }
+      // just the subordinate's own org, recurseOnSubords does the rest
+      buf.append("?recurse=false");
       if (allRelationships)
 	buf.append("&allRelationships=true");
 	
       String url = buf.toString();
 
-      if (VERBOSE) {
-        System.out.println(
-			   "At " + new Date () + 
-			   " - in "+ support.getAgentIdentifier()+
-			   ", fetch hierarchy from "+subOrgName+
-			   ", URL:\n"+url);
+      boolean fetched = false;
+      if (BINARY_FETCH) {
+	try {
+	  hd = fetchURL(support, subOrgName, url+"&format=binary");
+	  fetched = true;
+	} catch (StreamCorruptedException sce) {
+	  // e.g. an older agent that answers with html
+	  if (VERBOSE) {
+	    System.out.println ("In "+support.getAgentIdentifier()+
+				", "+subOrgName+" didn't answer in the binary format : "+
+				sce.getMessage());
+	  }
+	}
+      }
+      if (!fetched) {
+	hd = fetchURL(support, subOrgName, url+"&format=data");
       }
-
-      // open connection
-      URL myURL = new URL(url);
-      URLConnection myConnection = myURL.openConnection();
-      is = myConnection.getInputStream();
-      ois = new ObjectInputStream(is);
-
-      // read single HierarchyData Object from subordinate
-      hd = (HierarchyData)ois.readObject();
 
       if (VERBOSE) {
         System.out.println(
@@ -505,16 +665,110 @@ public class HierarchyWorker
       System.err.println ("In "+support.getAgentIdentifier()+
 			  ", got exception : ");
       e.printStackTrace();
+    }
+
+    return hd;
+  }
+
+  /**
+   * Read a single HierarchyData Object from the subordinate's URL, or
+   * from the cache.
+   */
+  protected HierarchyData fetchURL(SimpleServletSupport support,
+				   String subOrgName,
+				   String url) throws Exception {
+    if (VERBOSE) {
+      System.out.println(
+			 "At " + new Date () + 
+			 " - in "+ support.getAgentIdentifier()+
+			 ", fetch hierarchy from "+subOrgName+
+			 ", URL:\n"+url);
+    }
+
+    byte[] cached = getCachedResponse(url);
+    if (cached != null) {
+      return (HierarchyData) readData(new ByteArrayInputStream(cached));
+    }
+
+    InputStream is = null;
+    try {
+      // open connection
+      URL myURL = new URL(url);
+      URLConnection myConnection = myURL.openConnection();
+      AgentGatherer.closeOnAbort(myConnection);
+      is = myConnection.getInputStream();
+      if (CACHE_TTL_MILLIS > 0) {
+	byte[] response = readFully(is);
+	HierarchyData hd = 
+	  (HierarchyData) readData(new ByteArrayInputStream(response));
+	// only cache responses that could be read
+	cacheResponse(url, response);
+	return hd;
+      }
+      return (HierarchyData) readData(is);
     } finally {
       try {
-	if (ois != null)
-	  ois.close();
 	if (is != null)
 	  is.close();
       } catch (Exception e) {}
     }
+  }
 
-    return hd;
+  /** A subordinate's serialized response, and when it expires */
+  private static class CachedResponse {
+    final byte[] bytes;
+    final long expires;
+    CachedResponse(byte[] bytes, long expires) {
+      this.bytes = bytes;
+      this.expires = expires;
+    }
+  }
+
+  /**
+   * Cached responses are kept as bytes, so that each request gets its
+   * own copy of the HierarchyData.
+   * @return the cached response for the URL, or null
+   */
+  protected static byte[] getCachedResponse(String url) {
+    if (CACHE_TTL_MILLIS <= 0) {
+      return null;
+    }
+    synchronized (responseCache) {
+      CachedResponse cr = (CachedResponse) responseCache.get(url);
+      if (cr == null) {
+        return null;
+      }
+      if (cr.expires <= System.currentTimeMillis()) {
+        responseCache.remove(url);
+        return null;
+      }
+      return cr.bytes;
+    }
+  }
+
+  protected static void cacheResponse(String url, byte[] response) {
+    long now = System.currentTimeMillis();
+    synchronized (responseCache) {
+      if (responseCache.size() >= MAX_CACHE_ENTRIES) {
+        for (Iterator iter = responseCache.values().iterator(); iter.hasNext(); ) {
+          if (((CachedResponse) iter.next()).expires <= now) {
+            iter.remove();
+          }
+        }
+      }
+      // if none had expired, this drops the least recently used
+      responseCache.put(url, new CachedResponse(response, now + CACHE_TTL_MILLIS));
+    }
+  }
+
+  private static byte[] readFully(InputStream is) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    byte[] buf = new byte[4096];
+    int n;
+    while ((n = is.read(buf)) > 0) {
+      bos.write(buf, 0, n);
+    }
+    return bos.toByteArray();
   }
 
   /** 
@@ -47,7 +47,9 @@ import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.servlet.ServletException;
@@ -72,6 +74,9 @@ import org.cougaar.core.service.ServletService;
 import org.cougaar.core.servlet.ServletUtil;
 import org.cougaar.core.util.UID;
 import org.cougaar.core.util.UniqueObject;
+import org.cougaar.planning.ldm.LogPlan;
+import org.cougaar.planning.ldm.LogPlanIndex;
+import org.cougaar.planning.ldm.LogPlanTable;
 import org.cougaar.planning.ldm.asset.AggregateAsset;
 import org.cougaar.planning.ldm.asset.Asset;
 import org.cougaar.planning.ldm.asset.AssetGroup;
@@ -172,10 +177,19 @@ extends ComponentPlugin
   private static final boolean ENABLE_STACKS =
     Boolean.getBoolean("org.cougaar.core.blackboard.trackPublishers");
 
+  // maintain our own UID index and use the LogPlan's verb index, so
+  // that object lookups and "tasks with verb" don't query the entire
+  // blackboard.  This costs a subscription to every UniqueObject, so
+  // it's off by default.  The verb index is only available if
+  // org.cougaar.planning.ldm.LogPlan.queryIndexes is also set.
+  private static final boolean ENABLE_INDEX =
+    Boolean.getBoolean("org.cougaar.planning.servlet.PlanViewServlet.index");
+
   private BlackboardQueryService blackboardQueryService;
   private ServletService servletService;
   private String myPath;
   private PublisherSubscription sub;
+  private UIDIndex uidIndex;
 
   // *not* the one in core -- see below for our private adapter class.
   private SimpleServletSupport support;
@@ -229,6 +243,12 @@ extends ComponentPlugin
       sub = (PublisherSubscription) 
         getBlackboardService().subscribe(new PublisherSubscription(pred));
     }
+    if (ENABLE_INDEX) {
+      // the subscription fills and updates the index directly
+      uidIndex = new UIDIndex();
+      getBlackboardService().subscribe(
+          uidIndex.newSubscription(new UniqueObjectPredicate()));
+    }
   }
   protected void execute() {
     // ignore changes
@@ -240,6 +260,23 @@ extends ComponentPlugin
     }
   }
 
+  /**
+   * An index updated by our subscription inside our transactions and
+   * read by the servlet threads through the synchronized, copying
+   * LogPlanIndex.lookup.
+   */
+  private static final class UIDIndex extends LogPlanIndex {
+    protected Object getKey(Object o) {
+      return ((UniqueObject) o).getUID();
+    }
+  }
+
+  /** @return the LogPlan's verb index, or null if it is not kept */
+  private LogPlanIndex getVerbIndex() {
+    LogPlan logplan = LogPlanTable.getLogPlan(getAgentIdentifier());
+    return (logplan == null ? null : logplan.getIndex(LogPlan.TASKS_BY_VERB));
+  }
+
   // adapted from old "SimpleServletSupport":
   private class SimpleServletSupport {
     private final String encAgentName;
@@ -264,6 +301,30 @@ extends ComponentPlugin
       return blackboardQueryService.query(pred);
     }
 
+    /** @return true if findUniqueObject and findTasks can be used */
+    public boolean isIndexed() {
+      return (uidIndex != null);
+    }
+
+    /** @return true if findTasks will not return null */
+    public boolean isVerbIndexed() {
+      return (uidIndex != null && getVerbIndex() != null);
+    }
+
+    /** @return the UniqueObject with the UID, or null */
+    public UniqueObject findUniqueObject(UID uid) {
+      List l = uidIndex.lookup(uid);
+      return (l.isEmpty() ? null : (UniqueObject) l.get(0));
+    }
+
+    /** @return a new List of the tasks with the verb, or null if
+     * there is no verb index */
+    public List findTasks(Verb v) {
+      LogPlanIndex verbIndex = getVerbIndex();
+      return (verbIndex == null ? null : verbIndex.lookup(v));
+    }
+
+
     // note that our sub is thread-safe and can be used outside of a
     // blackboard transaction
     public PublisherInfo getInfo(UID uid) {
@@ -344,6 +405,10 @@ extends ComponentPlugin
     public static final String LIMIT = "limit";
     private boolean limit;
 
+    // first row of a limited page
+    public static final String OFFSET = "offset";
+    private int offset;
+
     // predicate
     public static final String PREDICATE = "pred";
     private String pred;
@@ -406,6 +471,13 @@ extends ComponentPlugin
               verbFilter = value;
             } else if (name.equalsIgnoreCase(LIMIT)) {
               limit = "true".equalsIgnoreCase(value);
+            } else if (name.equalsIgnoreCase(OFFSET)) {
+              try {
+                offset = Math.max(0, Integer.parseInt(value));
+              } catch (Exception eBadNumber) {
+                System.err.println("INVALID OFFSET: "+value);
+                offset = 0;
+              }
             } else if (name.equalsIgnoreCase(PREDICATE)) {
               pred = value;
             } else if (name.equalsIgnoreCase(PREDICATE_DEBUG)) {
@@ -698,7 +770,8 @@ extends ComponentPlugin
         col = findAllTasks();
       }
       int numTasks = col.size();
-      Iterator tasksIter = col.iterator();
+      Collection page = selectPage(col);
+      Iterator tasksIter = page.iterator();
       if (DEBUG) {
         System.out.println("Fetched Tasks");
       }
@@ -716,9 +789,7 @@ extends ComponentPlugin
           "<p>"+
           "<center>");
       if (limit && (numTasks > DEFAULT_LIMIT)) {
-        out.print("Showing first <b>");
-        out.print(DEFAULT_LIMIT);
-        out.print("</b> of ");
+        printShowing(page.size());
       }
       out.print("<b>");
       out.print(numTasks);
@@ -836,7 +907,8 @@ extends ComponentPlugin
         }
         // end table
         out.print("</table>\n");
-        if (limit && (rows == DEFAULT_LIMIT)) {
+        printLinksToPages(MODE_ALL_TASKS, rows, numTasks);
+        if (limit && (numTasks > DEFAULT_LIMIT)) {
           // link to unlimited view
           out.print(
               "<p>"+
@@ -881,13 +953,7 @@ extends ComponentPlugin
         System.out.println("\nDisplay Tasks Summary");
       }
       // find tasks
-      boolean oldSortByUID = sortByUID;
-      sortByUID = false;
-      boolean oldSortByEndTime = sortByEndTime;
-      sortByEndTime = false;
       Collection col = findAllTasks();
-      sortByUID = oldSortByUID;
-      sortByEndTime = oldSortByEndTime;
       int numTasks = col.size();
       Iterator tasksIter = col.iterator();
       if (DEBUG) {
@@ -1058,7 +1124,8 @@ extends ComponentPlugin
       }
       Collection col = findAllPlanElements();
       int numPlanElements = col.size();
-      Iterator peIter = col.iterator();
+      Collection page = selectPage(col);
+      Iterator peIter = page.iterator();
       if (DEBUG) {
         System.out.println("Fetched PlanElements");
       }
@@ -1075,9 +1142,7 @@ extends ComponentPlugin
           "<body bgcolor=\"#F0F0F0\">\n"+
           "<center>");
       if (limit && (numPlanElements > DEFAULT_LIMIT)) {
-        out.print("Showing first <b>");
-        out.print(DEFAULT_LIMIT);
-        out.print("</b> of ");
+        printShowing(page.size());
       }
       out.print("<b>");
       out.print(numPlanElements);
@@ -1152,7 +1217,8 @@ extends ComponentPlugin
         }
         // end table
         out.print("</table>\n");
-        if (limit && (rows == DEFAULT_LIMIT)) {
+        printLinksToPages(MODE_ALL_PLAN_ELEMENTS, rows, numPlanElements);
+        if (limit && (numPlanElements > DEFAULT_LIMIT)) {
           // link to unlimited view
           out.print(
               "<p>"+
@@ -1292,7 +1358,8 @@ extends ComponentPlugin
       }
       Collection col = findAllAssets();
       int numAssets = col.size();
-      Iterator assetIter = col.iterator();
+      Collection page = selectPage(col);
+      Iterator assetIter = page.iterator();
       if (DEBUG) {
         System.out.println("Fetched Assets");
       }
@@ -1309,9 +1376,7 @@ extends ComponentPlugin
           "<body bgcolor=\"#F0F0F0\">\n"+
           "<center>");
       if (limit && (numAssets > DEFAULT_LIMIT)) {
-        out.print("Showing first <b>");
-        out.print(DEFAULT_LIMIT);
-        out.print("</b> of ");
+        printShowing(page.size());
       }
       out.print("<b>");
       out.print(numAssets);
@@ -1369,7 +1434,8 @@ extends ComponentPlugin
         }
         // end table
         out.print("</table>\n");
-        if (limit && (rows == DEFAULT_LIMIT)) {
+        printLinksToPages(MODE_ALL_ASSETS, rows, numAssets);
+        if (limit && (numAssets > DEFAULT_LIMIT)) {
           // link to unlimited view
           out.print(
               "<p>"+
@@ -2025,10 +2091,16 @@ extends ComponentPlugin
         // this is useful in general, but clutters the screen...
         out.print("Parsed as:<pre>\n");
         out.print(parsedPred);
-        out.print("</pre><br><hr><br>\n");
+        out.print("</pre><br>\n");
+        if (support.isIndexed()) {
+          out.print("Search plan: ");
+          out.print(SearchPlan.create(inputPred));
+          out.print("<br>\n");
+        }
+        out.print("<hr><br>\n");
       }
 
-      Collection col = searchUsingPredicate(parsedPred);
+      Collection col = searchUsingPlan(inputPred, parsedPred);
       int numObjects = col.size();
       Iterator oIter = col.iterator();
       if (DEBUG) {
@@ -3461,6 +3533,87 @@ extends ComponentPlugin
     private static final byte _FLAG_VERBOSE = (1 << 2);
     private static final byte _FLAG_SORT    = (1 << 3);
 
+    /**
+     * Print the "Showing .. of" prefix for a limited page.
+     */
+    private void printShowing(int rows) {
+      if (offset == 0) {
+        out.print("Showing first <b>");
+        out.print(rows);
+      } else {
+        out.print("Showing <b>");
+        out.print(offset + 1);
+        out.print("</b> to <b>");
+        out.print(offset + rows);
+      }
+      out.print("</b> of ");
+    }
+
+    /**
+     * Print "previous" and "next" links for a limited page.
+     */
+    private void printLinksToPages(int pageMode, int rows, int numItems) {
+      if (!limit) {
+        return;
+      }
+      boolean hasPrev = (offset > 0);
+      boolean hasNext = (offset + rows < numItems);
+      if (!hasPrev && !hasNext) {
+        return;
+      }
+      out.print(
+          "<p>"+
+          "<center>");
+      if (hasPrev) {
+        printLinkToPage(
+            pageMode, Math.max(0, offset - DEFAULT_LIMIT), "Previous");
+      }
+      if (hasPrev && hasNext) {
+        out.print(" | ");
+      }
+      if (hasNext) {
+        printLinkToPage(pageMode, offset + rows, "Next");
+      }
+      out.print("</center>\n");
+    }
+
+    private void printLinkToPage(int pageMode, int pageOffset, String label) {
+      out.print("<a href=\"/$");
+      out.print(support.getEncodedAgentName());
+      out.print(support.getPath());
+      out.print(
+          "?"+
+          MODE+
+          "=");
+      out.print(pageMode);
+      out.print(
+          "&"+
+          LIMIT+
+          "=true"+
+          "&"+
+          OFFSET+
+          "=");
+      out.print(pageOffset);
+      if (verbFilter != null) {
+        out.print(
+            "&"+
+            VERB+
+            "=");
+        out.print(verbFilter);
+      }
+      if (sortByUID) {
+        out.print("&" + SORT_BY_UID + "=true");
+      }
+      if (sortByEndTime) {
+        out.print("&" + SORT_BY_END_TIME + "=true");
+      }
+      out.print("\" target=\"tablesFrame\">");
+      out.print(label);
+      out.print(" <b>");
+      out.print(DEFAULT_LIMIT);
+      out.print("</b></a>");
+    }
+
     /**
      * printLinkToAllTasks for the local agent.
      */
@@ -4307,14 +4460,66 @@ extends ComponentPlugin
     private Collection searchUsingPredicate(
         UnaryPredicate pred) 
     {
-      Collection col = support.queryBlackboard(pred);
-      if (col.size() > 1) {
-        Comparator comparator = null;
-        if (sortByEndTime) {
-          comparator = THE_ONLY_END_TIME_COMPARATOR;
-        } else if (sortByUID) {
-          comparator = THE_ONLY_UID_COMPARATOR;
+      return sortIfRequested(support.queryBlackboard(pred));
+    }
+
+    private Comparator getComparator() {
+      if (sortByEndTime) {
+        return THE_ONLY_END_TIME_COMPARATOR;
+      } else if (sortByUID) {
+        return THE_ONLY_UID_COMPARATOR;
+      }
+      return null;
+    }
+
+    /**
+     * Search with the parsed advanced-search predicate, using the
+     * UID or verb index if the predicate text allows it.
+     *
+     * @see SearchPlan
+     */
+    private Collection searchUsingPlan(
+        String text, UnaryPredicate parsedPred)
+    {
+      if (support.isIndexed()) {
+        SearchPlan plan = SearchPlan.create(text);
+        Collection candidates = null;
+        if (plan.getUID() != null) {
+          UID uid = null;
+          try {
+            uid = UID.toUID(plan.getUID());
+          } catch (RuntimeException e) {
+            // not a UID, let the predicate decide
+          }
+          if (uid != null) {
+            UniqueObject uo = support.findUniqueObject(uid);
+            candidates = 
+              ((uo != null) ?
+               Collections.singletonList(uo) :
+               Collections.EMPTY_LIST);
+          }
+        } else if (plan.getVerb() != null) {
+          candidates = support.findTasks(Verb.get(plan.getVerb()));
         }
+        // a tasks-only search without a verb is a full query, since
+        // the verb index can't hold tasks with a null verb
+        if (candidates != null) {
+          List l = new ArrayList();
+          for (Iterator iter = candidates.iterator(); iter.hasNext(); ) {
+            Object o = iter.next();
+            if (parsedPred.execute(o)) {
+              l.add(o);
+            }
+          }
+          return sortIfRequested(l);
+        }
+      }
+      return searchUsingPredicate(parsedPred);
+    }
+
+    private Collection sortIfRequested(Collection col) {
+      if (col.size() > 1) {
+        Comparator comparator = getComparator();
         if (comparator != null) {
           Object[] a = col.toArray();
           Arrays.sort(a, comparator);
@@ -4324,6 +4529,101 @@ extends ComponentPlugin
       return col;
     }
 
+    /**
+     * Select the rows to display, sorted if requested.
+     * <p>
+     * If "limit" is set then only the DEFAULT_LIMIT rows starting at
+     * "offset" are kept.  A sorted page is selected with a bounded
+     * heap of (offset + DEFAULT_LIMIT) elements, so we don't sort the
+     * entire blackboard to show the first few rows.  An offset past
+     * the end is clamped to the end.
+     * <p>
+     * Note that "col" is the complete query result, so the memory
+     * used still grows with the blackboard rather than the page.
+     */
+    private Collection selectPage(Collection col) {
+      if (!limit) {
+        return sortIfRequested(col);
+      }
+      int size = col.size();
+      if (offset > size) {
+        offset = size;
+      }
+      int k = (int) Math.min((long) offset + DEFAULT_LIMIT, (long) size);
+      Comparator comparator = getComparator();
+      if (comparator == null) {
+        // unsorted, take the rows in query order
+        List l = new ArrayList(Math.min(DEFAULT_LIMIT, col.size()));
+        Iterator iter = col.iterator();
+        for (int i = 0; i < k && iter.hasNext(); i++) {
+          Object o = iter.next();
+          if (i >= offset) {
+            l.add(o);
+          }
+        }
+        return l;
+      }
+      Object[] a;
+      int n;
+      if (col.size() <= k) {
+        a = col.toArray();
+        n = a.length;
+      } else {
+        // keep the k smallest in a max-heap
+        a = new Object[k];
+        n = 0;
+        for (Iterator iter = col.iterator(); iter.hasNext(); ) {
+          Object o = iter.next();
+          if (n < k) {
+            a[n] = o;
+            siftUp(a, n++, comparator);
+          } else if (comparator.compare(o, a[0]) < 0) {
+            a[0] = o;
+            siftDown(a, n, comparator);
+          }
+        }
+      }
+      Arrays.sort(a, 0, n, comparator);
+      if (offset >= n) {
+        return Collections.EMPTY_LIST;
+      }
+      return Arrays.asList(a).subList(offset, n);
+    }
+
+    private static void siftUp(Object[] heap, int i, Comparator comparator) {
+      Object o = heap[i];
+      while (i > 0) {
+        int parent = (i - 1) >> 1;
+        if (comparator.compare(o, heap[parent]) <= 0) {
+          break;
+        }
+        heap[i] = heap[parent];
+        i = parent;
+      }
+      heap[i] = o;
+    }
+
+    private static void siftDown(Object[] heap, int n, Comparator comparator) {
+      Object o = heap[0];
+      int i = 0;
+      while (true) {
+        int child = (i << 1) + 1;
+        if (child >= n) {
+          break;
+        }
+        if ((child + 1 < n) &&
+            (comparator.compare(heap[child + 1], heap[child]) > 0)) {
+          child++;
+        }
+        if (comparator.compare(o, heap[child]) >= 0) {
+          break;
+        }
+        heap[i] = heap[child];
+        i = child;
+      }
+      heap[i] = o;
+    }
+
     private static final Comparator THE_ONLY_UID_COMPARATOR = new UIDComparator ();
 
     private static class UIDComparator implements Comparator {
@@ -4379,6 +4679,9 @@ extends ComponentPlugin
         // missing UID
         return null;
       }
+      if (support.isIndexed()) {
+        return support.findUniqueObject(UID.toUID(itemUID));
+      }
       Collection col = 
         searchUsingPredicate(
             getUniqueObjectWithUIDPred(itemUID));
@@ -4397,10 +4700,14 @@ extends ComponentPlugin
       return uo;
     }
 
+    // The "findAll*" and "findTasksWithVerb" results are not sorted,
+    // since the display methods select and sort their page with
+    // "selectPage".
+
     private Collection findAllTasks()
     {
       return 
-        searchUsingPredicate(getTaskPred());
+        support.queryBlackboard(getTaskPred());
     }
 
     private Collection findTasksWithVerb(
@@ -4411,22 +4718,28 @@ extends ComponentPlugin
         return null;
       }
       Verb v = Verb.get(verbFilter);
+      if (support.isVerbIndexed()) {
+        List l = support.findTasks(v);
+        if (l != null) {
+          return l;
+        }
+      }
       return 
-        searchUsingPredicate(
+        support.queryBlackboard(
             getTaskWithVerbPred(v));
     }
 
     private Collection findAllPlanElements()
     {
       return 
-        searchUsingPredicate(
+        support.queryBlackboard(
             getPlanElementPred());
     }
 
     private Collection findAllAssets()
     {
       return 
-        searchUsingPredicate(
+        support.queryBlackboard(
             getAssetPred());
     }
 
@@ -4707,11 +5020,35 @@ extends ComponentPlugin
       private static Object inst;
       private static Method meth;
 
+      // recently parsed predicates, keyed by text.  The parsed
+      // operator trees are not known to be stateless, so each servlet
+      // thread keeps its own cache rather than sharing predicates.
+      private static final int MAX_CACHED = 32;
+      private static final ThreadLocal cache = 
+        new ThreadLocal() {
+          protected Object initialValue() {
+            return new LinkedHashMap(MAX_CACHED, 0.75f, true) {
+              protected boolean removeEldestEntry(Map.Entry eldest) {
+                return size() > MAX_CACHED;
+              }
+            };
+          }
+        };
+
       public static UnaryPredicate parse(
           String s) throws Exception {
+        Map m = (Map) cache.get();
+        UnaryPredicate up = (UnaryPredicate) m.get(s);
+        if (up != null) {
+          return up;
+        }
         ensureIsLoaded();
-        return (UnaryPredicate)
+        up = (UnaryPredicate)
           meth.invoke(inst, new Object[] {STYLE, s});
+        if (up != null) {
+          m.put(s, up);
+        }
+        return up;
       }
 
       private static synchronized void ensureIsLoaded() throws Exception {
@@ -0,0 +1,291 @@
+/*
+ *
+ * <copyright>
+ *  
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+package org.cougaar.planning.servlet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A conservative search plan for the <code>PlanViewServlet</code>'s
+ * "Advanced Search", found by scanning the Lisp-style predicate text.
+ * <p>
+ * If the predicate requires an object with a specific UID, or a
+ * Task with a specific verb, then the servlet can take its candidates
+ * from the UID or verb index instead of testing every blackboard
+ * object.  The plan only narrows the candidates, so the parsed
+ * predicate must still be applied to each of them.  Anything we
+ * don't recognize, such as an "or" or "not", is planned as a full
+ * scan.
+ * <p>
+ * Recognized forms, either alone or as terms of a top-level "and":
+ * <pre>
+ *   (is:Task)
+ *   (getVerb (equals "VERB"))      <i>only with (is:Task)</i>
+ *   (getUID (equals "UID"))
+ *   (getUID (toString (equals "UID")))
+ * </pre>
+ */
+final class SearchPlan {
+
+  /** Test every object on the blackboard. */
+  public static final SearchPlan SCAN = new SearchPlan(false, null, null);
+
+  private static final String[] IS_TASK = {
+    "is:Task", "isTask", "is:org.cougaar.planning.ldm.plan.Task",
+  };
+
+  private static final String[] EQUALS = {
+    "equals", "isEqual", "eq",
+  };
+
+  private final boolean tasksOnly;
+  private final String verb;
+  private final String uid;
+
+  private SearchPlan(boolean tasksOnly, String verb, String uid) {
+    this.tasksOnly = tasksOnly;
+    this.verb = verb;
+    this.uid = uid;
+  }
+
+  /** @return true if every match must be a Task */
+  public boolean isTasksOnly() { return tasksOnly; }
+
+  /** @return the verb of every matching Task, or null */
+  public String getVerb() { return verb; }
+
+  /** @return the UID of the only possible match, or null */
+  public String getUID() { return uid; }
+
+  /** @return true if no index can narrow the search */
+  public boolean isScan() {
+    return (!tasksOnly && (uid == null));
+  }
+
+  public String toString() {
+    if (isScan()) {
+      return "scan";
+    }
+    return 
+      "(tasksOnly="+tasksOnly+
+      " verb="+verb+
+      " uid="+uid+")";
+  }
+
+  /**
+   * Plan a search for the given predicate text.
+   *
+   * @return the plan, or SCAN if the text can't be narrowed
+   */
+  public static SearchPlan create(String s) {
+    if (s == null) {
+      return SCAN;
+    }
+    Object expr;
+    try {
+      Reader r = new Reader(s);
+      expr = r.read();
+      if (r.hasMore()) {
+        return SCAN;
+      }
+    } catch (RuntimeException e) {
+      // leave the error reporting to the real parser
+      return SCAN;
+    }
+    if (!(expr instanceof List)) {
+      return SCAN;
+    }
+    List l = (List) expr;
+    List terms;
+    if ((l.size() > 1) && "and".equals(l.get(0))) {
+      terms = l.subList(1, l.size());
+    } else {
+      terms = new ArrayList(1);
+      terms.add(l);
+    }
+    boolean tasksOnly = false;
+    String verb = null;
+    String uid = null;
+    for (int i = 0, n = terms.size(); i < n; i++) {
+      Object ti = terms.get(i);
+      if (!(ti instanceof List)) {
+        continue;
+      }
+      List term = (List) ti;
+      if (term.isEmpty()) {
+        continue;
+      }
+      Object op = term.get(0);
+      if (isOneOf(op, IS_TASK)) {
+        if ((term.size() == 1) ||
+            ((term.size() == 2) && "true".equals(term.get(1)))) {
+          tasksOnly = true;
+        }
+      } else if ("getVerb".equals(op)) {
+        if (term.size() == 2) {
+          String v = getEqualsLiteral(term.get(1));
+          if (v != null) {
+            verb = v;
+          }
+        }
+      } else if ("getUID".equals(op)) {
+        if (term.size() == 2) {
+          Object arg = term.get(1);
+          if ((arg instanceof List) &&
+              (((List) arg).size() == 2) &&
+              "toString".equals(((List) arg).get(0))) {
+            arg = ((List) arg).get(1);
+          }
+          String u = getEqualsLiteral(arg);
+          if (u != null) {
+            uid = u;
+          }
+        }
+      }
+    }
+    if (!tasksOnly) {
+      // "getVerb" might apply to non-tasks
+      verb = null;
+    }
+    if (!tasksOnly && (uid == null)) {
+      return SCAN;
+    }
+    return new SearchPlan(tasksOnly, verb, uid);
+  }
+
+  /** @return "X" if the expression is "(equals "X")", else null */
+  private static String getEqualsLiteral(Object o) {
+    if (o instanceof List) {
+      List l = (List) o;
+      if ((l.size() == 2) &&
+          isOneOf(l.get(0), EQUALS) &&
+          (l.get(1) instanceof Literal)) {
+        return ((Literal) l.get(1)).value;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isOneOf(Object o, String[] names) {
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(o)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** A quoted string, to tell it apart from an operator name. */
+  private static final class Literal {
+    private final String value;
+    public Literal(String value) {
+      this.value = value;
+    }
+    public String toString() {
+      return "\""+value+"\"";
+    }
+  }
+
+  /**
+   * Reads s-expressions into Lists of Strings, Literals and Lists.
+   * Throws a RuntimeException on unbalanced input.
+   */
+  private static final class Reader {
+    private final String s;
+    private final int len;
+    private int pos;
+
+    public Reader(String s) {
+      this.s = s;
+      this.len = s.length();
+    }
+
+    public boolean hasMore() {
+      skipWhitespace();
+      return (pos < len);
+    }
+
+    public Object read() {
+      skipWhitespace();
+      if (pos >= len) {
+        throw new IllegalArgumentException("Unexpected end of input");
+      }
+      char c = s.charAt(pos);
+      if (c == '(') {
+        pos++;
+        List l = new ArrayList();
+        while (true) {
+          skipWhitespace();
+          if (pos >= len) {
+            throw new IllegalArgumentException("Missing \")\"");
+          }
+          if (s.charAt(pos) == ')') {
+            pos++;
+            return l;
+          }
+          l.add(read());
+        }
+      }
+      if (c == ')') {
+        throw new IllegalArgumentException("Unexpected \")\"");
+      }
+      if (c == '"') {
+        pos++;
+        StringBuffer buf = new StringBuffer();
+        while (true) {
+          if (pos >= len) {
+            throw new IllegalArgumentException("Missing quote");
+          }
+          c = s.charAt(pos++);
+          if (c == '"') {
+            return new Literal(buf.toString());
+          }
+          if ((c == '\\') && (pos < len)) {
+            c = s.charAt(pos++);
+          }
+          buf.append(c);
+        }
+      }
+      int start = pos;
+      while (pos < len) {
+        c = s.charAt(pos);
+        if ((c == '(') || (c == ')') || (c == '"') ||
+            Character.isWhitespace(c)) {
+          break;
+        }
+        pos++;
+      }
+      return s.substring(start, pos);
+    }
+
+    private void skipWhitespace() {
+      while ((pos < len) && Character.isWhitespace(s.charAt(pos))) {
+        pos++;
+      }
+    }
+  }
+}
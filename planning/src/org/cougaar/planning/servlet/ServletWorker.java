@@ -28,10 +28,14 @@ package org.cougaar.planning.servlet;
 
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.PushbackInputStream;
+import java.io.StreamCorruptedException;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -39,6 +43,9 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.cougaar.core.servlet.ServletUtil;
 import org.cougaar.core.servlet.SimpleServletSupport;
+import org.cougaar.planning.servlet.data.binary.BinaryReader;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
+import org.cougaar.planning.servlet.data.binary.Binaryable;
 import org.cougaar.planning.servlet.data.xml.XMLWriter;
 import org.cougaar.planning.servlet.data.xml.XMLable;
 
@@ -47,10 +54,17 @@ import org.cougaar.planning.servlet.data.xml.XMLable;
  * ServletWorker is the base class for all servlet workers.
  *
  * ServletWorkers assume that the result can be returned in any of
- * three formats : html, xml, or serialized java object.  These
- * formats are specified by the URL format parameter, i.e.
+ * four formats : html, xml, serialized java object, or compact binary.
+ * These formats are specified by the URL format parameter, i.e.
  *   http://localhost:8800/$AGENT_NAME/SERVLET_NAME?format=html
  *
+ * The binary format falls back to serialization if the result is not
+ * Binaryable.  Either is read back with readData, which tells them
+ * apart by their first byte.  Agents fetch each other's data in the
+ * binary format unless org.cougaar.planning.servlet.binaryFetch is
+ * false, and retry with format=data if the answer can't be read, as
+ * from an agent that doesn't serve the binary format.
+ *
  * The format parameter is set in the getSettings method.  This should
  * be called from a subclass if overridden.
  *
@@ -73,11 +87,21 @@ public class ServletWorker {
   public static final int FORMAT_DATA = 0;
   public static final int FORMAT_XML  = 1;
   public static final int FORMAT_HTML = 2;
+  public static final int FORMAT_BINARY = 3;
 
   static {
       VERBOSE = Boolean.getBoolean("org.cougaar.mlm.ui.psp.transit.ServletWorker.verbose");
   }
 
+  /** true to fetch other agents' data with format=binary */
+  public static final boolean BINARY_FETCH =
+    Boolean.valueOf(
+      System.getProperty(
+        "org.cougaar.planning.servlet.binaryFetch", "true")).booleanValue();
+
+  /** first byte of a Java serialization stream */
+  private static final int SERIALIZED_MAGIC = 0xAC;
+
   protected int format;
 
   /**
@@ -109,7 +133,7 @@ public class ServletWorker {
    * <pre>
    * sets format 
    *
-   * format  is either data, xml, or html
+   * format  is either data, xml, html, or binary
    *
    * see class description for what these values mean
    * </pre>
@@ -122,6 +146,8 @@ public class ServletWorker {
 	format = FORMAT_XML;
       } else if (eq("html", value)) {
 	format = FORMAT_HTML;
+      } else if (eq("binary", value)) {
+	format = FORMAT_BINARY;
       }
       // stay backwards-compatable
     } else if (eq("data", name)) {
@@ -130,19 +156,22 @@ public class ServletWorker {
       format = FORMAT_XML;
     } else if (eq("html", name)) {
       format = FORMAT_HTML;
+    } else if (eq("binary", name)) {
+      format = FORMAT_BINARY;
     }
   }
 
   protected boolean isHtmlFormat () { return (format == FORMAT_HTML); }
   protected boolean isXmlFormat  () { return (format == FORMAT_XML); }
   protected boolean isDataFormat () { return (format == FORMAT_DATA); }
+  protected boolean isBinaryFormat () { return (format == FORMAT_BINARY); }
 
   protected String getPrefix () { return ""; }
 
   /**
    * Write XMLable result to output. <p>
    *
-   * Output format is either data, xml, or html <p>
+   * Output format is either data, xml, html, or binary <p>
    *
    * For an example of how this is used, see the following references.
    * @see org.cougaar.planning.servlet.HierarchyWorker#getHierarchy
@@ -154,7 +183,12 @@ public class ServletWorker {
 			       int format) {
     // write data
     try {
-      if (format == FORMAT_DATA) {
+      if (format == FORMAT_BINARY && result instanceof Binaryable) {
+	// compact binary
+	BinaryWriter bw = new BinaryWriter(out);
+	bw.writeObject((Binaryable) result);
+	bw.flush();
+      } else if (format == FORMAT_DATA || format == FORMAT_BINARY) {
 	// serialize
 	ObjectOutputStream oos = new ObjectOutputStream(out);
 	oos.writeObject(result);
@@ -225,6 +259,53 @@ public class ServletWorker {
         out.write(b);
       }
     }
+    /**
+     * Copy runs between '&lt;' and '&gt;' through in bulk, rather than
+     * one byte at a time as FilterOutputStream would.
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+      int start = off;
+      int end = off + len;
+      for (int i = off; i < end; i++) {
+        byte c = b[i];
+        if (c == '<' || c == '>') {
+          if (i > start) {
+            out.write(b, start, i - start);
+          }
+          out.write(c == '<' ? LESS_THAN : GREATER_THAN);
+          start = i + 1;
+        }
+      }
+      if (end > start) {
+        out.write(b, start, end - start);
+      }
+    }
+  }
+
+  /**
+   * Read a single object written by writeResponse in the binary or
+   * data format.
+   *
+   * @throws StreamCorruptedException if the input is in neither
+   *   format, e.g. an agent that doesn't serve the binary format
+   *   answered with HTML, so the caller can retry with format=data
+   */
+  public static Object readData(InputStream in) 
+    throws IOException, ClassNotFoundException {
+    PushbackInputStream pin = new PushbackInputStream(in, 1);
+    int b = pin.read();
+    if (b < 0) {
+      throw new StreamCorruptedException("No servlet data");
+    }
+    pin.unread(b);
+    if (b == BinaryWriter.MAGIC) {
+      return new BinaryReader(pin).readObject();
+    }
+    if (b == SERIALIZED_MAGIC) {
+      return new ObjectInputStream(pin).readObject();
+    }
+    throw new StreamCorruptedException(
+      "Not servlet data, header "+Integer.toHexString(b));
   }
 
   public static final boolean eq(String a, String b) {
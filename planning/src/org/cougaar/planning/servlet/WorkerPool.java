@@ -0,0 +1,147 @@
+/*
+ *
+ * <copyright>
+ *
+ *  Copyright 1997-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ *
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * </copyright>
+ */
+package org.cougaar.planning.servlet;
+
+import java.util.LinkedList;
+
+import org.cougaar.util.log.Logger;
+import org.cougaar.util.log.Logging;
+
+/**
+ * A fixed-size pool of daemon threads, shared by all the requests of
+ * a servlet, so that the number of threads doesn't grow with the
+ * number of requests.
+ * <p>
+ * Threads are started as needed, up to "maxThreads", and are kept
+ * for later requests.  Work that can't be started at once is queued
+ * in submission order.  A task that throws is logged and doesn't
+ * cost the pool its thread.
+ */
+public class WorkerPool {
+
+  private final String name;
+  private final int maxThreads;
+  private final Logger logger;
+
+  /** queued Runnables, oldest first */
+  private final LinkedList queue = new LinkedList();
+  private int nThreads;
+  private int nIdle;
+
+  /**
+   * @param name the prefix of the threads' names
+   * @param maxThreads the maximum number of threads
+   */
+  public WorkerPool(String name, int maxThreads) {
+    this(name, maxThreads, Logging.getLogger(WorkerPool.class));
+  }
+
+  /**
+   * @param name the prefix of the threads' names
+   * @param maxThreads the maximum number of threads
+   * @param logger where to log tasks that fail, e.g. the servlet's
+   *   LoggingService
+   */
+  public WorkerPool(String name, int maxThreads, Logger logger) {
+    this.name = name;
+    this.maxThreads = Math.max(1, maxThreads);
+    this.logger = logger;
+  }
+
+  public int getMaxThreads() {
+    return maxThreads;
+  }
+
+  /**
+   * Run the given Runnable in one of the pool's threads, as soon
+   * as one is free.
+   */
+  public synchronized void execute(Runnable r) {
+    queue.addLast(r);
+    if (nIdle > 0) {
+      notify();
+    } else if (nThreads < maxThreads) {
+      Thread t = new Thread(new Worker(), name+" "+(nThreads++));
+      t.setDaemon(true);
+      t.start();
+    }
+  }
+
+  /**
+   * Remove the given Runnable from the queue, if it hasn't been
+   * started yet.
+   *
+   * @return true if the Runnable was removed and won't be run
+   */
+  public synchronized boolean cancel(Runnable r) {
+    return queue.remove(r);
+  }
+
+  private synchronized Runnable next() throws InterruptedException {
+    while (queue.isEmpty()) {
+      nIdle++;
+      try {
+        wait();
+      } finally {
+        nIdle--;
+      }
+    }
+    return (Runnable) queue.removeFirst();
+  }
+
+  private synchronized void exited() {
+    nThreads--;
+    if (!queue.isEmpty() && (nIdle == 0)) {
+      Thread t = new Thread(new Worker(), name+" "+(nThreads++));
+      t.setDaemon(true);
+      t.start();
+    }
+  }
+
+  private class Worker implements Runnable {
+    public void run() {
+      try {
+        while (true) {
+          Runnable r = next();
+          try {
+            r.run();
+          } catch (RuntimeException e) {
+            logger.error(
+                Thread.currentThread().getName()+" task "+r+" failed", e);
+          } finally {
+            // an aborted task may leave its interrupt behind
+            Thread.interrupted();
+          }
+        }
+      } catch (InterruptedException ie) {
+        // only raised while idle, so nothing was lost
+      } finally {
+        exited();
+      }
+    }
+  }
+}
@@ -30,6 +30,9 @@ import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
 
+import org.cougaar.planning.servlet.data.binary.BinaryReader;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
+import org.cougaar.planning.servlet.data.binary.Binaryable;
 import org.cougaar.planning.servlet.data.xml.DeXMLable;
 import org.cougaar.planning.servlet.data.xml.UnexpectedXMLException;
 import org.cougaar.planning.servlet.data.xml.XMLWriter;
@@ -42,7 +45,8 @@ import org.xml.sax.Attributes;
  *
  * @since 1/24/01
  **/
-public class Failure implements XMLable, DeXMLable, Serializable{
+public class Failure 
+  implements XMLable, DeXMLable, Binaryable, Serializable{
 
   //Variables:
   ////////////
@@ -112,6 +116,27 @@ public class Failure implements XMLable, DeXMLable, Serializable{
     w.cltagln(NAME_TAG);
   }
 
+  //Binaryable members:
+  //-------------------
+
+  /**
+   * Write this class out in binary format
+   * @param w output BinaryWriter
+   **/
+  public void toBinary(BinaryWriter w) throws IOException{
+    w.writeString(message);
+    w.writeString(stackTrace);
+  }
+
+  /**
+   * Read this class in from binary format
+   * @param r input BinaryReader
+   **/
+  public void fromBinary(BinaryReader r) throws IOException{
+    message=r.readString();
+    stackTrace=r.readString();
+  }
+
   //DeXMLable members:
   //------------------
 
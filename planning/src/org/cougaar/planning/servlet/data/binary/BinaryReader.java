@@ -0,0 +1,202 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 2001-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+package org.cougaar.planning.servlet.data.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the format written by <code>BinaryWriter</code>.  Input is
+ * buffered, so the reader may read past the end of the data.
+ *
+ * @see BinaryWriter
+ **/
+public class BinaryReader{
+
+  /**
+   * the longest string accepted, in bytes, so that a corrupt length
+   * can't exhaust the heap
+   **/
+  public static final int MAX_STRING_LENGTH = 1 << 20;
+
+  //Variables:
+  ////////////
+
+  protected final InputStream in;
+  private final byte[] buf = new byte[8192];
+  private int pos = 0;
+  private int limit = 0;
+
+  /** the strings read so far, by index */
+  private final List strings = new ArrayList();
+
+  //Constructors:
+  ///////////////
+
+  public BinaryReader(InputStream in) throws IOException{
+    this.in = in;
+    int magic = readByte();
+    int version = readByte();
+    if (magic != BinaryWriter.MAGIC) {
+      throw new StreamCorruptedException(
+          "Not binary servlet data, header "+Integer.toHexString(magic));
+    }
+    if (version != BinaryWriter.VERSION) {
+      throw new StreamCorruptedException(
+          "Unsupported binary servlet data version "+version);
+    }
+  }
+
+  //Members:
+  //////////
+
+  /** @return the next byte, 0..255 **/
+  public int readByte() throws IOException{
+    if (pos == limit) {
+      fill();
+    }
+    return buf[pos++] & 0xFF;
+  }
+
+  public void readBytes(byte[] b) throws IOException{
+    int off = 0;
+    while (off < b.length) {
+      if (pos == limit) {
+        fill();
+      }
+      int n = Math.min(limit - pos, b.length - off);
+      System.arraycopy(buf, pos, b, off, n);
+      pos += n;
+      off += n;
+    }
+  }
+
+  public int readUnsignedInt() throws IOException{
+    int v = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = readByte();
+      v |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return v;
+      }
+    }
+    throw new StreamCorruptedException("Malformed varint");
+  }
+
+  public int readInt() throws IOException{
+    int u = readUnsignedInt();
+    return (u >>> 1) ^ -(u & 1);
+  }
+
+  public long readLong() throws IOException{
+    long u = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      int b = readByte();
+      u |= ((long) (b & 0x7F)) << shift;
+      if ((b & 0x80) == 0) {
+        return (u >>> 1) ^ -(u & 1);
+      }
+    }
+    throw new StreamCorruptedException("Malformed varlong");
+  }
+
+  public double readDouble() throws IOException{
+    long bits = 0;
+    for (int i = 0; i < 8; i++) {
+      bits = (bits << 8) | readByte();
+    }
+    return Double.longBitsToDouble(bits);
+  }
+
+  public boolean readBoolean() throws IOException{
+    return readByte() != 0;
+  }
+
+  public String readString() throws IOException{
+    int code = readUnsignedInt();
+    if (code == BinaryWriter.NULL_STRING) {
+      return null;
+    }
+    if (code == BinaryWriter.NEW_STRING) {
+      int len = readUnsignedInt();
+      if (len < 0 || len > MAX_STRING_LENGTH) {
+        throw new StreamCorruptedException("Bad string length "+len);
+      }
+      byte[] b = new byte[len];
+      readBytes(b);
+      String s = new String(b, "UTF-8");
+      strings.add(s);
+      return s;
+    }
+    int index = code - BinaryWriter.FIRST_INDEX;
+    if (index < 0 || index >= strings.size()) {
+      throw new StreamCorruptedException("Bad string index "+index);
+    }
+    return (String) strings.get(index);
+  }
+
+  /**
+   * read an object written by BinaryWriter.writeObject.  The class
+   * isn't initialized unless it is Binaryable.
+   **/
+  public Binaryable readObject() throws IOException{
+    String className = readString();
+    if (className == null) {
+      return null;
+    }
+    Binaryable obj;
+    try {
+      Class cl = Class.forName(className, false, BinaryReader.class.getClassLoader());
+      if (!Binaryable.class.isAssignableFrom(cl)) {
+        throw new StreamCorruptedException("Not Binaryable: "+className);
+      }
+      obj = (Binaryable) cl.newInstance();
+    } catch (ClassNotFoundException e) {
+      throw new StreamCorruptedException("Unknown class: "+className);
+    } catch (InstantiationException e) {
+      throw new StreamCorruptedException("Can't create "+className+": "+e);
+    } catch (IllegalAccessException e) {
+      throw new StreamCorruptedException("Can't create "+className+": "+e);
+    }
+    obj.fromBinary(this);
+    return obj;
+  }
+
+  //Helpers:
+
+  private void fill() throws IOException{
+    int n = in.read(buf, 0, buf.length);
+    if (n <= 0) {
+      throw new EOFException();
+    }
+    pos = 0;
+    limit = n;
+  }
+}
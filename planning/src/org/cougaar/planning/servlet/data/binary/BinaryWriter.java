@@ -0,0 +1,177 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 2001-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+package org.cougaar.planning.servlet.data.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams <code>Binaryable</code> objects in a compact binary format,
+ * a cheaper alternative to Java serialization for the servlet data
+ * classes:
+ * <ul>
+ * <li>ints and longs are zig-zag varints, so small values of either
+ *     sign take one byte</li>
+ * <li>doubles are their 8 raw bytes</li>
+ * <li>strings are UTF-8 and length-prefixed the first time they are
+ *     written, and afterwards just an index into a table of the
+ *     strings written so far, so repeated org names, verbs and
+ *     class names cost a byte or two</li>
+ * <li>objects are their class name (as a string) followed by whatever
+ *     they write in <code>toBinary</code></li>
+ * </ul>
+ * The stream starts with a two byte header.  Call <code>flush</code>
+ * when done; output is buffered.
+ *
+ * @see BinaryReader
+ **/
+public class BinaryWriter{
+
+  //Variables:
+  ////////////
+
+  public static final int MAGIC = 0xCB;
+  public static final int VERSION = 1;
+
+  /** string table codes; higher values are table index + FIRST_INDEX */
+  static final int NULL_STRING = 0;
+  static final int NEW_STRING = 1;
+  static final int FIRST_INDEX = 2;
+
+  protected final OutputStream out;
+  private final byte[] buf = new byte[8192];
+  private int count = 0;
+
+  /** String -> Integer index */
+  private final Map strings = new HashMap();
+
+  //Constructors:
+  ///////////////
+
+  public BinaryWriter(OutputStream out) throws IOException{
+    this.out = out;
+    writeByte(MAGIC);
+    writeByte(VERSION);
+  }
+
+  //Members:
+  //////////
+
+  public void writeByte(int b) throws IOException{
+    if (count == buf.length) {
+      flushBuffer();
+    }
+    buf[count++] = (byte) b;
+  }
+
+  public void writeBytes(byte[] b) throws IOException{
+    if (b.length > buf.length - count) {
+      flushBuffer();
+      if (b.length > buf.length) {
+        out.write(b);
+        return;
+      }
+    }
+    System.arraycopy(b, 0, buf, count, b.length);
+    count += b.length;
+  }
+
+  /** write a non-negative int in 1 to 5 bytes **/
+  public void writeUnsignedInt(int v) throws IOException{
+    while ((v & ~0x7F) != 0) {
+      writeByte((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    writeByte(v);
+  }
+
+  public void writeInt(int v) throws IOException{
+    writeUnsignedInt((v << 1) ^ (v >> 31));
+  }
+
+  public void writeLong(long v) throws IOException{
+    long u = (v << 1) ^ (v >> 63);
+    while ((u & ~0x7FL) != 0) {
+      writeByte((int) ((u & 0x7F) | 0x80));
+      u >>>= 7;
+    }
+    writeByte((int) u);
+  }
+
+  public void writeDouble(double d) throws IOException{
+    long bits = Double.doubleToLongBits(d);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      writeByte((int) (bits >>> shift));
+    }
+  }
+
+  public void writeBoolean(boolean b) throws IOException{
+    writeByte(b ? 1 : 0);
+  }
+
+  public void writeString(String s) throws IOException{
+    if (s == null) {
+      writeUnsignedInt(NULL_STRING);
+      return;
+    }
+    Integer index = (Integer) strings.get(s);
+    if (index != null) {
+      writeUnsignedInt(index.intValue() + FIRST_INDEX);
+      return;
+    }
+    strings.put(s, new Integer(strings.size()));
+    byte[] b = s.getBytes("UTF-8");
+    writeUnsignedInt(NEW_STRING);
+    writeUnsignedInt(b.length);
+    writeBytes(b);
+  }
+
+  /** write the object's class name and then its fields **/
+  public void writeObject(Binaryable obj) throws IOException{
+    if (obj == null) {
+      writeString(null);
+    } else {
+      writeString(obj.getClass().getName());
+      obj.toBinary(this);
+    }
+  }
+
+  public void flush() throws IOException{
+    flushBuffer();
+    out.flush();
+  }
+
+  //Helpers:
+
+  private void flushBuffer() throws IOException{
+    if (count > 0) {
+      out.write(buf, 0, count);
+      count = 0;
+    }
+  }
+}
@@ -28,6 +28,9 @@ package org.cougaar.planning.servlet.data.completion;
 import java.io.IOException;
 import java.io.Serializable;
 
+import org.cougaar.planning.servlet.data.binary.BinaryReader;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
+import org.cougaar.planning.servlet.data.binary.Binaryable;
 import org.cougaar.planning.servlet.data.xml.DeXMLable;
 import org.cougaar.planning.servlet.data.xml.UnexpectedXMLException;
 import org.cougaar.planning.servlet.data.xml.XMLWriter;
@@ -38,7 +41,7 @@ import org.xml.sax.Attributes;
  * Represents an abstract Task entry within the COMPLETION PSP.
  **/
 public abstract class AbstractTask
-  implements XMLable, DeXMLable, Serializable{
+  implements XMLable, DeXMLable, Binaryable, Serializable{
   
   //Variables:
   ////////////
@@ -150,6 +153,37 @@ public abstract class AbstractTask
     w.cltagln(getNameTag());
   }
   
+  //Binaryable members:
+  //-------------------
+  
+  /**
+   * Write this class out in binary format
+   * @param w output BinaryWriter
+   **/
+  public void toBinary(BinaryWriter w) throws IOException{
+    w.writeString(uid);
+    w.writeString(uid_url);
+    w.writeString(parentUID);
+    w.writeString(parentUID_url);
+    w.writeDouble(confidence);
+    w.writeString(planElement);
+    w.writeString(verb);
+  }
+  
+  /**
+   * Read this class in from binary format
+   * @param r input BinaryReader
+   **/
+  public void fromBinary(BinaryReader r) throws IOException{
+    uid = r.readString();
+    uid_url = r.readString();
+    parentUID = r.readString();
+    parentUID_url = r.readString();
+    confidence = r.readDouble();
+    planElement = r.readString();
+    verb = r.readString();
+  }
+  
   //DeXMLable members:
   //------------------
   
@@ -28,6 +28,9 @@ package org.cougaar.planning.servlet.data.completion;
 import java.io.IOException;
 import java.io.Serializable;
 
+import org.cougaar.planning.servlet.data.binary.BinaryReader;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
+import org.cougaar.planning.servlet.data.binary.Binaryable;
 import org.cougaar.planning.servlet.data.xml.DeXMLable;
 import org.cougaar.planning.servlet.data.xml.UnexpectedXMLException;
 import org.cougaar.planning.servlet.data.xml.XMLWriter;
@@ -40,7 +43,8 @@ import org.xml.sax.Attributes;
  * @see FullCompletionData
  * @see SimpleCompletionData
  **/
-public abstract class CompletionData implements XMLable, DeXMLable, Serializable{
+public abstract class CompletionData 
+  implements XMLable, DeXMLable, Binaryable, Serializable{
 
   //Variables:
   ////////////
@@ -157,6 +161,35 @@ public abstract class CompletionData implements XMLable, DeXMLable, Serializable
    **/
   public abstract void toXML(XMLWriter w) throws IOException;
 
+  //Binaryable members:
+  //-------------------
+
+  /**
+   * Write the fields common to all CompletionData in binary format
+   * @param w output BinaryWriter
+   **/
+  protected void writeCommonBinary(BinaryWriter w) throws IOException{
+    w.writeLong(timeMillis);
+    w.writeDouble(ratio);
+    w.writeInt(numTasks);
+    w.writeInt(numRootProjectSupplyTasks);
+    w.writeInt(numRootSupplyTasks);
+    w.writeInt(numRootTransportTasks);
+  }
+
+  /**
+   * Read the fields written by writeCommonBinary
+   * @param r input BinaryReader
+   **/
+  protected void readCommonBinary(BinaryReader r) throws IOException{
+    timeMillis = r.readLong();
+    ratio = r.readDouble();
+    numTasks = r.readInt();
+    numRootProjectSupplyTasks = r.readInt();
+    numRootSupplyTasks = r.readInt();
+    numRootTransportTasks = r.readInt();
+  }
+
   //DeXMLable members:
   //------------------
 
@@ -29,6 +29,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.cougaar.planning.servlet.data.binary.BinaryReader;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
 import org.cougaar.planning.servlet.data.xml.DeXMLable;
 import org.cougaar.planning.servlet.data.xml.UnexpectedXMLException;
 import org.cougaar.planning.servlet.data.xml.XMLWriter;
@@ -144,6 +146,61 @@ public class FullCompletionData extends CompletionData{
     w.cltagln(NAME_TAG);
   }
 
+  //Binaryable members:
+  //-------------------
+
+  /**
+   * Write this class out in binary format
+   * @param w output BinaryWriter
+   **/
+  public void toBinary(BinaryWriter w) throws IOException {
+    writeCommonBinary(w);
+    writeTasks(w, unplannedTasks);
+    writeTasks(w, unestimatedTasks);
+    writeTasks(w, unconfidentTasks);
+    writeTasks(w, failedTasks);
+  }
+
+  /**
+   * Read this class in from binary format
+   * @param r input BinaryReader
+   **/
+  public void fromBinary(BinaryReader r) throws IOException {
+    readCommonBinary(r);
+    int n = r.readUnsignedInt();
+    for (int i = 0; i < n; i++) {
+      UnplannedTask t = new UnplannedTask();
+      t.fromBinary(r);
+      addUnplannedTask(t);
+    }
+    n = r.readUnsignedInt();
+    for (int i = 0; i < n; i++) {
+      UnestimatedTask t = new UnestimatedTask();
+      t.fromBinary(r);
+      addUnestimatedTask(t);
+    }
+    n = r.readUnsignedInt();
+    for (int i = 0; i < n; i++) {
+      UnconfidentTask t = new UnconfidentTask();
+      t.fromBinary(r);
+      addUnconfidentTask(t);
+    }
+    n = r.readUnsignedInt();
+    for (int i = 0; i < n; i++) {
+      FailedTask t = new FailedTask();
+      t.fromBinary(r);
+      addFailedTask(t);
+    }
+  }
+
+  private static void writeTasks(BinaryWriter w, List tasks) throws IOException {
+    int n = tasks.size();
+    w.writeUnsignedInt(n);
+    for (int i = 0; i < n; i++) {
+      ((AbstractTask) tasks.get(i)).toBinary(w);
+    }
+  }
+
   //DeXMLable members:
   //------------------
 
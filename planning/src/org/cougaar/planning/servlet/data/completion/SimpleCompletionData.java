@@ -27,6 +27,8 @@ package org.cougaar.planning.servlet.data.completion;
 
 import java.io.IOException;
 
+import org.cougaar.planning.servlet.data.binary.BinaryReader;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
 import org.cougaar.planning.servlet.data.xml.DeXMLable;
 import org.cougaar.planning.servlet.data.xml.UnexpectedXMLException;
 import org.cougaar.planning.servlet.data.xml.XMLWriter;
@@ -149,6 +151,33 @@ public class SimpleCompletionData extends CompletionData{
     w.cltagln(NAME_TAG);
   }
 
+  //Binaryable members:
+  //-------------------
+
+  /**
+   * Write this class out in binary format
+   * @param w output BinaryWriter
+   **/
+  public void toBinary(BinaryWriter w) throws IOException {
+    writeCommonBinary(w);
+    w.writeInt(numUnplannedTasks);
+    w.writeInt(numUnestimatedTasks);
+    w.writeInt(numUnconfidentTasks);
+    w.writeInt(numFailedTasks);
+  }
+
+  /**
+   * Read this class in from binary format
+   * @param r input BinaryReader
+   **/
+  public void fromBinary(BinaryReader r) throws IOException {
+    readCommonBinary(r);
+    numUnplannedTasks = r.readInt();
+    numUnestimatedTasks = r.readInt();
+    numUnconfidentTasks = r.readInt();
+    numFailedTasks = r.readInt();
+  }
+
   //DeXMLable members:
   //------------------
 
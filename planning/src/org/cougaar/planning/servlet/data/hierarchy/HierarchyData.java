@@ -27,10 +27,14 @@ package org.cougaar.planning.servlet.data.hierarchy;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.cougaar.planning.servlet.data.binary.BinaryReader;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
+import org.cougaar.planning.servlet.data.binary.Binaryable;
 import org.cougaar.planning.servlet.data.xml.DeXMLable;
 import org.cougaar.planning.servlet.data.xml.UnexpectedXMLException;
 import org.cougaar.planning.servlet.data.xml.XMLWriter;
@@ -42,7 +46,7 @@ import org.xml.sax.Attributes;
  *
  * @since 1/24/01
  **/
-public class HierarchyData implements XMLable, DeXMLable, Serializable{
+public class HierarchyData implements XMLable, DeXMLable, Binaryable, Serializable{
 
   //Variables:
   ////////////
@@ -51,6 +55,12 @@ public class HierarchyData implements XMLable, DeXMLable, Serializable{
 
   public static final String ROOT_ORGID_ATTR = "RootID";
 
+  /**
+   * fromBinary presizes its list for at most this many organizations,
+   * so that a corrupt count can't exhaust the heap
+   **/
+  private static final int MAX_PRESIZE = 4096;
+
   protected String rootOrgID;
   protected List organizations;
 
@@ -103,6 +113,40 @@ public class HierarchyData implements XMLable, DeXMLable, Serializable{
     w.cltagln(NAME_TAG);
   }
 
+  //Binaryable members:
+  //-------------------
+
+  /**
+   * Write this class out in binary format
+   * @param w output BinaryWriter
+   **/
+  public void toBinary(BinaryWriter w) throws IOException{
+    w.writeString(rootOrgID);
+    int n = numOrgs();
+    w.writeUnsignedInt(n);
+    for(int i=0;i<n;i++)
+      getOrgDataAt(i).toBinary(w);
+  }
+
+  /**
+   * Read this class in from binary format
+   * @param r input BinaryReader
+   **/
+  public void fromBinary(BinaryReader r) throws IOException{
+    rootOrgID=r.readString();
+    int n = r.readUnsignedInt();
+    if (n < 0) {
+      throw new StreamCorruptedException("Bad organization count "+n);
+    }
+    // already unique, so skip addOrgData's check
+    organizations = new ArrayList(Math.min(n, MAX_PRESIZE));
+    for(int i=0;i<n;i++){
+      Organization org = new Organization();
+      org.fromBinary(r);
+      organizations.add(org);
+    }
+  }
+
   //DeXMLable members:
   //------------------
 
@@ -30,6 +30,9 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.cougaar.planning.servlet.data.binary.BinaryReader;
+import org.cougaar.planning.servlet.data.binary.BinaryWriter;
+import org.cougaar.planning.servlet.data.binary.Binaryable;
 import org.cougaar.planning.servlet.data.xml.DeXMLable;
 import org.cougaar.planning.servlet.data.xml.UnexpectedXMLException;
 import org.cougaar.planning.servlet.data.xml.XMLWriter;
@@ -42,7 +45,7 @@ import org.xml.sax.Attributes;
  * @since 1/24/01
  **/
 public class Organization
-  implements XMLable, DeXMLable, Serializable, Comparable{
+  implements XMLable, DeXMLable, Binaryable, Serializable, Comparable{
   
   //Variables:
   ////////////
@@ -142,6 +145,46 @@ public class Organization
     w.cltagln(NAME_TAG);
   }
   
+  //Binaryable members:
+  //-------------------
+  
+  /**
+   * Write this class out in binary format
+   * @param w output BinaryWriter
+   **/
+  public void toBinary(BinaryWriter w) throws IOException{
+    w.writeString(getUID());
+    w.writeString(getPrettyName());
+    int n = getNumRelations();
+    w.writeUnsignedInt(n);
+    for(int i=0;i<n;i++){
+      OrgRelation relation = getOrgRelationAt (i);
+      w.writeString(relation.org);
+      w.writeBoolean(relation.hasName);
+      if (relation.hasName)
+	w.writeString(relation.relationName);
+      else
+	w.writeInt(relation.relation);
+    }
+  }
+  
+  /**
+   * Read this class in from binary format
+   * @param r input BinaryReader
+   **/
+  public void fromBinary(BinaryReader r) throws IOException{
+    setUID(r.readString());
+    setPrettyName(r.readString());
+    int n = r.readUnsignedInt();
+    for(int i=0;i<n;i++){
+      String org = r.readString();
+      if (r.readBoolean())
+	addRelation(org, r.readString());
+      else
+	addRelation(org, r.readInt());
+    }
+  }
+  
   //DeXMLable members:
   //------------------
   
@@ -28,18 +28,33 @@ package org.cougaar.planning.servlet.data.xml;
 import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 
 /**
- * for outputting xml tags
+ * for outputting xml tags.
+ * <p>
+ * Output is collected in an internal char buffer and handed to the
+ * underlying Writer in large blocks, so callers need not wrap it in a
+ * BufferedWriter.  Attribute values and tag data are escaped.  Remember
+ * to call flush() when done.
  *
  * @since 1/24/01
  **/
 public class XMLWriter extends FilterWriter{
 
   //Variables:
+  public static final int BUFFER_SIZE = 8192;
+  protected static final char[] SPACES = new char[64];
+  static {
+    Arrays.fill(SPACES, ' ');
+  }
+
   public boolean prettyPrint = false;
   protected int level=0;
 
+  protected final char[] buf = new char[BUFFER_SIZE];
+  protected int count=0;
+
   //Constructors:
   ///////////////
 
@@ -57,60 +72,132 @@ public class XMLWriter extends FilterWriter{
 
   //Helpers:
 
-  protected void indent() throws IOException{
-    if(prettyPrint){
-    for(int i=0;i<level;i++)
-      out.write(' ');
+  /** Append a single char to the buffer **/
+  protected void emit(char c) throws IOException{
+    if(count==buf.length)
+      drain();
+    buf[count++]=c;
+  }
+
+  /** Append a whole String to the buffer **/
+  protected void emit(String s) throws IOException{
+    emit(s,0,s.length());
+  }
+
+  /** Append the chars of s in [start,end) to the buffer **/
+  protected void emit(String s, int start, int end) throws IOException{
+    int len=end-start;
+    if(len>buf.length-count){
+      drain();
+      if(len>buf.length){
+	out.write(s,start,len);
+	return;
+      }
+    }
+    s.getChars(start,end,buf,count);
+    count+=len;
+  }
+
+  /** 
+   * Append s with XML special characters escaped.  Runs of plain
+   * characters are copied in bulk.
+   **/
+  protected void emitEscaped(String s) throws IOException{
+    if(s==null)
+      return;
+    int len=s.length();
+    int start=0;
+    for(int i=0;i<len;i++){
+      String esc;
+      switch(s.charAt(i)){
+      case '&': esc="&amp;"; break;
+      case '<': esc="&lt;"; break;
+      case '>': esc="&gt;"; break;
+      case '"': esc="&quot;"; break;
+      default: continue;
+      }
+      if(i>start)
+	emit(s,start,i);
+      emit(esc);
+      start=i+1;
     }
+    if(start<len)
+      emit(s,start,len);
   }
 
+  /**
+   * @deprecated Attribute values and tag data now go through
+   * emitEscaped, which writes nothing for null.
+   **/
   protected static String noNull(String s){
     return s==null?"":s;
   }
 
+  /** Write any buffered chars to the underlying Writer **/
+  protected void drain() throws IOException{
+    if(count>0){
+      out.write(buf,0,count);
+      count=0;
+    }
+  }
+
+  protected void indent() throws IOException{
+    if(prettyPrint){
+      int n=level;
+      while(n>0){
+	int c=n<SPACES.length?n:SPACES.length;
+	if(c>buf.length-count)
+	  drain();
+	System.arraycopy(SPACES,0,buf,count,c);
+	count+=c;
+	n-=c;
+      }
+    }
+  }
+
   protected void writeAttr(String attr, String val) throws IOException{
-    out.write(" ");
-    out.write(attr);
-    out.write("=\"");
-    out.write(noNull(val));
-    out.write("\"");
+    emit(' ');
+    emit(attr);
+    emit("=\"");
+    emitEscaped(val);
+    emit('"');
   }
 
   //For External consumption:
 
   public void writeHeader()throws IOException{
-    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    emit("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
   }
 
   //No attrs single tags:
 
   public void sitag(String tag)throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
-    out.write("/>");
+    emit('<');
+    emit(tag);
+    emit("/>");
   }
 
   public void sitagln(String tag)throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
-    out.write("/>\n");
+    emit('<');
+    emit(tag);
+    emit("/>\n");
   }
 
   //One attr single tags:
 
   public void sitag(String tag, String a1, String v1)throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
-    out.write("/>");
+    emit("/>");
   }
 
   public void sitagln(String tag, String a1, String v1)throws IOException{
     sitag(tag,a1,v1);
-    out.write('\n');
+    emit('\n');
   }
 
   //Two attr single tags:
@@ -118,17 +205,17 @@ public class XMLWriter extends FilterWriter{
   public void sitag(String tag, String a1, String v1,
 		    String a2, String v2)throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
-    out.write("/>");
+    emit("/>");
   }
 
   public void sitagln(String tag, String a1, String v1,
 		      String a2, String v2)throws IOException{
     sitag(tag, a1, v1, a2, v2);
-    out.write('\n');
+    emit('\n');
   }
 
   //Three attr single tags:
@@ -137,12 +224,12 @@ public class XMLWriter extends FilterWriter{
 		    String a2, String v2,
 		    String a3, String v3)throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
-    out.write("/>\n");
+    emit("/>\n");
   }
   //4 attr single tags:
 
@@ -152,13 +239,13 @@ public class XMLWriter extends FilterWriter{
 		      String a4, String v4
 		      )throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
     writeAttr(a4,v4);
-    out.write("/>\n");
+    emit("/>\n");
   }
   //5 attr single tags:
 
@@ -169,14 +256,14 @@ public class XMLWriter extends FilterWriter{
 		      String a5, String v5
 		      )throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
     writeAttr(a4,v4);    
     writeAttr(a5,v5);
-    out.write("/>\n");
+    emit("/>\n");
   }
   //6 attr single tags:
 
@@ -188,15 +275,15 @@ public class XMLWriter extends FilterWriter{
 		      String a6, String v6
 		      )throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
     writeAttr(a4,v4);
     writeAttr(a5,v5);
     writeAttr(a6,v6);
-    out.write("/>\n");
+    emit("/>\n");
   }
   //7 attr single tags:
 
@@ -209,8 +296,8 @@ public class XMLWriter extends FilterWriter{
 		      String a7, String v7
 		      )throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -218,7 +305,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a5,v5);
     writeAttr(a6,v6);
     writeAttr(a7,v7);
-    out.write("/>\n");
+    emit("/>\n");
   }
   //8 attr single tags:
 
@@ -232,8 +319,8 @@ public class XMLWriter extends FilterWriter{
 		      String a8, String v8
 		      )throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -242,7 +329,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a6,v6);
     writeAttr(a7,v7);
     writeAttr(a8,v8);
-    out.write("/>\n");
+    emit("/>\n");
   }
   //9 attr single tags:
 
@@ -257,8 +344,8 @@ public class XMLWriter extends FilterWriter{
 		      String a9, String v9
 		      )throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -268,7 +355,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a7,v7);
     writeAttr(a8,v8);
     writeAttr(a9,v9);
-    out.write("/>\n");
+    emit("/>\n");
   }
   //10 attr single tags:
 
@@ -285,8 +372,8 @@ public class XMLWriter extends FilterWriter{
 		      String a10, String v10
 		      )throws IOException{
     indent();
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -297,7 +384,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a8,v8);
     writeAttr(a9,v9);
     writeAttr(a10,v10);
-    out.write("/>\n");
+    emit("/>\n");
   }
 
   //No attrs open and close tags:
@@ -305,50 +392,50 @@ public class XMLWriter extends FilterWriter{
   public void optag(String tag)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
-    out.write('>');
+    emit('<');
+    emit(tag);
+    emit('>');
   }
 
   public void optagln(String tag)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
-    out.write(">\n");
+    emit('<');
+    emit(tag);
+    emit(">\n");
   }
 
   public void cltag(String tag)throws IOException{
     level--;
     indent();
-    out.write("</");
-    out.write(tag);
-    out.write('>');
+    emit("</");
+    emit(tag);
+    emit('>');
   }
 
   public void cltagln(String tag)throws IOException{
     level--;
     indent();
-    out.write("</");
-    out.write(tag);
-    out.write(">\n");
+    emit("</");
+    emit(tag);
+    emit(">\n");
   }
 
   public void cltaglnNI(String tag)throws IOException{
     level--;
-    out.write("</");
-    out.write(tag);
-    out.write(">\n");
+    emit("</");
+    emit(tag);
+    emit(">\n");
   }
 
   //One Attr optagln:
   public void optagln(String tag, String a1, String v1)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //2 Attr optagln:
@@ -356,11 +443,11 @@ public class XMLWriter extends FilterWriter{
 		      String a2, String v2)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //3 Attr optagln:
@@ -369,12 +456,12 @@ public class XMLWriter extends FilterWriter{
 		      String a3, String v3)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //4 Attr optagln:
@@ -384,13 +471,13 @@ public class XMLWriter extends FilterWriter{
 		      String a4, String v4)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
     writeAttr(a4,v4);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //5 Attr optagln:
@@ -401,14 +488,14 @@ public class XMLWriter extends FilterWriter{
 		      String a5, String v5)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
     writeAttr(a4,v4);
     writeAttr(a5,v5);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //6 Attr optagln:
@@ -420,15 +507,15 @@ public class XMLWriter extends FilterWriter{
 		      String a6, String v6)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
     writeAttr(a4,v4);
     writeAttr(a5,v5);
     writeAttr(a6,v6);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //7 Attr optagln:
@@ -441,8 +528,8 @@ public class XMLWriter extends FilterWriter{
 		      String a7, String v7)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -450,7 +537,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a5,v5);
     writeAttr(a6,v6);
     writeAttr(a7,v7);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //8 Attr optagln:
@@ -464,8 +551,8 @@ public class XMLWriter extends FilterWriter{
 		      String a8, String v8)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -474,7 +561,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a6,v6);
     writeAttr(a7,v7);
     writeAttr(a8,v8);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //9 Attr optagln:
@@ -489,8 +576,8 @@ public class XMLWriter extends FilterWriter{
 		      String a9, String v9)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -500,7 +587,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a7,v7);
     writeAttr(a8,v8);
     writeAttr(a9,v9);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //10 Attr optagln:
@@ -516,8 +603,8 @@ public class XMLWriter extends FilterWriter{
 		      String a10, String v10)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -528,7 +615,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a8,v8);
     writeAttr(a9,v9);
     writeAttr(a10,v10);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //11 Attr optagln:
@@ -545,8 +632,8 @@ public class XMLWriter extends FilterWriter{
 		      String a11, String v11)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -558,7 +645,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a9,v9);
     writeAttr(a10,v10);
     writeAttr(a11,v11);
-    out.write(">\n");
+    emit(">\n");
   }
 
 
@@ -577,8 +664,8 @@ public class XMLWriter extends FilterWriter{
 		      String a12, String v12)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -591,7 +678,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a10,v10);
     writeAttr(a11,v11);
     writeAttr(a12,v12);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //13 Attr optagln:
@@ -610,8 +697,8 @@ public class XMLWriter extends FilterWriter{
 		      String a13, String v13)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -625,7 +712,7 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a11,v11);
     writeAttr(a12,v12);
     writeAttr(a13,v13);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //14 Attr optagln:
@@ -645,8 +732,8 @@ public class XMLWriter extends FilterWriter{
 		      String a14, String v14)throws IOException{
     indent();
     level++;
-    out.write('<');
-    out.write(tag);
+    emit('<');
+    emit(tag);
     writeAttr(a1,v1);
     writeAttr(a2,v2);
     writeAttr(a3,v3);
@@ -661,14 +748,14 @@ public class XMLWriter extends FilterWriter{
     writeAttr(a12,v12);
     writeAttr(a13,v13);
     writeAttr(a14,v14);
-    out.write(">\n");
+    emit(">\n");
   }
 
   //No Attrs tagln by data:
 
   public void tagln(String tag, String data)throws IOException{
     optag(tag);
-    out.write(noNull(data));
+    emitEscaped(data);
     cltaglnNI(tag);
   }
 
@@ -692,28 +779,38 @@ public class XMLWriter extends FilterWriter{
   //------------------
 
   public void write(int c) throws IOException{
-    out.write(c);
+    emit((char)c);
   }
 
   public void write(char[] cbuf,
 		    int off,
 		    int len)
     throws IOException{
-    out.write(cbuf,off,len);
+    if(len>buf.length-count){
+      drain();
+      if(len>buf.length){
+	out.write(cbuf,off,len);
+	return;
+      }
+    }
+    System.arraycopy(cbuf,off,buf,count,len);
+    count+=len;
   }
 
   public void write(String str,
 		    int off,
 		    int len)
     throws IOException{
-    out.write(str,off,len);
+    emit(str,off,off+len);
   }
 
   public void flush()throws IOException{
+    drain();
     out.flush();
   }
 
   public void close()throws IOException{
+    drain();
     out.close();
   }
 }
@@ -0,0 +1,151 @@
+/*
+ * <copyright>
+ *  
+ *  Copyright 2001-2004 BBNT Solutions, LLC
+ *  under sponsorship of the Defense Advanced Research Projects
+ *  Agency (DARPA).
+ * 
+ *  You can redistribute this software and/or modify it under the
+ *  terms of the Cougaar Open Source License as published on the
+ *  Cougaar Open Source Website (www.cougaar.org).
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ *  OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ *  SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ *  LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ *  DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ *  THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ *  OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *  
+ * </copyright>
+ */
+package org.cougaar.planning.servlet.data.xml;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Point test for XMLWriter.
+ **/
+public class XMLWriterTest{
+
+  /** s escaped one char at a time, to check emitEscaped against **/
+  private static String escape(String s){
+    StringBuffer sb=new StringBuffer();
+    if(s!=null){
+      for(int i=0;i<s.length();i++){
+	char c=s.charAt(i);
+	switch(c){
+	case '&': sb.append("&amp;"); break;
+	case '<': sb.append("&lt;"); break;
+	case '>': sb.append("&gt;"); break;
+	case '"': sb.append("&quot;"); break;
+	default: sb.append(c);
+	}
+      }
+    }
+    return sb.toString();
+  }
+
+  /** Counts the chars and write calls that reach it **/
+  private static class CountingWriter extends Writer{
+    long chars, calls;
+    public void write(char[] cbuf, int off, int len){ calls++; chars+=len; }
+    public void write(int c){ calls++; chars++; }
+    public void write(String s, int off, int len){ calls++; chars+=len; }
+    public void flush(){}
+    public void close(){}
+  }
+
+  /**
+   * Check XMLWriter's escaping and buffering against a plain
+   * StringBuffer version, then time writing a large document.  The
+   * number of elements may be given as an argument.
+   **/
+  public static void main(String[] args) throws IOException{
+    int failures=0;
+
+    // special chars alone, together, in runs, and either side of
+    // the buffer boundary
+    StringBuffer big=new StringBuffer();
+    for(int i=0;i<3*XMLWriter.BUFFER_SIZE;i++)
+      big.append((i%997==0)?'&':(i%1231==0)?'"':(char)('a'+i%26));
+    String[] data={
+      null, "", "plain", "&", "<", ">", "\"", "&<>\"", "a&&b", "<tag attr=\"v\">",
+      "x<", ">x", big.toString(), "&"+big, big+"<",
+    };
+    for(int pad=0;pad<3;pad++){
+      for(int d=0;d<data.length;d++){
+	StringWriter sw=new StringWriter();
+	XMLWriter w=new XMLWriter(sw);
+	StringBuffer expected=new StringBuffer();
+	// shift the data across the buffer boundary
+	int fill=XMLWriter.BUFFER_SIZE-8+pad*4;
+	for(int i=0;i<fill;i++){
+	  w.write('.');
+	  expected.append('.');
+	}
+	w.tagln("t",data[d]);
+	expected.append("<t>").append(escape(data[d])).append("</t>\n");
+	w.sitagln("s","a",data[d],"b","&");
+	expected.append("<s a=\"").append(escape(data[d])).append("\" b=\"&amp;\"/>\n");
+	w.flush();
+	if(!sw.toString().equals(expected.toString())){
+	  failures++;
+	  String v=String.valueOf(data[d]);
+	  System.out.println("wrong output for \""+
+			     (v.length()>20?v.substring(0,20)+"...":v)+
+			     "\" after "+fill+" chars");
+	}
+      }
+    }
+
+    // indentation deeper than SPACES
+    StringWriter sw=new StringWriter();
+    XMLWriter w=new XMLWriter(sw,true);
+    StringBuffer expected=new StringBuffer();
+    for(int i=0;i<150;i++){
+      w.optagln("n");
+      for(int j=0;j<i;j++) expected.append(' ');
+      expected.append("<n>\n");
+    }
+    for(int i=149;i>=0;i--){
+      w.cltagln("n");
+      for(int j=0;j<i;j++) expected.append(' ');
+      expected.append("</n>\n");
+    }
+    w.flush();
+    if(!sw.toString().equals(expected.toString())){
+      failures++;
+      System.out.println("wrong indentation");
+    }
+    System.out.println(failures==0?"all passed":failures+" FAILED");
+
+    // a completion-style document
+    int n=(args.length>0)?Integer.parseInt(args[0]):200000;
+    long best=Long.MAX_VALUE;
+    CountingWriter cw=null;
+    for(int r=0;r<5;r++){
+      cw=new CountingWriter();
+      long t0=System.currentTimeMillis();
+      w=new XMLWriter(cw,true);
+      w.writeHeader();
+      w.optagln("tasks","agent","Agent & <Co>");
+      for(int i=0;i<n;i++){
+	w.sitagln("task","uid","Agent/"+i,"parent","Agent/"+(i/8),
+		  "verb",(i%5==0)?"Supply \"spares\"":"Transport");
+	w.tagln("score",i*0.5);
+      }
+      w.cltagln("tasks");
+      w.flush();
+      best=Math.min(best,System.currentTimeMillis()-t0);
+    }
+    System.out.println(n+" elements: "+best+"ms, "+cw.chars+" chars in "+
+		       cw.calls+" writes");
+  }
+}